@@ -56,6 +56,19 @@ public enum PASharedProperties implements PACommonProperties {
     /** Key used when decrypting properties */
     PROPERTIES_CRYPT_KEY("pa.shared.properties.crypt.key", PropertyType.STRING, "activeeon"),
 
+    /* ***************************************************************** */
+    /* ******************* SCRIPT ENGINES PROPERTIES ******************* */
+    /* ***************************************************************** */
+
+    /**
+     * maximum number of idle script engines kept per engine type, 0 to create a new engine for each script execution.
+     * Only the stateless engines are reused, the scripts evaluated by a reused engine are isolated from each other.
+     */
+    SCRIPT_ENGINE_POOL_SIZE("pa.shared.script.engine.pool.size", PropertyType.INTEGER, "0"),
+
+    /** maximum number of compiled scripts kept in memory, 0 to parse the scripts on each execution */
+    SCRIPT_COMPILED_CACHE_SIZE("pa.shared.script.compiled.cache.size", PropertyType.INTEGER, "0"),
+
     /* ***************************************************************** */
     /* ******************* SCHEDULER BACKUP PROPERTIES ******************* */
     /* ***************************************************************** */
@@ -0,0 +1,117 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive.scripting;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.script.Compilable;
+import javax.script.CompiledScript;
+import javax.script.ScriptEngine;
+import javax.script.ScriptEngineFactory;
+import javax.script.ScriptException;
+
+import org.apache.commons.codec.digest.DigestUtils;
+import org.ow2.proactive.core.properties.PASharedProperties;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+
+/**
+ * Keeps the compiled form of the scripts executed by the engines which support compilation, so that a script
+ * which is executed repeatedly (i.e. a selection script evaluated on every node) is parsed only once.
+ * <p>
+ * Scripts are identified by their engine type and the SHA-256 digest of their content. The least recently used
+ * scripts are evicted once the cache is full. A compiled script is evaluated concurrently with the context of
+ * each execution, so only the scripts of the engines which can be used by several threads are cached.
+ * <p>
+ * The cache is disabled when its size is 0.
+ */
+public class CompiledScriptCache {
+
+    private static final CompiledScriptCache instance = new CompiledScriptCache(PASharedProperties.SCRIPT_COMPILED_CACHE_SIZE.getValueAsInt());
+
+    private final Cache<String, CompiledScript> compiledScripts;
+
+    private final AtomicLong hits = new AtomicLong();
+
+    private final AtomicLong misses = new AtomicLong();
+
+    CompiledScriptCache(int size) {
+        // a single segment, so that the least recently used script of the whole cache is evicted
+        this.compiledScripts = size > 0 ? CacheBuilder.newBuilder().concurrencyLevel(1).maximumSize(size).build()
+                                        : null;
+    }
+
+    public static CompiledScriptCache getInstance() {
+        return instance;
+    }
+
+    public boolean isEnabled() {
+        return compiledScripts != null;
+    }
+
+    /**
+     * Get the compiled form of the given script, compiling it with the given engine if needed.
+     *
+     * @param factory factory of the engine
+     * @param engine engine used to compile the script if it is not cached yet
+     * @param script content of the script
+     * @return the compiled script, or null if the cache is disabled or the engine cannot compile scripts
+     * @throws ScriptException if the script cannot be compiled
+     */
+    public CompiledScript getCompiledScript(ScriptEngineFactory factory, ScriptEngine engine, String script)
+            throws ScriptException {
+        if (!isEnabled() || script == null || !(engine instanceof Compilable) ||
+            !ScriptEnginePool.isThreadSafe(factory)) {
+            return null;
+        }
+        String key = factory.getClass().getName() + ':' + DigestUtils.sha256Hex(script);
+        CompiledScript compiledScript = compiledScripts.getIfPresent(key);
+        if (compiledScript != null) {
+            hits.incrementAndGet();
+            return compiledScript;
+        }
+        misses.incrementAndGet();
+        // a script compiled concurrently by several threads is simply compiled several times
+        compiledScript = ((Compilable) engine).compile(script);
+        compiledScripts.put(key, compiledScript);
+        return compiledScript;
+    }
+
+    public long getNumberOfCompiledScripts() {
+        return isEnabled() ? compiledScripts.size() : 0;
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+}
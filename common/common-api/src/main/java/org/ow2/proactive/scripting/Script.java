@@ -39,16 +39,14 @@ import java.net.URL;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.util.Arrays;
-import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 
 import javax.script.Bindings;
+import javax.script.CompiledScript;
 import javax.script.ScriptContext;
 import javax.script.ScriptEngine;
 import javax.script.ScriptEngineFactory;
-import javax.script.ScriptEngineManager;
 
 import org.apache.log4j.Logger;
 import org.objectweb.proactive.annotation.PublicAPI;
@@ -57,6 +55,7 @@ import org.ow2.proactive.utils.BoundedStringWriter;
 import org.ow2.proactive.utils.FileUtils;
 
 import com.google.common.base.Throwables;
+import com.google.common.io.CharStreams;
 
 
 /**
@@ -372,12 +371,23 @@ public abstract class Script<E> implements Serializable {
             }
             return new ScriptResult<>(new Exception(stack));
         }
-        ScriptEngine engine = createScriptEngine();
+        ScriptEngineFactory factory = ScriptEnginePool.getInstance().findFactory(scriptEngineLookupName);
 
-        if (engine == null)
+        if (factory == null)
             return new ScriptResult<>(new Exception("No Script Engine Found for name or extension " +
                                                     scriptEngineLookupName));
 
+        ScriptEngine engine = ScriptEnginePool.getInstance().acquire(factory);
+        try {
+            return execute(factory, engine, aBindings, outputSink, errorSink);
+        } finally {
+            ScriptEnginePool.getInstance().release(factory, engine);
+        }
+    }
+
+    private ScriptResult<E> execute(ScriptEngineFactory factory, ScriptEngine engine, Map<String, Object> aBindings,
+            PrintStream outputSink, PrintStream errorSink) {
+
         // SCHEDULING-1532: redirect script output to a buffer (keep the latest DEFAULT_OUTPUT_MAX_SIZE)
         BoundedStringWriter outputBoundedWriter = new BoundedStringWriter(outputSink, DEFAULT_OUTPUT_MAX_SIZE);
         BoundedStringWriter errorBoundedWriter = new BoundedStringWriter(errorSink, DEFAULT_OUTPUT_MAX_SIZE);
@@ -409,7 +419,7 @@ public abstract class Script<E> implements Serializable {
                 }
             }
             prepareBindings(bindings);
-            Object evalResult = engine.eval(getReader());
+            Object evalResult = eval(factory, engine);
 
             // Add output to the script result
             ScriptResult<E> result = this.getResult(evalResult, bindings);
@@ -434,6 +444,24 @@ public abstract class Script<E> implements Serializable {
         }
     }
 
+    private Object eval(ScriptEngineFactory factory, ScriptEngine engine)
+            throws javax.script.ScriptException, IOException {
+        CompiledScriptCache compiledScriptCache = CompiledScriptCache.getInstance();
+        if (!compiledScriptCache.isEnabled()) {
+            return engine.eval(getReader());
+        }
+        // the subclasses may evaluate another content than the script itself
+        String content;
+        try (Reader reader = getReader()) {
+            content = CharStreams.toString(reader);
+        }
+        CompiledScript compiledScript = compiledScriptCache.getCompiledScript(factory, engine, content);
+        if (compiledScript != null) {
+            return compiledScript.eval(engine.getContext());
+        }
+        return engine.eval(content);
+    }
+
     private void captureOutput(ScriptEngine engine, StringBuilder outputBuffer, ScriptResult<E> result) {
         try {
             engine.getContext().getErrorWriter().flush();
@@ -513,56 +541,16 @@ public abstract class Script<E> implements Serializable {
         return new StringReader(this.script);
     }
 
-    /** The Script Engine used to evaluate the script. */
+    /**
+     * The Script Engine used to evaluate the script.
+     *
+     * @deprecated the engines used by {@link #execute()} are taken from the {@link ScriptEnginePool}, overriding
+     *             this method has no effect on the execution
+     */
+    @Deprecated
     protected ScriptEngine createScriptEngine() {
-
-        Map<ScriptEngine, Integer> scriptEngineCandidates;
-        final boolean findByName = true;
-        scriptEngineCandidates = findScriptEngineCandidates(findByName);
-
-        if (scriptEngineCandidates.isEmpty()) {
-            scriptEngineCandidates = findScriptEngineCandidates(!findByName);
-        }
-
-        return findBestScriptEngine(scriptEngineCandidates);
-    }
-
-    private Map<ScriptEngine, Integer> findScriptEngineCandidates(boolean findByName) {
-        Map<ScriptEngine, Integer> matchPositionPerScriptEngineCandidate = new HashMap<>();
-        int matchPosition;
-        List<String> lookupCriteria;
-
-        for (ScriptEngineFactory factory : new ScriptEngineManager().getEngineFactories()) {
-            matchPosition = 0;
-            if (findByName) {
-                lookupCriteria = factory.getNames();
-            } else {
-                lookupCriteria = factory.getExtensions();
-            }
-
-            for (String criteria : lookupCriteria) {
-                if (criteria.equalsIgnoreCase(scriptEngineLookupName)) {
-                    matchPositionPerScriptEngineCandidate.put(factory.getScriptEngine(), matchPosition);
-                }
-                matchPosition++;
-            }
-        }
-
-        return matchPositionPerScriptEngineCandidate;
-    }
-
-    private ScriptEngine findBestScriptEngine(Map<ScriptEngine, Integer> scriptEngineCandidates) {
-        int minimumMatchingIndex = Integer.MAX_VALUE;
-        ScriptEngine bestScriptEngine = null;
-
-        for (Entry<ScriptEngine, Integer> candidate : scriptEngineCandidates.entrySet()) {
-            if (candidate.getValue() < minimumMatchingIndex) {
-                minimumMatchingIndex = candidate.getValue();
-                bestScriptEngine = candidate.getKey();
-            }
-        }
-
-        return bestScriptEngine;
+        ScriptEngineFactory factory = ScriptEnginePool.getInstance().findFactory(scriptEngineLookupName);
+        return factory != null ? factory.getScriptEngine() : null;
     }
 
     /**
@@ -0,0 +1,208 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive.scripting;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingDeque;
+
+import javax.script.ScriptContext;
+import javax.script.ScriptEngine;
+import javax.script.ScriptEngineFactory;
+import javax.script.ScriptEngineManager;
+import javax.script.SimpleScriptContext;
+
+import org.ow2.proactive.core.properties.PASharedProperties;
+
+
+/**
+ * Keeps the idle script engines of each engine type, so that a script execution does not need to look up the
+ * script engine factories and to instantiate a new engine each time.
+ * <p>
+ * Only the engines whose state is not modified by the scripts they evaluate (their factory declares the
+ * {@code STATELESS} value of the {@code THREADING} parameter) are reused: the functions, classes or global variables
+ * defined by a script would otherwise be visible to the next scripts evaluated by the engine. The context of an
+ * engine is replaced when it is released, thus the bindings of an execution are never visible to the next one.
+ * <p>
+ * The pool is disabled when its size is 0: factories are looked up and engines created for each execution.
+ */
+public class ScriptEnginePool {
+
+    private static final ScriptEnginePool instance = new ScriptEnginePool(PASharedProperties.SCRIPT_ENGINE_POOL_SIZE.getValueAsInt());
+
+    private static final String THREADING = "THREADING";
+
+    private static final String STATELESS = "STATELESS";
+
+    /** maximum number of idle engines per engine type */
+    private final int size;
+
+    /** factories found by script engine lookup name */
+    private final Map<String, ScriptEngineFactory> factories = new ConcurrentHashMap<>();
+
+    /** idle engines by factory class name */
+    private final Map<String, BlockingDeque<ScriptEngine>> idleEngines = new ConcurrentHashMap<>();
+
+    ScriptEnginePool(int size) {
+        this.size = size;
+    }
+
+    public static ScriptEnginePool getInstance() {
+        return instance;
+    }
+
+    public boolean isEnabled() {
+        return size > 0;
+    }
+
+    /**
+     * Find the script engine factory to use for the given name or file extension.
+     *
+     * @param scriptEngineLookupName name or extension of the script engine
+     * @return the best matching factory, or null if there is none
+     */
+    public ScriptEngineFactory findFactory(String scriptEngineLookupName) {
+        if (!isEnabled() || scriptEngineLookupName == null) {
+            return lookupFactory(scriptEngineLookupName);
+        }
+        ScriptEngineFactory factory = factories.get(scriptEngineLookupName);
+        if (factory == null) {
+            // a missing engine is not remembered, it may be added to the classpath later
+            factory = lookupFactory(scriptEngineLookupName);
+            if (factory != null) {
+                factories.put(scriptEngineLookupName, factory);
+            }
+        }
+        return factory;
+    }
+
+    /**
+     * Take an idle engine created by the given factory, or create a new one.
+     */
+    public ScriptEngine acquire(ScriptEngineFactory factory) {
+        if (isReusable(factory)) {
+            BlockingDeque<ScriptEngine> engines = idleEngines.get(factory.getClass().getName());
+            ScriptEngine engine = engines != null ? engines.pollFirst() : null;
+            if (engine != null) {
+                return engine;
+            }
+        }
+        return factory.getScriptEngine();
+    }
+
+    /**
+     * Give back an engine taken with {@link #acquire(ScriptEngineFactory)}, it is kept if the pool is not full.
+     */
+    public void release(ScriptEngineFactory factory, ScriptEngine engine) {
+        if (isReusable(factory)) {
+            // the previous bindings, output and error writers must not be retained nor reused
+            engine.setContext(createContext(engine));
+            idleEngines.computeIfAbsent(factory.getClass().getName(), key -> new LinkedBlockingDeque<>(size))
+                       .offerFirst(engine);
+        }
+    }
+
+    /**
+     * @return the number of idle engines created by the given factory
+     */
+    public int getNumberOfIdleEngines(ScriptEngineFactory factory) {
+        BlockingDeque<ScriptEngine> engines = idleEngines.get(factory.getClass().getName());
+        return engines != null ? engines.size() : 0;
+    }
+
+    static boolean isThreadSafe(ScriptEngineFactory factory) {
+        return factory.getParameter(THREADING) != null;
+    }
+
+    static boolean isStateless(ScriptEngineFactory factory) {
+        return STATELESS.equals(factory.getParameter(THREADING));
+    }
+
+    private boolean isReusable(ScriptEngineFactory factory) {
+        return isEnabled() && isStateless(factory);
+    }
+
+    private static ScriptContext createContext(ScriptEngine engine) {
+        ScriptContext context = new SimpleScriptContext();
+        context.setBindings(engine.createBindings(), ScriptContext.ENGINE_SCOPE);
+        return context;
+    }
+
+    private static ScriptEngineFactory lookupFactory(String scriptEngineLookupName) {
+        final boolean findByName = true;
+        List<ScriptEngineFactory> engineFactories = new ScriptEngineManager().getEngineFactories();
+        Map<ScriptEngineFactory, Integer> candidates = findFactoryCandidates(engineFactories,
+                                                                            scriptEngineLookupName,
+                                                                            findByName);
+        if (candidates.isEmpty()) {
+            candidates = findFactoryCandidates(engineFactories, scriptEngineLookupName, !findByName);
+        }
+        return findBestFactory(candidates);
+    }
+
+    private static Map<ScriptEngineFactory, Integer> findFactoryCandidates(List<ScriptEngineFactory> engineFactories,
+            String scriptEngineLookupName, boolean findByName) {
+        Map<ScriptEngineFactory, Integer> matchPositionPerFactoryCandidate = new HashMap<>();
+        int matchPosition;
+        List<String> lookupCriteria;
+
+        for (ScriptEngineFactory factory : engineFactories) {
+            matchPosition = 0;
+            if (findByName) {
+                lookupCriteria = factory.getNames();
+            } else {
+                lookupCriteria = factory.getExtensions();
+            }
+
+            for (String criteria : lookupCriteria) {
+                if (criteria.equalsIgnoreCase(scriptEngineLookupName)) {
+                    matchPositionPerFactoryCandidate.put(factory, matchPosition);
+                }
+                matchPosition++;
+            }
+        }
+
+        return matchPositionPerFactoryCandidate;
+    }
+
+    private static ScriptEngineFactory findBestFactory(Map<ScriptEngineFactory, Integer> factoryCandidates) {
+        int minimumMatchingIndex = Integer.MAX_VALUE;
+        ScriptEngineFactory bestFactory = null;
+
+        for (Map.Entry<ScriptEngineFactory, Integer> candidate : factoryCandidates.entrySet()) {
+            if (candidate.getValue() < minimumMatchingIndex) {
+                minimumMatchingIndex = candidate.getValue();
+                bestFactory = candidate.getKey();
+            }
+        }
+
+        return bestFactory;
+    }
+
+}
@@ -0,0 +1,236 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive.scripting;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.util.List;
+
+import javax.script.CompiledScript;
+import javax.script.ScriptContext;
+import javax.script.ScriptEngine;
+import javax.script.ScriptEngineFactory;
+
+import org.junit.Test;
+
+
+public class ScriptEnginePoolTest {
+
+    @Test
+    public void testReleasedEngineIsReusedWithNewContext() {
+        ScriptEnginePool pool = new ScriptEnginePool(2);
+        ScriptEngineFactory factory = new StatelessScriptEngineFactory(pool.findFactory("groovy"));
+
+        ScriptEngine engine = pool.acquire(factory);
+        engine.getContext().getBindings(ScriptContext.ENGINE_SCOPE).put("variable", "value");
+        pool.release(factory, engine);
+
+        ScriptEngine reusedEngine = pool.acquire(factory);
+        assertSame(engine, reusedEngine);
+        assertNull(reusedEngine.getContext().getBindings(ScriptContext.ENGINE_SCOPE).get("variable"));
+    }
+
+    @Test
+    public void testNumberOfIdleEnginesIsBounded() {
+        ScriptEnginePool pool = new ScriptEnginePool(2);
+        ScriptEngineFactory factory = new StatelessScriptEngineFactory(pool.findFactory("groovy"));
+
+        ScriptEngine[] engines = { pool.acquire(factory), pool.acquire(factory), pool.acquire(factory) };
+        for (ScriptEngine engine : engines) {
+            pool.release(factory, engine);
+        }
+
+        assertEquals(2, pool.getNumberOfIdleEngines(factory));
+    }
+
+    @Test
+    public void testFactoryIsFoundByExtension() {
+        ScriptEnginePool pool = new ScriptEnginePool(2);
+
+        assertNotNull(pool.findFactory("groovy"));
+        assertSame(pool.findFactory("groovy"), pool.findFactory("groovy"));
+        assertNotNull(pool.findFactory("js"));
+        assertNull(pool.findFactory("mySuperNonExistingScriptEngine"));
+    }
+
+    @Test
+    public void testEnginesAreNotReusedWhenPoolIsDisabled() {
+        ScriptEnginePool pool = new ScriptEnginePool(0);
+        ScriptEngineFactory factory = new StatelessScriptEngineFactory(pool.findFactory("groovy"));
+
+        ScriptEngine engine = pool.acquire(factory);
+        pool.release(factory, engine);
+
+        assertNotSame(engine, pool.acquire(factory));
+        assertEquals(0, pool.getNumberOfIdleEngines(factory));
+    }
+
+    @Test
+    public void testEnginesWhichAreNotThreadSafeAreNotReused() {
+        ScriptEnginePool pool = new ScriptEnginePool(2);
+        // the JavaScript engine does not define the THREADING parameter
+        ScriptEngineFactory factory = pool.findFactory("javascript");
+
+        ScriptEngine engine = pool.acquire(factory);
+        pool.release(factory, engine);
+
+        assertEquals(0, pool.getNumberOfIdleEngines(factory));
+    }
+
+    @Test
+    public void testEnginesWhichAreNotStatelessAreNotReused() throws Exception {
+        ScriptEnginePool pool = new ScriptEnginePool(2);
+        // the Groovy engine can be used by several threads, but keeps the functions defined by the scripts
+        ScriptEngineFactory factory = pool.findFactory("groovy");
+
+        ScriptEngine engine = pool.acquire(factory);
+        engine.eval("def defineFunction() { 42 }");
+        pool.release(factory, engine);
+
+        assertEquals(0, pool.getNumberOfIdleEngines(factory));
+        assertNotSame(engine, pool.acquire(factory));
+    }
+
+    @Test
+    public void testCompiledScriptIsCached() throws Exception {
+        CompiledScriptCache cache = new CompiledScriptCache(10);
+        ScriptEngineFactory factory = new ScriptEnginePool(0).findFactory("groovy");
+        ScriptEngine engine = factory.getScriptEngine();
+
+        CompiledScript compiledScript = cache.getCompiledScript(factory, engine, "1 + 1");
+        assertSame(compiledScript, cache.getCompiledScript(factory, engine, "1 + 1"));
+        assertEquals(1, cache.getHits());
+        assertEquals(1, cache.getMisses());
+        assertEquals(2, compiledScript.eval(engine.getContext()));
+        assertEquals(3, cache.getCompiledScript(factory, engine, "1 + 2").eval(engine.getContext()));
+    }
+
+    @Test
+    public void testLeastRecentlyUsedCompiledScriptIsEvicted() throws Exception {
+        CompiledScriptCache cache = new CompiledScriptCache(1);
+        ScriptEngineFactory factory = new ScriptEnginePool(0).findFactory("groovy");
+        ScriptEngine engine = factory.getScriptEngine();
+
+        cache.getCompiledScript(factory, engine, "1 + 1");
+        cache.getCompiledScript(factory, engine, "1 + 2");
+        cache.getCompiledScript(factory, engine, "1 + 1");
+
+        assertEquals(1, cache.getNumberOfCompiledScripts());
+        assertEquals(3, cache.getMisses());
+    }
+
+    @Test
+    public void testScriptsAreNotCompiledWhenCacheIsDisabled() throws Exception {
+        ScriptEngineFactory factory = new ScriptEnginePool(0).findFactory("groovy");
+
+        assertNull(new CompiledScriptCache(0).getCompiledScript(factory, factory.getScriptEngine(), "1 + 1"));
+    }
+
+    @Test(expected = javax.script.ScriptException.class)
+    public void testCompilationErrorIsThrown() throws Exception {
+        CompiledScriptCache cache = new CompiledScriptCache(10);
+        ScriptEngineFactory factory = new ScriptEnginePool(0).findFactory("groovy");
+
+        cache.getCompiledScript(factory, factory.getScriptEngine(), "1 +");
+    }
+
+    /**
+     * A factory declaring that the engines it creates are not modified by the scripts they evaluate
+     */
+    private static final class StatelessScriptEngineFactory implements ScriptEngineFactory {
+
+        private final ScriptEngineFactory factory;
+
+        private StatelessScriptEngineFactory(ScriptEngineFactory factory) {
+            this.factory = factory;
+        }
+
+        @Override
+        public String getEngineName() {
+            return factory.getEngineName();
+        }
+
+        @Override
+        public String getEngineVersion() {
+            return factory.getEngineVersion();
+        }
+
+        @Override
+        public List<String> getExtensions() {
+            return factory.getExtensions();
+        }
+
+        @Override
+        public List<String> getMimeTypes() {
+            return factory.getMimeTypes();
+        }
+
+        @Override
+        public List<String> getNames() {
+            return factory.getNames();
+        }
+
+        @Override
+        public String getLanguageName() {
+            return factory.getLanguageName();
+        }
+
+        @Override
+        public String getLanguageVersion() {
+            return factory.getLanguageVersion();
+        }
+
+        @Override
+        public Object getParameter(String key) {
+            return "THREADING".equals(key) ? "STATELESS" : factory.getParameter(key);
+        }
+
+        @Override
+        public String getMethodCallSyntax(String obj, String m, String... args) {
+            return factory.getMethodCallSyntax(obj, m, args);
+        }
+
+        @Override
+        public String getOutputStatement(String toDisplay) {
+            return factory.getOutputStatement(toDisplay);
+        }
+
+        @Override
+        public String getProgram(String... statements) {
+            return factory.getProgram(statements);
+        }
+
+        @Override
+        public ScriptEngine getScriptEngine() {
+            return factory.getScriptEngine();
+        }
+    }
+
+}
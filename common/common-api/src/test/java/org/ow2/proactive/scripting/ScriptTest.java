@@ -55,7 +55,7 @@ public class ScriptTest {
     public void testScriptCanBeCreatedWithoutScriptEngines_Script_Inlined() throws Exception {
         ScriptForTests script = new ScriptForTests("println toto", "mySuperNonExistingScriptEngine");
 
-        assertNull(script.createScriptEngine());
+        assertNull(ScriptEnginePool.getInstance().findFactory(script.getEngineName()));
 
         ScriptResult<Object> result = script.execute();
 
@@ -66,7 +66,7 @@ public class ScriptTest {
     public void testScriptCanBeCreatedWithoutScriptEngines_Script_File() throws Exception {
         ScriptForTests script = new ScriptForTests(File.createTempFile("script", ".blahblah"));
 
-        assertNull(script.createScriptEngine());
+        assertNull(ScriptEnginePool.getInstance().findFactory(script.getEngineName()));
 
         ScriptResult<Object> result = script.execute();
 
@@ -79,7 +79,7 @@ public class ScriptTest {
                                                    null,
                                                    true);
 
-        assertNull(script.createScriptEngine());
+        assertNull(ScriptEnginePool.getInstance().findFactory(script.getEngineName()));
 
         ScriptResult<Object> result = script.execute();
 
@@ -92,7 +92,7 @@ public class ScriptTest {
                                                    "neverheardofthis",
                                                    true);
 
-        assertNull(script.createScriptEngine());
+        assertNull(ScriptEnginePool.getInstance().findFactory(script.getEngineName()));
 
         ScriptResult<Object> result = script.execute();
 
@@ -153,7 +153,7 @@ public class ScriptTest {
     public void testJavaScriptEngine_Script_Inlined() throws Exception {
         SimpleScript script = new SimpleScript("1+1", "javascript");
 
-        assertNotNull(script.createScriptEngine());
+        assertNotNull(ScriptEnginePool.getInstance().findFactory(script.getEngineName()));
 
         ScriptResult<Object> result = script.execute();
 
@@ -164,7 +164,7 @@ public class ScriptTest {
     public void testJavaScriptEngine_Script_File() throws Exception {
         SimpleScript script = new SimpleScript(File.createTempFile("script", ".js"), new String[0]);
 
-        assertNotNull(script.createScriptEngine());
+        assertNotNull(ScriptEnginePool.getInstance().findFactory(script.getEngineName()));
 
         ScriptResult<Object> result = script.execute();
 
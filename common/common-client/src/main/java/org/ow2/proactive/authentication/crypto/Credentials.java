@@ -45,6 +45,7 @@ import java.security.spec.InvalidKeySpecException;
 import java.security.spec.PKCS8EncodedKeySpec;
 import java.security.spec.X509EncodedKeySpec;
 
+import javax.crypto.SecretKey;
 import javax.crypto.interfaces.DHPublicKey;
 
 import org.apache.commons.codec.binary.Base64;
@@ -522,12 +523,7 @@ public class Credentials implements Serializable {
     public static Credentials createCredentials(final CredData cc, final PublicKey pubKey, final String cipher)
             throws KeyException {
         // serialize clear credentials to byte array
-        byte[] clearCred;
-        try {
-            clearCred = ObjectToByteConverter.ObjectStream.convert(cc);
-        } catch (IOException e1) {
-            throw new KeyException(e1.getMessage());
-        }
+        byte[] clearCred = serialize(cc);
 
         HybridEncryptionUtil.HybridEncryptedData encryptedData = HybridEncryptionUtil.encrypt(pubKey,
                                                                                               cipher,
@@ -539,6 +535,36 @@ public class Credentials implements Serializable {
         return new Credentials(pubKey.getAlgorithm(), size, cipher, encAes, encData);
     }
 
+    /**
+     * Creates new encrypted credentials
+     * <p>
+     * Encrypts the message '<code>credData</code>' using only the symmetric
+     * key of the given session, the encrypted form of this key is stored in
+     * the new Credentials object. Such credentials are decrypted with
+     * {@link #decryptWithSessionKey(PrivateKey)}.
+     *
+     * @param cc the class containing the data to be crypted
+     * @param sessionKey the session key shared with the owner of the private key
+     * @return the Credentials object containing the encrypted data
+     * @throws KeyException encryption failed
+     */
+    public static Credentials createCredentials(final CredData cc, final SessionKey sessionKey) throws KeyException {
+        byte[] encData = HybridEncryptionUtil.encrypt(sessionKey.getKey(), serialize(cc));
+        return new Credentials(sessionKey.getAlgorithm(),
+                               sessionKey.getSize(),
+                               sessionKey.getCipher(),
+                               sessionKey.getEncryptedKey(),
+                               encData);
+    }
+
+    private static byte[] serialize(CredData cc) throws KeyException {
+        try {
+            return ObjectToByteConverter.ObjectStream.convert(cc);
+        } catch (IOException e1) {
+            throw new KeyException(e1.getMessage());
+        }
+    }
+
     /**
      * Decrypts the encapsulated credentials
      *
@@ -564,14 +590,33 @@ public class Credentials implements Serializable {
         byte[] decryptedData = HybridEncryptionUtil.decrypt(privKey,
                                                             this.cipher,
                                                             new HybridEncryptionUtil.HybridEncryptedData(aes, data));
+        return deserialize(decryptedData);
+    }
 
+    /**
+     * Decrypts credentials encrypted with a session key
+     * <p>
+     * The encrypted session key is decrypted with the private key only the first
+     * time it is met by this process, the following credentials of the same session
+     * are decrypted with the symmetric key only.
+     *
+     * @see #createCredentials(CredData, SessionKey)
+     * @param privKey the private key of the owner of the session
+     * @return the credential data containing the clear data:login, password and key
+     * @throws KeyException decryption failure, malformed data
+     */
+    public CredData decryptWithSessionKey(PrivateKey privKey) throws KeyException {
+        SecretKey sessionKey = SessionKey.decryptKey(privKey, this.cipher, aes);
+        return deserialize(HybridEncryptionUtil.decrypt(sessionKey, data));
+    }
+
+    private static CredData deserialize(byte[] decryptedData) throws KeyException {
         // deserialize clear credentials and obtain login & password
         try {
             return (CredData) ByteToObjectConverter.ObjectStream.convert(decryptedData);
         } catch (Exception e) {
             throw new KeyException(e.getMessage());
         }
-
     }
 
     /**
@@ -680,7 +725,7 @@ public class Credentials implements Serializable {
         return new Credentials(pubKey.getAlgorithm(), size, cipher, encAes, encData);
     }
 
-    private static int keySize(PublicKey pubKey) {
+    static int keySize(PublicKey pubKey) {
         int size = -1;
         if (pubKey instanceof RSAPublicKey) {
             size = ((RSAPublicKey) pubKey).getModulus().bitLength();
@@ -57,32 +57,17 @@ public class HybridEncryptionUtil {
 
     public static byte[] decrypt(PrivateKey privateKey, String cipher, HybridEncryptedData encryptedData)
             throws KeyException {
-        byte[] decryptedData;
-        byte[] decryptedSymmetricKey;
-
         // recover clear AES key using the private key
-        try {
-            decryptedSymmetricKey = KeyPairUtil.decrypt(privateKey, cipher, encryptedData.getEncryptedSymmetricKey());
-        } catch (KeyException e) {
-            throw new KeyException("Could not decrypt symmetric key", e);
-        }
+        SecretKey symmetricKey = decryptSymmetricKey(privateKey, cipher, encryptedData.getEncryptedSymmetricKey());
 
         // recover clear credentials using the AES key
-        try {
-            decryptedData = KeyUtil.decrypt(new SecretKeySpec(decryptedSymmetricKey, AES_ALGO),
-                                            AES_CIPHER,
-                                            encryptedData.getEncryptedData());
-        } catch (KeyException e) {
-            throw new KeyException("Could not decrypt data", e);
-        }
-        return decryptedData;
+        return decrypt(symmetricKey, encryptedData.getEncryptedData());
     }
 
     public static HybridEncryptedData encrypt(PublicKey publicKey, String cipher, byte[] message) throws KeyException {
         // generate symmetric key
-        SecretKey aesKey = KeyUtil.generateKey(AES_ALGO, AES_KEYSIZE);
+        SecretKey aesKey = generateSymmetricKey();
 
-        byte[] encData;
         byte[] encAes;
 
         // encrypt AES key with public RSA key
@@ -93,12 +78,54 @@ public class HybridEncryptionUtil {
         }
 
         // encrypt clear credentials with AES key
+        return new HybridEncryptedData(encAes, encrypt(aesKey, message));
+    }
+
+    /**
+     * Generate a new symmetric key, usable with {@link #encrypt(SecretKey, byte[])}
+     */
+    public static SecretKey generateSymmetricKey() {
+        return KeyUtil.generateKey(AES_ALGO, AES_KEYSIZE);
+    }
+
+    /**
+     * Recover a symmetric key encrypted with a public key
+     *
+     * @param privateKey the private key matching the public key used for the encryption
+     * @param cipher cipher used to encrypt the symmetric key
+     * @param encryptedSymmetricKey the encrypted symmetric key
+     * @return the clear symmetric key
+     * @throws KeyException if the key cannot be decrypted
+     */
+    public static SecretKey decryptSymmetricKey(PrivateKey privateKey, String cipher, byte[] encryptedSymmetricKey)
+            throws KeyException {
+        try {
+            return new SecretKeySpec(KeyPairUtil.decrypt(privateKey, cipher, encryptedSymmetricKey), AES_ALGO);
+        } catch (KeyException e) {
+            throw new KeyException("Could not decrypt symmetric key", e);
+        }
+    }
+
+    /**
+     * Encrypt a message with a symmetric key only
+     */
+    public static byte[] encrypt(SecretKey symmetricKey, byte[] message) throws KeyException {
         try {
-            encData = KeyUtil.encrypt(aesKey, AES_CIPHER, message);
+            return KeyUtil.encrypt(symmetricKey, AES_CIPHER, message);
         } catch (KeyException e) {
             throw new KeyException("Message encryption failed", e);
         }
-        return new HybridEncryptedData(encAes, encData);
+    }
+
+    /**
+     * Decrypt a message with a symmetric key only
+     */
+    public static byte[] decrypt(SecretKey symmetricKey, byte[] encryptedMessage) throws KeyException {
+        try {
+            return KeyUtil.decrypt(symmetricKey, AES_CIPHER, encryptedMessage);
+        } catch (KeyException e) {
+            throw new KeyException("Could not decrypt data", e);
+        }
     }
 
     public static String decryptString(HybridEncryptedData encryptedData, PrivateKey privateKey) throws KeyException {
@@ -0,0 +1,154 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive.authentication.crypto;
+
+import java.nio.ByteBuffer;
+import java.security.KeyException;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import javax.crypto.SecretKey;
+
+
+/**
+ * Symmetric key shared with the owner of a key pair, used to encrypt several credentials for this owner
+ * with a single asymmetric operation.
+ * <p>
+ * The symmetric key is encrypted once with the public key of its owner, the credentials created with
+ * {@link Credentials#createCredentials(CredData, SessionKey)} are then only encrypted with the symmetric key.
+ * On the other side, {@link Credentials#decryptWithSessionKey(PrivateKey)} decrypts the symmetric key once
+ * per process and keeps its clear form in memory for the following credentials.
+ * <p>
+ * Instances are not serializable: the clear key never leaves the process which created or decrypted it.
+ *
+ * @see HybridEncryptionUtil
+ */
+public final class SessionKey {
+
+    private static final String CIPHER = "RSA/ECB/PKCS1Padding";
+
+    /** number of clear session keys kept by a process which decrypts credentials */
+    private static final int DECRYPTED_KEYS_CACHE_SIZE = 16;
+
+    /** clear session keys indexed by their encrypted form, with the private key which decrypted them */
+    private static final Map<ByteBuffer, DecryptedKey> decryptedKeys = Collections.synchronizedMap(new LinkedHashMap<ByteBuffer, DecryptedKey>(DECRYPTED_KEYS_CACHE_SIZE,
+                                                                                                                                                0.75f,
+                                                                                                                                                true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<ByteBuffer, DecryptedKey> eldest) {
+            return size() > DECRYPTED_KEYS_CACHE_SIZE;
+        }
+    });
+
+    private final SecretKey key;
+
+    private final byte[] encryptedKey;
+
+    private final String algorithm;
+
+    private final int size;
+
+    private SessionKey(SecretKey key, byte[] encryptedKey, PublicKey publicKey) {
+        this.key = key;
+        this.encryptedKey = encryptedKey;
+        this.algorithm = publicKey.getAlgorithm();
+        this.size = Credentials.keySize(publicKey);
+    }
+
+    /**
+     * Creates a new session key shared with the owner of the given public key
+     *
+     * @param publicKey public key of the owner of the session
+     * @return the new session key
+     * @throws KeyException if the symmetric key cannot be encrypted with the public key
+     */
+    public static SessionKey create(PublicKey publicKey) throws KeyException {
+        SecretKey key = HybridEncryptionUtil.generateSymmetricKey();
+        byte[] encryptedKey;
+        try {
+            encryptedKey = KeyPairUtil.encrypt(publicKey, CIPHER, key.getEncoded());
+        } catch (KeyException e) {
+            throw new KeyException("Symmetric key encryption failed", e);
+        }
+        return new SessionKey(key, encryptedKey, publicKey);
+    }
+
+    SecretKey getKey() {
+        return key;
+    }
+
+    byte[] getEncryptedKey() {
+        return encryptedKey;
+    }
+
+    String getAlgorithm() {
+        return algorithm;
+    }
+
+    int getSize() {
+        return size;
+    }
+
+    String getCipher() {
+        return CIPHER;
+    }
+
+    /**
+     * Recover the clear form of an encrypted session key, decrypting it only if it is not known by this process yet
+     */
+    static SecretKey decryptKey(PrivateKey privateKey, String cipher, byte[] encryptedKey) throws KeyException {
+        ByteBuffer id = ByteBuffer.wrap(encryptedKey.clone());
+        DecryptedKey decryptedKey = decryptedKeys.get(id);
+        // a cached key is only given to the owner of the private key which decrypted it
+        if (decryptedKey == null || !decryptedKey.privateKey.equals(privateKey)) {
+            decryptedKey = new DecryptedKey(privateKey,
+                                            HybridEncryptionUtil.decryptSymmetricKey(privateKey, cipher, encryptedKey));
+            decryptedKeys.put(id, decryptedKey);
+        }
+        return decryptedKey.key;
+    }
+
+    @Override
+    public String toString() {
+        return "[session " + algorithm + " " + size + "b " + CIPHER + "]";
+    }
+
+    private static final class DecryptedKey {
+
+        private final PrivateKey privateKey;
+
+        private final SecretKey key;
+
+        private DecryptedKey(PrivateKey privateKey, SecretKey key) {
+            this.privateKey = privateKey;
+            this.key = key;
+        }
+    }
+
+}
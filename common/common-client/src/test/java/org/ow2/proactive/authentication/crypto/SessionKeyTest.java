@@ -0,0 +1,61 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive.authentication.crypto;
+
+import static org.junit.Assert.*;
+
+import java.security.KeyException;
+import java.security.KeyPair;
+
+import org.junit.Test;
+
+
+public class SessionKeyTest {
+
+    @Test
+    public void credentials_of_a_session_are_decrypted_with_the_private_key_of_its_owner() throws Exception {
+        KeyPair keyPair = KeyPairUtil.generateKeyPair("RSA", 1024);
+        SessionKey sessionKey = SessionKey.create(keyPair.getPublic());
+
+        for (String login : new String[] { "alice", "bob" }) {
+            Credentials credentials = Credentials.createCredentials(new CredData(login, "pwd"), sessionKey);
+            CredData credData = credentials.decryptWithSessionKey(keyPair.getPrivate());
+            assertEquals(login, credData.getLogin());
+            assertEquals("pwd", credData.getPassword());
+        }
+    }
+
+    @Test(expected = KeyException.class)
+    public void unknown_session_key_cannot_be_decrypted_with_another_private_key() throws Exception {
+        KeyPair keyPair = KeyPairUtil.generateKeyPair("RSA", 1024);
+        KeyPair otherKeyPair = KeyPairUtil.generateKeyPair("RSA", 1024);
+        SessionKey sessionKey = SessionKey.create(keyPair.getPublic());
+
+        Credentials credentials = Credentials.createCredentials(new CredData("alice", "pwd"), sessionKey);
+        credentials.decryptWithSessionKey(otherKeyPair.getPrivate());
+    }
+
+}
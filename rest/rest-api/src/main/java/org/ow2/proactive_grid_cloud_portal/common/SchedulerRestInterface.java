@@ -1780,6 +1780,34 @@ public interface SchedulerRestInterface {
     public String getStatHistory(@HeaderParam("sessionid")
     final String sessionId) throws NotConnectedRestException;
 
+    /**
+     * returns the metrics of the scheduling loop: latencies of its stages, counters of the started, skipped and
+     * retried tasks and sizes of the scheduler queues
+     *
+     * @param sessionId
+     *            the session id associated to this new connection
+     * @return a map containing the scheduling metrics
+     */
+    @GET
+    @Path("stats/scheduling")
+    @Produces("application/json")
+    Map<String, String> getSchedulingMetrics(@HeaderParam("sessionid")
+    final String sessionId) throws NotConnectedRestException, PermissionRestException;
+
+    /**
+     * returns the average and maximum durations, in milliseconds, of the stages of the creation of jobs from
+     * workflows: reading, XML validation, parsing, dependencies and job validation
+     *
+     * @param sessionId
+     *            the session id associated to this new connection
+     * @return a map containing the job creation metrics
+     */
+    @GET
+    @Path("stats/jobcreation")
+    @Produces("application/json")
+    Map<String, String> getJobCreationMetrics(@HeaderParam("sessionid")
+    final String sessionId) throws NotConnectedRestException, PermissionRestException;
+
     /**
      * returns a string containing some data regarding the user's account
      * 
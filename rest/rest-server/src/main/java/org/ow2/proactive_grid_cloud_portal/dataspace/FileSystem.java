@@ -25,10 +25,16 @@
  */
 package org.ow2.proactive_grid_cloud_portal.dataspace;
 
+import java.io.EOFException;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.net.URISyntaxException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.StandardOpenOption;
 import java.util.Collections;
 import java.util.Date;
 import java.util.LinkedList;
@@ -163,6 +169,7 @@ public class FileSystem {
         properties.put(HttpHeaders.LAST_MODIFIED, new Date(fo.getContent().getLastModifiedTime()));
         properties.put(HttpHeaders.CONTENT_TYPE, contentType(fo));
         properties.put(HttpHeaders.CONTENT_LENGTH, fo.getContent().getSize());
+        properties.put("Accept-Ranges", "bytes");
     }
 
     public static List<FileObject> findFiles(FileObject root, List<String> includes, List<String> excludes)
@@ -207,6 +214,95 @@ public class FileSystem {
         }
     }
 
+    /**
+     * Copy a range of bytes of a file to an output stream
+     */
+    public static void copy(FileObject fo, long start, long count, OutputStream os) throws IOException {
+        fo.refresh();
+        Closer closer = Closer.create();
+        closer.register(os);
+        try {
+            InputStream is = fo.getContent().getInputStream();
+            closer.register(is);
+            ByteStreams.skipFully(is, start);
+            long copied = ByteStreams.copy(ByteStreams.limit(is, count), os);
+            if (copied < count) {
+                throw new EOFException("Unexpected end of file " + fo.getName() + " at " + (start + copied));
+            }
+        } catch (IOException ioe) {
+            throw closer.rethrow(ioe);
+        } finally {
+            closer.close();
+        }
+    }
+
+    /**
+     * Copy a range of bytes of a local file to an output stream, through {@link FileChannel#transferTo}
+     * which avoids copying the data in user space buffers when the file system allows it
+     */
+    public static void copy(File file, long start, long count, OutputStream os) throws IOException {
+        copy(FileChannel.open(file.toPath(), StandardOpenOption.READ), start, count, os);
+    }
+
+    /**
+     * Copy a range of bytes of an opened file to an output stream, through {@link FileChannel#transferTo}.
+     * The file channel and the output stream are closed.
+     */
+    public static void copy(FileChannel fileChannel, long start, long count, OutputStream os) throws IOException {
+        Closer closer = Closer.create();
+        closer.register(os);
+        closer.register(fileChannel);
+        try {
+            WritableByteChannel outputChannel = Channels.newChannel(os);
+            long copied = 0;
+            while (copied < count) {
+                long transferred = fileChannel.transferTo(start + copied, count - copied, outputChannel);
+                if (transferred <= 0) {
+                    throw new EOFException("Unexpected end of file at " + (start + copied));
+                }
+                copied += transferred;
+            }
+        } catch (IOException ioe) {
+            throw closer.rethrow(ioe);
+        } finally {
+            closer.close();
+        }
+    }
+
+    /**
+     * Append the content of an input stream to a file
+     *
+     * @return the number of bytes appended
+     */
+    public static long append(InputStream is, FileObject outFile) throws IOException {
+        outFile.refresh();
+        Closer closer = Closer.create();
+        closer.register(is);
+        try {
+            OutputStream os = outFile.getContent().getOutputStream(true);
+            closer.register(os);
+            return ByteStreams.copy(is, os);
+        } catch (IOException ioe) {
+            throw closer.rethrow(ioe);
+        } finally {
+            closer.close();
+        }
+    }
+
+    /**
+     * @return the file of the local file system holding the given file, or null if the file is not local
+     */
+    public static File localFile(FileObject fo) {
+        try {
+            if (!"file".equals(fo.getName().getScheme())) {
+                return null;
+            }
+            return new File(fo.getURL().toURI());
+        } catch (FileSystemException | URISyntaxException | IllegalArgumentException e) {
+            return null;
+        }
+    }
+
     public static boolean isEmpty(FileObject fo) throws FileSystemException {
         fo.refresh();
         FileObject[] children = fo.getChildren();
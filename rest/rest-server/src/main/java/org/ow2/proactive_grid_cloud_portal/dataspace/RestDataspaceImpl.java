@@ -29,10 +29,17 @@ import static com.google.common.base.Preconditions.checkArgument;
 import static org.apache.commons.vfs2.Selectors.SELECT_ALL;
 import static org.apache.commons.vfs2.Selectors.SELECT_SELF;
 
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Date;
 import java.util.List;
+import java.util.concurrent.locks.Lock;
 
 import javax.ws.rs.*;
 import javax.ws.rs.core.HttpHeaders;
@@ -42,6 +49,7 @@ import javax.ws.rs.core.MultivaluedMap;
 import javax.ws.rs.core.Response;
 import javax.ws.rs.core.StreamingOutput;
 
+import org.apache.commons.vfs2.FileContent;
 import org.apache.commons.vfs2.FileObject;
 import org.apache.commons.vfs2.FileSystemException;
 import org.apache.commons.vfs2.FileType;
@@ -53,12 +61,17 @@ import org.ow2.proactive_grid_cloud_portal.common.Session;
 import org.ow2.proactive_grid_cloud_portal.common.SessionStore;
 import org.ow2.proactive_grid_cloud_portal.common.SharedSessionStore;
 import org.ow2.proactive_grid_cloud_portal.dataspace.dto.ListFile;
+import org.ow2.proactive_grid_cloud_portal.dataspace.util.ArchiveCache;
+import org.ow2.proactive_grid_cloud_portal.dataspace.util.ByteRange;
 import org.ow2.proactive_grid_cloud_portal.dataspace.util.VFSZipper;
 import org.ow2.proactive_grid_cloud_portal.scheduler.exception.NotConnectedRestException;
 import org.ow2.proactive_grid_cloud_portal.scheduler.exception.PermissionRestException;
+import org.ow2.proactive_grid_cloud_portal.webapp.PortalConfiguration;
 
 import com.google.common.base.Strings;
 import com.google.common.base.Throwables;
+import com.google.common.io.ByteStreams;
+import com.google.common.util.concurrent.Striped;
 
 
 @Path("/data/")
@@ -70,8 +83,23 @@ public class RestDataspaceImpl {
 
     public static final String GLOBAL = "global";
 
+    /** Header giving the number of bytes already received for a resumable upload */
+    public static final String UPLOAD_OFFSET_HEADER = "x-proactive-ds-upload-offset";
+
+    private static final String ACCEPT_RANGES = "Accept-Ranges";
+
+    private static final String CONTENT_RANGE = "Content-Range";
+
+    private static final String PARTIAL_UPLOAD_SUFFIX = ".upload";
+
+    private static final String UPLOAD_TOTAL_SUFFIX = ".total";
+
     private static SessionStore sessions = SharedSessionStore.getInstance();
 
+    private static ArchiveCache archiveCache = createArchiveCache();
+
+    private static final Striped<Lock> uploadLocks = Striped.lazyWeakLock(64);
+
     /**
      * Upload a file to the specified location in the <i>dataspace</i>. The
      * format of the PUT URI is:
@@ -92,16 +120,39 @@ public class RestDataspaceImpl {
      * contents of the request body will be decoded before being stored.</li>
      * <li>Any file that already exists in the specified location, it will be
      * replaced.</li>
+     * <li>A large file can be uploaded in several chunks, each chunk being sent
+     * with a 'Content-Range' header, e.g. {@code bytes 0-1048575/10485760}.
+     * The chunks are appended to a partial file which replaces the file once
+     * all the bytes are received. A chunk which does not start at the number
+     * of bytes received so far is rejected with a 409 (Conflict) status, and
+     * a chunk starting at 0 restarts the upload. The total size given with
+     * the first chunk cannot change, a chunk giving another total size is
+     * rejected with a 400 (Bad Request) status. Incomplete uploads are
+     * answered with a 202 (Accepted) status. The number of bytes received so
+     * far is given in the 'x-proactive-ds-upload-offset' header of the
+     * responses, and of the HEAD requests on the file, so that an interrupted
+     * upload can be resumed.</li>
      * </ul>
      */
     @PUT
     @Path("/{dataspace}/{path-name:.*}")
     public Response store(@HeaderParam("sessionid") String sessionId, @HeaderParam("Content-Encoding") String encoding,
-            @PathParam("dataspace") String dataspace, @PathParam("path-name") String pathname, InputStream is)
+            @HeaderParam("Content-Range") String contentRange, @PathParam("dataspace") String dataspace,
+            @PathParam("path-name") String pathname, InputStream is)
             throws NotConnectedRestException, PermissionRestException {
         Session session = checkSessionValidity(sessionId);
         try {
             checkPathParams(dataspace, pathname);
+            if (!Strings.isNullOrEmpty(contentRange)) {
+                logger.debug(String.format("Storing chunk %s of file %s in %s",
+                                           contentRange,
+                                           pathname,
+                                           dataspace.toUpperCase()));
+                return storeChunk(resolveFile(session, dataspace, pathname),
+                                  ByteRange.parseContentRange(contentRange),
+                                  encoding,
+                                  is);
+            }
             logger.debug(String.format("Storing file(s) in %s/%s", dataspace.toUpperCase(), pathname));
             writeFile(is, resolveFile(session, dataspace, pathname), encoding);
         } catch (Throwable error) {
@@ -148,7 +199,12 @@ public class RestDataspaceImpl {
      * </ul>
      * </li>
      * <li>If the pathname represents a directory, its contents will be returned
-     * as 'zip' encoded stream.</li>
+     * as 'zip' encoded stream. If the archive cache is enabled, the generated
+     * archives are kept until the content of the directory changes.</li>
+     * <li>If a 'Range' header is given, the requested bytes of the file, or of the
+     * cached archive of the directory, are returned with a 206 (Partial Content)
+     * status. Only single ranges are supported. The range is ignored if the
+     * 'If-Range' header does not match the current version of the file.</li>
      * <li>file names or regular expressions can be used as 'includes' and
      * 'excludes' query parameters, in order to select which files to be
      * returned can be used to select the files returned.</li>
@@ -157,7 +213,8 @@ public class RestDataspaceImpl {
     @GET
     @Path("/{dataspace}/{path-name:.*}")
     public Response retrieve(@HeaderParam("sessionid") String sessionId,
-            @HeaderParam("Accept-Encoding") String encoding, @PathParam("dataspace") String dataspace,
+            @HeaderParam("Accept-Encoding") String encoding, @HeaderParam("Range") String range,
+            @HeaderParam("If-Range") String ifRange, @PathParam("dataspace") String dataspace,
             @PathParam("path-name") String pathname, @QueryParam("comp") String component,
             @QueryParam("includes") List<String> includes, @QueryParam("excludes") List<String> excludes)
             throws NotConnectedRestException, PermissionRestException {
@@ -173,9 +230,15 @@ public class RestDataspaceImpl {
                 return componentResponse(component, fo, includes, excludes);
             }
             if (fo.getType() == FileType.FILE) {
-                if (VFSZipper.isZipFile(fo)) {
+                if (!Strings.isNullOrEmpty(range)) {
+                    logger.debug(String.format("Retrieving range %s of file %s in %s",
+                                               range,
+                                               pathname,
+                                               dataspace.toUpperCase()));
+                    return fileComponentResponse(fo, range, ifRange);
+                } else if (VFSZipper.isZipFile(fo)) {
                     logger.debug(String.format("Retrieving file %s in %s", pathname, dataspace.toUpperCase()));
-                    return fileComponentResponse(fo);
+                    return fileComponentResponse(fo, null, null);
                 } else if (Strings.isNullOrEmpty(encoding) || encoding.contains("*") || encoding.contains("gzip")) {
                     logger.debug(String.format("Retrieving file %s as gzip in %s", pathname, dataspace.toUpperCase()));
                     return gzipComponentResponse(pathname, fo);
@@ -184,12 +247,15 @@ public class RestDataspaceImpl {
                     return zipComponentResponse(fo, null, null);
                 } else {
                     logger.debug(String.format("Retrieving file %s in %s", pathname, dataspace.toUpperCase()));
-                    return fileComponentResponse(fo);
+                    return fileComponentResponse(fo, null, null);
                 }
             } else {
                 // folder
                 if (Strings.isNullOrEmpty(encoding) || encoding.contains("*") || encoding.contains("zip")) {
                     logger.debug(String.format("Retrieving folder %s as zip in %s", pathname, dataspace.toUpperCase()));
+                    if (archiveCache != null) {
+                        return cachedZipComponentResponse(fo, includes, excludes, range, ifRange);
+                    }
                     return zipComponentResponse(fo, includes, excludes);
                 } else {
                     return badRequestRes("Folder retrieval only supported with zip encoding.");
@@ -269,11 +335,20 @@ public class RestDataspaceImpl {
         try {
             checkPathParams(dataspacePath, pathname);
             FileObject fo = resolveFile(session, dataspacePath, pathname);
+            FileObject partialUpload = partialUpload(fo);
             if (!fo.exists()) {
+                if (partialUpload.exists()) {
+                    return Response.status(Response.Status.NOT_FOUND)
+                                   .header(UPLOAD_OFFSET_HEADER, partialUpload.getContent().getSize())
+                                   .build();
+                }
                 return notFoundRes();
             }
             logger.debug(String.format("Retrieving metadata for %s in %s", pathname, dataspacePath));
             MultivaluedMap<String, Object> headers = new MultivaluedHashMap<>(FileSystem.metadata(fo));
+            if (partialUpload.exists()) {
+                headers.putSingle(UPLOAD_OFFSET_HEADER, partialUpload.getContent().getSize());
+            }
             return Response.ok().replaceAll(headers).build();
         } catch (Throwable error) {
             logger.error(String.format("Cannot retrieve metadata for %s in %s.", pathname, dataspacePath.toUpperCase()),
@@ -356,17 +431,230 @@ public class RestDataspaceImpl {
                        .build();
     }
 
-    private Response fileComponentResponse(final FileObject fo) throws FileSystemException {
-        return Response.ok(new StreamingOutput() {
+    private Response fileComponentResponse(final FileObject fo, String range, String ifRange)
+            throws FileSystemException {
+        FileContent content = fo.getContent();
+        long length = content.getSize();
+        long lastModified = content.getLastModifiedTime();
+        String entityTag = "\"" + Long.toHexString(length) + "-" + Long.toHexString(lastModified) + "\"";
+        final File localFile = FileSystem.localFile(fo);
+
+        return rangeResponse(length, lastModified, entityTag, range, ifRange, new RangeWriter() {
+            @Override
+            public void write(long start, long count, OutputStream outputStream) throws IOException {
+                if (localFile != null) {
+                    FileSystem.copy(localFile, start, count, outputStream);
+                } else {
+                    FileSystem.copy(fo, start, count, outputStream);
+                }
+            }
+        }).header(HttpHeaders.CONTENT_TYPE, mediaType(fo)).header(HttpHeaders.CONTENT_ENCODING, "identity").build();
+    }
+
+    private Response cachedZipComponentResponse(FileObject fo, List<String> includes, List<String> excludes,
+            String range, String ifRange) throws IOException {
+        final ArchiveCache.Archive archive = archiveCache.getArchive(fo, FileSystem.findFiles(fo, includes, excludes));
+        try {
+            // the archives are reproducible, their content is identified by the fingerprint of the folder
+            String entityTag = "\"" + archive.getFingerprint() + "\"";
+
+            RangeWriter writer = new RangeWriter() {
+                @Override
+                public void write(long start, long count, OutputStream outputStream) throws IOException {
+                    // closes the archive
+                    FileSystem.copy(archive.getChannel(), start, count, outputStream);
+                }
+            };
+            Response response = rangeResponse(archive.getLength(),
+                                              archive.getLastModified(),
+                                              entityTag,
+                                              range,
+                                              ifRange,
+                                              writer).header(HttpHeaders.CONTENT_TYPE, mediaType(fo))
+                                                     .header(HttpHeaders.CONTENT_ENCODING, "zip")
+                                                     .build();
+            if (!response.hasEntity()) {
+                archive.close();
+            }
+            return response;
+        } catch (IOException | RuntimeException e) {
+            archive.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Build a response sending the whole content, or the requested range of the content when
+     * the If-Range condition, if any, is satisfied.
+     */
+    private Response.ResponseBuilder rangeResponse(long length, long lastModified, String entityTag, String range,
+            String ifRange, final RangeWriter writer) {
+        ByteRange byteRange = null;
+        if (isIfRangeSatisfied(ifRange, entityTag, lastModified)) {
+            byteRange = ByteRange.parseRange(range, length);
+        }
+        if (byteRange != null && !byteRange.isSatisfiable()) {
+            return Response.status(Response.Status.REQUESTED_RANGE_NOT_SATISFIABLE)
+                           .header(CONTENT_RANGE, "bytes */" + length);
+        }
+
+        final long start = byteRange == null ? 0 : byteRange.getStart();
+        final long count = byteRange == null ? length : byteRange.getLength();
+
+        StreamingOutput output = new StreamingOutput() {
             @Override
             public void write(OutputStream outputStream) throws IOException, WebApplicationException {
                 try {
-                    FileSystem.copy(fo, outputStream);
+                    writer.write(start, count, outputStream);
                 } catch (IOException ioe) {
                     throw new WebApplicationException(ioe, Response.Status.INTERNAL_SERVER_ERROR);
                 }
             }
-        }).header(HttpHeaders.CONTENT_TYPE, mediaType(fo)).header(HttpHeaders.CONTENT_ENCODING, "identity").build();
+        };
+
+        Response.ResponseBuilder builder = Response.status(byteRange == null ? Response.Status.OK
+                                                                             : Response.Status.PARTIAL_CONTENT)
+                                                   .entity(output)
+                                                   .header(ACCEPT_RANGES, "bytes")
+                                                   .header(HttpHeaders.ETAG, entityTag)
+                                                   .header(HttpHeaders.LAST_MODIFIED, new Date(lastModified))
+                                                   .header(HttpHeaders.CONTENT_LENGTH, count);
+        if (byteRange != null) {
+            builder.header(CONTENT_RANGE, byteRange.toContentRange());
+        }
+        return builder;
+    }
+
+    /**
+     * A range is only sent if the If-Range header, when present, matches the entity tag or the
+     * modification date of the current version of the file.
+     */
+    private boolean isIfRangeSatisfied(String ifRange, String entityTag, long lastModified) {
+        if (Strings.isNullOrEmpty(ifRange)) {
+            return true;
+        }
+        if (ifRange.startsWith("\"") || ifRange.startsWith("W/")) {
+            // weak entity tags cannot be used for ranges
+            return ifRange.equals(entityTag);
+        }
+        try {
+            long ifRangeSeconds = ZonedDateTime.parse(ifRange, DateTimeFormatter.RFC_1123_DATE_TIME).toEpochSecond();
+            return ifRangeSeconds == lastModified / 1000;
+        } catch (DateTimeParseException e) {
+            return false;
+        }
+    }
+
+    private interface RangeWriter {
+        void write(long start, long count, OutputStream outputStream) throws IOException;
+    }
+
+    /**
+     * Append a chunk of a resumable upload to the partial file, and replace the target file by the
+     * partial file once all the chunks are received
+     */
+    private Response storeChunk(FileObject target, ByteRange range, String encoding, InputStream is)
+            throws IOException {
+        checkArgument(Strings.isNullOrEmpty(encoding) || "identity".equals(encoding),
+                      "Content-Encoding '%s' is not supported for chunked uploads.",
+                      encoding);
+        FileObject partialUpload = partialUpload(target);
+        FileObject uploadTotal = uploadTotal(partialUpload);
+
+        Lock lock = uploadLocks.get(partialUpload.getName().getURI());
+        lock.lock();
+        try {
+            partialUpload.refresh();
+            uploadTotal.refresh();
+            long offset = partialUpload.exists() ? partialUpload.getContent().getSize() : 0;
+
+            if (range.getStart() == 0 && (offset > 0 || uploadTotal.exists())) {
+                logger.debug("Restarting upload of " + target);
+                partialUpload.delete(SELECT_SELF);
+                uploadTotal.delete(SELECT_SELF);
+                offset = 0;
+            }
+            if (range.getStart() != offset) {
+                logger.debug(String.format("Rejecting chunk %s of %s, %d bytes received so far",
+                                           range,
+                                           target,
+                                           offset));
+                return Response.status(Response.Status.CONFLICT).header(UPLOAD_OFFSET_HEADER, offset).build();
+            }
+            if (uploadTotal.exists()) {
+                long expectedTotal = readUploadTotal(uploadTotal);
+                if (expectedTotal != range.getTotal()) {
+                    logger.debug(String.format("Rejecting chunk %s of %s, the total size of the upload is %d",
+                                               range,
+                                               target,
+                                               expectedTotal));
+                    return Response.status(Response.Status.BAD_REQUEST)
+                                   .header(UPLOAD_OFFSET_HEADER, offset)
+                                   .entity(String.format("The total size of the upload is %d, not %d.",
+                                                         expectedTotal,
+                                                         range.getTotal()))
+                                   .build();
+                }
+            } else {
+                // the total size given with the first chunk applies to the whole upload
+                writeUploadTotal(uploadTotal, range.getTotal());
+            }
+            if (!partialUpload.exists()) {
+                partialUpload.createFile();
+            }
+
+            // the bytes received before a failure are kept, the upload can be resumed from them
+            offset += FileSystem.append(ByteStreams.limit(is, range.getLength()), partialUpload);
+
+            if (offset < range.getTotal()) {
+                return Response.status(Response.Status.ACCEPTED).header(UPLOAD_OFFSET_HEADER, offset).build();
+            }
+
+            logger.debug("Upload of " + target + " completed");
+            if (target.exists()) {
+                target.delete(SELECT_SELF);
+            }
+            partialUpload.moveTo(target);
+            uploadTotal.delete(SELECT_SELF);
+            return Response.status(Response.Status.CREATED).header(UPLOAD_OFFSET_HEADER, offset).build();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private FileObject partialUpload(FileObject target) throws FileSystemException {
+        return target.getParent().resolveFile("." + target.getName().getBaseName() + PARTIAL_UPLOAD_SUFFIX);
+    }
+
+    private FileObject uploadTotal(FileObject partialUpload) throws FileSystemException {
+        return partialUpload.getParent().resolveFile(partialUpload.getName().getBaseName() + UPLOAD_TOTAL_SUFFIX);
+    }
+
+    private long readUploadTotal(FileObject uploadTotal) throws IOException {
+        try (InputStream is = uploadTotal.getContent().getInputStream()) {
+            return Long.parseLong(new String(ByteStreams.toByteArray(is), StandardCharsets.UTF_8).trim());
+        } catch (NumberFormatException e) {
+            throw new IOException("Invalid total size of upload in " + uploadTotal, e);
+        }
+    }
+
+    private void writeUploadTotal(FileObject uploadTotal, long total) throws IOException {
+        try (OutputStream os = uploadTotal.getContent().getOutputStream()) {
+            os.write(Long.toString(total).getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    private static ArchiveCache createArchiveCache() {
+        if (!PortalConfiguration.DATASPACE_ARCHIVE_CACHE_ENABLED.getValueAsBoolean()) {
+            return null;
+        }
+        String directory = PortalConfiguration.DATASPACE_ARCHIVE_CACHE_DIR.getValueAsStringOrNull();
+        File cacheDirectory = Strings.isNullOrEmpty(directory) ? new File(System.getProperty("java.io.tmpdir"),
+                                                                          "rest-archive-cache")
+                                                               : new File(PortalConfiguration.getAbsolutePath(directory));
+        long maxSize = PortalConfiguration.DATASPACE_ARCHIVE_CACHE_SIZE.getValueAsLong() * 1024 * 1024;
+        logger.info("Caching dataspace archives in " + cacheDirectory + ", up to " + maxSize + " bytes");
+        return new ArchiveCache(cacheDirectory, maxSize);
     }
 
     private Response deleteDir(FileObject fo, List<String> includes, List<String> excludes) throws FileSystemException {
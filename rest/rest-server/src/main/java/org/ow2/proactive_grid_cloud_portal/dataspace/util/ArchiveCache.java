@@ -0,0 +1,274 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive_grid_cloud_portal.dataspace.util;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileFilter;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.Lock;
+
+import org.apache.commons.vfs2.FileContent;
+import org.apache.commons.vfs2.FileObject;
+import org.apache.commons.vfs2.FileSystemException;
+import org.apache.commons.vfs2.FileType;
+import org.apache.log4j.Logger;
+
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import com.google.common.util.concurrent.Striped;
+
+
+/**
+ * Cache of the zip archives generated when folders are downloaded.
+ * <p>
+ * An archive is identified by a fingerprint of the downloaded folder: its location and the path,
+ * size and modification time of the selected files. An archive is reused as long as none of the
+ * selected files changed, and being a local file, it can be served by ranges. Since the archives are
+ * generated in a reproducible way, two archives with the same fingerprint hold the same bytes.
+ * <p>
+ * The least recently used archives are deleted when the total size of the cache exceeds its maximum size.
+ * The archives are opened before they are returned, so an archive being sent is never lost.
+ */
+public class ArchiveCache {
+
+    private static final Logger logger = Logger.getLogger(ArchiveCache.class);
+
+    private static final String ARCHIVE_EXTENSION = ".zip";
+
+    private static final FileFilter ARCHIVES = new FileFilter() {
+        @Override
+        public boolean accept(File file) {
+            return file.isFile() && file.getName().endsWith(ARCHIVE_EXTENSION);
+        }
+    };
+
+    private final File directory;
+
+    private final long maxSize;
+
+    private final Striped<Lock> locks = Striped.lazyWeakLock(64);
+
+    /** last time each archive was requested, by fingerprint, the modification time is used for the other ones */
+    private final Map<String, Long> lastAccessTimes = new ConcurrentHashMap<>();
+
+    /**
+     * @param directory folder in which the archives are stored
+     * @param maxSize maximum total size of the archives, in bytes
+     */
+    public ArchiveCache(File directory, long maxSize) {
+        this.directory = directory;
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Compute the fingerprint of a folder content.
+     *
+     * @param root the folder
+     * @param files the files of the folder to put in the archive
+     * @return a fingerprint which changes when any of the files changes
+     */
+    public static String fingerprint(FileObject root, List<FileObject> files) throws FileSystemException {
+        List<FileObject> sortedFiles = new ArrayList<>(files);
+        sortedFiles.sort(new Comparator<FileObject>() {
+            @Override
+            public int compare(FileObject f1, FileObject f2) {
+                return f1.getName().getPath().compareTo(f2.getName().getPath());
+            }
+        });
+
+        Hasher hasher = Hashing.sha256().newHasher();
+        hasher.putString(root.getName().getURI(), StandardCharsets.UTF_8);
+        hasher.putInt(sortedFiles.size());
+        for (FileObject file : sortedFiles) {
+            hasher.putString(file.getName().getPath(), StandardCharsets.UTF_8);
+            if (file.getType() == FileType.FILE) {
+                FileContent content = file.getContent();
+                hasher.putLong(content.getSize());
+                hasher.putLong(content.getLastModifiedTime());
+            }
+        }
+        return hasher.hash().toString();
+    }
+
+    /**
+     * Get the archive of the given files, generating it if the cache does not hold it.
+     *
+     * @param root the folder
+     * @param files the files of the folder to put in the archive
+     * @return the opened archive, which must be closed once sent
+     */
+    public Archive getArchive(FileObject root, List<FileObject> files) throws IOException {
+        String fingerprint = fingerprint(root, files);
+        File file = new File(directory, fingerprint + ARCHIVE_EXTENSION);
+        lastAccessTimes.put(fingerprint, System.currentTimeMillis());
+
+        Archive archive;
+        Lock lock = locks.get(fingerprint);
+        lock.lock();
+        try {
+            if (file.isFile()) {
+                logger.debug("Reusing archive " + file + " for " + root.getName().getURI());
+                return new Archive(fingerprint, file);
+            }
+
+            if (!directory.isDirectory() && !directory.mkdirs()) {
+                throw new IOException("Cannot create archive cache folder " + directory);
+            }
+
+            File temporaryArchive = File.createTempFile(fingerprint, ".tmp", directory);
+            try {
+                try (FileOutputStream outputStream = new FileOutputStream(temporaryArchive)) {
+                    VFSZipper.ZIP.zip(root, files, outputStream);
+                }
+                Files.move(temporaryArchive.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            } finally {
+                Files.deleteIfExists(temporaryArchive.toPath());
+            }
+            logger.debug("Generated archive " + file + " for " + root.getName().getURI());
+            archive = new Archive(fingerprint, file);
+        } finally {
+            lock.unlock();
+        }
+
+        evict();
+        return archive;
+    }
+
+    /**
+     * Delete the least recently used archives until the cache size is below its maximum size. The archives
+     * being returned by {@link #getArchive(FileObject, List)} are skipped, the ones already returned are open
+     * and remain readable until they are closed.
+     */
+    private synchronized void evict() {
+        File[] archives = directory.listFiles(ARCHIVES);
+        if (archives == null) {
+            return;
+        }
+        long totalSize = 0;
+        for (File archive : archives) {
+            totalSize += archive.length();
+        }
+        if (totalSize <= maxSize) {
+            return;
+        }
+
+        Arrays.sort(archives, new Comparator<File>() {
+            @Override
+            public int compare(File f1, File f2) {
+                return Long.compare(lastAccessTime(f1), lastAccessTime(f2));
+            }
+        });
+        for (File archive : archives) {
+            if (totalSize <= maxSize) {
+                break;
+            }
+            String fingerprint = fingerprint(archive);
+            Lock lock = locks.get(fingerprint);
+            if (!lock.tryLock()) {
+                continue;
+            }
+            try {
+                long size = archive.length();
+                if (archive.delete()) {
+                    totalSize -= size;
+                    lastAccessTimes.remove(fingerprint);
+                    logger.debug("Deleted archive " + archive + " from the archive cache");
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    private long lastAccessTime(File archive) {
+        Long lastAccessTime = lastAccessTimes.get(fingerprint(archive));
+        return lastAccessTime != null ? lastAccessTime : archive.lastModified();
+    }
+
+    private static String fingerprint(File archive) {
+        String name = archive.getName();
+        return name.substring(0, name.length() - ARCHIVE_EXTENSION.length());
+    }
+
+    /**
+     * An opened archive of the cache.
+     */
+    public static class Archive implements Closeable {
+
+        private final String fingerprint;
+
+        private final long lastModified;
+
+        private final FileChannel channel;
+
+        private Archive(String fingerprint, File file) throws IOException {
+            this.fingerprint = fingerprint;
+            this.lastModified = file.lastModified();
+            this.channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+        }
+
+        /**
+         * @return the fingerprint of the archived files, which identifies the content of the archive
+         */
+        public String getFingerprint() {
+            return fingerprint;
+        }
+
+        /**
+         * @return the generation time of the archive
+         */
+        public long getLastModified() {
+            return lastModified;
+        }
+
+        public long getLength() throws IOException {
+            return channel.size();
+        }
+
+        public FileChannel getChannel() {
+            return channel;
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+
+}
@@ -0,0 +1,165 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive_grid_cloud_portal.dataspace.util;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+
+/**
+ * A range of bytes of a file, as sent in the HTTP {@code Range} header of a download
+ * or in the {@code Content-Range} header of an upload.
+ * <p>
+ * Only single ranges are supported: a request asking for several ranges gets the whole file,
+ * which is allowed by the HTTP specification.
+ */
+public class ByteRange {
+
+    private static final Pattern RANGE = Pattern.compile("^\\s*bytes\\s*=\\s*(\\d*)\\s*-\\s*(\\d*)\\s*$");
+
+    private static final Pattern CONTENT_RANGE = Pattern.compile("^\\s*bytes\\s+(\\d+)\\s*-\\s*(\\d+)\\s*/\\s*(\\d+)\\s*$");
+
+    private final long start;
+
+    private final long end;
+
+    private final long total;
+
+    public ByteRange(long start, long end, long total) {
+        this.start = start;
+        this.end = end;
+        this.total = total;
+    }
+
+    /**
+     * Parse the value of a {@code Range} header.
+     *
+     * @param header the header value, e.g. {@code bytes=0-499}, {@code bytes=500-} or {@code bytes=-500}
+     * @param length the length of the file
+     * @return the requested range, or null if the whole file must be sent (no header, invalid header
+     *         or several ranges). The range is not {@link #isSatisfiable() satisfiable} if it starts
+     *         after the end of the file.
+     */
+    public static ByteRange parseRange(String header, long length) {
+        if (header == null) {
+            return null;
+        }
+        Matcher matcher = RANGE.matcher(header);
+        if (!matcher.matches()) {
+            return null;
+        }
+        String first = matcher.group(1);
+        String last = matcher.group(2);
+        if (first.isEmpty() && last.isEmpty()) {
+            return null;
+        }
+
+        long start;
+        long end;
+        try {
+            if (first.isEmpty()) {
+                // suffix range: the last bytes of the file
+                long suffixLength = Long.parseLong(last);
+                start = suffixLength == 0 ? length : Math.max(0, length - suffixLength);
+                end = length - 1;
+            } else {
+                start = Long.parseLong(first);
+                end = last.isEmpty() ? length - 1 : Math.min(Long.parseLong(last), length - 1);
+                if (!last.isEmpty() && Long.parseLong(last) < start) {
+                    return null;
+                }
+            }
+        } catch (NumberFormatException e) {
+            return null;
+        }
+
+        return new ByteRange(start, end, length);
+    }
+
+    /**
+     * Parse the value of a {@code Content-Range} header.
+     *
+     * @param header the header value, e.g. {@code bytes 0-1048575/10485760}
+     * @return the range, or null if the header is absent
+     * @throws IllegalArgumentException if the header is invalid
+     */
+    public static ByteRange parseContentRange(String header) {
+        if (header == null) {
+            return null;
+        }
+        Matcher matcher = CONTENT_RANGE.matcher(header);
+        if (!matcher.matches()) {
+            throw new IllegalArgumentException("Invalid Content-Range header: " + header);
+        }
+        try {
+            long start = Long.parseLong(matcher.group(1));
+            long end = Long.parseLong(matcher.group(2));
+            long total = Long.parseLong(matcher.group(3));
+            if (end < start || end >= total) {
+                throw new IllegalArgumentException("Invalid Content-Range header: " + header);
+            }
+            return new ByteRange(start, end, total);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid Content-Range header: " + header, e);
+        }
+    }
+
+    /**
+     * @return false if no byte of the file is selected by the range
+     */
+    public boolean isSatisfiable() {
+        return start < total && start <= end;
+    }
+
+    public long getStart() {
+        return start;
+    }
+
+    public long getEnd() {
+        return end;
+    }
+
+    public long getLength() {
+        return end - start + 1;
+    }
+
+    public long getTotal() {
+        return total;
+    }
+
+    /**
+     * @return the value of the {@code Content-Range} header describing this range
+     */
+    public String toContentRange() {
+        return "bytes " + start + "-" + end + "/" + total;
+    }
+
+    @Override
+    public String toString() {
+        return toContentRange();
+    }
+
+}
@@ -33,6 +33,8 @@ import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipInputStream;
@@ -67,6 +69,10 @@ public class VFSZipper {
 
     public static class ZIP {
 
+        /**
+         * Zip the given files of a folder. The archive only depends on the paths, modification times and
+         * contents of the files: the entries are sorted by path and dated with the modification time of their file.
+         */
         public static void zip(FileObject root, List<FileObject> children, OutputStream os) throws IOException {
             checkNotNull(root);
             checkNotNull(children);
@@ -78,12 +84,21 @@ public class VFSZipper {
                 closer.register(zos);
                 if (children.size() == 1) {
                     FileObject ffo = children.get(0);
-                    Zipper.ZIP.writeZipEntry(new ZipEntry(ffo.getName().getBaseName()),
-                                             ffo.getContent().getInputStream(),
-                                             zos);
+                    ZipEntry zipEntry = new ZipEntry(ffo.getName().getBaseName());
+                    zipEntry.setTime(ffo.getContent().getLastModifiedTime());
+                    Zipper.ZIP.writeZipEntry(zipEntry, ffo.getContent().getInputStream(), zos);
                 } else {
-                    for (FileObject ffo : children) {
-                        Zipper.ZIP.writeZipEntry(zipEntry(basePath, ffo), ffo.getContent().getInputStream(), zos);
+                    List<FileObject> sortedChildren = new ArrayList<>(children);
+                    sortedChildren.sort(new Comparator<FileObject>() {
+                        @Override
+                        public int compare(FileObject f1, FileObject f2) {
+                            return f1.getName().getPath().compareTo(f2.getName().getPath());
+                        }
+                    });
+                    for (FileObject ffo : sortedChildren) {
+                        ZipEntry zipEntry = zipEntry(basePath, ffo);
+                        zipEntry.setTime(ffo.getContent().getLastModifiedTime());
+                        Zipper.ZIP.writeZipEntry(zipEntry, ffo.getContent().getInputStream(), zos);
                     }
                 }
             } catch (IOException ioe) {
@@ -1837,6 +1837,20 @@ public class SchedulerStateRest implements SchedulerRestInterface {
                                                "StalledJobsCount", "InErrorJobsCount" });
     }
 
+    @Override
+    public Map<String, String> getSchedulingMetrics(String sessionId)
+            throws NotConnectedRestException, PermissionRestException {
+        SchedulerProxyUserInterface s = checkAccess(sessionId, "stats/scheduling");
+        return s.getMappedInfo("ProActiveScheduler:name=SchedulingMetrics");
+    }
+
+    @Override
+    public Map<String, String> getJobCreationMetrics(String sessionId)
+            throws NotConnectedRestException, PermissionRestException {
+        SchedulerProxyUserInterface s = checkAccess(sessionId, "stats/jobcreation");
+        return s.getMappedInfo("ProActiveScheduler:name=JobCreationMetrics");
+    }
+
     @Override
     public Map<String, String> getStatisticsOnMyAccount(String sessionId) throws RestException {
         SchedulerProxyUserInterface s = checkAccess(sessionId, "stats/myaccount");
@@ -74,7 +74,16 @@ public enum PortalConfiguration implements PACommonProperties {
 
     NOVNC_KEYPASSWORD("novnc.keypassword", PropertyType.STRING, "password"),
 
-    JOBPLANNER_URL("jp.url", PropertyType.STRING, "http://localhost:8080/job-planner/planned_jobs");
+    JOBPLANNER_URL("jp.url", PropertyType.STRING, "http://localhost:8080/job-planner/planned_jobs"),
+
+    /** Keep the zip archives generated for folder downloads until the folder content changes */
+    DATASPACE_ARCHIVE_CACHE_ENABLED("dataspace.archive.cache.enabled", PropertyType.BOOLEAN, "false"),
+
+    /** Folder of the archive cache, defaults to a folder of the temporary directory */
+    DATASPACE_ARCHIVE_CACHE_DIR("dataspace.archive.cache.dir", PropertyType.STRING),
+
+    /** Maximum size of the archive cache, in MB */
+    DATASPACE_ARCHIVE_CACHE_SIZE("dataspace.archive.cache.size", PropertyType.INTEGER, "1024");
 
     public static final String PA_WEB_PROPERTIES_FILEPATH = "pa.web.properties.filepath";
 
@@ -0,0 +1,250 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive_grid_cloud_portal.dataspace;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Collections;
+
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.core.StreamingOutput;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.ow2.proactive.scheduler.common.util.SchedulerProxyUserInterface;
+import org.ow2.proactive_grid_cloud_portal.common.SharedSessionStoreTestUtils;
+
+
+/**
+ * Unit tests related to the resumable uploads and the range requests of {@link RestDataspaceImpl}.
+ */
+public class RestDataspaceImplTest {
+
+    private static final String CONTENT = "0123456789";
+
+    @Rule
+    public TemporaryFolder tempFolder = new TemporaryFolder();
+
+    private RestDataspaceImpl restDataspace;
+
+    private String sessionId;
+
+    private File userSpace;
+
+    @Before
+    public void setUp() throws Exception {
+        userSpace = tempFolder.newFolder("user");
+        File globalSpace = tempFolder.newFolder("global");
+        SchedulerProxyUserInterface scheduler = mock(SchedulerProxyUserInterface.class);
+        when(scheduler.getUserSpaceURIs()).thenReturn(Collections.singletonList(userSpace.toURI().toString()));
+        when(scheduler.getGlobalSpaceURIs()).thenReturn(Collections.singletonList(globalSpace.toURI().toString()));
+        sessionId = SharedSessionStoreTestUtils.createValidSession(scheduler);
+        restDataspace = new RestDataspaceImpl();
+    }
+
+    @Test
+    public void testChunkedUpload() throws Exception {
+        Response response = storeChunk("bytes 0-4/10", "01234");
+        assertThat(response.getStatus()).isEqualTo(Response.Status.ACCEPTED.getStatusCode());
+        assertThat(uploadOffset(response)).isEqualTo("5");
+        assertThat(new File(userSpace, "file.txt").exists()).isFalse();
+
+        response = storeChunk("bytes 5-9/10", "56789");
+        assertThat(response.getStatus()).isEqualTo(Response.Status.CREATED.getStatusCode());
+        assertThat(uploadOffset(response)).isEqualTo("10");
+        assertThat(readFile("file.txt")).isEqualTo(CONTENT);
+        assertThat(userSpace.list()).asList().containsExactly("file.txt");
+    }
+
+    @Test
+    public void testChunkNotStartingAtOffsetIsRejected() throws Exception {
+        storeChunk("bytes 0-4/10", "01234");
+
+        Response response = storeChunk("bytes 7-9/10", "789");
+
+        assertThat(response.getStatus()).isEqualTo(Response.Status.CONFLICT.getStatusCode());
+        assertThat(uploadOffset(response)).isEqualTo("5");
+    }
+
+    @Test
+    public void testChunkWithAnotherTotalIsRejected() throws Exception {
+        storeChunk("bytes 0-4/10", "01234");
+
+        Response response = storeChunk("bytes 5-9/20", "56789");
+
+        assertThat(response.getStatus()).isEqualTo(Response.Status.BAD_REQUEST.getStatusCode());
+        assertThat(uploadOffset(response)).isEqualTo("5");
+
+        // the upload can still be completed with the right total
+        response = storeChunk("bytes 5-9/10", "56789");
+        assertThat(response.getStatus()).isEqualTo(Response.Status.CREATED.getStatusCode());
+        assertThat(readFile("file.txt")).isEqualTo(CONTENT);
+    }
+
+    @Test
+    public void testChunkStartingAtZeroRestartsTheUpload() throws Exception {
+        storeChunk("bytes 0-4/10", "abcde");
+
+        Response response = storeChunk("bytes 0-5/6", "012345");
+
+        assertThat(response.getStatus()).isEqualTo(Response.Status.CREATED.getStatusCode());
+        assertThat(readFile("file.txt")).isEqualTo("012345");
+    }
+
+    @Test
+    public void testHeadGivesUploadOffset() throws Exception {
+        storeChunk("bytes 0-3/10", "0123");
+
+        Response response = restDataspace.metadata(sessionId, "user", "file.txt");
+
+        assertThat(response.getStatus()).isEqualTo(Response.Status.NOT_FOUND.getStatusCode());
+        assertThat(uploadOffset(response)).isEqualTo("4");
+    }
+
+    @Test
+    public void testHeadGivesUploadOffsetOfExistingFile() throws Exception {
+        writeFile("file.txt", "previous");
+        storeChunk("bytes 0-3/10", "0123");
+
+        Response response = restDataspace.metadata(sessionId, "user", "file.txt");
+
+        // the previous version of the file stays available during the upload
+        assertThat(response.getStatus()).isEqualTo(Response.Status.OK.getStatusCode());
+        assertThat(uploadOffset(response)).isEqualTo("4");
+        assertThat(readFile("file.txt")).isEqualTo("previous");
+    }
+
+    @Test
+    public void testRangeRequest() throws Exception {
+        writeFile("file.txt", CONTENT);
+
+        Response response = retrieve("bytes=2-5", null);
+
+        assertThat(response.getStatus()).isEqualTo(Response.Status.PARTIAL_CONTENT.getStatusCode());
+        assertThat(header(response, "Content-Range")).isEqualTo("bytes 2-5/10");
+        assertThat(header(response, HttpHeaders.CONTENT_LENGTH)).isEqualTo("4");
+        assertThat(entity(response)).isEqualTo("2345");
+    }
+
+    @Test
+    public void testUnsatisfiableRangeRequest() throws Exception {
+        writeFile("file.txt", CONTENT);
+
+        Response response = retrieve("bytes=20-30", null);
+
+        assertThat(response.getStatus()).isEqualTo(Response.Status.REQUESTED_RANGE_NOT_SATISFIABLE.getStatusCode());
+        assertThat(header(response, "Content-Range")).isEqualTo("bytes */10");
+        assertThat(response.hasEntity()).isFalse();
+    }
+
+    @Test
+    public void testIfRangeWithEntityTag() throws Exception {
+        writeFile("file.txt", CONTENT);
+        String entityTag = header(retrieve(null, null), HttpHeaders.ETAG);
+
+        Response response = retrieve("bytes=2-5", entityTag);
+        assertThat(response.getStatus()).isEqualTo(Response.Status.PARTIAL_CONTENT.getStatusCode());
+        assertThat(entity(response)).isEqualTo("2345");
+
+        response = retrieve("bytes=2-5", "\"another-version\"");
+        assertThat(response.getStatus()).isEqualTo(Response.Status.OK.getStatusCode());
+        assertThat(entity(response)).isEqualTo(CONTENT);
+
+        response = retrieve("bytes=2-5", "W/" + entityTag);
+        assertThat(response.getStatus()).isEqualTo(Response.Status.OK.getStatusCode());
+    }
+
+    @Test
+    public void testIfRangeWithDate() throws Exception {
+        File file = writeFile("file.txt", CONTENT);
+
+        Response response = retrieve("bytes=2-5", httpDate(file.lastModified()));
+        assertThat(response.getStatus()).isEqualTo(Response.Status.PARTIAL_CONTENT.getStatusCode());
+        assertThat(entity(response)).isEqualTo("2345");
+
+        response = retrieve("bytes=2-5", httpDate(file.lastModified() - 60000));
+        assertThat(response.getStatus()).isEqualTo(Response.Status.OK.getStatusCode());
+        assertThat(entity(response)).isEqualTo(CONTENT);
+    }
+
+    private Response storeChunk(String contentRange, String chunk) throws Exception {
+        return restDataspace.store(sessionId,
+                                   null,
+                                   contentRange,
+                                   "user",
+                                   "file.txt",
+                                   new ByteArrayInputStream(chunk.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private Response retrieve(String range, String ifRange) throws Exception {
+        // the file is a text file, ask for the identity encoding to get its content
+        return restDataspace.retrieve(sessionId, "identity", range, ifRange, "user", "file.txt", null, null, null);
+    }
+
+    private File writeFile(String name, String content) throws Exception {
+        File file = new File(userSpace, name);
+        Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+
+    private String readFile(String name) throws Exception {
+        return new String(Files.readAllBytes(new File(userSpace, name).toPath()), StandardCharsets.UTF_8);
+    }
+
+    private static String uploadOffset(Response response) {
+        return header(response, RestDataspaceImpl.UPLOAD_OFFSET_HEADER);
+    }
+
+    private static String header(Response response, String name) {
+        Object value = response.getMetadata().getFirst(name);
+        return value == null ? null : value.toString();
+    }
+
+    private static String entity(Response response) throws Exception {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        ((StreamingOutput) response.getEntity()).write(outputStream);
+        return new String(outputStream.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    private static String httpDate(long time) {
+        return DateTimeFormatter.RFC_1123_DATE_TIME.format(ZonedDateTime.ofInstant(Instant.ofEpochMilli(time),
+                                                                                  ZoneOffset.UTC));
+    }
+}
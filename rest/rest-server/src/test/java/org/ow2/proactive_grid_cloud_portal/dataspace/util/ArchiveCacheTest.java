@@ -0,0 +1,171 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive_grid_cloud_portal.dataspace.util;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import org.apache.commons.vfs2.FileObject;
+import org.apache.commons.vfs2.FileSystemManager;
+import org.apache.commons.vfs2.VFS;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.ow2.proactive_grid_cloud_portal.dataspace.FileSystem;
+
+import com.google.common.io.Files;
+
+
+/**
+ * Unit tests related to {@link ArchiveCache}.
+ */
+public class ArchiveCacheTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private FileSystemManager fileSystemManager;
+
+    private File folder;
+
+    private File cacheFolder;
+
+    @Before
+    public void setUp() throws IOException {
+        fileSystemManager = VFS.getManager();
+        folder = temporaryFolder.newFolder("folder");
+        cacheFolder = temporaryFolder.newFolder("cache");
+
+        Files.write("a", new File(folder, "a.txt"), StandardCharsets.UTF_8);
+        Files.write("b", new File(folder, "b.txt"), StandardCharsets.UTF_8);
+    }
+
+    @Test
+    public void testArchiveIsReusedWhileTheFolderIsUnchanged() throws IOException, InterruptedException {
+        ArchiveCache archiveCache = new ArchiveCache(cacheFolder, Long.MAX_VALUE);
+
+        String fingerprint;
+        long generationTime;
+        try (ArchiveCache.Archive archive = archiveCache.getArchive(root(), files())) {
+            fingerprint = archive.getFingerprint();
+            generationTime = archive.getLastModified();
+            assertThat(archive.getLength()).isGreaterThan(0L);
+        }
+
+        Thread.sleep(1000);
+        try (ArchiveCache.Archive archive = archiveCache.getArchive(root(), files())) {
+            assertThat(archive.getFingerprint()).isEqualTo(fingerprint);
+            // the reuse does not change the Last-Modified date of the archive
+            assertThat(archive.getLastModified()).isEqualTo(generationTime);
+        }
+        assertThat(cacheFolder.listFiles()).hasLength(1);
+    }
+
+    @Test
+    public void testArchiveIsGeneratedAgainWhenTheFolderChanges() throws IOException {
+        ArchiveCache archiveCache = new ArchiveCache(cacheFolder, Long.MAX_VALUE);
+
+        String fingerprint;
+        try (ArchiveCache.Archive archive = archiveCache.getArchive(root(), files())) {
+            fingerprint = archive.getFingerprint();
+        }
+
+        Files.write("new content", new File(folder, "a.txt"), StandardCharsets.UTF_8);
+
+        try (ArchiveCache.Archive archive = archiveCache.getArchive(root(), files())) {
+            assertThat(archive.getFingerprint()).isNotEqualTo(fingerprint);
+        }
+    }
+
+    @Test
+    public void testArchiveGeneratedAgainHasTheSameBytes() throws IOException, InterruptedException {
+        byte[] content = archiveContent(new ArchiveCache(cacheFolder, Long.MAX_VALUE));
+
+        Thread.sleep(1000);
+        byte[] regeneratedContent = archiveContent(new ArchiveCache(temporaryFolder.newFolder("otherCache"),
+                                                                    Long.MAX_VALUE));
+
+        assertThat(regeneratedContent).isEqualTo(content);
+    }
+
+    @Test
+    public void testLeastRecentlyUsedArchivesAreEvicted() throws IOException {
+        ArchiveCache archiveCache = new ArchiveCache(cacheFolder, 0);
+
+        String first;
+        try (ArchiveCache.Archive archive = archiveCache.getArchive(root(), files())) {
+            first = archive.getFingerprint();
+        }
+        Files.write("c", new File(folder, "c.txt"), StandardCharsets.UTF_8);
+        String second;
+        try (ArchiveCache.Archive archive = archiveCache.getArchive(root(), files())) {
+            second = archive.getFingerprint();
+        }
+
+        assertThat(new File(cacheFolder, first + ".zip").exists()).isFalse();
+        assertThat(new File(cacheFolder, second + ".zip").exists()).isTrue();
+    }
+
+    @Test
+    public void testEvictedArchiveRemainsReadableUntilClosed() throws IOException {
+        ArchiveCache archiveCache = new ArchiveCache(cacheFolder, 0);
+
+        try (ArchiveCache.Archive first = archiveCache.getArchive(root(), files())) {
+            long length = first.getLength();
+            Files.write("c", new File(folder, "c.txt"), StandardCharsets.UTF_8);
+            archiveCache.getArchive(root(), files()).close();
+
+            ByteArrayOutputStream content = new ByteArrayOutputStream();
+            FileSystem.copy(first.getChannel(), 0, length, content);
+            assertThat((long) content.size()).isEqualTo(length);
+        }
+    }
+
+    private byte[] archiveContent(ArchiveCache archiveCache) throws IOException {
+        try (ArchiveCache.Archive archive = archiveCache.getArchive(root(), files())) {
+            ByteArrayOutputStream content = new ByteArrayOutputStream();
+            FileSystem.copy(archive.getChannel(), 0, archive.getLength(), content);
+            return content.toByteArray();
+        }
+    }
+
+    private FileObject root() throws IOException {
+        FileObject root = fileSystemManager.resolveFile(folder.toURI().toString());
+        root.refresh();
+        return root;
+    }
+
+    private List<FileObject> files() throws IOException {
+        return FileSystem.findFiles(root(), null, null);
+    }
+
+}
@@ -0,0 +1,106 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive_grid_cloud_portal.dataspace.util;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import org.junit.Test;
+
+
+/**
+ * Unit tests related to {@link ByteRange}.
+ */
+public class ByteRangeTest {
+
+    @Test
+    public void testParseRange() {
+        ByteRange range = ByteRange.parseRange("bytes=0-499", 1000);
+
+        assertThat(range.getStart()).isEqualTo(0L);
+        assertThat(range.getEnd()).isEqualTo(499L);
+        assertThat(range.getLength()).isEqualTo(500L);
+        assertThat(range.toContentRange()).isEqualTo("bytes 0-499/1000");
+    }
+
+    @Test
+    public void testParseOpenRange() {
+        ByteRange range = ByteRange.parseRange("bytes=500-", 1000);
+
+        assertThat(range.getStart()).isEqualTo(500L);
+        assertThat(range.getEnd()).isEqualTo(999L);
+    }
+
+    @Test
+    public void testParseSuffixRange() {
+        ByteRange range = ByteRange.parseRange("bytes=-100", 1000);
+
+        assertThat(range.getStart()).isEqualTo(900L);
+        assertThat(range.getEnd()).isEqualTo(999L);
+    }
+
+    @Test
+    public void testParseRangeEndingAfterTheFile() {
+        ByteRange range = ByteRange.parseRange("bytes=900-5000", 1000);
+
+        assertThat(range.getEnd()).isEqualTo(999L);
+        assertThat(range.isSatisfiable()).isTrue();
+    }
+
+    @Test
+    public void testParseRangeStartingAfterTheFile() {
+        ByteRange range = ByteRange.parseRange("bytes=1000-", 1000);
+
+        assertThat(range.isSatisfiable()).isFalse();
+    }
+
+    @Test
+    public void testParseUnsupportedRanges() {
+        assertThat(ByteRange.parseRange(null, 1000)).isNull();
+        assertThat(ByteRange.parseRange("bytes=0-10,20-30", 1000)).isNull();
+        assertThat(ByteRange.parseRange("bytes=30-20", 1000)).isNull();
+        assertThat(ByteRange.parseRange("lines=0-10", 1000)).isNull();
+    }
+
+    @Test
+    public void testParseContentRange() {
+        ByteRange range = ByteRange.parseContentRange("bytes 1048576-2097151/10485760");
+
+        assertThat(range.getStart()).isEqualTo(1048576L);
+        assertThat(range.getLength()).isEqualTo(1048576L);
+        assertThat(range.getTotal()).isEqualTo(10485760L);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testParseContentRangeEndingAfterTotal() {
+        ByteRange.parseContentRange("bytes 0-100/100");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testParseInvalidContentRange() {
+        ByteRange.parseContentRange("bytes */100");
+    }
+
+}
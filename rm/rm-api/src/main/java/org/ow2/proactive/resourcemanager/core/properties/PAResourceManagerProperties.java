@@ -60,6 +60,13 @@ public enum PAResourceManagerProperties implements PACommonProperties {
     /** Ping frequency in ms used by node source for keeping a watch on handled nodes */
     RM_NODE_SOURCE_PING_FREQUENCY("pa.rm.node.source.ping.frequency", PropertyType.INTEGER, "45000"),
 
+    /**
+     * If true, node sources only ping the nodes which did not report themselves alive during the last
+     * ping period, and spread these pings over the period. Nodes started by the RMNodeStarter report
+     * themselves alive every proactive.node.ping.delay ms, which should be lower than the ping frequency.
+     */
+    RM_NODE_SOURCE_HEARTBEAT_ENABLED("pa.rm.node.source.heartbeat.enabled", PropertyType.BOOLEAN, "false"),
+
     /** Ping frequency used by resource manager to ping connected clients (in ms) */
     RM_CLIENT_PING_FREQUENCY("pa.rm.client.ping.frequency", PropertyType.INTEGER, "45000"),
 
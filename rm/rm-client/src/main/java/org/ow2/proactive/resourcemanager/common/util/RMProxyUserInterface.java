@@ -417,6 +417,11 @@ public class RMProxyUserInterface extends RMListenerProxy implements ResourceMan
         return target.getNodes(criteria);
     }
 
+    @Override
+    public List<NodeSet> getNodes(List<Criteria> criteriaList) {
+        return target.getNodes(criteriaList);
+    }
+
     @Override
     public List<ScriptResult<Object>> executeScript(String script, String scriptEngine, String targetType,
             Set<String> targets) {
@@ -35,6 +35,8 @@ public class RMJMXBeans {
 
     public static final String MANAGEMENT_MBEAN_NAME = "ProActiveResourceManager:name=Management";
 
+    public static final String DATABASE_BUFFER_MBEAN_NAME = "ProActiveResourceManager:name=DatabaseBuffer";
+
     private RMJMXBeans() {
     }
 }
@@ -444,6 +444,19 @@ public interface ResourceManager {
      */
     NodeSet getNodes(Criteria criteria);
 
+    /**
+     * Finds and books nodes for several criteria in one call.
+     * The criteria are processed in order, against the same snapshot of the free nodes.
+     * Nodes booked for a criteria are not available for the following ones.
+     * A criteria which cannot be satisfied gets an empty node set. If the processing of a criteria fails, the
+     * exception is thrown as by {@link #getNodes(Criteria)} and no node is booked.
+     *
+     * @param criteriaList criteria to select nodes
+     * @see Criteria
+     * @return one list of nodes per criteria, in the same order as the given criteria
+     */
+    List<NodeSet> getNodes(List<Criteria> criteriaList);
+
     /**
      * Releases the node after computations. The specified node is marked as free and become
      * available to other users.
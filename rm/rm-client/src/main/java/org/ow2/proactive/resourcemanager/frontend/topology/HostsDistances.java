@@ -0,0 +1,190 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive.resourcemanager.frontend.topology;
+
+import java.io.Serializable;
+import java.net.InetAddress;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+
+/**
+ *
+ * Distances between hosts, stored in a triangular matrix of primitive longs.
+ * Each host gets an index when it is added, the distance between hosts i &gt; j
+ * is stored at i * (i - 1) / 2 + j. Indexes of removed hosts are reused, so the
+ * matrix only grows with the maximum number of hosts known at the same time.
+ * Distances are symmetrical, unknown distances are Long.MAX_VALUE.
+ *
+ */
+public class HostsDistances implements Serializable {
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    /**
+     * Host -&gt; index in the matrix, iterated in the order hosts were added.
+     */
+    private final LinkedHashMap<InetAddress, Integer> indexes = new LinkedHashMap<>();
+
+    /**
+     * Index -&gt; host, null for free indexes.
+     */
+    private InetAddress[] hosts = new InetAddress[INITIAL_CAPACITY];
+
+    private long[] distances = new long[triangle(INITIAL_CAPACITY)];
+
+    /**
+     * Adds a host with its distances to other hosts.
+     * Distances to hosts which are not known yet are ignored.
+     *
+     * @param host the host to add
+     * @param hostDistances distances to other hosts, can be null
+     * @return the index of the host
+     */
+    public int add(InetAddress host, Map<InetAddress, Long> hostDistances) {
+        remove(host);
+        int index = freeIndex();
+        hosts[index] = host;
+        for (int other = 0; other < hosts.length; other++) {
+            if (other != index) {
+                distances[offset(index, other)] = Long.MAX_VALUE;
+            }
+        }
+        if (hostDistances != null) {
+            for (Map.Entry<InetAddress, Long> hostDistance : hostDistances.entrySet()) {
+                Integer other = indexes.get(hostDistance.getKey());
+                if (other != null && hostDistance.getValue() != null) {
+                    distances[offset(index, other)] = hostDistance.getValue();
+                }
+            }
+        }
+        indexes.put(host, index);
+        return index;
+    }
+
+    /**
+     * Removes a host, its index can be reused by a host added later.
+     *
+     * @param host the host to remove
+     */
+    public void remove(InetAddress host) {
+        Integer index = indexes.remove(host);
+        if (index != null) {
+            hosts[index] = null;
+        }
+    }
+
+    public boolean contains(InetAddress host) {
+        return indexes.containsKey(host);
+    }
+
+    /**
+     * @return the index of the host, or -1 if the host is unknown
+     */
+    public int indexOf(InetAddress host) {
+        Integer index = indexes.get(host);
+        return index == null ? -1 : index;
+    }
+
+    /**
+     * Returns the distance between the hosts of given indexes.
+     * Indexes must belong to known hosts.
+     */
+    public long getDistance(int index, int index2) {
+        if (index == index2) {
+            return 0;
+        }
+        return distances[offset(index, index2)];
+    }
+
+    /**
+     * Returns the distance between 2 hosts, or Long.MAX_VALUE if one of them is unknown.
+     */
+    public long getDistance(InetAddress host, InetAddress host2) {
+        if (host.equals(host2)) {
+            return 0;
+        }
+        Integer index = indexes.get(host);
+        Integer index2 = indexes.get(host2);
+        if (index == null || index2 == null) {
+            return Long.MAX_VALUE;
+        }
+        return distances[offset(index, index2)];
+    }
+
+    /**
+     * Returns the distances from a host to the hosts added before it.
+     *
+     * @return the distances or null if the host is unknown
+     */
+    public HashMap<InetAddress, Long> getDistancesToPreviousHosts(InetAddress host) {
+        Integer index = indexes.get(host);
+        if (index == null) {
+            return null;
+        }
+        HashMap<InetAddress, Long> result = new HashMap<>();
+        for (Map.Entry<InetAddress, Integer> previous : indexes.entrySet()) {
+            if (previous.getKey().equals(host)) {
+                break;
+            }
+            result.put(previous.getKey(), distances[offset(index, previous.getValue())]);
+        }
+        return result;
+    }
+
+    public Set<InetAddress> getHosts() {
+        return Collections.unmodifiableSet(indexes.keySet());
+    }
+
+    public int size() {
+        return indexes.size();
+    }
+
+    private int freeIndex() {
+        for (int index = 0; index < hosts.length; index++) {
+            if (hosts[index] == null) {
+                return index;
+            }
+        }
+        // the layout of the first rows does not depend on the capacity
+        int index = hosts.length;
+        hosts = Arrays.copyOf(hosts, hosts.length * 2);
+        distances = Arrays.copyOf(distances, triangle(hosts.length));
+        return index;
+    }
+
+    private static int triangle(int capacity) {
+        return (int) ((long) capacity * (capacity - 1) / 2);
+    }
+
+    private static int offset(int index, int index2) {
+        return index > index2 ? triangle(index) + index2 : triangle(index2) + index;
+    }
+}
@@ -52,10 +52,9 @@ public class TopologyImpl implements Topology, Cloneable {
 
     /**
      * Host -&gt; Hosts -&gt; Distance
-     * Store here only half of matrix - each host have distances to hosts added before.
-     * Assume that they are symmetrical.
+     * Stored as a triangular matrix indexed by host, distances are assumed to be symmetrical.
      */
-    private HashMap<InetAddress, HashMap<InetAddress, Long>> distances = new HashMap<>();
+    private HostsDistances distances = new HostsDistances();
 
     /**
      * This map is needed to store the dependency between host name and address.
@@ -64,10 +63,6 @@ public class TopologyImpl implements Topology, Cloneable {
      */
     private HashMap<String, InetAddress> hosts = new HashMap<>();
 
-    private Long long0 = new Long(0);
-
-    private Long longMax = new Long(Long.MAX_VALUE);
-
     /**
      * {@inheritDoc}
      */
@@ -81,20 +76,7 @@ public class TopologyImpl implements Topology, Cloneable {
      * {@inheritDoc}
      */
     public Long getDistance(InetAddress host, InetAddress host2) {
-        if (host.equals(host2)) {
-            return long0;
-        } else {
-            HashMap<InetAddress, Long> dhost = distances.get(host);
-            HashMap<InetAddress, Long> dhost2 = distances.get(host2);
-            Long dHostToHost2;
-            Long dHost2ToHost;
-            if (dhost != null && (dHostToHost2 = dhost.get(host2)) != null) {
-                return dHostToHost2;
-            } else if (dhost2 != null && (dHost2ToHost = dhost2.get(host)) != null) {
-                return dHost2ToHost;
-            }
-        }
-        return longMax;
+        return distances.getDistance(host, host2);
     }
 
     /**
@@ -121,7 +103,7 @@ public class TopologyImpl implements Topology, Cloneable {
      * {@inheritDoc}
      */
     public Set<InetAddress> getHosts() {
-        return distances.keySet();
+        return distances.getHosts();
     }
 
     public HashMap<String, InetAddress> getHostsMap() {
@@ -137,7 +119,7 @@ public class TopologyImpl implements Topology, Cloneable {
      * @param hostTopology distances to other hosts
      */
     public void addHostTopology(String hostName, InetAddress hostAddress, HashMap<InetAddress, Long> hostTopology) {
-        distances.put(hostAddress, hostTopology);
+        distances.add(hostAddress, hostTopology);
         hosts.put(hostName, hostAddress);
     }
 
@@ -152,26 +134,40 @@ public class TopologyImpl implements Topology, Cloneable {
     public void removeHostTopology(String hostName, InetAddress hostAddress) {
         distances.remove(hostAddress);
         hosts.remove(hostName);
-        // removing links to "host"
-        for (InetAddress h : distances.keySet()) {
-            if (distances.get(h).containsKey(hostAddress)) {
-                distances.get(h).remove(hostAddress);
-            }
-        }
     }
 
     /**
      * {@inheritDoc}
      */
     public HashMap<InetAddress, Long> getHostTopology(InetAddress hostAddress) {
-        return distances.get(hostAddress);
+        return distances.getDistancesToPreviousHosts(hostAddress);
     }
 
     /**
      * {@inheritDoc}
      */
     public boolean knownHost(InetAddress hostAddress) {
-        return distances.containsKey(hostAddress);
+        return distances.contains(hostAddress);
+    }
+
+    /**
+     * Returns the index of the host in the distances matrix.
+     *
+     * @param hostAddress the address of the host
+     * @return the index of the host, or -1 if the host is unknown
+     */
+    public int getHostIndex(InetAddress hostAddress) {
+        return distances.indexOf(hostAddress);
+    }
+
+    /**
+     * Returns the distance between 2 hosts identified by their index in the distances matrix,
+     * without boxing nor hashing. Used by the clustering of large number of nodes.
+     *
+     * @see #getHostIndex(InetAddress)
+     */
+    public long getDistance(int hostIndex, int hostIndex2) {
+        return distances.getDistance(hostIndex, hostIndex2);
     }
 
     /**
@@ -193,7 +189,14 @@ public class TopologyImpl implements Topology, Cloneable {
         return hac.clusterize(numberOfClusters, hosts.keySet());
     }
 
+    /**
+     * Builds the map of distances, each host having the distances to hosts added before.
+     */
     public HashMap<InetAddress, HashMap<InetAddress, Long>> getDistances() {
-        return distances;
+        HashMap<InetAddress, HashMap<InetAddress, Long>> result = new HashMap<>();
+        for (InetAddress host : distances.getHosts()) {
+            result.put(host, distances.getDistancesToPreviousHosts(host));
+        }
+        return result;
     }
 }
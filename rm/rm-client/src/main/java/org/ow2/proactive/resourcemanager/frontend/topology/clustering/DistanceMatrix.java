@@ -23,39 +23,41 @@
  * If needed, contact us to obtain a release under GPL Version 2 or 3
  * or a different license than the AGPL.
  */
-package org.ow2.proactive.resourcemanager.selection.statistics;
-
-import java.util.Comparator;
-import java.util.HashMap;
-
-import org.ow2.proactive.resourcemanager.rmnode.RMNode;
-
+package org.ow2.proactive.resourcemanager.frontend.topology.clustering;
 
 /**
- * Comparator for {@link RMNode} objects :<BR>
- * compare two nodes by their chances to verify a script.
- * This comparator is used to sort a nodes collection according to results
- * of a {@link org.ow2.proactive.scripting.SelectionScript}.
+ *
+ * Symmetrical matrix of distances between elements identified by their index,
+ * only the lower half is stored in an array of primitive longs.
  *
  */
-public class NodeProbabilityComparator implements Comparator<RMNode> {
+class DistanceMatrix {
+
+    private final int size;
 
-    HashMap<RMNode, Probability> nodes;
+    private final long[] distances;
 
-    public NodeProbabilityComparator(HashMap<RMNode, Probability> nodes) {
-        this.nodes = nodes;
+    DistanceMatrix(int size) {
+        this.size = size;
+        this.distances = new long[(int) ((long) size * (size - 1) / 2)];
     }
 
-    public int compare(RMNode n1, RMNode n2) {
-        // probabilities are always greater than zero, so diff approach can be used
-        // for numbers which can be negative it won't work
-        double diff = nodes.get(n2).value() - nodes.get(n1).value();
-        if (diff < 0)
-            return -1;
-        else if (diff > 0)
-            return 1;
+    int size() {
+        return size;
+    }
+
+    long get(int index, int index2) {
+        return distances[offset(index, index2)];
+    }
 
-        return 0;
+    void set(int index, int index2, long distance) {
+        distances[offset(index, index2)] = distance;
     }
 
+    private static int offset(int index, int index2) {
+        if (index < index2) {
+            return (int) ((long) index2 * (index2 - 1) / 2) + index;
+        }
+        return (int) ((long) index * (index - 1) / 2) + index2;
+    }
 }
@@ -25,9 +25,9 @@
  */
 package org.ow2.proactive.resourcemanager.frontend.topology.clustering;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
-import java.util.HashMap;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
@@ -37,6 +37,7 @@ import org.apache.log4j.Logger;
 import org.objectweb.proactive.core.node.Node;
 import org.ow2.proactive.resourcemanager.frontend.topology.Topology;
 import org.ow2.proactive.resourcemanager.frontend.topology.TopologyException;
+import org.ow2.proactive.resourcemanager.frontend.topology.TopologyImpl;
 import org.ow2.proactive.topology.descriptor.DistanceFunction;
 
 
@@ -46,11 +47,19 @@ import org.ow2.proactive.topology.descriptor.DistanceFunction;
  * For details see
  * http://en.wikipedia.org/wiki/Cluster_analysis#Agglomerative_hierarchical_clustering
  *
+ * The dendrogram is built with the nearest-neighbor chain algorithm in O(n^2) time
+ * on a triangular matrix of distances. Its merges are then replayed from the closest
+ * to the farthest, which is the order the greedy algorithm merges clusters in
+ * for the distance functions provided by {@link org.ow2.proactive.topology.descriptor.BestProximityDescriptor}.
+ * Negative distances mean that elements are not connected, such elements are never merged.
+ *
  */
 public class HAC {
 
     private final static Logger logger = Logger.getLogger(HAC.class);
 
+    private static final long NOT_CONNECTED = -1;
+
     private Topology topology;
 
     private final List<Node> pivot;
@@ -98,108 +107,149 @@ public class HAC {
             return new LinkedList<>();
         }
 
-        // initializing cluster distances map
+        List<Node> nodes = new ArrayList<>(from);
+        for (Node piv : pivot) {
+            if (!nodes.contains(piv))
+                nodes.add(piv);
+        }
+
+        // initializing distances between nodes
         // cluster is a group of nodes, initially each cluster consist of one node
-        logger.debug("Initializing clusters map");
-        HashMap<Cluster<Node>, HashMap<Cluster<Node>, Long>> clusterDistances = initClusterDistances(from);
+        logger.debug("Initializing distances matrix");
+        DistanceMatrix distances = initDistances(nodes);
 
-        // no topology information for provided nodes
-        if (from.size() > 0 && clusterDistances.size() == 0) {
-            throw new TopologyException("Topology information is not available");
+        Cluster<Node> target;
+        if (pivot.size() > 0) {
+            target = selectAroundPivot(number, nodes, distances);
+        } else {
+            target = selectClosest(number, nodes, distances);
         }
 
-        Cluster<Node> target = null;
-        if (pivot.size() > 0) {
-            // fixed orientation clustering
-            Iterator<Node> it = pivot.iterator();
-            Node pivotNode = it.next();
-            target = new Cluster<>(getNodeId(pivotNode), pivotNode);
-            // merging pivot nodes into one cluster and recalculating distances
-            logger.debug("Merging pivot nodes into one cluster");
-            while (it.hasNext()) {
-                // merging clusters and recalculating distances between others
-                pivotNode = it.next();
-                Cluster<Node> pivotCluster = new Cluster<>(getNodeId(pivotNode), pivotNode);
-                target = recalculateDistances(target, pivotCluster, clusterDistances);
+        if (logger.isDebugEnabled()) {
+            logger.debug("Found " + target.size() + " nodes out of " + number + ": " + target);
+        }
+        return target.getElements();
+    }
+
+    /**
+     * Floating clustering: merges the closest clusters until one of them has the desired size.
+     */
+    private Cluster<Node> selectClosest(int number, List<Node> nodes, DistanceMatrix distances) {
+        logger.debug("Begin hierarchical agglomerative clustering");
+        List<Merge> merges = nearestNeighborChain(distances);
+
+        List<Cluster<Node>> singletons = new ArrayList<>(nodes.size());
+        for (Node node : nodes) {
+            singletons.add(new Cluster<>(getNodeId(node), node));
+        }
+        MergeReplay<Node> replay = new MergeReplay<>(singletons);
+
+        Cluster<Node> target = singletons.get(0);
+        Cluster<Node> largest = target;
+        for (Merge merge : merges) {
+            if (merge.distance > threshold) {
+                // there is no clusters close to each other
+                // stop the process
+                break;
+            }
+            // merging clusters
+            target = replay.merge(merge);
+            if (target.size() >= largest.size()) {
+                largest = target;
             }
 
-            // clustering centralized to the pivot
-            logger.debug("Begin centralized hierarchical agglomerative clustering");
-            while (clusterDistances.size() > 1 && target.size() < (number + pivot.size())) {
-                Cluster<Node> closest = findClosestClustersTo(target, clusterDistances);
+            if (target.size() == number) {
+                // found all the nodes we need
+                break;
+            } else if (target.size() > number) {
+                // found more nodes that we need,
+                // target cluster contains all nodes from another cluster
+                // largest is the target here
+
+                logger.debug("Number of node in the cluster exceeded required node number " + target.size() +
+                             " vs " + number);
+
+                Cluster<Node> anotherCluster = replay.getAbsorbed();
+                target.removeLast(anotherCluster.size());
+                final Cluster<Node> finalTarget = target;
+
+                Comparator<Node> nodeDistanceComparator = new Comparator<Node>() {
+                    public int compare(Node n1, Node n2) {
+                        long res = getDistance(n1, finalTarget) - getDistance(n2, finalTarget);
+                        if (res < 0) {
+                            return -1;
+                        } else if (res > 0) {
+                            return 1;
+                        } else {
+                            return 0;
+                        }
+                    }
+                };
+                // sorting nodes in the smaller cluster according to their distances to target
+                Collections.sort(anotherCluster.getElements(), nodeDistanceComparator);
 
-                if (closest == null) {
-                    // no clusters found => cannot merge anything => stop where we are
-                    break;
-                }
-                // merging clusters and recalculating distances between others
-                target = recalculateDistances(target, closest, clusterDistances);
+                int neededNodesNumber = number - target.size();
+                target.add(anotherCluster.getElements().subList(0, neededNodesNumber));
+                break;
             }
+        }
+        return largest;
+    }
 
-            // removing pivot nodes from the result
-            target.remove(pivot);
-        } else {
-            logger.debug("Begin hierarchical agglomerative clustering");
-            target = (Cluster<Node>) clusterDistances.keySet().iterator().next();
-            Cluster<Node> largest = target;
-            // floating clustering
-            while (clusterDistances.size() > 1) {
-                // finding two clusters to merge according
-                Cluster<Node>[] clustersToMerge = findClosestClusters(clusterDistances);
-                if (clustersToMerge == null) {
-                    // there is no clusters close to each other
-                    // stop the process
-                    break;
-                }
-                // merging clusters and recalculating distances between others
-                target = recalculateDistances(clustersToMerge[0], clustersToMerge[1], clusterDistances);
-                if (target.size() >= largest.size()) {
-                    largest = target;
-                }
+    /**
+     * Fixed orientation clustering: only the cluster of pivot nodes grows, so the distances
+     * from this cluster to every node are enough to find the next node to merge.
+     */
+    private Cluster<Node> selectAroundPivot(int number, List<Node> nodes, DistanceMatrix distances) {
+        int size = nodes.size();
+        boolean[] merged = new boolean[size];
+        long[] distancesToTarget = new long[size];
+
+        Iterator<Node> it = pivot.iterator();
+        int targetIndex = nodes.indexOf(it.next());
+        PivotCluster target = new PivotCluster(nodes, targetIndex);
+        merged[targetIndex] = true;
+        int remaining = size - 1;
+        for (int i = 0; i < size; i++) {
+            if (!merged[i]) {
+                distancesToTarget[i] = distances.get(targetIndex, i);
+            }
+        }
 
-                if (target.size() == number) {
-                    // found all the nodes we need
-                    break;
-                } else if (target.size() > number) {
-                    // found more nodes that we need,
-                    // target cluster contains all nodes from another cluster
-                    // largest is the target here
-
-                    logger.debug("Number of node in the cluster exceeded required node number " + target.size() +
-                                 " vs " + number);
-
-                    Cluster<Node> anotherCluster = clustersToMerge[0] == target ? clustersToMerge[1]
-                                                                                : clustersToMerge[0];
-                    target.removeLast(anotherCluster.size());
-                    final Cluster<Node> finalTarget = target;
-
-                    Comparator<Node> nodeDistanceComparator = new Comparator<Node>() {
-                        public int compare(Node n1, Node n2) {
-                            long res = getDistance(n1, finalTarget) - getDistance(n2, finalTarget);
-                            if (res < 0) {
-                                return -1;
-                            } else if (res > 0) {
-                                return 1;
-                            } else {
-                                return 0;
-                            }
-                        }
-                    };
-                    // sorting nodes in the smaller cluster according to their distances to target
-                    Collections.sort(anotherCluster.getElements(), nodeDistanceComparator);
+        // merging pivot nodes into one cluster and recalculating distances
+        logger.debug("Merging pivot nodes into one cluster");
+        while (it.hasNext()) {
+            int pivotIndex = nodes.indexOf(it.next());
+            if (!merged[pivotIndex]) {
+                target.merge(pivotIndex, distances, merged, distancesToTarget);
+                remaining--;
+            }
+        }
 
-                    int neededNodesNumber = number - target.size();
-                    target.add(anotherCluster.getElements().subList(0, neededNodesNumber));
-                    break;
+        // clustering centralized to the pivot
+        logger.debug("Begin centralized hierarchical agglomerative clustering");
+        while (remaining > 0 && target.cluster.size() < (number + pivot.size())) {
+            int closest = -1;
+            long proximity = threshold;
+            for (int i = 0; i < size; i++) {
+                if (!merged[i] && distancesToTarget[i] >= 0 && distancesToTarget[i] <= proximity) {
+                    closest = i;
+                    proximity = distancesToTarget[i];
                 }
             }
-            target = largest;
-        }
 
-        if (logger.isDebugEnabled()) {
-            logger.debug("Found " + target.size() + " nodes out of " + number + ": " + target);
+            if (closest < 0) {
+                // no clusters found => cannot merge anything => stop where we are
+                break;
+            }
+            // merging clusters and recalculating distances between others
+            target.merge(closest, distances, merged, distancesToTarget);
+            remaining--;
         }
-        return target.getElements();
+
+        // removing pivot nodes from the result
+        target.cluster.remove(pivot);
+        return target.cluster;
     }
 
     /**
@@ -209,7 +259,7 @@ public class HAC {
     private long getDistance(Node from, Cluster<Node> to) {
         long globalDistance = 0;
         for (Node n : to.getElements()) {
-            long distance = getDistance(from, n);
+            long distance = distance(from, n);
             globalDistance = distanceFunction.distance(globalDistance, distance);
         }
         return globalDistance;
@@ -219,178 +269,322 @@ public class HAC {
         return topology.getDistance(node, node2);
     }
 
-    private HashMap<Cluster<Node>, HashMap<Cluster<Node>, Long>> initClusterDistances(List<Node> from) {
-        if (pivot.size() > 0) {
-            from = new LinkedList<>(from);
-            for (Node piv : pivot) {
-                if (!from.contains(piv))
-                    from.add(piv);
+    private long distance(Node node, Node node2) {
+        Long distance = getDistance(node, node2);
+        return distance == null ? NOT_CONNECTED : distance;
+    }
+
+    private DistanceMatrix initDistances(List<Node> nodes) {
+        DistanceMatrix distances = new DistanceMatrix(nodes.size());
+        int[] hostIndexes = getHostIndexes(nodes);
+        for (int i = 1; i < nodes.size(); i++) {
+            for (int j = 0; j < i; j++) {
+                if (hostIndexes != null && hostIndexes[i] >= 0 && hostIndexes[j] >= 0) {
+                    distances.set(i, j, ((TopologyImpl) topology).getDistance(hostIndexes[i], hostIndexes[j]));
+                } else {
+                    distances.set(i, j, distance(nodes.get(i), nodes.get(j)));
+                }
             }
         }
+        return distances;
+    }
 
-        HashMap<Cluster<Node>, HashMap<Cluster<Node>, Long>> clusterDistances = new HashMap<>();
-
-        for (Node node : from) {
-            Cluster<Node> newCluster = new Cluster<>(getNodeId(node), node);
-            HashMap<Cluster<Node>, Long> dist = new HashMap<>();
-            for (Cluster<Node> cluster : clusterDistances.keySet()) {
-                dist.put(cluster, getDistance(node, cluster.getElements().get(0)));
-            }
-            clusterDistances.put(newCluster, dist);
+    /**
+     * Resolves the hosts of the nodes once, so that distances are then read
+     * from the topology matrix without hashing. Returns null if the topology
+     * does not index its hosts.
+     */
+    private int[] getHostIndexes(List<Node> nodes) {
+        if (!(topology instanceof TopologyImpl)) {
+            return null;
         }
-        return clusterDistances;
+        int[] hostIndexes = new int[nodes.size()];
+        for (int i = 0; i < nodes.size(); i++) {
+            hostIndexes[i] = ((TopologyImpl) topology).getHostIndex(nodes.get(i).getVMInformation().getInetAddress());
+        }
+        return hostIndexes;
     }
 
-    @SuppressWarnings(value = "unchecked")
-    private <T> Cluster<T>[] findClosestClusters(HashMap<Cluster<T>, HashMap<Cluster<T>, Long>> curDistances) {
+    private String getNodeId(Node node) {
+        if (node.getNodeInformation() == null) {
+            // for test purpose when nodes are imitated
+            return node.toString();
+        } else {
+            return node.getNodeInformation().getURL();
+        }
+    }
 
-        Cluster<T>[] res = null;
-        long proximity = threshold;
+    /**
+     * Builds the dendrogram with the nearest-neighbor chain algorithm.
+     * The distances matrix is updated in place with the distances between merged clusters,
+     * the cluster resulting of a merge keeping the index of one of the merged clusters.
+     *
+     * @return the merges ordered from the closest clusters to the farthest
+     */
+    private List<Merge> nearestNeighborChain(DistanceMatrix distances) {
+        int size = distances.size();
+        List<Merge> merges = new ArrayList<>(Math.max(size - 1, 0));
+        boolean[] active = new boolean[size];
+        int[] sizes = new int[size];
+        for (int i = 0; i < size; i++) {
+            active[i] = true;
+            sizes[i] = 1;
+        }
+        int activeClusters = size;
+        int[] chain = new int[size];
+        int chainSize = 0;
+        int nextStart = 0;
+
+        while (activeClusters > 1) {
+            if (chainSize == 0) {
+                while (!active[nextStart]) {
+                    nextStart++;
+                }
+                chain[chainSize++] = nextStart;
+            }
 
-        for (Cluster<?> a : curDistances.keySet()) {
-            for (Cluster<?> b : curDistances.get(a).keySet()) {
-                if (a.equals(b)) {
+            int current = chain[chainSize - 1];
+            // the previous cluster of the chain is preferred in case of equality, so the chain cannot loop
+            int previous = chainSize > 1 ? chain[chainSize - 2] : -1;
+            int nearest = previous;
+            long proximity = previous >= 0 ? distances.get(current, previous) : 0;
+            for (int i = 0; i < size; i++) {
+                if (!active[i] || i == current) {
                     continue;
                 }
+                long distance = distances.get(current, i);
+                if (distance >= 0 && (nearest < 0 || distance < proximity)) {
+                    nearest = i;
+                    proximity = distance;
+                }
+            }
 
-                Long distance = curDistances.get(a).get(b);
-                if (distance >= 0 && distance <= proximity) {
-                    res = (Cluster<T>[]) new Cluster[] { a, b };
-                    proximity = curDistances.get(a).get(b);
+            if (nearest < 0) {
+                // the cluster is not connected to any other cluster and never will
+                active[current] = false;
+                activeClusters--;
+                chainSize--;
+            } else if (nearest == previous) {
+                chainSize -= 2;
+                int bigger = sizes[current] > sizes[previous] ? current : previous;
+                int smaller = bigger == current ? previous : current;
+                for (int i = 0; i < size; i++) {
+                    if (active[i] && i != current && i != previous) {
+                        long distance = distanceFunction.distance(distances.get(bigger, i), distances.get(smaller, i));
+                        distances.set(bigger, i, distance);
+                    }
                 }
+                active[smaller] = false;
+                activeClusters--;
+                sizes[bigger] += sizes[smaller];
+                merges.add(new Merge(current, previous, proximity));
+            } else {
+                chain[chainSize++] = nearest;
             }
         }
 
-        return res;
+        // the sort is stable so a merge always stays after the merges of its clusters
+        merges.sort(Comparator.comparingLong(merge -> merge.distance));
+        return merges;
     }
 
-    @SuppressWarnings(value = "unchecked")
-    private <T> Cluster<T> findClosestClustersTo(Cluster<T> cluster,
-            HashMap<Cluster<T>, HashMap<Cluster<T>, Long>> curDistances) {
-
-        Cluster<T>[] res = null;
-        long proximity = threshold;
+    public List<Cluster<String>> clusterize(int numberOfClusters, Set<String> hosts) {
 
-        for (Cluster<T> a : curDistances.keySet()) {
-            for (Cluster<T> b : curDistances.get(a).keySet()) {
-                if (a.equals(b) || (!a.equals(cluster) && !b.equals(cluster))) {
-                    continue;
-                }
+        if (numberOfClusters <= 0) {
+            throw new IllegalArgumentException("numberOfClusters must be positive");
+        }
 
-                Long distance = curDistances.get(a).get(b);
-                if (distance >= 0 && distance <= proximity) {
-                    res = (Cluster<T>[]) new Cluster[] { a, b };
-                    proximity = distance;
-                }
+        logger.debug("Initializing distances matrix");
+        List<String> hostList = new ArrayList<>(hosts);
+        DistanceMatrix distances = new DistanceMatrix(hostList.size());
+        for (int i = 1; i < hostList.size(); i++) {
+            for (int j = 0; j < i; j++) {
+                Long distance = topology.getDistance(hostList.get(i), hostList.get(j));
+                distances.set(i, j, distance == null ? NOT_CONNECTED : distance);
             }
         }
 
-        // no closest found
-        if (res == null)
-            return null;
+        List<Cluster<String>> singletons = new ArrayList<>(hostList.size());
+        for (String host : hostList) {
+            singletons.add(new Cluster<>(host, host));
+        }
+        MergeReplay<String> replay = new MergeReplay<>(singletons);
 
-        //return the one that is not 'cluster'
-        return (res[0].equals(cluster)) ? res[1] : res[0];
+        int clusters = hostList.size();
+        for (Merge merge : nearestNeighborChain(distances)) {
+            if (clusters <= numberOfClusters || merge.distance > threshold) {
+                break;
+            }
+            replay.merge(merge);
+            clusters--;
+        }
 
+        return new LinkedList<>(replay.getClusters());
     }
 
-    private String getNodeId(Node node) {
-        if (node.getNodeInformation() == null) {
-            // for test purpose when nodes are imitated
-            return node.toString();
-        } else {
-            return node.getNodeInformation().getURL();
+    /**
+     * Merge of the clusters containing 2 elements, at a given distance.
+     */
+    private static final class Merge {
+
+        private final int element;
+
+        private final int element2;
+
+        private final long distance;
+
+        private Merge(int element, int element2, long distance) {
+            this.element = element;
+            this.element2 = element2;
+            this.distance = distance;
         }
     }
 
     /**
-     * Merges two cluster and recalculates distances to other.
+     * Replays merges on clusters of elements.
      * To achieve better performance new cluster is not created.
-     * Instead the bigger cluster is used as a container for nodes
-     * from smaller one.
+     * Instead the bigger cluster is used as a container for elements
+     * from smaller one. For clusters of the same size the container is
+     * the one which was created or merged first.
      */
-    private <T> Cluster<T> recalculateDistances(Cluster<T> cluster1, Cluster<T> cluster2,
-            HashMap<Cluster<T>, HashMap<Cluster<T>, Long>> curDistances) {
+    private static final class MergeReplay<T> {
 
-        final Cluster<T> biggerCluster = cluster1.size() > cluster2.size() ? cluster1 : cluster2;
-        final Cluster<T> smallerCluster = cluster1.size() > cluster2.size() ? cluster2 : cluster1;
+        private final int[] parents;
 
-        if (logger.isDebugEnabled()) {
-            logger.debug("Recalculating distances");
-            logger.debug("Clusters to merge:\n" + biggerCluster + "\n" + smallerCluster);
-        }
+        private final Cluster<T>[] clusters;
 
-        for (Cluster<T> cluster : curDistances.keySet()) {
-            if (cluster.equals(smallerCluster) || cluster.equals(biggerCluster)) {
-                continue;
-            }
+        private final int[] updates;
 
-            //logger.debug(curDistances);
-            long d0, d1;
-            if (curDistances.get(cluster) != null && curDistances.get(cluster).containsKey(biggerCluster)) {
-                d0 = curDistances.get(cluster).get(biggerCluster);
-            } else {
-                d0 = curDistances.get(biggerCluster).get(cluster);
+        private int lastUpdate;
+
+        private Cluster<T> absorbed;
+
+        @SuppressWarnings(value = "unchecked")
+        private MergeReplay(List<Cluster<T>> singletons) {
+            int size = singletons.size();
+            this.parents = new int[size];
+            this.clusters = (Cluster<T>[]) new Cluster[size];
+            this.updates = new int[size];
+            for (int i = 0; i < size; i++) {
+                parents[i] = i;
+                clusters[i] = singletons.get(i);
+                updates[i] = i;
             }
-            if (curDistances.get(cluster) != null && curDistances.get(cluster).containsKey(smallerCluster)) {
-                d1 = curDistances.get(cluster).get(smallerCluster);
-            } else {
-                d1 = curDistances.get(smallerCluster).get(cluster);
+            this.lastUpdate = size;
+        }
+
+        /**
+         * Merges the clusters of the elements of the merge.
+         *
+         * @return the cluster containing the elements of both clusters
+         */
+        private Cluster<T> merge(Merge merge) {
+            int root = find(merge.element);
+            int root2 = find(merge.element2);
+            Cluster<T> cluster = clusters[root];
+            Cluster<T> cluster2 = clusters[root2];
+            boolean firstIsContainer = cluster.size() > cluster2.size() ||
+                                       (cluster.size() == cluster2.size() && updates[root] < updates[root2]);
+            int container = firstIsContainer ? root : root2;
+            int other = firstIsContainer ? root2 : root;
+
+            if (logger.isDebugEnabled()) {
+                logger.debug("Clusters to merge:\n" + clusters[container] + "\n" + clusters[other]);
             }
 
-            long newDistance = distanceFunction.distance(d0, d1);
-            curDistances.get(biggerCluster).put(cluster, newDistance);
+            absorbed = clusters[other];
+            clusters[container].add(absorbed.getElements());
+            clusters[other] = null;
+            parents[other] = container;
+            updates[container] = lastUpdate++;
 
-            if (curDistances.get(cluster) != null) {
-                curDistances.get(cluster).remove(smallerCluster);
-                curDistances.get(cluster).remove(biggerCluster);
+            if (logger.isDebugEnabled()) {
+                logger.debug(clusters[container] + " size = " + clusters[container].size());
             }
+            return clusters[container];
         }
 
-        biggerCluster.add(smallerCluster.getElements());
-        // we may actually add nodes to another instance of the cluster
-        // so override the key value in the hash
-        curDistances.put(biggerCluster, curDistances.remove(biggerCluster));
+        /**
+         * @return the cluster absorbed by the last merge
+         */
+        private Cluster<T> getAbsorbed() {
+            return absorbed;
+        }
 
-        curDistances.remove(smallerCluster);
-        curDistances.get(biggerCluster).remove(smallerCluster);
+        private List<Cluster<T>> getClusters() {
+            List<Cluster<T>> result = new ArrayList<>();
+            for (Cluster<T> cluster : clusters) {
+                if (cluster != null) {
+                    result.add(cluster);
+                }
+            }
+            return result;
+        }
 
-        if (logger.isDebugEnabled()) {
-            logger.debug(biggerCluster + " size = " + biggerCluster.size());
+        private int find(int element) {
+            int root = element;
+            while (parents[root] != root) {
+                root = parents[root];
+            }
+            while (parents[element] != root) {
+                int next = parents[element];
+                parents[element] = root;
+                element = next;
+            }
+            return root;
         }
-        return biggerCluster;
     }
 
-    public List<Cluster<String>> clusterize(int numberOfClusters, Set<String> hosts) {
+    /**
+     * The cluster of pivot nodes with the distances from it to the other nodes.
+     */
+    private final class PivotCluster {
 
-        if (numberOfClusters <= 0) {
-            throw new IllegalArgumentException("numberOfClusters must be positive");
+        private final List<Node> nodes;
+
+        private Cluster<Node> cluster;
+
+        private int update;
+
+        private int lastUpdate;
+
+        private PivotCluster(List<Node> nodes, int index) {
+            this.nodes = nodes;
+            this.cluster = new Cluster<>(getNodeId(nodes.get(index)), nodes.get(index));
+            this.update = index;
+            this.lastUpdate = nodes.size();
         }
 
-        logger.debug("Initializing clusters map");
-        HashMap<Cluster<String>, HashMap<Cluster<String>, Long>> clusterDistances = new HashMap<>();
+        /**
+         * Merges a node into the cluster and recalculates distances to the others.
+         */
+        private void merge(int index, DistanceMatrix distances, boolean[] merged, long[] distancesToTarget) {
+            Cluster<Node> single = new Cluster<>(getNodeId(nodes.get(index)), nodes.get(index));
+            boolean clusterIsContainer = cluster.size() > 1 || update < index;
 
-        for (String host : hosts) {
-            Cluster<String> newCluster = new Cluster<>(host, host);
-            HashMap<Cluster<String>, Long> dist = new HashMap<>();
-            for (Cluster<String> cluster : clusterDistances.keySet()) {
-                dist.put(cluster, topology.getDistance(host, cluster.getElements().get(0)));
+            if (logger.isDebugEnabled()) {
+                logger.debug("Clusters to merge:\n" + cluster + "\n" + single);
             }
-            clusterDistances.put(newCluster, dist);
-        }
 
-        while (clusterDistances.size() > numberOfClusters) {
-            // finding two clusters to merge according
-            Cluster<String>[] clustersToMerge = findClosestClusters(clusterDistances);
-            if (clustersToMerge == null) {
-                // there is no clusters close to each other
-                // stop the process
-                break;
+            merged[index] = true;
+            for (int i = 0; i < merged.length; i++) {
+                if (!merged[i]) {
+                    long distance = distances.get(index, i);
+                    if (clusterIsContainer) {
+                        distancesToTarget[i] = distanceFunction.distance(distancesToTarget[i], distance);
+                    } else {
+                        distancesToTarget[i] = distanceFunction.distance(distance, distancesToTarget[i]);
+                    }
+                }
             }
-            // merging clusters and recalculating distances between others
-            recalculateDistances(clustersToMerge[0], clustersToMerge[1], clusterDistances);
-        }
 
-        return new LinkedList<>(clusterDistances.keySet());
+            if (clusterIsContainer) {
+                cluster.add(single.getElements());
+            } else {
+                single.add(cluster.getElements());
+                cluster = single;
+            }
+            update = lastUpdate++;
+        }
     }
 }
@@ -1116,7 +1116,8 @@ public class RMCore implements ResourceManager, InitActive, RunActive {
      * Resource Manager of a possible reconnection. The method is also used by
      * ProActive Nodes to know if they are still known by the Resource Manager.
      * For instance a Node which has been removed by a user from the
-     * Resource Manager is no longer known.
+     * Resource Manager is no longer known. Each call is recorded as a heartbeat
+     * of the known nodes, see {@link NodeSource#recordHeartbeat(String)}.
      * <p>
      * The method is defined as Immediate Service. This way it is executed in
      * a dedicated Thread. It is essential in order to allow other methods to
@@ -1159,8 +1160,10 @@ public class RMCore implements ResourceManager, InitActive, RunActive {
                 }
                 nodeUrlsNotKnownByTheRM.add(nodeUrl);
             } else if (node.isDown()) {
+                NodeSource.recordHeartbeat(nodeUrl);
                 restoreNodeState(nodeUrl, node);
             } else {
+                NodeSource.recordHeartbeat(nodeUrl);
                 if (logger.isDebugEnabled()) {
                     logger.debug("The node identified by " + nodeUrl + " is known and not DOWN, no action performed");
                 }
@@ -1952,6 +1955,29 @@ public class RMCore implements ResourceManager, InitActive, RunActive {
         }
     }
 
+    @Override
+    public List<NodeSet> getNodes(List<Criteria> criteriaList) {
+        for (Criteria criteria : criteriaList) {
+            if (criteria.getSize() <= 0) {
+                throw new IllegalArgumentException("Illegal node number " + criteria.getSize());
+            }
+        }
+        if (this.toShutDown) {
+            // if the resource manager is about to shutdown, do not provide any node
+            List<NodeSet> emptyNodeSets = new ArrayList<>(criteriaList.size());
+            for (int i = 0; i < criteriaList.size(); i++) {
+                emptyNodeSets.add(new NodeSet());
+            }
+            return emptyNodeSets;
+        }
+        for (Criteria criteria : criteriaList) {
+            if (criteria.getTopology() == null) {
+                criteria.setTopology(TopologyDescriptor.ARBITRARY);
+            }
+        }
+        return selectionManager.selectNodes(criteriaList, caller);
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -39,11 +39,13 @@ import org.ow2.proactive.jmx.AbstractJMXHelper;
 import org.ow2.proactive.jmx.RRDDataStore;
 import org.ow2.proactive.resourcemanager.core.account.RMAccountsManager;
 import org.ow2.proactive.resourcemanager.core.jmx.mbean.AllAccountsMBeanImpl;
+import org.ow2.proactive.resourcemanager.core.jmx.mbean.DatabaseBufferMBeanImpl;
 import org.ow2.proactive.resourcemanager.core.jmx.mbean.ManagementMBeanImpl;
 import org.ow2.proactive.resourcemanager.core.jmx.mbean.MyAccountMBeanImpl;
 import org.ow2.proactive.resourcemanager.core.jmx.mbean.RuntimeDataMBean;
 import org.ow2.proactive.resourcemanager.core.jmx.mbean.RuntimeDataMBeanImpl;
 import org.ow2.proactive.resourcemanager.core.properties.PAResourceManagerProperties;
+import org.ow2.proactive.resourcemanager.db.RMDBManager;
 import org.ow2.proactive.resourcemanager.frontend.RMMonitoringImpl;
 
 
@@ -137,6 +139,16 @@ public final class RMJMXHelper extends AbstractJMXHelper {
         } catch (Exception e) {
             LOGGER.error("Unable to register the ManagementMBean", e);
         }
+
+        // Register the DatabaseBuffer MBean into the MBean server
+        try {
+            final DatabaseBufferMBeanImpl databaseBufferMBean = new DatabaseBufferMBeanImpl(RMDBManager.getInstance()
+                                                                                                       .getBuffer());
+            final ObjectName name = new ObjectName(RMJMXBeans.DATABASE_BUFFER_MBEAN_NAME);
+            mbs.registerMBean(databaseBufferMBean, name);
+        } catch (Exception e) {
+            LOGGER.error("Unable to register the DatabaseBufferMBean", e);
+        }
     }
 
     /**
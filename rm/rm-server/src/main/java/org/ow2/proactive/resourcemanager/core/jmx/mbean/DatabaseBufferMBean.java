@@ -0,0 +1,89 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive.resourcemanager.core.jmx.mbean;
+
+/**
+ * MBean interface exposing the statistics of the buffer delaying the database
+ * operations on nodes.
+ *
+ * @see org.ow2.proactive.resourcemanager.db.RMDBManagerBuffer
+ */
+public interface DatabaseBufferMBean {
+
+    /**
+     * Returns the number of node operations waiting to be committed.
+     * @return the current depth of the buffer
+     */
+    int getPendingNodeOperations();
+
+    /**
+     * Returns the highest number of node operations waiting to be committed.
+     * @return the highest depth of the buffer
+     */
+    int getMaxPendingNodeOperations();
+
+    /**
+     * Returns the number of node operations requested since the start.
+     * @return the number of requested node operations
+     */
+    long getRegisteredNodeOperations();
+
+    /**
+     * Returns the number of node operations coalesced with other operations on the same node.
+     * @return the number of node operations which did not reach the database
+     */
+    long getCoalescedNodeOperations();
+
+    /**
+     * Returns the number of node operations sent to the database.
+     * @return the number of committed node operations
+     */
+    long getCommittedNodeOperations();
+
+    /**
+     * Returns the number of transactions committing node operations.
+     * @return the number of flushes of the buffer
+     */
+    long getNodeTransactions();
+
+    /**
+     * Returns the duration in milliseconds of the last transaction committing node operations.
+     * @return the last flush duration in milliseconds
+     */
+    long getLastNodeTransactionDurationInMilliseconds();
+
+    /**
+     * Returns the longest duration in milliseconds of a transaction committing node operations.
+     * @return the longest flush duration in milliseconds
+     */
+    long getMaxNodeTransactionDurationInMilliseconds();
+
+    /**
+     * Returns the average duration in milliseconds of the transactions committing node operations.
+     * @return the average flush duration in milliseconds
+     */
+    double getAverageNodeTransactionDurationInMilliseconds();
+}
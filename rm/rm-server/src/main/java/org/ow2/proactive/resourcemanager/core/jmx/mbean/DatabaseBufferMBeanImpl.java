@@ -0,0 +1,85 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive.resourcemanager.core.jmx.mbean;
+
+import javax.management.NotCompliantMBeanException;
+import javax.management.StandardMBean;
+
+import org.ow2.proactive.resourcemanager.db.RMDBManagerBuffer;
+
+
+/**
+ * Implementation of the DatabaseBufferMBean interface.
+ */
+public final class DatabaseBufferMBeanImpl extends StandardMBean implements DatabaseBufferMBean {
+
+    private final RMDBManagerBuffer buffer;
+
+    public DatabaseBufferMBeanImpl(final RMDBManagerBuffer buffer) throws NotCompliantMBeanException {
+        super(DatabaseBufferMBean.class);
+        this.buffer = buffer;
+    }
+
+    public int getPendingNodeOperations() {
+        return this.buffer.getPendingNodeOperationsCount();
+    }
+
+    public int getMaxPendingNodeOperations() {
+        return this.buffer.getMaxPendingNodeOperationsCount();
+    }
+
+    public long getRegisteredNodeOperations() {
+        return this.buffer.getRegisteredNodeOperationsCount();
+    }
+
+    public long getCoalescedNodeOperations() {
+        return this.buffer.getCoalescedNodeOperationsCount();
+    }
+
+    public long getCommittedNodeOperations() {
+        return this.buffer.getCommittedNodeOperationsCount();
+    }
+
+    public long getNodeTransactions() {
+        return this.buffer.getNodeTransactionsCount();
+    }
+
+    public long getLastNodeTransactionDurationInMilliseconds() {
+        return this.buffer.getLastNodeTransactionDurationInMilliseconds();
+    }
+
+    public long getMaxNodeTransactionDurationInMilliseconds() {
+        return this.buffer.getMaxNodeTransactionDurationInMilliseconds();
+    }
+
+    public double getAverageNodeTransactionDurationInMilliseconds() {
+        long transactions = this.buffer.getNodeTransactionsCount();
+        if (transactions == 0) {
+            return 0;
+        }
+        return (double) this.buffer.getNodeTransactionsTotalDurationInMilliseconds() / transactions;
+    }
+}
@@ -176,6 +176,13 @@ public class RMDBManager {
 
             configuration.setProperty("hibernate.id.new_generator_mappings", "true");
             configuration.setProperty("hibernate.jdbc.use_streams_for_binary", "true");
+            // node operations of the buffer are sent in JDBC batches
+            if (configuration.getProperty("hibernate.jdbc.batch_size") == null) {
+                configuration.setProperty("hibernate.jdbc.batch_size",
+                                          String.valueOf(RMDBManagerBuffer.NODE_OPERATIONS_BATCH_SIZE));
+            }
+            configuration.setProperty("hibernate.order_inserts", "true");
+            configuration.setProperty("hibernate.order_updates", "true");
 
             sessionFactory = configuration.buildSessionFactory();
             transactionHelper = new TransactionHelper(sessionFactory);
@@ -41,6 +41,7 @@ import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.locks.Condition;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
@@ -54,6 +55,11 @@ import org.ow2.proactive.db.SessionWork;
 /**
  * Methods of this class can be used to delay database operations in order to
  * batch them and reduce database hit overhead.
+ * <p>
+ * Successive operations on the same node are coalesced while they are pending
+ * (e.g. a creation followed by updates is a single creation of the last state
+ * of the node), and the operations of a transaction are sent to the database
+ * in JDBC batches.
  */
 public class RMDBManagerBuffer {
 
@@ -65,6 +71,11 @@ public class RMDBManagerBuffer {
 
     private static final int MAXIMUM_BUFFERIZED_NODE_OPERATIONS = 1000;
 
+    /**
+     * Number of node operations sent to the database in one JDBC batch.
+     */
+    static final int NODE_OPERATIONS_BATCH_SIZE = 50;
+
     private RMDBManager rmdbManager;
 
     /**
@@ -105,6 +116,12 @@ public class RMDBManagerBuffer {
      */
     private List<NodeOperation> pendingNodesOperations;
 
+    /**
+     * The last pending operation of each node, into which the next
+     * operations on the node can be coalesced.
+     */
+    private Map<RMNodeData, NodeOperation> lastPendingOperationOfNodes;
+
     /**
      * The database transaction regarding nodes that is currently
      * scheduled for later.
@@ -115,12 +132,33 @@ public class RMDBManagerBuffer {
 
     private final Condition pendingNodeOperationsCondition = pendingNodeOperationsLock.newCondition();
 
+    // statistics, read without holding the pending node operations lock
+
+    private volatile int pendingNodeOperationsCount;
+
+    private volatile int maxPendingNodeOperationsCount;
+
+    private final AtomicLong registeredNodeOperationsCount = new AtomicLong();
+
+    private final AtomicLong coalescedNodeOperationsCount = new AtomicLong();
+
+    private final AtomicLong nodeTransactionsCount = new AtomicLong();
+
+    private final AtomicLong committedNodeOperationsCount = new AtomicLong();
+
+    private final AtomicLong nodeTransactionsTotalDurationInMilliseconds = new AtomicLong();
+
+    private volatile long lastNodeTransactionDurationInMilliseconds;
+
+    private volatile long maxNodeTransactionDurationInMilliseconds;
+
     RMDBManagerBuffer(RMDBManager rmdbManager) {
         this.rmdbManager = rmdbManager;
         delayEqualsToZero = RM_NODES_DB_OPERATIONS_DELAY.getValueAsInt() == 0;
         databaseTransactionExecutor = Executors.newSingleThreadScheduledExecutor();
         pendingNodeSourceUpdates = new HashMap<>();
         pendingNodesOperations = new LinkedList<>();
+        lastPendingOperationOfNodes = new HashMap<>();
         knownNodeSources = new HashSet<>();
 
         // populate the set of node source names that were existing in the
@@ -330,12 +368,54 @@ public class RMDBManagerBuffer {
             String nodeSourceName) {
         pendingNodeOperationsLock.lock();
         try {
-            pendingNodesOperations.add(new NodeOperation(rmNodeData, databaseOperation, nodeSourceName));
+            registeredNodeOperationsCount.incrementAndGet();
+            NodeOperation lastOperation = lastPendingOperationOfNodes.get(rmNodeData);
+            if (lastOperation != null && lastOperation.operation == DatabaseOperation.CREATE &&
+                databaseOperation == DatabaseOperation.DELETE) {
+                // the node has never reached the database
+                pendingNodesOperations.remove(lastOperation);
+                lastPendingOperationOfNodes.remove(rmNodeData);
+                coalescedNodeOperationsCount.addAndGet(2);
+            } else if (lastOperation != null && canBeCoalesced(lastOperation.operation, databaseOperation)) {
+                if (lastOperation.operation == DatabaseOperation.UPDATE) {
+                    lastOperation.operation = databaseOperation;
+                }
+                lastOperation.node = rmNodeData;
+                lastOperation.nodeSourceName = nodeSourceName;
+                coalescedNodeOperationsCount.incrementAndGet();
+            } else {
+                NodeOperation nodeOperation = new NodeOperation(rmNodeData, databaseOperation, nodeSourceName);
+                pendingNodesOperations.add(nodeOperation);
+                lastPendingOperationOfNodes.put(rmNodeData, nodeOperation);
+            }
+            updatePendingNodeOperationsCount();
         } finally {
             pendingNodeOperationsLock.unlock();
         }
     }
 
+    /**
+     * A creation absorbs the next updates, an update absorbs the next updates
+     * and is replaced by a deletion. Nothing is coalesced into a deletion.
+     */
+    private boolean canBeCoalesced(DatabaseOperation lastOperation, DatabaseOperation nextOperation) {
+        switch (lastOperation) {
+            case CREATE:
+                return nextOperation == DatabaseOperation.UPDATE;
+            case UPDATE:
+                return nextOperation == DatabaseOperation.UPDATE || nextOperation == DatabaseOperation.DELETE;
+            default:
+                return false;
+        }
+    }
+
+    private void updatePendingNodeOperationsCount() {
+        pendingNodeOperationsCount = pendingNodesOperations.size();
+        if (pendingNodeOperationsCount > maxPendingNodeOperationsCount) {
+            maxPendingNodeOperationsCount = pendingNodeOperationsCount;
+        }
+    }
+
     private void scheduleNodeTransactionOrFlush() {
         if (pendingNodesOperations.size() < MAXIMUM_BUFFERIZED_NODE_OPERATIONS) {
             scheduledNodeTransaction = databaseTransactionExecutor.schedule(new Runnable() {
@@ -355,13 +435,22 @@ public class RMDBManagerBuffer {
             List<NodeOperation> effectiveNodesOperations = extractOperationsOfNextTransaction();
             while (!effectiveNodesOperations.isEmpty()) {
                 final List<NodeOperation> currentNodesOperations = effectiveNodesOperations;
+                long transactionStart = System.currentTimeMillis();
                 rmdbManager.executeReadWriteTransaction(new SessionWork<Void>() {
                     @Override
                     public Void doInTransaction(Session session) {
                         logger.debug("Execute database transaction with operations: " +
                                      Arrays.toString(currentNodesOperations.toArray()));
                         try {
+                            int operationsInBatch = 0;
                             for (NodeOperation nodeOperation : currentNodesOperations) {
+                                if (operationsInBatch == NODE_OPERATIONS_BATCH_SIZE) {
+                                    // send the JDBC batch and keep the session small
+                                    session.flush();
+                                    session.clear();
+                                    operationsInBatch = 0;
+                                }
+                                operationsInBatch++;
                                 RMNodeData rmNodeData = nodeOperation.node;
                                 NodeSourceData nodeSourceData = session.load(NodeSourceData.class,
                                                                              nodeOperation.nodeSourceName);
@@ -394,6 +483,7 @@ public class RMDBManagerBuffer {
                         return null;
                     }
                 });
+                recordNodeTransaction(currentNodesOperations.size(), System.currentTimeMillis() - transactionStart);
                 effectiveNodesOperations = extractOperationsOfNextTransaction();
             }
             // Pending node operations are cleared, retrieval can be enabled
@@ -434,18 +524,90 @@ public class RMDBManagerBuffer {
             nodesOfNextTransaction.add(rmNodeData);
             operationsOfNextTransaction.add(nodeOperation);
             pendingOperationsIterator.remove();
+            // next operations on the node must not be coalesced into an operation being committed
+            lastPendingOperationOfNodes.remove(rmNodeData, nodeOperation);
+            updatePendingNodeOperationsCount();
             operationAddedToNextTransaction = true;
         }
         return operationAddedToNextTransaction;
     }
 
     private boolean nodeHasPendingOperations(RMNodeData searchedNode) {
-        for (NodeOperation nodeOperation : pendingNodesOperations) {
-            if (searchedNode.equals(nodeOperation.node)) {
-                return true;
-            }
+        return lastPendingOperationOfNodes.containsKey(searchedNode);
+    }
+
+    private void recordNodeTransaction(int numberOfOperations, long durationInMilliseconds) {
+        nodeTransactionsCount.incrementAndGet();
+        committedNodeOperationsCount.addAndGet(numberOfOperations);
+        nodeTransactionsTotalDurationInMilliseconds.addAndGet(durationInMilliseconds);
+        lastNodeTransactionDurationInMilliseconds = durationInMilliseconds;
+        if (durationInMilliseconds > maxNodeTransactionDurationInMilliseconds) {
+            maxNodeTransactionDurationInMilliseconds = durationInMilliseconds;
         }
-        return false;
+    }
+
+    /**
+     * @return the number of node operations waiting to be committed
+     */
+    public int getPendingNodeOperationsCount() {
+        return pendingNodeOperationsCount;
+    }
+
+    /**
+     * @return the highest number of node operations waiting to be committed
+     */
+    public int getMaxPendingNodeOperationsCount() {
+        return maxPendingNodeOperationsCount;
+    }
+
+    /**
+     * @return the number of node operations requested since the start
+     */
+    public long getRegisteredNodeOperationsCount() {
+        return registeredNodeOperationsCount.get();
+    }
+
+    /**
+     * @return the number of node operations which did not reach the database
+     * because they were coalesced with other operations on the same node
+     */
+    public long getCoalescedNodeOperationsCount() {
+        return coalescedNodeOperationsCount.get();
+    }
+
+    /**
+     * @return the number of transactions committing node operations
+     */
+    public long getNodeTransactionsCount() {
+        return nodeTransactionsCount.get();
+    }
+
+    /**
+     * @return the number of node operations sent to the database
+     */
+    public long getCommittedNodeOperationsCount() {
+        return committedNodeOperationsCount.get();
+    }
+
+    /**
+     * @return the duration of the last transaction committing node operations
+     */
+    public long getLastNodeTransactionDurationInMilliseconds() {
+        return lastNodeTransactionDurationInMilliseconds;
+    }
+
+    /**
+     * @return the longest duration of a transaction committing node operations
+     */
+    public long getMaxNodeTransactionDurationInMilliseconds() {
+        return maxNodeTransactionDurationInMilliseconds;
+    }
+
+    /**
+     * @return the total duration of the transactions committing node operations
+     */
+    public long getNodeTransactionsTotalDurationInMilliseconds() {
+        return nodeTransactionsTotalDurationInMilliseconds.get();
     }
 
     public enum DatabaseOperation {
@@ -457,11 +619,13 @@ public class RMDBManagerBuffer {
 
     public static class NodeOperation {
 
-        protected final RMNodeData node;
+        // operations are updated in place when the next ones are coalesced into them
+
+        protected RMNodeData node;
 
-        protected final DatabaseOperation operation;
+        protected DatabaseOperation operation;
 
-        protected final String nodeSourceName;
+        protected String nodeSourceName;
 
         protected NodeOperation(RMNodeData node, DatabaseOperation operation, String nodeSourceName) {
             this.node = node;
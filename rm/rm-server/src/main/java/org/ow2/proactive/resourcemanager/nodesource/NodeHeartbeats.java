@@ -0,0 +1,169 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive.resourcemanager.nodesource;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+
+/**
+ * Keeps the last time each node was seen alive, so that node sources only have to
+ * ping the nodes which did not report themselves recently.
+ * <p>
+ * Nodes started by the RMNodeStarter periodically report their availability to the
+ * resource manager: each report is recorded here as a heartbeat. Timestamps are stored
+ * in a primitive array, at a slot allocated the first time a node is seen. Slots of
+ * forgotten nodes are reused.
+ * <p>
+ * Pings are spread over the ping period instead of being sent in a burst: each node has
+ * a phase in the period, derived from its url, and it is only considered for a ping when
+ * the period reaches its phase.
+ */
+public class NodeHeartbeats {
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    private final Map<String, Integer> slots = new HashMap<>();
+
+    private long[] lastSeen = new long[INITIAL_CAPACITY];
+
+    private int[] freeSlots = new int[INITIAL_CAPACITY];
+
+    private int freeSlotsCount = 0;
+
+    private int nextSlot = 0;
+
+    /**
+     * Records that the node was seen alive at the given time.
+     *
+     * @param nodeUrl url of the node
+     * @param time time in ms when the node was seen alive
+     */
+    public synchronized void recordHeartbeat(String nodeUrl, long time) {
+        Integer slot = slots.get(nodeUrl);
+        if (slot == null) {
+            slot = allocateSlot();
+            slots.put(nodeUrl, slot);
+            lastSeen[slot] = time;
+        } else if (lastSeen[slot] < time) {
+            lastSeen[slot] = time;
+        }
+    }
+
+    /**
+     * Forgets a node which was removed from the resource manager.
+     *
+     * @param nodeUrl url of the node
+     */
+    public synchronized void forget(String nodeUrl) {
+        Integer slot = slots.remove(nodeUrl);
+        if (slot != null) {
+            if (freeSlotsCount == freeSlots.length) {
+                freeSlots = Arrays.copyOf(freeSlots, freeSlots.length * 2);
+            }
+            freeSlots[freeSlotsCount++] = slot;
+        }
+    }
+
+    /**
+     * @param nodeUrl url of the node
+     * @return the last time the node was seen alive, or {@link Long#MIN_VALUE} if it was never seen
+     */
+    public synchronized long getLastSeen(String nodeUrl) {
+        Integer slot = slots.get(nodeUrl);
+        return slot == null ? Long.MIN_VALUE : lastSeen[slot];
+    }
+
+    /**
+     * @return the number of nodes currently tracked
+     */
+    public synchronized int size() {
+        return slots.size();
+    }
+
+    /**
+     * Tells whether a node must be pinged by a node source checking its nodes at time {@code to},
+     * its previous check being at time {@code from}. A node must be pinged when its phase lies
+     * within this interval and it was not seen alive during the last period. Every overdue node
+     * must be pinged when the interval is longer than the period.
+     *
+     * @param nodeUrl url of the node
+     * @param from time of the previous check, in ms
+     * @param to time of the current check, in ms
+     * @param period ping period, in ms
+     * @return true if the node must be pinged
+     */
+    public boolean mustBePinged(String nodeUrl, long from, long to, long period) {
+        return isInInterval(phase(nodeUrl, period), from, to, period) && isOverdue(nodeUrl, to, period);
+    }
+
+    private synchronized boolean isOverdue(String nodeUrl, long time, long period) {
+        Integer slot = slots.get(nodeUrl);
+        return slot == null || time - lastSeen[slot] >= period;
+    }
+
+    /**
+     * Computes the phase of a node in the ping period. Hash bits are mixed first so that
+     * urls only differing by a suffix get distant phases.
+     */
+    static long phase(String nodeUrl, long period) {
+        int hash = nodeUrl.hashCode();
+        hash ^= hash >>> 16;
+        hash *= 0x85ebca6b;
+        hash ^= hash >>> 13;
+        hash *= 0xc2b2ae35;
+        hash ^= hash >>> 16;
+        return ((hash & 0xffffffffL) * period) >>> 32;
+    }
+
+    private static boolean isInInterval(long phase, long from, long to, long period) {
+        if (to - from >= period) {
+            return true;
+        }
+        if (to <= from) {
+            return false;
+        }
+        long start = Math.floorMod(from, period);
+        long end = Math.floorMod(to, period);
+        if (start < end) {
+            return phase > start && phase <= end;
+        } else {
+            return phase > start || phase <= end;
+        }
+    }
+
+    private int allocateSlot() {
+        if (freeSlotsCount > 0) {
+            return freeSlots[--freeSlotsCount];
+        }
+        if (nextSlot == lastSeen.length) {
+            lastSeen = Arrays.copyOf(lastSeen, lastSeen.length * 2);
+        }
+        return nextSlot++;
+    }
+
+}
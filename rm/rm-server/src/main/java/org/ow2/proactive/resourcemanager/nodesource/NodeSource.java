@@ -95,6 +95,12 @@ public class NodeSource implements InitActive, RunActive {
 
     private int pingFrequency = PAResourceManagerProperties.RM_NODE_SOURCE_PING_FREQUENCY.getValueAsInt();
 
+    private final boolean heartbeatEnabled = PAResourceManagerProperties.RM_NODE_SOURCE_HEARTBEAT_ENABLED
+                                                                         .getValueAsBoolean();
+
+    /** Number of checks per ping period when only nodes with an overdue heartbeat are pinged */
+    private static final int CHECKS_PER_PING_PERIOD = 16;
+
     /** Default recovery mode for NS with local nodes started with the RM by default */
     public static final boolean DEFAULT_LOCAL_NODES_NODE_SOURCE_RECOVERABLE = false;
 
@@ -141,6 +147,9 @@ public class NodeSource implements InitActive, RunActive {
 
     private static ThreadPoolHolder threadPoolHolder;
 
+    // last time each node of the resource manager was seen alive
+    private static final NodeHeartbeats heartbeats = new NodeHeartbeats();
+
     private NodeSource stub;
 
     private final Client administrator;
@@ -287,6 +296,11 @@ public class NodeSource implements InitActive, RunActive {
     public void runActivity(Body body) {
         Service service = new Service(body);
 
+        if (heartbeatEnabled) {
+            runActivityWithHeartbeats(service, body);
+            return;
+        }
+
         long timeStamp = System.currentTimeMillis();
         long delta = 0;
 
@@ -311,6 +325,52 @@ public class NodeSource implements InitActive, RunActive {
         }
     }
 
+    /**
+     * Only pings the nodes which did not report themselves alive during the last ping period.
+     * Nodes are checked several times per period, each check pinging the nodes whose phase
+     * was reached since the previous one, so that pings are spread over the period.
+     */
+    private void runActivityWithHeartbeats(Service service, Body body) {
+        long previousCheck = System.currentTimeMillis();
+
+        while (body.isActive()) {
+            long checkInterval = Math.max(1, pingFrequency / CHECKS_PER_PING_PERIOD);
+            try {
+                service.blockingServeOldest(checkInterval);
+                long now = System.currentTimeMillis();
+
+                if (now - previousCheck >= checkInterval) {
+                    pingOverdueNodes(previousCheck, now);
+                    previousCheck = now;
+                }
+            } catch (InterruptedException e) {
+                logger.warn("runActivity interrupted", e);
+            }
+        }
+    }
+
+    private void pingOverdueNodes(long from, long to) {
+        int pinged = 0;
+        for (Node node : getAliveNodes()) {
+            if (heartbeats.mustBePinged(node.getNodeInformation().getURL(), from, to, pingFrequency)) {
+                pingNode(node);
+                pinged++;
+            }
+        }
+        if (pinged > 0 && logger.isDebugEnabled()) {
+            logger.debug("[" + name + "] Pinging nodes with an overdue heartbeat : " + pinged);
+        }
+    }
+
+    /**
+     * Records that the node reported itself as alive to the resource manager.
+     *
+     * @param nodeUrl url of the node
+     */
+    public static void recordHeartbeat(String nodeUrl) {
+        heartbeats.recordHeartbeat(nodeUrl, System.currentTimeMillis());
+    }
+
     /**
      * Updates internal node source structures.
      */
@@ -324,6 +384,7 @@ public class NodeSource implements InitActive, RunActive {
         logger.info("[" + name + "] new node available : " + node.getNodeInformation().getURL());
         RMDeployingNode rmDeployingNode = infrastructureManager.internalRegisterAcquiredNode(node);
         nodes.put(nodeUrl, node);
+        recordHeartbeat(nodeUrl);
         return rmDeployingNode;
     }
 
@@ -731,6 +792,7 @@ public class NodeSource implements InitActive, RunActive {
             logger.error("[" + this.name + "] cannot remove node: " + nodeUrl + " because it is unknown");
             return new BooleanWrapper(false);
         } else {
+            heartbeats.forget(nodeUrl);
             RMCore.topologyManager.removeNode(node);
             try {
                 this.infrastructureManager.internalRemoveNode(node);
@@ -972,6 +1034,7 @@ public class NodeSource implements InitActive, RunActive {
 
             try {
                 node.getNumberOfActiveObjects();
+                recordHeartbeat(nodeUrl);
                 if (logger.isDebugEnabled()) {
                     logger.debug("Node " + nodeUrl + " is alive");
                 }
@@ -65,6 +65,8 @@ public class ScriptExecutor implements Callable<Node> {
         try {
             return executeScripts();
         } finally {
+            // also done when the node could not be cleaned, otherwise no script would be executed on it anymore
+            manager.scriptExecutionFinished(rmnode.getNodeURL());
             SelectionManager.unsetLoggingContext();
         }
     }
@@ -177,8 +179,6 @@ public class ScriptExecutor implements Callable<Node> {
             }
         }
 
-        manager.scriptExecutionFinished(rmnode.getNodeURL());
-
         if (exception != null) {
             throw exception;
         }
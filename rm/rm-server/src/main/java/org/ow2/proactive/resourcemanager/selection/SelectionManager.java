@@ -30,6 +30,7 @@ import java.io.Serializable;
 import java.security.Permission;
 import java.util.*;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.apache.log4j.Logger;
 import org.apache.log4j.MDC;
@@ -58,6 +59,9 @@ import org.ow2.proactive.utils.Criteria;
 import org.ow2.proactive.utils.NodeSet;
 import org.ow2.proactive.utils.appenders.MultipleFileAppender;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
 
 /**
  * An interface of selection manager which is responsible for nodes selection
@@ -74,10 +78,16 @@ public abstract class SelectionManager {
 
     private static long lastAuthorizedFolderLoadingTime = 0;
 
+    // nodes which did not run a selection script for this period are forgotten
+    private static final long SCRIPT_LATENCY_EXPIRATION_HOURS = 1;
+
     private ExecutorService scriptExecutorThreadPool;
 
     private Set<String> inProgress;
 
+    // node url => moving average of the selection scripts execution time in nanoseconds
+    private Cache<String, Long> scriptLatencies;
+
     protected HashSet<String> authorizedSelectionScripts = null;
 
     // the policy for arranging nodes
@@ -93,7 +103,10 @@ public abstract class SelectionManager {
         this.rmcore = rmcore;
         this.scriptExecutorThreadPool = Executors.newFixedThreadPool(PAResourceManagerProperties.RM_SELECTION_MAX_THREAD_NUMBER.getValueAsInt(),
                                                                      new NamedThreadFactory("Selection manager threadpool"));
-        this.inProgress = Collections.synchronizedSet(new HashSet<String>());
+        this.inProgress = ConcurrentHashMap.newKeySet();
+        this.scriptLatencies = CacheBuilder.newBuilder()
+                                           .expireAfterAccess(SCRIPT_LATENCY_EXPIRATION_HOURS, TimeUnit.HOURS)
+                                           .build();
 
         String policyClassName = PAResourceManagerProperties.RM_SELECTION_POLICY.getValueAsString();
         try {
@@ -200,13 +213,68 @@ public abstract class SelectionManager {
 
         maybeSetLoggingContext(criteria);
         try {
-            return doSelectNodes(criteria, client);
+            return doSelectNodes(criteria, client, rmcore.getFreeNodes());
         } finally {
             unsetLoggingContext();
         }
 
     }
 
+    /**
+     * Selects nodes for each of the given criteria in one call.
+     * The criteria are processed in order against the same snapshot of the free nodes: the nodes selected
+     * for a criteria are removed from the snapshot before processing the next one.
+     * As for {@link #selectNodes(Criteria, Client)}, an exception raised while processing a criteria (for instance
+     * a {@link SecurityException} when its selection scripts are not authorized) is thrown to the caller, after the
+     * nodes selected for the previous criteria have been released.
+     *
+     * @param criteriaList criteria to select nodes
+     * @param client the client requesting the nodes
+     * @return one node set per criteria, in the same order, or null if the client disconnected
+     */
+    public List<NodeSet> selectNodes(List<Criteria> criteriaList, Client client) {
+        List<RMNode> freeNodes = new ArrayList<>(rmcore.getFreeNodes());
+        List<NodeSet> selectedNodeSets = new ArrayList<>(criteriaList.size());
+        for (Criteria criteria : criteriaList) {
+            NodeSet selectedNodes;
+            maybeSetLoggingContext(criteria);
+            try {
+                selectedNodes = doSelectNodes(criteria, client, freeNodes);
+            } catch (RuntimeException e) {
+                releaseSelectedNodes(selectedNodeSets);
+                throw e;
+            } finally {
+                unsetLoggingContext();
+            }
+            if (selectedNodes == null) {
+                return null;
+            }
+            removeSelectedNodes(freeNodes, selectedNodes);
+            selectedNodeSets.add(selectedNodes);
+        }
+        return selectedNodeSets;
+    }
+
+    private void releaseSelectedNodes(List<NodeSet> selectedNodeSets) {
+        for (NodeSet selectedNodes : selectedNodeSets) {
+            if (!selectedNodes.isEmpty()) {
+                try {
+                    rmcore.releaseNodes(selectedNodes);
+                } catch (RuntimeException e) {
+                    logger.warn("Cannot release the nodes " + selectedNodes.getAllNodesUrls(), e);
+                }
+            }
+        }
+    }
+
+    private static void removeSelectedNodes(List<RMNode> freeNodes, NodeSet selectedNodes) {
+        if (selectedNodes.isEmpty()) {
+            return;
+        }
+        Set<String> selectedUrls = selectedNodes.getAllNodesUrls();
+        freeNodes.removeIf(node -> selectedUrls.contains(node.getNodeURL()));
+    }
+
     static void maybeSetLoggingContext(Criteria criteria) {
         if (criteria.getComputationDescriptors() != null) {
             // logging selection script execution into tasks logs
@@ -218,7 +286,7 @@ public abstract class SelectionManager {
         MDC.remove(MultipleFileAppender.FILE_NAMES);
     }
 
-    private NodeSet doSelectNodes(Criteria criteria, Client client) {
+    private NodeSet doSelectNodes(Criteria criteria, Client client, List<RMNode> freeNodes) {
         boolean hasScripts = criteria.getScripts() != null && criteria.getScripts().size() > 0;
         boolean loggerIsDebugEnabled = logger.isDebugEnabled();
         if (loggerIsDebugEnabled) {
@@ -243,7 +311,6 @@ public abstract class SelectionManager {
 
         int totalNumberOfAliveNodesRightNow = rmcore.getTotalAliveNodesNumber();
 
-        List<RMNode> freeNodes = rmcore.getFreeNodes();
         // filtering out the "free node list"
         // removing exclusion and checking permissions
         List<RMNode> filteredNodes = filterOut(freeNodes, criteria, client);
@@ -280,37 +347,8 @@ public abstract class SelectionManager {
                 matchedNodes = runScripts(arrangedFilteredNodes, criteria);
             } else {
 
-                // run scripts not on all nodes, but always on missing number of
-                // nodes
-                // until required node set is found
-                matchedNodes = new LinkedList<>();
-                while (matchedNodes.size() < criteria.getSize()) {
-                    int numberOfNodesForScriptExecution = criteria.getSize() - matchedNodes.size();
-
-                    if (numberOfNodesForScriptExecution < PAResourceManagerProperties.RM_SELECTION_MAX_THREAD_NUMBER.getValueAsInt()) {
-                        // we can run
-                        // "PAResourceManagerProperties.RM_SELECTION_MAX_THREAD_NUMBER.getValueAsInt()"
-                        // scripts in parallel
-                        // in case when we need less nodes it still useful to
-                        // the full capacity of the thread pool to find nodes
-                        // quicker
-
-                        // it is not important if we find more nodes than needed
-                        // subset will be selected later (topology handlers)
-                        numberOfNodesForScriptExecution = PAResourceManagerProperties.RM_SELECTION_MAX_THREAD_NUMBER.getValueAsInt();
-                    }
-
-                    List<RMNode> subset = arrangedFilteredNodes.subList(0,
-                                                                        Math.min(numberOfNodesForScriptExecution,
-                                                                                 arrangedFilteredNodes.size()));
-                    matchedNodes.addAll(runScripts(subset, criteria));
-                    // removing subset of arrangedNodes
-                    subset.clear();
-
-                    if (arrangedFilteredNodes.size() == 0) {
-                        break;
-                    }
-                }
+                // run scripts on the arranged nodes until the required number of nodes is found
+                matchedNodes = runScriptsUntilMatched(arrangedFilteredNodes, criteria, criteria.getSize());
                 if (loggerIsDebugEnabled) {
                     logger.debug(matchedNodes.size() + " nodes found after scripts execution for " + client);
                 }
@@ -464,27 +502,17 @@ public abstract class SelectionManager {
         }
 
         // creating script executors object to be run in dedicated thread pool
-        List<Callable<Node>> scriptExecutors = new LinkedList<>();
-        synchronized (inProgress) {
-            if (inProgress.size() > 0) {
-                logger.warn(inProgress.size() + " nodes are in process of script execution");
-                for (String nodeName : inProgress) {
-                    logger.warn(nodeName);
-
-                }
-                logger.warn("Something is wrong on these nodes");
-            }
-            for (RMNode node : candidates) {
-                if (!inProgress.contains(node.getNodeURL())) {
-                    inProgress.add(node.getNodeURL());
-                    scriptExecutors.add(new ScriptExecutor(node, criteria, this));
-                }
+        List<ScriptExecution> scriptExecutions = new LinkedList<>();
+        for (RMNode node : candidates) {
+            ScriptExecution scriptExecution = newScriptExecution(node, criteria);
+            if (scriptExecution != null) {
+                scriptExecutions.add(scriptExecution);
             }
         }
 
         try {
             // launching
-            Collection<Future<Node>> matchedNodes = scriptExecutorThreadPool.invokeAll(scriptExecutors);
+            Collection<Future<Node>> matchedNodes = scriptExecutorThreadPool.invokeAll(scriptExecutions);
 
             // waiting for the results
             for (Future<Node> futureNode : matchedNodes) {
@@ -510,7 +538,141 @@ public abstract class SelectionManager {
     }
 
     /**
-     * Removes exclusion nodes and nodes not accessible for the client
+     * Runs scripts on the given nodes, in their order, until the needed number of nodes matched.
+     * At most RM_SELECTION_MAX_THREAD_NUMBER scripts executions are in progress at the same time
+     * and a new one is started as soon as a previous one completes, so a slow node does not delay
+     * the others. Once enough nodes matched, the executions which did not start yet are cancelled
+     * and the ones in progress are not waited for: they complete in the background and their
+     * results only update the knowledge base of the selection manager. Their nodes are cleaned
+     * once the scripts end, so they are not given by any selection until then.
+     *
+     * @param candidates
+     *            nodes to execute scripts on, in the order they should be tried
+     * @param criteria
+     *            contains a set of scripts to execute on each node
+     * @param needed
+     *            number of matched nodes after which the selection stops
+     * @return nodes matched to all scripts
+     */
+    private List<Node> runScriptsUntilMatched(List<RMNode> candidates, Criteria criteria, int needed) {
+        List<Node> matched = new LinkedList<>();
+        int maxInProgress = PAResourceManagerProperties.RM_SELECTION_MAX_THREAD_NUMBER.getValueAsInt();
+        CompletionService<Node> completionService = new ExecutorCompletionService<>(scriptExecutorThreadPool);
+        Map<Future<Node>, ScriptExecution> outstanding = new HashMap<>();
+        Iterator<RMNode> nextCandidates = candidates.iterator();
+
+        try {
+            while (matched.size() < needed) {
+                while (outstanding.size() < maxInProgress && nextCandidates.hasNext()) {
+                    ScriptExecution scriptExecution = newScriptExecution(nextCandidates.next(), criteria);
+                    if (scriptExecution != null) {
+                        outstanding.put(completionService.submit(scriptExecution), scriptExecution);
+                    }
+                }
+                if (outstanding.isEmpty()) {
+                    break;
+                }
+
+                Future<Node> futureNode = completionService.take();
+                outstanding.remove(futureNode);
+                try {
+                    Node node = futureNode.get();
+                    if (node != null) {
+                        matched.add(node);
+                    }
+                } catch (ExecutionException e) {
+                    logger.warn("Ignoring exception in selection script: " + e.getMessage());
+                }
+            }
+        } catch (InterruptedException e) {
+            logger.warn("Interrupting the selection manager");
+        } finally {
+            for (Map.Entry<Future<Node>, ScriptExecution> execution : outstanding.entrySet()) {
+                execution.getKey().cancel(false);
+                execution.getValue().abandon();
+            }
+            if (!outstanding.isEmpty() && logger.isDebugEnabled()) {
+                logger.debug(matched.size() + " nodes matched, not waiting for " + outstanding.size() +
+                             " scripts executions");
+            }
+        }
+
+        return matched;
+    }
+
+    /**
+     * Creates the execution of the selection scripts on a node, or returns null if
+     * scripts are already being executed on this node.
+     */
+    private ScriptExecution newScriptExecution(RMNode node, Criteria criteria) {
+        if (!inProgress.add(node.getNodeURL())) {
+            if (logger.isDebugEnabled()) {
+                logger.debug(node.getNodeURL() + " is in process of script execution, skipping it");
+            }
+            return null;
+        }
+        return new ScriptExecution(node, new ScriptExecutor(node, criteria, this));
+    }
+
+    /**
+     * Returns the moving average of the selection scripts execution time on the given node,
+     * or 0 if scripts were not executed on this node recently.
+     * Implementations can use it to try first the nodes which answer quicker.
+     *
+     * @param nodeUrl url of the node
+     * @return execution time in nanoseconds
+     */
+    protected long getScriptLatency(String nodeUrl) {
+        Long latency = scriptLatencies.getIfPresent(nodeUrl);
+        return latency == null ? 0 : latency;
+    }
+
+    private void recordScriptLatency(String nodeUrl, long latency) {
+        // exponential moving average giving a weight of 1/4 to the last execution
+        scriptLatencies.asMap().merge(nodeUrl, latency, (previous, last) -> previous + (last - previous) / 4);
+    }
+
+    /**
+     * Executes the selection scripts on a node and records their execution time.
+     * An execution which did not start when it is abandoned never runs and
+     * releases the node.
+     */
+    private class ScriptExecution implements Callable<Node> {
+
+        private final String nodeUrl;
+
+        private final ScriptExecutor scriptExecutor;
+
+        private final AtomicBoolean started = new AtomicBoolean(false);
+
+        private ScriptExecution(RMNode node, ScriptExecutor scriptExecutor) {
+            this.nodeUrl = node.getNodeURL();
+            this.scriptExecutor = scriptExecutor;
+        }
+
+        @Override
+        public Node call() throws Exception {
+            if (!started.compareAndSet(false, true)) {
+                return null;
+            }
+            long startTime = System.nanoTime();
+            try {
+                return scriptExecutor.call();
+            } finally {
+                recordScriptLatency(nodeUrl, System.nanoTime() - startTime);
+            }
+        }
+
+        private void abandon() {
+            if (started.compareAndSet(false, true)) {
+                scriptExecutionFinished(nodeUrl);
+            }
+        }
+    }
+
+    /**
+     * Removes exclusion nodes, nodes not accessible for the client and nodes on which
+     * selection scripts are still executed
      */
     private List<RMNode> filterOut(List<RMNode> freeNodes, Criteria criteria, Client client) {
 
@@ -535,6 +697,13 @@ public abstract class SelectionManager {
         List<RMNode> filteredList = new ArrayList<>();
         HashSet<Permission> clientPermissions = new HashSet<>();
         for (RMNode node : freeNodes) {
+            // the node will be cleaned at the end of the scripts execution, which would kill a task started on it
+            if (inProgress.contains(node.getNodeURL())) {
+                if (logger.isDebugEnabled()) {
+                    logger.debug(node.getNodeURL() + " is in process of script execution, skipping it");
+                }
+                continue;
+            }
             try {
                 if (!clientPermissions.contains(node.getUserPermission())) {
                     client.checkPermission(node.getUserPermission(),
@@ -670,9 +839,7 @@ public abstract class SelectionManager {
      * url.
      */
     public void scriptExecutionFinished(String nodeUrl) {
-        synchronized (inProgress) {
-            inProgress.remove(nodeUrl);
-        }
+        inProgress.remove(nodeUrl);
     }
 
     /**
@@ -53,7 +53,8 @@ public class Probability {
 
     private int step = 0;
 
-    private double probability = calcProbability(step);
+    // written under the object lock, read without it by the selection
+    private volatile double probability = calcProbability(step);
 
     private class RestoreProbabilityTask extends TimerTask {
 
@@ -81,7 +82,7 @@ public class Probability {
     /**
      * Returns the probability value
      */
-    public synchronized double value() {
+    public double value() {
         return probability;
     }
 
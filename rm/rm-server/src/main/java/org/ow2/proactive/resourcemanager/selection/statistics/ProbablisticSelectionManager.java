@@ -28,13 +28,11 @@ package org.ow2.proactive.resourcemanager.selection.statistics;
 import java.io.Serializable;
 import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
-import java.util.Collections;
-import java.util.HashMap;
-import java.util.LinkedHashMap;
-import java.util.LinkedList;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import org.apache.log4j.Logger;
 import org.objectweb.proactive.extensions.annotation.ActiveObject;
@@ -46,6 +44,11 @@ import org.ow2.proactive.scripting.InvalidScriptException;
 import org.ow2.proactive.scripting.ScriptResult;
 import org.ow2.proactive.scripting.SelectionScript;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.RemovalCause;
+import com.google.common.hash.HashCode;
+
 
 /**
  * An implementation of {@link SelectionManager} interface, based on
@@ -67,25 +70,34 @@ public class ProbablisticSelectionManager extends SelectionManager {
 
     private final static Logger logger = Logger.getLogger(ProbablisticSelectionManager.class);
 
+    // among nodes having the same probability, the ones executing scripts quicker are tried first
+    private static final Comparator<ScoredNode> HIGHEST_PROBABILITY_FIRST = (n1, n2) -> {
+        int comparison = Double.compare(n2.probability, n1.probability);
+        return comparison != 0 ? comparison : Long.compare(n1.latency, n2.latency);
+    };
+
     // contains an information about already executed scripts
-    // script digest => node => probability
-    private HashMap<String, HashMap<String, Probability>> probabilities;
-
-    // in order to avoid OOM when the number of scripts exceeds the limit
-    // we could :
-    // 1. Reset all the probabilities for all scripts (simple but long to recover performance)
-    // 2. Remove the oldest script execution results (too expensive and complicated)
-    //	  need to store the time, update it each time, then sort when removing
-    //    the system will be too CPU consuming working on the limit
-    // 3. Removed the oldest added script. For this we have this queue. 
-    private LinkedList<String> digestQueue = new LinkedList<>();
+    // script digest => node url => probability
+    // the cache is bounded by RM_SELECT_SCRIPT_CACHE_SIZE, the least recently used scripts
+    // are evicted first so that frequently submitted scripts keep their history.
+    // It is read concurrently by the script executors so no global lock is taken.
+    private Cache<HashCode, ConcurrentMap<String, Probability>> probabilities;
 
     public ProbablisticSelectionManager() {
     }
 
     public ProbablisticSelectionManager(RMCore rmcore) {
         super(rmcore);
-        this.probabilities = new HashMap<>();
+        int cacheSize = PAResourceManagerProperties.RM_SELECT_SCRIPT_CACHE_SIZE.getValueAsInt();
+        this.probabilities = CacheBuilder.newBuilder()
+                                         .maximumSize(cacheSize)
+                                         .<HashCode, ConcurrentMap<String, Probability>> removalListener(removal -> {
+                                             if (removal.getCause() == RemovalCause.SIZE && logger.isDebugEnabled()) {
+                                                 logger.debug("Removing the script: " + removal.getKey() +
+                                                              " from the data base because the limit is reached");
+                                             }
+                                         })
+                                         .build();
     }
 
     /**
@@ -108,49 +120,58 @@ public class ProbablisticSelectionManager extends SelectionManager {
             return nodes;
         }
 
+        // the digests only depend on the scripts and the bindings,
+        // so they are resolved once and not for every node
+        List<Map<String, Probability>> knownScripts = new ArrayList<>(scripts.size());
+        int unknownScripts = 0;
+        for (SelectionScript script : scripts) {
+            HashCode digest = digest(replaceBindings(script, bindings));
+            Map<String, Probability> nodesProbabilities = digest == null ? null : probabilities.getIfPresent(digest);
+            if (nodesProbabilities == null) {
+                unknownScripts++;
+            } else {
+                knownScripts.add(nodesProbabilities);
+            }
+        }
+        double unknownScriptsProbability = Math.pow(Probability.defaultValue(), unknownScripts);
+
         // finding intersection
-        HashMap<RMNode, Probability> intersectionMap = new LinkedHashMap<>();
+        List<ScoredNode> intersection = new ArrayList<>(nodes.size());
         for (RMNode rmnode : nodes) {
-            boolean intersection = true;
-            double intersectionProbability = 1;
-            for (SelectionScript script : scripts) {
-                SelectionScript scriptWithReplacedBindings = replaceBindings(script, bindings);
-                String digest = "";
-                try {
-                    digest = new String(scriptWithReplacedBindings.digest());
-                } catch (NoSuchAlgorithmException e) {
-                    logger.error(e.getMessage(), e);
-                }
-                if (probabilities.containsKey(digest) && probabilities.get(digest).containsKey(rmnode.getNodeURL())) {
-                    double probability = probabilities.get(digest).get(rmnode.getNodeURL()).value();
-                    if (Math.abs(probability - 0) < 0.0001) {
-                        intersection = false;
+            double intersectionProbability = unknownScriptsProbability;
+            if (!knownScripts.isEmpty()) {
+                String nodeUrl = rmnode.getNodeURL();
+                for (Map<String, Probability> nodesProbabilities : knownScripts) {
+                    Probability probability = nodesProbabilities.get(nodeUrl);
+                    double value = probability == null ? Probability.defaultValue() : probability.value();
+                    if (Math.abs(value - 0) < 0.0001) {
+                        intersectionProbability = 0;
                         break;
-                    } else {
-                        intersectionProbability *= probability;
                     }
-                } else {
-                    intersectionProbability *= Probability.defaultValue();
+                    intersectionProbability *= value;
                 }
             }
-
-            if (intersection) {
-                intersectionMap.put(rmnode, new Probability(intersectionProbability));
+            if (intersectionProbability > 0) {
+                intersection.add(new ScoredNode(rmnode,
+                                                intersectionProbability,
+                                                getScriptLatency(rmnode.getNodeURL())));
             }
         }
 
-        // sorting results based on calculated probability
-        Set<RMNode> nodeSet = intersectionMap.keySet();
-        List<RMNode> res = new ArrayList<>(nodeSet.size());
-        res.addAll(nodeSet);
-        Collections.sort(res, new NodeProbabilityComparator(intersectionMap));
+        // sorting results based on calculated probability and scripts latency, the sort is stable
+        // so otherwise equal nodes keep the order of the free nodes list
+        intersection.sort(HIGHEST_PROBABILITY_FIRST);
+        List<RMNode> res = new ArrayList<>(intersection.size());
+        for (ScoredNode scoredNode : intersection) {
+            res.add(scoredNode.node);
+        }
 
         if (logger.isDebugEnabled()) {
             logger.debug("The following nodes are selected for scripts execution (time is " +
                          (System.currentTimeMillis() - startTime) + " ms) :");
             if (res.size() > 0) {
-                res.forEach(rmnode -> {
-                    logger.debug(rmnode.getNodeURL() + " : probability " + intersectionMap.get(rmnode));
+                intersection.forEach(scoredNode -> {
+                    logger.debug(scoredNode.node.getNodeURL() + " : probability " + scoredNode.probability);
                 });
             } else {
                 logger.debug("None");
@@ -168,28 +189,26 @@ public class ProbablisticSelectionManager extends SelectionManager {
      * @return true if script will pass on the node
      */
     @Override
-    public synchronized boolean isPassed(SelectionScript script, Map<String, Serializable> bindings, RMNode rmnode) {
-        String digest = null;
+    public boolean isPassed(SelectionScript script, Map<String, Serializable> bindings, RMNode rmnode) {
         SelectionScript scriptWithReplacedBindings = replaceBindings(script, bindings);
         if (logger.isTraceEnabled()) {
             logger.trace(rmnode.getNodeURL() + " : script with replaced bindings : " +
                          scriptWithReplacedBindings.getId());
         }
-        try {
-            digest = new String(scriptWithReplacedBindings.digest());
-            if (probabilities.containsKey(digest) && probabilities.get(digest).containsKey(rmnode.getNodeURL())) {
-                Probability p = probabilities.get(digest).get(rmnode.getNodeURL());
+        HashCode digest = digest(scriptWithReplacedBindings);
+        if (digest != null) {
+            Map<String, Probability> nodesProbabilities = probabilities.getIfPresent(digest);
+            Probability p = nodesProbabilities == null ? null : nodesProbabilities.get(rmnode.getNodeURL());
+            if (p != null) {
                 String scriptType = scriptWithReplacedBindings.isDynamic() ? "dynamic" : "static";
                 if (logger.isDebugEnabled())
                     logger.debug(rmnode.getNodeURL() + " : " + digest.hashCode() + " known " + scriptType + " script");
                 return p.value() == 1;
             }
-        } catch (NoSuchAlgorithmException e) {
-            logger.error(e.getMessage(), e);
         }
 
         if (logger.isDebugEnabled())
-            logger.debug(rmnode.getNodeURL() + " : " + digest.hashCode() + " unknown script");
+            logger.debug(rmnode.getNodeURL() + " : " + (digest == null ? 0 : digest.hashCode()) + " unknown script");
         return false;
     }
 
@@ -203,66 +222,43 @@ public class ProbablisticSelectionManager extends SelectionManager {
      * @return whether node is selected
      */
     @Override
-    public synchronized boolean processScriptResult(SelectionScript script, Map<String, Serializable> bindings,
+    public boolean processScriptResult(SelectionScript script, Map<String, Serializable> bindings,
             ScriptResult<Boolean> scriptResult, RMNode rmnode) {
 
-        boolean result = false;
-
         SelectionScript scriptWithReplacedBindings = replaceBindings(script, bindings);
+        boolean passed = scriptResult != null && !scriptResult.errorOccured() && scriptResult.getResult();
 
-        try {
-            String digest = new String(scriptWithReplacedBindings.digest());
-            Probability probability = new Probability(Probability.defaultValue());
-            if (probabilities.containsKey(digest) && probabilities.get(digest).containsKey(rmnode.getNodeURL())) {
-                probability = probabilities.get(digest).get(rmnode.getNodeURL());
-                assert (probability.value() >= 0 && probability.value() <= 1);
-            }
+        HashCode digest = digest(scriptWithReplacedBindings);
+        if (digest == null) {
+            return passed;
+        }
 
-            if (scriptResult == null || scriptResult.errorOccured() || !scriptResult.getResult()) {
-                // error during script execution or script returned false
-                if (scriptWithReplacedBindings.isDynamic()) {
-                    probability.decrease();
-                } else {
-                    probability = Probability.ZERO;
-                }
-            } else {
-                // script passed
-                result = true;
-                if (scriptWithReplacedBindings.isDynamic()) {
-                    probability.increase();
-                } else {
-                    probability = Probability.ONE;
-                }
-            }
+        ConcurrentMap<HashCode, ConcurrentMap<String, Probability>> scripts = probabilities.asMap();
+        ConcurrentMap<String, Probability> nodes = scripts.computeIfAbsent(digest, key -> new ConcurrentHashMap<>());
 
-            if (!probabilities.containsKey(digest)) {
-                // checking if the number of selection script does not exceeded the maximum
-                if (probabilities.size() >= PAResourceManagerProperties.RM_SELECT_SCRIPT_CACHE_SIZE.getValueAsInt()) {
-                    String oldest = digestQueue.poll();
-                    probabilities.remove(oldest);
-                    if (logger.isDebugEnabled()) {
-                        logger.debug("Removing the script: " + scriptWithReplacedBindings.hashCode() +
-                                     " from the data base because the limit is reached");
-                    }
-                }
-                // adding a new script record
-                probabilities.put(digest, new HashMap<String, Probability>());
-                logger.debug("Scripts cache size " + probabilities.size());
-                digestQueue.offer(digest);
+        // the update of a given node is atomic, results of the same script
+        // on different nodes are processed concurrently
+        Probability probability = nodes.compute(rmnode.getNodeURL().intern(), (nodeUrl, previous) -> {
+            Probability current = previous != null ? previous : new Probability(Probability.defaultValue());
+            assert (current.value() >= 0 && current.value() <= 1);
+            if (!scriptWithReplacedBindings.isDynamic()) {
+                return passed ? Probability.ONE : Probability.ZERO;
             }
-
-            if (logger.isDebugEnabled()) {
-                logger.debug(rmnode.getNodeURL() + " : script " + scriptWithReplacedBindings.hashCode() +
-                             ", probability " + probability);
+            if (passed) {
+                current.increase();
+            } else {
+                // error during script execution or script returned false
+                current.decrease();
             }
+            return current;
+        });
 
-            probabilities.get(digest).put(rmnode.getNodeURL().intern(), probability);
-
-        } catch (NoSuchAlgorithmException e) {
-            logger.error(e.getMessage(), e);
+        if (logger.isDebugEnabled()) {
+            logger.debug(rmnode.getNodeURL() + " : script " + scriptWithReplacedBindings.hashCode() +
+                         ", probability " + probability + ", scripts cache size " + probabilities.size());
         }
 
-        return result;
+        return passed;
     }
 
     /**
@@ -313,4 +309,28 @@ public class ProbablisticSelectionManager extends SelectionManager {
         return scriptContent;
     }
 
+    private HashCode digest(SelectionScript script) {
+        try {
+            return HashCode.fromBytes(script.digest());
+        } catch (NoSuchAlgorithmException e) {
+            logger.error(e.getMessage(), e);
+            return null;
+        }
+    }
+
+    private static final class ScoredNode {
+
+        private final RMNode node;
+
+        private final double probability;
+
+        private final long latency;
+
+        private ScoredNode(RMNode node, double probability, long latency) {
+            this.node = node;
+            this.probability = probability;
+            this.latency = latency;
+        }
+    }
+
 }
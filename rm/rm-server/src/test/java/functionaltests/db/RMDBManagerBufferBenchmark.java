@@ -0,0 +1,113 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package functionaltests.db;
+
+import org.ow2.proactive.resourcemanager.common.NodeState;
+import org.ow2.proactive.resourcemanager.core.properties.PAResourceManagerProperties;
+import org.ow2.proactive.resourcemanager.db.NodeSourceData;
+import org.ow2.proactive.resourcemanager.db.RMDBManager;
+import org.ow2.proactive.resourcemanager.db.RMDBManagerBuffer;
+import org.ow2.proactive.resourcemanager.db.RMNodeData;
+
+
+/**
+ * Deploys fake nodes in an in-memory database through the {@link RMDBManagerBuffer}: each node is created then
+ * goes through a few state changes, as during the deployment of a node source.
+ * <p>
+ * Prints, for each number of nodes, the time until all the nodes can be read back, the number of node
+ * operations requested, coalesced and committed, and the number and latency of the database transactions.
+ * <p>
+ * This is not a unit test, run it manually with the test classpath:
+ * <pre>java functionaltests.db.RMDBManagerBufferBenchmark [max number of nodes] [node operations delay in ms]</pre>
+ */
+public class RMDBManagerBufferBenchmark {
+
+    private static final String NODE_SOURCE_NAME = "BenchmarkNodeSource";
+
+    private static final NodeState[] DEPLOYMENT_STATES = { NodeState.CONFIGURING, NodeState.FREE, NodeState.BUSY,
+                                                           NodeState.FREE };
+
+    public static void main(String[] args) {
+        int maxNodes = args.length > 0 ? Integer.parseInt(args[0]) : 5000;
+        String delay = args.length > 1 ? args[1] : "100";
+
+        PAResourceManagerProperties.RM_NODES_DB_OPERATIONS_DELAY.updateProperty(delay);
+        PAResourceManagerProperties.RM_NODES_DB_SYNCHRONOUS_UPDATES.updateProperty("true");
+
+        System.out.println("nodes,duration_ms,registered_operations,coalesced_operations,committed_operations," +
+                           "transactions,max_pending_operations,max_transaction_ms");
+        for (int nodes = 500; nodes <= maxNodes; nodes *= 2) {
+            // first run warms up the JIT and Hibernate
+            benchmark(nodes);
+            benchmark(nodes);
+        }
+    }
+
+    private static void benchmark(int nodes) {
+        RMDBManager dbManager = RMDBManager.createInMemoryRMDBManager();
+        try {
+            NodeSourceData nodeSourceData = new NodeSourceData();
+            nodeSourceData.setName(NODE_SOURCE_NAME);
+            nodeSourceData.setPolicyType("BenchmarkPolicy");
+            dbManager.addNodeSource(nodeSourceData);
+
+            long start = System.currentTimeMillis();
+            for (int i = 0; i < nodes; i++) {
+                RMNodeData rmNodeData = new RMNodeData("node-" + i,
+                                                       "pnp://benchmark:" + i + "/node-" + i,
+                                                       null,
+                                                       null,
+                                                       null,
+                                                       NodeState.DEPLOYING,
+                                                       start,
+                                                       "benchmark",
+                                                       new String[0],
+                                                       "pnp://benchmark:" + i + "/PA_JVM" + i);
+                rmNodeData.setNodeSource(nodeSourceData);
+                dbManager.addNode(rmNodeData, NODE_SOURCE_NAME);
+                for (NodeState state : DEPLOYMENT_STATES) {
+                    rmNodeData.setState(state);
+                    dbManager.updateNode(rmNodeData, NODE_SOURCE_NAME);
+                }
+            }
+            int retrieved = dbManager.getAllNodes().size();
+            long duration = System.currentTimeMillis() - start;
+            if (retrieved != nodes) {
+                throw new IllegalStateException("Expected " + nodes + " nodes in database but got " + retrieved);
+            }
+
+            RMDBManagerBuffer buffer = dbManager.getBuffer();
+            System.out.println(nodes + "," + duration + "," + buffer.getRegisteredNodeOperationsCount() + "," +
+                               buffer.getCoalescedNodeOperationsCount() + "," +
+                               buffer.getCommittedNodeOperationsCount() + "," + buffer.getNodeTransactionsCount() +
+                               "," + buffer.getMaxPendingNodeOperationsCount() + "," +
+                               buffer.getMaxNodeTransactionDurationInMilliseconds());
+        } finally {
+            dbManager.close();
+        }
+    }
+
+}
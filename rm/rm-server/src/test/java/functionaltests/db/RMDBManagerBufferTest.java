@@ -134,7 +134,8 @@ public class RMDBManagerBufferTest {
         checkPendingNodeOperationsNbOperations(1);
 
         updateRMNodeData(rmNodeData, NodeState.BUSY);
-        checkPendingNodeOperationsNbOperations(2);
+        // the update is coalesced with the pending creation of the node
+        checkPendingNodeOperationsNbOperations(1);
         long afterUpdate = System.currentTimeMillis();
 
         assertThat(dbManager.getNodeByNameAndUrl(NODE_NAME_BASE, NODE_URL).getState()).isEqualTo(NodeState.BUSY);
@@ -147,6 +148,36 @@ public class RMDBManagerBufferTest {
         assertThat(afterRetrieve - beforeAdd).isGreaterThan(Long.valueOf(NODE_DB_OPERATION_DELAY));
     }
 
+    @Test
+    public void testLongDelayAndSuccessiveOperationsOnNodeAreCoalesced() {
+        setPropertiesAndCreateDBManager(NODE_DB_OPERATION_DELAY, "true");
+
+        RMNodeData rmNodeData = addRMNodeData(NODE_NAME_BASE, NODE_STATE_BASE);
+        updateRMNodeData(rmNodeData, NodeState.BUSY);
+        updateRMNodeData(rmNodeData, NodeState.FREE);
+        checkPendingNodeOperationsNbOperations(1);
+        assertThat(dbManagerBuffer.getCoalescedNodeOperationsCount()).isEqualTo(2);
+
+        assertThat(dbManager.getNodeByNameAndUrl(NODE_NAME_BASE, NODE_URL).getState()).isEqualTo(NodeState.FREE);
+        checkPendingNodeOperationsIsEmpty();
+        assertThat(dbManagerBuffer.getNodeTransactionsCount()).isEqualTo(1);
+        assertThat(dbManagerBuffer.getCommittedNodeOperationsCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void testLongDelayAndImmediatelyRemovedNodeIsNeverWrittenInDatabase() {
+        setPropertiesAndCreateDBManager(NODE_DB_OPERATION_DELAY, "true");
+
+        RMNodeData rmNodeData = addRMNodeData(NODE_NAME_BASE, NODE_STATE_BASE);
+        updateRMNodeData(rmNodeData, NodeState.BUSY);
+        dbManager.removeNode(rmNodeData, NODE_SOURCE_NAME_BASE);
+        checkPendingNodeOperationsIsEmpty();
+        assertThat(dbManagerBuffer.getCoalescedNodeOperationsCount()).isEqualTo(3);
+
+        assertThat(dbManager.getAllNodes()).isEmpty();
+        assertThat(dbManagerBuffer.getCommittedNodeOperationsCount()).isEqualTo(0);
+    }
+
     @Test
     public void testNoDelayAndSynchronousUpdatesDisabledLeadsToImmediatelyUpdatedNodeCanBeRetrievedFast() {
         setPropertiesAndCreateDBManager("0", "false");
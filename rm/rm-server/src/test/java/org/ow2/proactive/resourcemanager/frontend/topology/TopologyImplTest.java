@@ -0,0 +1,129 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive.resourcemanager.frontend.topology;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.net.InetAddress;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.ow2.proactive.resourcemanager.frontend.topology.clustering.Cluster;
+import org.ow2.proactive.topology.descriptor.BestProximityDescriptor;
+
+
+public class TopologyImplTest {
+
+    private TopologyImpl topology;
+
+    private InetAddress host1;
+
+    private InetAddress host2;
+
+    private InetAddress host3;
+
+    @Before
+    public void setUp() throws Exception {
+        topology = new TopologyImpl();
+        host1 = InetAddress.getByAddress("host1", new byte[] { 10, 0, 0, 1 });
+        host2 = InetAddress.getByAddress("host2", new byte[] { 10, 0, 0, 2 });
+        host3 = InetAddress.getByAddress("host3", new byte[] { 10, 0, 0, 3 });
+        topology.addHostTopology("host1", host1, new HashMap<InetAddress, Long>());
+        topology.addHostTopology("host2", host2, distances(host1, 10L));
+        topology.addHostTopology("host3", host3, distances(host1, 20L, host2, 1000L));
+    }
+
+    @Test
+    public void testDistancesAreSymmetrical() {
+        assertEquals(Long.valueOf(0), topology.getDistance(host1, host1));
+        assertEquals(Long.valueOf(10), topology.getDistance(host1, host2));
+        assertEquals(Long.valueOf(10), topology.getDistance(host2, host1));
+        assertEquals(Long.valueOf(1000), topology.getDistance("host3", "host2"));
+        assertNull(topology.getDistance("host3", "unknown"));
+    }
+
+    @Test
+    public void testHostTopologyContainsPreviousHosts() {
+        assertEquals(distances(host1, 20L, host2, 1000L), topology.getHostTopology(host3));
+        assertEquals(distances(host1, 10L), topology.getHostTopology(host2));
+        assertEquals(3, topology.getDistances().size());
+    }
+
+    @Test
+    public void testRemovedHostIndexIsReused() throws Exception {
+        int index = topology.getHostIndex(host2);
+        topology.removeHostTopology("host2", host2);
+
+        assertFalse(topology.knownHost(host2));
+        assertEquals(-1, topology.getHostIndex(host2));
+        assertEquals(Long.valueOf(Long.MAX_VALUE), topology.getDistance(host2, host3));
+
+        InetAddress host4 = InetAddress.getByAddress("host4", new byte[] { 10, 0, 0, 4 });
+        topology.addHostTopology("host4", host4, distances(host3, 5L));
+
+        assertEquals(index, topology.getHostIndex(host4));
+        assertEquals(5, topology.getDistance(topology.getHostIndex(host4), topology.getHostIndex(host3)));
+        // the distances of the removed host are not inherited
+        assertEquals(Long.valueOf(Long.MAX_VALUE), topology.getDistance(host4, host1));
+    }
+
+    @Test
+    public void testManyHosts() throws Exception {
+        for (int i = 4; i < 100; i++) {
+            InetAddress host = InetAddress.getByAddress("host" + i, new byte[] { 10, 0, 0, (byte) i });
+            topology.addHostTopology("host" + i, host, distances(host1, (long) i));
+        }
+        assertEquals(99, topology.getHosts().size());
+        assertEquals(Long.valueOf(10), topology.getDistance(host2, host1));
+        assertEquals(Long.valueOf(99), topology.getDistance("host99", "host1"));
+    }
+
+    @Test
+    public void testClusterize() {
+        List<Cluster<String>> clusters = topology.clusterize(2, BestProximityDescriptor.MAX);
+
+        assertEquals(2, clusters.size());
+        Set<String> closest = new HashSet<>(clusters.get(0).size() == 2 ? clusters.get(0).getElements()
+                                                                        : clusters.get(1).getElements());
+        assertTrue(closest.contains("host1"));
+        assertTrue(closest.contains("host2"));
+    }
+
+    private static HashMap<InetAddress, Long> distances(Object... hostsAndDistances) {
+        HashMap<InetAddress, Long> distances = new HashMap<>();
+        for (int i = 0; i < hostsAndDistances.length; i += 2) {
+            distances.put((InetAddress) hostsAndDistances[i], (Long) hostsAndDistances[i + 1]);
+        }
+        return distances;
+    }
+}
@@ -0,0 +1,157 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive.resourcemanager.frontend.topology.clustering;
+
+import java.net.InetAddress;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import org.objectweb.proactive.core.node.Node;
+import org.ow2.proactive.resourcemanager.frontend.topology.Topology;
+import org.ow2.proactive.resourcemanager.frontend.topology.TopologyImpl;
+import org.ow2.proactive.topology.descriptor.BestProximityDescriptor;
+import org.ow2.proactive.topology.descriptor.DistanceFunction;
+
+
+/**
+ * Measures the clustering of {@link HAC} on hosts randomly placed on a plane, the distance
+ * between hosts being their euclidean distance.
+ * <p>
+ * Prints, for each number of hosts, the time to select the closest tenth of the hosts
+ * with {@link HAC#select(int, List)} and the time to split the hosts of a {@link TopologyImpl}
+ * into 10 clusters with {@link TopologyImpl#clusterize(int, DistanceFunction)}.
+ * <p>
+ * This is not a unit test, run it manually with the test classpath:
+ * <pre>java org.ow2.proactive.resourcemanager.frontend.topology.clustering.HACBenchmark</pre>
+ */
+public class HACBenchmark {
+
+    private static final int[] HOSTS = { 500, 2000, 5000 };
+
+    private static final int CLUSTERS = 10;
+
+    public static void main(String[] args) throws Exception {
+        System.out.println("hosts,distance_function,select_ms,clusterize_ms");
+        // first run warms up the JIT
+        benchmark(HOSTS[0], BestProximityDescriptor.AVG, "AVG");
+        for (int hosts : HOSTS) {
+            benchmark(hosts, BestProximityDescriptor.AVG, "AVG");
+            benchmark(hosts, BestProximityDescriptor.MAX, "MAX");
+            benchmark(hosts, BestProximityDescriptor.MIN, "MIN");
+        }
+    }
+
+    private static void benchmark(int hosts, DistanceFunction distanceFunction, String name) throws Exception {
+        Random random = new Random(42);
+        long[][] coordinates = new long[hosts][2];
+        List<Node> nodes = new ArrayList<>(hosts);
+        for (int i = 0; i < hosts; i++) {
+            coordinates[i][0] = random.nextInt(10000);
+            coordinates[i][1] = random.nextInt(10000);
+            nodes.add(new DummyNode("node-" + i));
+        }
+
+        PlaneTopology planeTopology = new PlaneTopology(nodes, coordinates);
+        long start = System.nanoTime();
+        new HAC(planeTopology, null, distanceFunction, Long.MAX_VALUE).select(hosts / 10, nodes);
+        long selectDuration = System.nanoTime() - start;
+
+        TopologyImpl topology = new TopologyImpl();
+        List<InetAddress> addresses = new ArrayList<>(hosts);
+        for (int i = 0; i < hosts; i++) {
+            InetAddress address = InetAddress.getByAddress("host-" + i,
+                                                           new byte[] { 10, (byte) (i >> 16), (byte) (i >> 8),
+                                                                        (byte) i });
+            HashMap<InetAddress, Long> hostTopology = new HashMap<>();
+            for (int j = 0; j < i; j++) {
+                hostTopology.put(addresses.get(j), distance(coordinates[i], coordinates[j]));
+            }
+            topology.addHostTopology("host-" + i, address, hostTopology);
+            addresses.add(address);
+        }
+        start = System.nanoTime();
+        topology.clusterize(CLUSTERS, distanceFunction);
+        long clusterizeDuration = System.nanoTime() - start;
+
+        System.out.println(hosts + "," + name + "," + (selectDuration / 1000000) + "," +
+                           (clusterizeDuration / 1000000));
+    }
+
+    private static long distance(long[] point, long[] point2) {
+        long dx = point[0] - point2[0];
+        long dy = point[1] - point2[1];
+        return (long) Math.sqrt(dx * dx + dy * dy);
+    }
+
+    private static class PlaneTopology implements Topology {
+
+        private static final long serialVersionUID = 32L;
+
+        private final Map<Node, long[]> coordinates = new HashMap<>();
+
+        private PlaneTopology(List<Node> nodes, long[][] coordinates) {
+            for (int i = 0; i < nodes.size(); i++) {
+                this.coordinates.put(nodes.get(i), coordinates[i]);
+            }
+        }
+
+        public Long getDistance(Node node, Node node2) {
+            return distance(coordinates.get(node), coordinates.get(node2));
+        }
+
+        public Long getDistance(InetAddress hostAddress, InetAddress hostAddress2) {
+            return null;
+        }
+
+        public Long getDistance(String hostName, String hostName2) {
+            return null;
+        }
+
+        public HashMap<InetAddress, Long> getHostTopology(InetAddress hostAddress) {
+            return null;
+        }
+
+        public Set<InetAddress> getHosts() {
+            return null;
+        }
+
+        public boolean knownHost(InetAddress hostAddress) {
+            return false;
+        }
+
+        public boolean onSameHost(Node node, Node node2) {
+            return false;
+        }
+
+        public List<Cluster<String>> clusterize(int numberOfClusters, DistanceFunction distanceFunction) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,207 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive.resourcemanager.nodesource;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+
+public class NodeHeartbeatsTest {
+
+    private static final long PERIOD = 48000;
+
+    private static final long CHECK_INTERVAL = PERIOD / 16;
+
+    private static final long HEARTBEAT_DELAY = 30000;
+
+    private static final int NUMBER_OF_NODES = 5000;
+
+    private static final long SIMULATION_DURATION = 10 * PERIOD;
+
+    @Test
+    public void testLatestHeartbeatIsKept() {
+        NodeHeartbeats heartbeats = new NodeHeartbeats();
+        assertEquals(Long.MIN_VALUE, heartbeats.getLastSeen("node"));
+
+        heartbeats.recordHeartbeat("node", 100);
+        heartbeats.recordHeartbeat("node", 50);
+        assertEquals(100, heartbeats.getLastSeen("node"));
+
+        heartbeats.recordHeartbeat("node", 200);
+        assertEquals(200, heartbeats.getLastSeen("node"));
+    }
+
+    @Test
+    public void testForgottenNodesFreeTheirSlot() {
+        NodeHeartbeats heartbeats = new NodeHeartbeats();
+        for (int i = 0; i < 100; i++) {
+            heartbeats.recordHeartbeat("node" + i, i);
+        }
+        heartbeats.forget("node10");
+        heartbeats.forget("node20");
+        assertEquals(98, heartbeats.size());
+        assertEquals(Long.MIN_VALUE, heartbeats.getLastSeen("node10"));
+
+        heartbeats.recordHeartbeat("node100", 1000);
+        heartbeats.recordHeartbeat("node101", 1001);
+        heartbeats.recordHeartbeat("node102", 1002);
+        assertEquals(101, heartbeats.size());
+        assertEquals(1000, heartbeats.getLastSeen("node100"));
+        assertEquals(1001, heartbeats.getLastSeen("node101"));
+        assertEquals(1002, heartbeats.getLastSeen("node102"));
+        assertEquals(99, heartbeats.getLastSeen("node99"));
+    }
+
+    @Test
+    public void testAllOverdueNodesArePingedAfterALongInterval() {
+        NodeHeartbeats heartbeats = new NodeHeartbeats();
+        heartbeats.recordHeartbeat("alive", 2 * PERIOD);
+        heartbeats.recordHeartbeat("overdue", 0);
+
+        assertTrue(heartbeats.mustBePinged("overdue", PERIOD, 2 * PERIOD + 1, PERIOD));
+        assertTrue(heartbeats.mustBePinged("unknown", PERIOD, 2 * PERIOD + 1, PERIOD));
+        assertFalse(heartbeats.mustBePinged("alive", PERIOD, 2 * PERIOD + 1, PERIOD));
+    }
+
+    /**
+     * Simulates node sources checking thousands of nodes: most of them send heartbeats, some are
+     * alive but silent and only answer pings, some are dead.
+     */
+    @Test
+    public void testOnlyNodesWithOverdueHeartbeatArePingedOverThePeriod() {
+        NodeHeartbeats heartbeats = new NodeHeartbeats();
+        Random random = new Random(42);
+
+        List<FakeNode> aliveNodes = new ArrayList<>();
+        List<FakeNode> allNodes = new ArrayList<>();
+        for (int i = 0; i < NUMBER_OF_NODES; i++) {
+            FakeNode node = new FakeNode("pnp://host" + (i % 100) + ":64738/node-" + i,
+                                         behaviorOf(i),
+                                         (long) random.nextInt((int) HEARTBEAT_DELAY));
+            // registration in the node source
+            heartbeats.recordHeartbeat(node.url, 0);
+            aliveNodes.add(node);
+            allNodes.add(node);
+        }
+
+        int maxPingsPerCheck = 0;
+        for (long to = CHECK_INTERVAL; to <= SIMULATION_DURATION; to += CHECK_INTERVAL) {
+            long from = to - CHECK_INTERVAL;
+
+            for (FakeNode node : aliveNodes) {
+                if (node.behavior == NodeBehavior.SENDS_HEARTBEATS && to >= node.heartbeatOffset) {
+                    long lastHeartbeat = to - (to - node.heartbeatOffset) % HEARTBEAT_DELAY;
+                    heartbeats.recordHeartbeat(node.url, lastHeartbeat);
+                }
+            }
+
+            int pings = 0;
+            for (Iterator<FakeNode> iterator = aliveNodes.iterator(); iterator.hasNext();) {
+                FakeNode node = iterator.next();
+                if (heartbeats.mustBePinged(node.url, from, to, PERIOD)) {
+                    pings++;
+                    node.pings.add(to);
+                    if (node.behavior == NodeBehavior.DEAD) {
+                        iterator.remove();
+                    } else {
+                        heartbeats.recordHeartbeat(node.url, to);
+                    }
+                }
+            }
+            maxPingsPerCheck = Math.max(maxPingsPerCheck, pings);
+        }
+
+        int overdueNodes = 0;
+        for (FakeNode node : allNodes) {
+            switch (node.behavior) {
+                case SENDS_HEARTBEATS:
+                    assertTrue(node.url + " must not be pinged", node.pings.isEmpty());
+                    break;
+                case DEAD:
+                    overdueNodes++;
+                    assertEquals(node.url + " must be pinged once", 1, node.pings.size());
+                    assertTrue(node.url + " must be detected within two periods", node.pings.get(0) <= 2 * PERIOD);
+                    break;
+                case SILENT:
+                    overdueNodes++;
+                    assertTrue(node.url + " must be pinged every period", node.pings.size() >= 8);
+                    for (int i = 1; i < node.pings.size(); i++) {
+                        assertEquals(PERIOD, node.pings.get(i) - node.pings.get(i - 1));
+                    }
+                    break;
+            }
+        }
+
+        // pinging all nodes at once would send NUMBER_OF_NODES pings in a single check
+        long checksPerPeriod = PERIOD / CHECK_INTERVAL;
+        assertTrue("pings are not spread over the period: " + maxPingsPerCheck,
+                   maxPingsPerCheck <= 2 * overdueNodes / checksPerPeriod);
+    }
+
+    // 80% of the nodes send heartbeats, 10% are silent and 10% are dead
+    private static NodeBehavior behaviorOf(int nodeIndex) {
+        switch (nodeIndex % 10) {
+            case 8:
+                return NodeBehavior.SILENT;
+            case 9:
+                return NodeBehavior.DEAD;
+            default:
+                return NodeBehavior.SENDS_HEARTBEATS;
+        }
+    }
+
+    private enum NodeBehavior {
+        SENDS_HEARTBEATS,
+        SILENT,
+        DEAD
+    }
+
+    private static class FakeNode {
+
+        private final String url;
+
+        private final NodeBehavior behavior;
+
+        private final long heartbeatOffset;
+
+        private final List<Long> pings = new ArrayList<>();
+
+        FakeNode(String url, NodeBehavior behavior, long heartbeatOffset) {
+            this.url = url;
+            this.behavior = behavior;
+            this.heartbeatOffset = heartbeatOffset;
+        }
+    }
+
+}
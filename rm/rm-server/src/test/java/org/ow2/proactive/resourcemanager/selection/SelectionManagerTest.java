@@ -27,23 +27,33 @@ package org.ow2.proactive.resourcemanager.selection;
 
 import static java.util.Collections.singleton;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.fail;
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.io.Serializable;
 import java.security.Permission;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
 
 import javax.security.auth.Subject;
 
 import org.junit.After;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Matchers;
 import org.mockito.Mockito;
 import org.objectweb.proactive.core.node.Node;
@@ -58,6 +68,7 @@ import org.ow2.proactive.resourcemanager.nodesource.NodeSource;
 import org.ow2.proactive.resourcemanager.rmnode.RMNode;
 import org.ow2.proactive.resourcemanager.selection.topology.TopologyHandler;
 import org.ow2.proactive.resourcemanager.selection.topology.TopologyManager;
+import org.ow2.proactive.scripting.Script;
 import org.ow2.proactive.scripting.ScriptResult;
 import org.ow2.proactive.scripting.SelectionScript;
 import org.ow2.proactive.topology.descriptor.TopologyDescriptor;
@@ -70,10 +81,15 @@ import com.google.common.collect.Lists;
 
 public class SelectionManagerTest {
 
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
     @After
     public void tearDown() throws Exception {
         RMCore.topologyManager = null;
         System.setSecurityManager(null);
+        PAResourceManagerProperties.RM_SELECTION_MAX_THREAD_NUMBER.unSet();
+        PAResourceManagerProperties.RM_EXECUTE_SCRIPT_AUTHORIZED_DIR.unSet();
     }
 
     @Test
@@ -146,6 +162,62 @@ public class SelectionManagerTest {
         assertEquals(10, nodeSet.size());
     }
 
+    @Test
+    public void testSelectNodesWithSeveralCriteria() {
+        RMCore rmCore = newMockedRMCore(5);
+        SelectionManager selectionManager = createSelectionManager(rmCore);
+        Criteria first = new Criteria(2);
+        first.setTopology(TopologyDescriptor.ARBITRARY);
+        first.setBestEffort(true);
+        Criteria second = new Criteria(2);
+        second.setTopology(TopologyDescriptor.ARBITRARY);
+        second.setBestEffort(true);
+        Criteria third = new Criteria(2);
+        third.setTopology(TopologyDescriptor.ARBITRARY);
+        third.setBestEffort(true);
+
+        Client mockedClient = mock(Client.class);
+        List<NodeSet> nodeSets = selectionManager.selectNodes(Lists.newArrayList(first, second, third),
+                                                              mockedClient);
+
+        assertEquals(3, nodeSets.size());
+        assertEquals(2, nodeSets.get(0).size());
+        assertEquals(2, nodeSets.get(1).size());
+        assertEquals(1, nodeSets.get(2).size());
+        Set<String> selectedUrls = new HashSet<>();
+        for (NodeSet nodeSet : nodeSets) {
+            selectedUrls.addAll(nodeSet.getAllNodesUrls());
+        }
+        assertEquals(5, selectedUrls.size());
+        verify(rmCore, times(1)).getFreeNodes();
+    }
+
+    @Test
+    public void testSelectNodesWithSeveralCriteriaAndAnUnauthorizedScript() throws Exception {
+        // no selection script is authorized
+        PAResourceManagerProperties.RM_EXECUTE_SCRIPT_AUTHORIZED_DIR.updateProperty(folder.newFolder("authorized")
+                                                                                          .getAbsolutePath());
+        RMCore rmCore = newMockedRMCore(5);
+        SelectionManager selectionManager = createSelectionManager(rmCore);
+        Criteria first = new Criteria(2);
+        first.setTopology(TopologyDescriptor.ARBITRARY);
+        first.setBestEffort(true);
+        Criteria second = new Criteria(2);
+        second.setTopology(TopologyDescriptor.ARBITRARY);
+        second.setBestEffort(true);
+        second.setScripts(Lists.newArrayList(new SelectionScript("selected = true", "groovy", true)));
+
+        try {
+            selectionManager.selectNodes(Lists.newArrayList(first, second), mock(Client.class));
+            fail("An unauthorized selection script must be rejected as for a single criteria");
+        } catch (SecurityException e) {
+            // the nodes booked for the first criteria are given back
+            ArgumentCaptor<NodeSet> releasedNodes = ArgumentCaptor.forClass(NodeSet.class);
+            verify(rmCore).releaseNodes(releasedNodes.capture());
+            assertEquals(2, releasedNodes.getValue().size());
+        }
+    }
+
     @Test
     public void testRunScriptsWillNotBeCalled() {
         RMCore rmCore = newMockedRMCore(2);
@@ -162,6 +234,64 @@ public class SelectionManagerTest {
 
     }
 
+    @Test(timeout = 30000)
+    public void testSelectionDoesNotWaitForSlowNodes() throws Exception {
+        PAResourceManagerProperties.RM_SELECTION_MAX_THREAD_NUMBER.updateProperty("10");
+        RMCore rmCore = newMockedRMCore(5);
+        List<RMNode> freeNodes = rmCore.getFreeNodes();
+        CountDownLatch slowNodeLatch = new CountDownLatch(1);
+        RMNode slowNode = freeNodes.get(0);
+        try {
+            for (RMNode node : freeNodes) {
+                doAnswer(invocation -> {
+                    if (node == slowNode) {
+                        slowNodeLatch.await();
+                    }
+                    return new ScriptResult<>(true);
+                }).when(node).executeScript(Matchers.<Script<Object>> any(),
+                                            Matchers.<Map<String, Serializable>> any());
+            }
+            SelectionManager selectionManager = new SelectionManager(rmCore) {
+                @Override
+                public List<RMNode> arrangeNodesForScriptExecution(List<RMNode> nodes, List<SelectionScript> scripts,
+                        Map<String, Serializable> bindings) {
+                    return new ArrayList<>(freeNodes);
+                }
+
+                @Override
+                public boolean isPassed(SelectionScript script, Map<String, Serializable> bindings, RMNode rmnode) {
+                    return false;
+                }
+
+                @Override
+                public boolean processScriptResult(SelectionScript script, Map<String, Serializable> bindings,
+                        ScriptResult<Boolean> scriptResult, RMNode rmnode) {
+                    return scriptResult.getResult();
+                }
+            };
+            Criteria crit = new Criteria(1);
+            crit.setTopology(TopologyDescriptor.ARBITRARY);
+            crit.setScripts(Lists.newArrayList(new SelectionScript("selected = true", "groovy", true)));
+
+            NodeSet nodeSet = selectionManager.selectNodes(crit, mock(Client.class));
+
+            // the slow node still executes its script but the selection did not wait for it
+            assertEquals(1, nodeSet.size());
+            assertNotEquals(slowNode.getNodeURL(), nodeSet.get(0).getNodeInformation().getURL());
+
+            // the slow node will be cleaned when its script ends, no selection can give it meanwhile
+            Criteria withoutScripts = new Criteria(5);
+            withoutScripts.setTopology(TopologyDescriptor.ARBITRARY);
+            withoutScripts.setBestEffort(true);
+            NodeSet otherNodeSet = selectionManager.selectNodes(withoutScripts, mock(Client.class));
+            for (Node node : otherNodeSet) {
+                assertNotEquals(slowNode.getNodeURL(), node.getNodeInformation().getURL());
+            }
+        } finally {
+            slowNodeLatch.countDown();
+        }
+    }
+
     private SecurityManager securityManagerRejectingUser() {
         return new SecurityManager() {
 
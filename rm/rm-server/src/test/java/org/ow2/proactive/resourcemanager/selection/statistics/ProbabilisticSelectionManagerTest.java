@@ -305,6 +305,32 @@ public class ProbabilisticSelectionManagerTest {
         Assert.assertFalse(selectionManager.isPassed(script, bindings, freeNodes.get(0)));
     }
 
+    @Test
+    public void testLeastRecentlyUsedScriptIsEvicted() throws Exception {
+        PAResourceManagerProperties.RM_SELECT_SCRIPT_CACHE_SIZE.updateProperty("2");
+        try {
+            SelectionScript script1 = new SelectionScript("script1", "groovy", false);
+            SelectionScript script2 = new SelectionScript("script2", "groovy", false);
+            SelectionScript script3 = new SelectionScript("script3", "groovy", false);
+            ManagerObjects managerObjects = new ManagerObjects(1).invoke();
+            SelectionManager selectionManager = managerObjects.getSelectionManager();
+            RMNode node = managerObjects.getFreeNodes().get(0);
+
+            selectionManager.processScriptResult(script1, Collections.EMPTY_MAP, new ScriptResult<>(true), node);
+            selectionManager.processScriptResult(script2, Collections.EMPTY_MAP, new ScriptResult<>(true), node);
+            // script1 is now the most recently used script
+            Assert.assertTrue(selectionManager.isPassed(script1, Collections.EMPTY_MAP, node));
+
+            selectionManager.processScriptResult(script3, Collections.EMPTY_MAP, new ScriptResult<>(true), node);
+
+            Assert.assertTrue(selectionManager.isPassed(script1, Collections.EMPTY_MAP, node));
+            Assert.assertFalse(selectionManager.isPassed(script2, Collections.EMPTY_MAP, node));
+            Assert.assertTrue(selectionManager.isPassed(script3, Collections.EMPTY_MAP, node));
+        } finally {
+            PAResourceManagerProperties.RM_SELECT_SCRIPT_CACHE_SIZE.updateProperty("10000");
+        }
+    }
+
     private class ManagerObjects {
         private int nbNodes;
 
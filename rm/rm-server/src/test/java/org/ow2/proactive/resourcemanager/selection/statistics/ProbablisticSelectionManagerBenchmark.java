@@ -0,0 +1,105 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive.resourcemanager.selection.statistics;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.ow2.proactive.resourcemanager.rmnode.RMNode;
+import org.ow2.proactive.resourcemanager.selection.SelectionManagerTest;
+import org.ow2.proactive.scripting.ScriptResult;
+import org.ow2.proactive.scripting.SelectionScript;
+
+
+/**
+ * Measures {@link ProbablisticSelectionManager#arrangeNodesForScriptExecution(List, List, Map)} and
+ * {@link ProbablisticSelectionManager#isPassed(SelectionScript, Map, RMNode)} on a large pool of free nodes,
+ * half of them having already executed the selection scripts.
+ * <p>
+ * Prints, for each number of scripts, the average time to arrange the whole pool and the average time
+ * of one prediction.
+ * <p>
+ * This is not a unit test, run it manually with the test classpath:
+ * <pre>java org.ow2.proactive.resourcemanager.selection.statistics.ProbablisticSelectionManagerBenchmark [number of nodes]</pre>
+ */
+public class ProbablisticSelectionManagerBenchmark {
+
+    private static final int ITERATIONS = 20;
+
+    public static void main(String[] args) throws Exception {
+        int nbNodes = args.length > 0 ? Integer.parseInt(args[0]) : 10000;
+
+        List<RMNode> nodes = new ArrayList<>(nbNodes);
+        for (int i = 0; i < nbNodes; i++) {
+            nodes.add(SelectionManagerTest.createMockedNode("user",
+                                                            "node-" + i,
+                                                            "pnp://host-" + i + ":64738/node-" + i));
+        }
+
+        System.out.println("nodes,scripts,ms_per_arrange,ns_per_is_passed");
+        for (int nbScripts = 1; nbScripts <= 4; nbScripts *= 2) {
+            // first run warms up the JIT
+            benchmark(nodes, nbScripts);
+            benchmark(nodes, nbScripts);
+        }
+    }
+
+    private static void benchmark(List<RMNode> nodes, int nbScripts) throws Exception {
+        ProbablisticSelectionManager manager = new ProbablisticSelectionManager(SelectionManagerTest.newMockedRMCore());
+        Map<String, Serializable> bindings = new HashMap<>();
+        bindings.put("variables", new HashMap<>(Collections.singletonMap("THRESHOLD", "42")));
+
+        List<SelectionScript> scripts = new ArrayList<>(nbScripts);
+        for (int i = 0; i < nbScripts; i++) {
+            scripts.add(new SelectionScript("selected = variables.get(\"THRESHOLD\") > " + i, "groovy", i % 2 == 0));
+        }
+        for (int i = 0; i < nodes.size(); i += 2) {
+            for (SelectionScript script : scripts) {
+                manager.processScriptResult(script, bindings, new ScriptResult<>(i % 4 == 0), nodes.get(i));
+            }
+        }
+
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            manager.arrangeNodesForScriptExecution(nodes, scripts, bindings);
+        }
+        long arrangeDuration = (System.nanoTime() - start) / ITERATIONS;
+
+        start = System.nanoTime();
+        for (RMNode node : nodes) {
+            manager.isPassed(scripts.get(0), bindings, node);
+        }
+        long isPassedDuration = (System.nanoTime() - start) / nodes.size();
+
+        System.out.println(nodes.size() + "," + nbScripts + "," + (arrangeDuration / 1000000) + "," +
+                           isPassedDuration);
+    }
+
+}
@@ -163,4 +163,10 @@ public class SchedulerConstants {
      */
     public static String DISABLE_PROCESS_TREE_KILLER_GENERIC_INFO = "DISABLE_PTK";
 
+    /**
+     * This generic information allows a forked task to run in a JVM of the pool of the node, when the pool is
+     * enabled. Such a task runs in the working directory of the node instead of its scratch directory.
+     */
+    public static final String FORK_IN_POOLED_JVM_GENERIC_INFO = "FORK_IN_POOLED_JVM";
+
 }
@@ -0,0 +1,70 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive.scheduler.common;
+
+import java.io.Serializable;
+import java.util.Collections;
+import java.util.Set;
+
+import org.ow2.proactive.scheduler.common.job.JobId;
+import org.ow2.proactive.scheduler.common.task.TaskId;
+
+
+/**
+ * Permission, issued and signed by the scheduler, to get the results of some tasks of a job from a
+ * {@link TaskResultsProvider}. A task receiving the results of its parents by reference receives a grant
+ * for these parents only.
+ */
+public class TaskResultsGrant implements Serializable {
+
+    private final JobId jobId;
+
+    private final Set<TaskId> taskIds;
+
+    private final byte[] signature;
+
+    public TaskResultsGrant(JobId jobId, Set<TaskId> taskIds, byte[] signature) {
+        this.jobId = jobId;
+        this.taskIds = Collections.unmodifiableSet(taskIds);
+        this.signature = signature;
+    }
+
+    public JobId getJobId() {
+        return jobId;
+    }
+
+    /**
+     * @return the tasks whose results can be requested with this grant.
+     */
+    public Set<TaskId> getTaskIds() {
+        return taskIds;
+    }
+
+    public byte[] getSignature() {
+        return signature;
+    }
+
+}
@@ -0,0 +1,52 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive.scheduler.common;
+
+import java.io.Serializable;
+import java.util.List;
+import java.util.Map;
+
+import org.ow2.proactive.scheduler.common.exception.PermissionException;
+import org.ow2.proactive.scheduler.common.task.TaskId;
+import org.ow2.proactive.scheduler.common.task.TaskResult;
+
+
+/**
+ * Gives the results of terminated tasks to the nodes which received results by reference.
+ */
+public interface TaskResultsProvider extends Serializable {
+
+    /**
+     * Returns the last results of the given tasks.
+     *
+     * @param grant the permission, received with the references, to get the results of the tasks.
+     * @param taskIds the tasks whose results are requested, they must belong to the grant.
+     * @return the results, by task id.
+     * @throws PermissionException if the grant is not valid or does not allow to get the results of the tasks.
+     */
+    Map<TaskId, TaskResult> getTaskResults(TaskResultsGrant grant, List<TaskId> taskIds) throws PermissionException;
+
+}
@@ -0,0 +1,111 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive.scheduler.common.job.factories;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+
+/**
+ * Durations of the stages of the job creation from a workflow, cumulated over all the jobs created by this JVM.
+ */
+public class JobCreationMetrics {
+
+    public enum Stage {
+        /** reading of the workflow content */
+        READ,
+        /** validation of the workflow against its XML schema */
+        XML_VALIDATION,
+        /** parsing of the workflow to build the job */
+        PARSING,
+        /** creation of the dependencies between the tasks */
+        DEPENDENCIES,
+        /** validation of the job by the job validators */
+        JOB_VALIDATION
+    }
+
+    private static final JobCreationMetrics instance = new JobCreationMetrics();
+
+    private final AtomicLong numberOfCreatedJobs = new AtomicLong();
+
+    private final AtomicLongArray totalDurations = new AtomicLongArray(Stage.values().length);
+
+    private final AtomicLongArray maxDurations = new AtomicLongArray(Stage.values().length);
+
+    JobCreationMetrics() {
+    }
+
+    public static JobCreationMetrics getInstance() {
+        return instance;
+    }
+
+    /**
+     * Record the durations (in milliseconds) of the creation of one job, in the order of the stages
+     */
+    void record(long... durations) {
+        for (Stage stage : Stage.values()) {
+            long duration = durations[stage.ordinal()];
+            totalDurations.addAndGet(stage.ordinal(), duration);
+            long max;
+            do {
+                max = maxDurations.get(stage.ordinal());
+            } while (duration > max && !maxDurations.compareAndSet(stage.ordinal(), max, duration));
+        }
+        numberOfCreatedJobs.incrementAndGet();
+    }
+
+    public long getNumberOfCreatedJobs() {
+        return numberOfCreatedJobs.get();
+    }
+
+    public long getTotalDuration(Stage stage) {
+        return totalDurations.get(stage.ordinal());
+    }
+
+    public long getMaxDuration(Stage stage) {
+        return maxDurations.get(stage.ordinal());
+    }
+
+    public double getAverageDuration(Stage stage) {
+        long jobs = numberOfCreatedJobs.get();
+        return jobs == 0 ? 0 : (double) getTotalDuration(stage) / jobs;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder("createdJobs=").append(getNumberOfCreatedJobs());
+        for (Stage stage : Stage.values()) {
+            builder.append(", ")
+                   .append(stage.name().toLowerCase())
+                   .append("(avg/max ms)=")
+                   .append(String.format("%.2f", getAverageDuration(stage)))
+                   .append('/')
+                   .append(getMaxDuration(stage));
+        }
+        return builder.toString();
+    }
+
+}
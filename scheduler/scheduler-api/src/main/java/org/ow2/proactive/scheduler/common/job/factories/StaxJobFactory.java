@@ -255,6 +255,8 @@ public class StaxJobFactory extends JobFactory {
         long d4 = t4 - t3;
         long d5 = t5 - t4;
 
+        JobCreationMetrics.getInstance().record(d1, d2, d3, d4, d5);
+
         logger.debug("Job successfully created!");
         logger.debug(String.format("timer;%d;%d;%d;%d;%d", d1, d2, d3, d4, d5));
         //debug mode only
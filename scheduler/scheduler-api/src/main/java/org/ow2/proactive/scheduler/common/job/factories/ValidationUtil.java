@@ -32,7 +32,9 @@ import static org.ow2.proactive.scheduler.common.job.factories.XMLTags.TASK_FLOW
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.Map;
 import java.util.Stack;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.apache.commons.io.IOUtils;
 import org.iso_relax.verifier.Schema;
@@ -53,6 +55,9 @@ import com.sun.msv.verifier.ValidityViolation;
  */
 public class ValidationUtil {
 
+    /** compiled schemas by resource location, a compiled schema can be shared by several threads */
+    private static final Map<String, Schema> compiledSchemas = new ConcurrentHashMap<>();
+
     /**
      * Validates the job descriptor file against the specified schema.
      * 
@@ -67,10 +72,28 @@ public class ValidationUtil {
     public static void validate(InputStream jobInputStream, InputStream schemaIs)
             throws SAXException, IOException, JobCreationException {
         try {
+            validate(jobInputStream, compileSchema(schemaIs));
+        } catch (VerifierConfigurationException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Validates the job descriptor file against the specified compiled schema.
+     *
+     * @param jobInputStream
+     *            the job file content as an InputStream
+     * @param schema
+     *            the compiled job schema
+     *
+     * @throws JobCreationException
+     *             if the job descriptor is invalid
+     */
+    public static void validate(InputStream jobInputStream, Schema schema)
+            throws SAXException, IOException, JobCreationException {
+        try {
 
             XMLReader reader = XMLReaderFactory.createXMLReader("org.apache.xerces.parsers.SAXParser");
-            VerifierFactory vfactory = new com.sun.msv.verifier.jarv.TheFactoryImpl();
-            Schema schema = vfactory.compileSchema(schemaIs);
 
             Verifier verifier = schema.newVerifier();
             VerifierHandler handler = verifier.getVerifierHandler();
@@ -93,6 +116,30 @@ public class ValidationUtil {
         }
     }
 
+    /**
+     * Returns the compiled schema of the given resource location, the schema is compiled only once.
+     *
+     * @param schemaLocation
+     *            the location of the schema in the classpath
+     */
+    public static Schema getCompiledSchema(String schemaLocation)
+            throws VerifierConfigurationException, SAXException, IOException {
+        Schema schema = compiledSchemas.get(schemaLocation);
+        if (schema == null) {
+            try (InputStream schemaIs = ValidationUtil.class.getResourceAsStream(schemaLocation)) {
+                schema = compileSchema(schemaIs);
+            }
+            compiledSchemas.put(schemaLocation, schema);
+        }
+        return schema;
+    }
+
+    private static Schema compileSchema(InputStream schemaIs)
+            throws VerifierConfigurationException, SAXException, IOException {
+        VerifierFactory vfactory = new com.sun.msv.verifier.jarv.TheFactoryImpl();
+        return vfactory.compileSchema(schemaIs);
+    }
+
     public static byte[] getInputStreamBytes(InputStream inputStream) throws IOException {
         try (ByteArrayOutputStream outputStream = new ByteArrayOutputStream()) {
             IOUtils.copy(inputStream, outputStream);
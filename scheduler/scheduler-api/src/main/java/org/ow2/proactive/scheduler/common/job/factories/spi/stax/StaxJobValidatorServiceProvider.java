@@ -34,6 +34,8 @@ import javax.xml.stream.XMLStreamException;
 import javax.xml.stream.XMLStreamReader;
 import javax.xml.stream.events.XMLEvent;
 
+import org.apache.commons.codec.digest.DigestUtils;
+import org.iso_relax.verifier.Schema;
 import org.ow2.proactive.scheduler.common.Scheduler;
 import org.ow2.proactive.scheduler.common.exception.JobValidationException;
 import org.ow2.proactive.scheduler.common.job.TaskFlowJob;
@@ -41,15 +43,25 @@ import org.ow2.proactive.scheduler.common.job.factories.Schemas;
 import org.ow2.proactive.scheduler.common.job.factories.ValidationUtil;
 import org.ow2.proactive.scheduler.common.job.factories.XMLTags;
 import org.ow2.proactive.scheduler.common.job.factories.spi.JobValidatorService;
+import org.ow2.proactive.scheduler.core.properties.PASchedulerProperties;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 
 
 /**
- * Job XML Validator which validates against the XML schema 
+ * Job XML Validator which validates against the XML schema.
+ * <p>
+ * The schemas are compiled once, and the digests of the last validated workflows can be kept so that a workflow
+ * submitted again (possibly with other variables) is not validated again.
  */
 public class StaxJobValidatorServiceProvider implements JobValidatorService {
 
     private XMLInputFactory xmlInputFactory = null;
 
+    /** SHA-256 digests of the last workflows successfully validated, null if disabled */
+    private final Cache<String, Boolean> validatedWorkflows;
+
     public StaxJobValidatorServiceProvider() {
         System.setProperty("javax.xml.stream.XMLInputFactory", "com.ctc.wstx.stax.WstxInputFactory");
         xmlInputFactory = XMLInputFactory.newInstance();
@@ -57,19 +69,31 @@ public class StaxJobValidatorServiceProvider implements JobValidatorService {
         xmlInputFactory.setProperty(XMLInputFactory.IS_REPLACING_ENTITY_REFERENCES, Boolean.TRUE);
         xmlInputFactory.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, Boolean.TRUE);
         xmlInputFactory.setProperty(XMLInputFactory.SUPPORT_DTD, Boolean.FALSE);
+        int validatedWorkflowsCacheSize = PASchedulerProperties.JOB_FACTORY_VALIDATED_WORKFLOWS_CACHE_SIZE.getValueAsInt();
+        validatedWorkflows = validatedWorkflowsCacheSize > 0 ? CacheBuilder.newBuilder()
+                                                                           .maximumSize(validatedWorkflowsCacheSize)
+                                                                           .build()
+                                                             : null;
     }
 
     @Override
     public void validateJob(InputStream jobInputStream) throws JobValidationException {
         try {
             byte[] bytes = ValidationUtil.getInputStreamBytes(jobInputStream);
+            String digest = validatedWorkflows != null ? DigestUtils.sha256Hex(bytes) : null;
+            if (digest != null && validatedWorkflows.getIfPresent(digest) != null) {
+                return;
+            }
             try (ByteArrayInputStream jobInputStreamForSchema = new ByteArrayInputStream(bytes)) {
                 String findSchemaByNamespaceUsed = findSchemaByNamespaceUsed(jobInputStreamForSchema);
-                InputStream schemaStream = this.getClass().getResourceAsStream(findSchemaByNamespaceUsed);
+                Schema schema = ValidationUtil.getCompiledSchema(findSchemaByNamespaceUsed);
                 try (ByteArrayInputStream jobInputStreamForValidation = new ByteArrayInputStream(bytes)) {
-                    ValidationUtil.validate(jobInputStreamForValidation, schemaStream);
+                    ValidationUtil.validate(jobInputStreamForValidation, schema);
                 }
             }
+            if (digest != null) {
+                validatedWorkflows.put(digest, Boolean.TRUE);
+            }
         } catch (Exception e) {
             throw new JobValidationException(true, e);
         }
@@ -66,6 +66,14 @@ public enum PASchedulerProperties implements PACommonProperties {
     /** Scheduler main loop time out */
     SCHEDULER_TIME_OUT("pa.scheduler.core.timeout", PropertyType.INTEGER, "100"),
 
+    /** If true, the scheduling loop only processes the jobs of its ready-queue and skips the cycles
+     * where no scheduling event occurred, instead of re-scanning every job at each cycle */
+    SCHEDULER_INCREMENTAL_SCHEDULING("pa.scheduler.core.incremental.scheduling", PropertyType.BOOLEAN, "false"),
+
+    /** Period in milliseconds of the full scans performed by the incremental scheduling loop, used to take into
+     * account time-based decisions (START_AT, ...) and resources added to the RM */
+    SCHEDULER_INCREMENTAL_SCHEDULING_FULL_SCAN_PERIOD("pa.scheduler.core.incremental.scheduling.fullscan.period", PropertyType.INTEGER, "5000"),
+
     /** Scheduler auto reconnection to the RM when the connection is down */
     SCHEDULER_RMCONNECTION_AUTO_CONNECT("pa.scheduler.core.rmconnection.autoconnect", PropertyType.BOOLEAN, "true"),
 
@@ -132,11 +140,38 @@ public enum PASchedulerProperties implements PACommonProperties {
      * until the scheduling loop will block as well.*/
     SCHEDULER_STARTTASK_THREADNUMBER("pa.scheduler.core.starttask.threadnumber", PropertyType.INTEGER, "5"),
 
+    /** If true, the task launchers are created and the tasks deployed by a dedicated pool of threads, the scheduling
+     * loop only reserves the nodes of the tasks */
+    SCHEDULER_STARTTASK_PIPELINE("pa.scheduler.core.starttask.pipeline", PropertyType.BOOLEAN, "false"),
+
+    /** Number of threads of the task launch pipeline */
+    SCHEDULER_STARTTASK_PIPELINE_THREADNUMBER("pa.scheduler.core.starttask.pipeline.threadnumber", PropertyType.INTEGER, "20"),
+
+    /** Maximum number of tasks waiting for a thread of the task launch pipeline, the scheduling loop launches the
+     * tasks itself when the queue is full */
+    SCHEDULER_STARTTASK_PIPELINE_QUEUESIZE("pa.scheduler.core.starttask.pipeline.queuesize", PropertyType.INTEGER, "1000"),
+
+    /** Maximum number of jobs whose decrypted credentials are kept in memory to start their tasks. If 0, the
+     * credentials of a job are decrypted again for each task. */
+    SCHEDULER_STARTTASK_CREDENTIALS_CACHE_SIZE("pa.scheduler.core.starttask.credentials.cache.size", PropertyType.INTEGER, "1000"),
+
+    /** Time during which the decrypted credentials of a job are kept in memory (in seconds). It is also the
+     * lifetime of the session keys used to encrypt the credentials sent to the nodes. */
+    SCHEDULER_STARTTASK_CREDENTIALS_CACHE_TIMEOUT("pa.scheduler.core.starttask.credentials.cache.timeout", PropertyType.INTEGER, "600"),
+
+    /** If true, the credentials sent to a node are encrypted with a symmetric session key shared with this node,
+     * instead of the key pair of each task. The node encrypts them again for the key pair of the task. */
+    SCHEDULER_STARTTASK_CREDENTIALS_SESSION_KEY("pa.scheduler.core.starttask.credentials.session.key", PropertyType.BOOLEAN, "false"),
+
     /** Maximum number of threads used to send events to clients. This property defines the number of clients
      * than can block at the same time. If this number is reached, every clients won't receive events until
      * a thread unlock. */
     SCHEDULER_LISTENERS_THREADNUMBER("pa.scheduler.core.listener.threadnumber", PropertyType.INTEGER, "5"),
 
+    /** Capacity of the ring buffer through which the events are sent to clients. A client which falls behind by
+     * more than this number of events is disconnected. If 0, the events are queued for each client without limit. */
+    SCHEDULER_LISTENERS_EVENT_BUS_CAPACITY("pa.scheduler.core.listener.eventbus.capacity", PropertyType.INTEGER, "0"),
+
     /** List of the scripts paths to execute at scheduler start. Paths are separated by a ';'. */
     SCHEDULER_STARTSCRIPTS_PATHS("pa.scheduler.startscripts.paths", PropertyType.LIST),
 
@@ -199,6 +234,9 @@ public enum PASchedulerProperties implements PACommonProperties {
     /** File encoding used by the scheduler */
     FILE_ENCODING(PAProperties.KEY_PA_FILE_ENCODING, PropertyType.STRING, "UTF-8"),
 
+    /** Number of validated workflows remembered (by content digest) to skip their schema validation, 0 to disable */
+    JOB_FACTORY_VALIDATED_WORKFLOWS_CACHE_SIZE("pa.scheduler.job.factory.validated.workflows.cache.size", PropertyType.INTEGER, "0"),
+
     SCHEDULER_FINISHED_JOBS_LRU_CACHE_SIZE("pa.scheduler.finishedjobs.lru.cache.size", PropertyType.INTEGER, "1000"),
 
     /* ***************************************************************** */
@@ -219,6 +257,13 @@ public enum PASchedulerProperties implements PACommonProperties {
      **/
     TASK_RUNASME("pa.scheduler.task.runasme", PropertyType.BOOLEAN, "false"),
 
+    /**
+     * If true, the results of the parent tasks are not sent to the nodes when a task starts: the nodes receive
+     * references holding the metadata and propagated variables of the results, and fetch their values from the
+     * scheduler database.
+     */
+    TASK_RESULTS_BY_REFERENCE("pa.scheduler.task.results.by.reference", PropertyType.BOOLEAN, "false"),
+
     /** Number of tasks to fetch per page when pagination is used */
     TASKS_PAGE_SIZE("pa.scheduler.tasks.page.size", PropertyType.INTEGER, "100"),
 
@@ -288,6 +333,12 @@ public enum PASchedulerProperties implements PACommonProperties {
 
     SCHEDULER_JOB_LOGS_MAX_SIZE("pa.scheduler.job.logs.max.size", PropertyType.STRING, "10000"),
 
+    // Store job/task logs in large append-only segment files instead of one file per job/task
+    SCHEDULER_JOB_LOGS_SEGMENTED("pa.scheduler.job.logs.segmented", PropertyType.BOOLEAN, "false"),
+
+    // Size above which a new segment file is started, when job/task logs are segmented
+    SCHEDULER_JOB_LOGS_SEGMENT_SIZE("pa.scheduler.job.logs.segment.size", PropertyType.STRING, "64MB"),
+
     //    /** Log max size (in lines per tasks) */
     //    LOGS_MAX_SIZE("pa.scheduler.logs.maxsize", PropertyType.INTEGER),
 
@@ -343,6 +394,15 @@ public enum PASchedulerProperties implements PACommonProperties {
     /** Set a timeout for initial connection to the RM connection (in ms) */
     RESOURCE_MANAGER_CONNECTION_TIMEOUT("pa.scheduler.resourcemanager.connection.timeout", PropertyType.INTEGER, "120000"),
 
+    /**
+     * Maintain the nodes of the RM in the scheduler from the RM node events, instead of requesting
+     * the whole RM state at each scheduling loop
+     */
+    RESOURCE_MANAGER_NODES_VIEW("pa.scheduler.resourcemanager.nodes.view", PropertyType.BOOLEAN, "false"),
+
+    /** Period of the reconciliation of the nodes view with the RM state (in ms) */
+    RESOURCE_MANAGER_NODES_VIEW_RECONCILIATION_PERIOD("pa.scheduler.resourcemanager.nodes.view.reconciliation.period", PropertyType.INTEGER, "60000"),
+
     /* ***************************************************************** */
     /* ********************** HIBERNATE PROPERTIES ********************* */
     /* ***************************************************************** */
@@ -379,6 +439,15 @@ public enum PASchedulerProperties implements PACommonProperties {
 
     SCHEDULER_DB_FETCH_TASK_RESULTS_BATCH_SIZE("pa.scheduler.db.fetch.batch_size", PropertyType.INTEGER, "50"),
 
+    /** Maximum size (in kilobytes) of the cache of executable containers loaded for the pending tasks, 0 to disable it */
+    SCHEDULER_DB_EXECUTABLE_CONTAINER_CACHE_SIZE("pa.scheduler.db.executable.container.cache.size", PropertyType.INTEGER, "0"),
+
+    /** Period (in milliseconds) of the writes of the task status journal, 0 to write the task status updates synchronously */
+    SCHEDULER_DB_TASK_STATUS_JOURNAL_PERIOD("pa.scheduler.db.task.status.journal.period", PropertyType.INTEGER, "0"),
+
+    /** Number of inserts or updates sent in one JDBC batch, also the number of tasks saved before the session is flushed on job submission, 0 to disable batching */
+    SCHEDULER_DB_JDBC_BATCH_SIZE("pa.scheduler.db.jdbc.batch_size", PropertyType.INTEGER, "50"),
+
     /* ***************************************************************** */
     /* ***************** EMAIL NOTIFICATION PROPERTIES ***************** */
     /* ***************************************************************** */
@@ -0,0 +1,76 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive.scheduler.common.job.factories;
+
+import static org.junit.Assert.assertEquals;
+import static org.ow2.proactive.scheduler.common.job.factories.JobCreationMetrics.Stage.DEPENDENCIES;
+import static org.ow2.proactive.scheduler.common.job.factories.JobCreationMetrics.Stage.JOB_VALIDATION;
+import static org.ow2.proactive.scheduler.common.job.factories.JobCreationMetrics.Stage.PARSING;
+import static org.ow2.proactive.scheduler.common.job.factories.JobCreationMetrics.Stage.READ;
+import static org.ow2.proactive.scheduler.common.job.factories.JobCreationMetrics.Stage.XML_VALIDATION;
+
+import org.junit.Test;
+
+
+public class JobCreationMetricsTest {
+
+    @Test
+    public void testNoJobCreated() {
+        JobCreationMetrics metrics = new JobCreationMetrics();
+
+        assertEquals(0, metrics.getNumberOfCreatedJobs());
+        assertEquals(0, metrics.getTotalDuration(PARSING));
+        assertEquals(0, metrics.getMaxDuration(PARSING));
+        assertEquals(0, metrics.getAverageDuration(PARSING), 0);
+    }
+
+    @Test
+    public void testRecordedDurations() {
+        JobCreationMetrics metrics = new JobCreationMetrics();
+
+        metrics.record(1, 2, 3, 4, 5);
+        metrics.record(3, 0, 10, 4, 2);
+
+        assertEquals(2, metrics.getNumberOfCreatedJobs());
+
+        assertEquals(4, metrics.getTotalDuration(READ));
+        assertEquals(2, metrics.getTotalDuration(XML_VALIDATION));
+        assertEquals(13, metrics.getTotalDuration(PARSING));
+        assertEquals(8, metrics.getTotalDuration(DEPENDENCIES));
+        assertEquals(7, metrics.getTotalDuration(JOB_VALIDATION));
+
+        assertEquals(3, metrics.getMaxDuration(READ));
+        assertEquals(2, metrics.getMaxDuration(XML_VALIDATION));
+        assertEquals(10, metrics.getMaxDuration(PARSING));
+        assertEquals(4, metrics.getMaxDuration(DEPENDENCIES));
+        assertEquals(5, metrics.getMaxDuration(JOB_VALIDATION));
+
+        assertEquals(2, metrics.getAverageDuration(READ), 0);
+        assertEquals(6.5, metrics.getAverageDuration(PARSING), 0);
+        assertEquals(3.5, metrics.getAverageDuration(JOB_VALIDATION), 0);
+    }
+
+}
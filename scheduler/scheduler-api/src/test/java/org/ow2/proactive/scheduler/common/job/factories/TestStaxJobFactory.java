@@ -126,6 +126,23 @@ public class TestStaxJobFactory {
         assertEquals("updated_job_name", testScriptJob.getName());
     }
 
+    @Test
+    public void testCreateJobShouldRecordTheDurationsOfItsStages() throws Exception {
+        long createdJobs = JobCreationMetrics.getInstance().getNumberOfCreatedJobs();
+
+        factory.createJob(jobDescriptorUri);
+        factory.createJob(jobDescriptorUri);
+
+        assertEquals(createdJobs + 2, JobCreationMetrics.getInstance().getNumberOfCreatedJobs());
+    }
+
+    @Test
+    public void testSchemaIsCompiledOnce() throws Exception {
+        String schemaLocation = Schemas.SCHEMA_LATEST.getLocation();
+
+        assertSame(ValidationUtil.getCompiledSchema(schemaLocation), ValidationUtil.getCompiledSchema(schemaLocation));
+    }
+
     @Test
     public void testCreateJobShouldNotFailWhenParsingMetadata() throws Exception {
         factory.createJob(jobDescriptorWithMetadata);
@@ -0,0 +1,247 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive.scheduler.task;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import org.apache.commons.collections4.ListUtils;
+import org.ow2.proactive.scheduler.common.TaskResultsGrant;
+import org.ow2.proactive.scheduler.common.TaskResultsProvider;
+import org.ow2.proactive.scheduler.common.exception.InternalSchedulerException;
+import org.ow2.proactive.scheduler.common.exception.PermissionException;
+import org.ow2.proactive.scheduler.common.task.TaskId;
+import org.ow2.proactive.scheduler.common.task.TaskLogs;
+import org.ow2.proactive.scheduler.common.task.TaskResult;
+import org.ow2.proactive.scheduler.common.task.flow.FlowAction;
+
+
+/**
+ * Task result sent to a node instead of the complete result of a parent task.
+ * <p>
+ * It holds the metadata, the propagated variables and the exception of the result, and fetches the other parts
+ * (value, logs, result map) from a {@link TaskResultsProvider} when they are first accessed, with the
+ * {@link TaskResultsGrant} issued by the scheduler for the task receiving the reference.
+ *
+ * @see #resolveAll(TaskResult[], ExecutorService, int)
+ */
+public class TaskResultReference implements TaskResult {
+
+    /** The result without its value and logs */
+    private final TaskResultImpl header;
+
+    private final TaskResultsProvider provider;
+
+    private final TaskResultsGrant grant;
+
+    private transient volatile TaskResult resolved;
+
+    /**
+     * @param result the result to send by reference.
+     * @param provider the provider of the complete result.
+     * @param grant the permission to get the result from the provider.
+     */
+    public TaskResultReference(TaskResult result, TaskResultsProvider provider, TaskResultsGrant grant) {
+        byte[] serializedException = result instanceof TaskResultImpl ? ((TaskResultImpl) result).getSerializedException()
+                                                                      : null;
+        this.header = new TaskResultImpl(result.getTaskId(),
+                                         null,
+                                         serializedException,
+                                         null,
+                                         result.getMetadata(),
+                                         result.getPropagatedVariables(),
+                                         false);
+        this.provider = provider;
+        this.grant = grant;
+    }
+
+    /**
+     * Returns the complete results of the given results: the references are replaced by the results fetched from
+     * their provider, by batches fetched in parallel.
+     *
+     * @param results the results, possibly containing references.
+     * @param executor the executor fetching the batches.
+     * @param batchSize the maximum number of results fetched at once.
+     * @return the results, in the same order.
+     */
+    public static TaskResult[] resolveAll(TaskResult[] results, ExecutorService executor, int batchSize)
+            throws InterruptedException {
+        if (results == null) {
+            return null;
+        }
+
+        // the references sent together share their grant
+        Map<TaskResultsGrant, List<TaskResultReference>> referencesByGrant = new IdentityHashMap<>();
+        for (TaskResult result : results) {
+            if (result instanceof TaskResultReference && ((TaskResultReference) result).resolved == null) {
+                TaskResultReference reference = (TaskResultReference) result;
+                referencesByGrant.computeIfAbsent(reference.grant, grant -> new ArrayList<>()).add(reference);
+            }
+        }
+
+        List<Future<?>> batches = new ArrayList<>();
+        for (List<TaskResultReference> references : referencesByGrant.values()) {
+            for (List<TaskResultReference> batch : ListUtils.partition(references, batchSize)) {
+                batches.add(executor.submit(() -> fetch(batch)));
+            }
+        }
+        for (Future<?> batch : batches) {
+            try {
+                batch.get();
+            } catch (ExecutionException e) {
+                throw new InternalSchedulerException("Cannot fetch the results of the parent tasks", e.getCause());
+            }
+        }
+
+        TaskResult[] resolvedResults = new TaskResult[results.length];
+        for (int i = 0; i < results.length; i++) {
+            if (results[i] instanceof TaskResultReference) {
+                resolvedResults[i] = ((TaskResultReference) results[i]).resolve();
+            } else {
+                resolvedResults[i] = results[i];
+            }
+        }
+        return resolvedResults;
+    }
+
+    private static void fetch(List<TaskResultReference> references) {
+        Map<TaskId, TaskResultReference> referencesById = new LinkedHashMap<>(references.size());
+        for (TaskResultReference reference : references) {
+            referencesById.put(reference.getTaskId(), reference);
+        }
+        TaskResultReference firstReference = references.get(0);
+        Map<TaskId, TaskResult> results;
+        try {
+            results = firstReference.provider.getTaskResults(firstReference.grant,
+                                                             new ArrayList<>(referencesById.keySet()));
+        } catch (PermissionException e) {
+            throw new InternalSchedulerException("Not allowed to fetch the results of the parent tasks", e);
+        }
+        for (Map.Entry<TaskId, TaskResultReference> reference : referencesById.entrySet()) {
+            TaskResult result = results.get(reference.getKey());
+            if (result == null) {
+                throw new InternalSchedulerException("Cannot find the result of the task " + reference.getKey());
+            }
+            reference.getValue().resolved = result;
+        }
+    }
+
+    /**
+     * @return the complete result, fetched from the provider on the first call.
+     */
+    public TaskResult resolve() {
+        if (resolved == null) {
+            synchronized (this) {
+                if (resolved == null) {
+                    fetch(Collections.singletonList(this));
+                }
+            }
+        }
+        return resolved;
+    }
+
+    @Override
+    public boolean hadException() {
+        return header.hadException();
+    }
+
+    @Override
+    public TaskId getTaskId() {
+        return header.getTaskId();
+    }
+
+    @Override
+    public Serializable value() throws Throwable {
+        if (hadException()) {
+            return header.value();
+        }
+        return resolve().value();
+    }
+
+    @Override
+    public Serializable getValue() throws Throwable {
+        return resolve().getValue();
+    }
+
+    @Override
+    public byte[] getSerializedValue() {
+        return resolve().getSerializedValue();
+    }
+
+    @Override
+    public Map<String, String> getMetadata() {
+        return header.getMetadata();
+    }
+
+    @Override
+    public FlowAction getAction() {
+        return resolve().getAction();
+    }
+
+    @Override
+    public Throwable getException() {
+        return header.getException();
+    }
+
+    @Override
+    public TaskLogs getOutput() {
+        return resolve().getOutput();
+    }
+
+    @Override
+    public Map<String, byte[]> getPropagatedVariables() {
+        return header.getPropagatedVariables();
+    }
+
+    @Override
+    public Map<String, Serializable> getVariables() throws IOException, ClassNotFoundException {
+        return header.getVariables();
+    }
+
+    @Override
+    public boolean isRaw() {
+        return resolve().isRaw();
+    }
+
+    @Override
+    public Map<String, Serializable> getResultMap() {
+        return resolve().getResultMap();
+    }
+
+    @Override
+    public String toString() {
+        return "TaskResultReference[" + getTaskId() + "]";
+    }
+}
@@ -0,0 +1,124 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive.scheduler.task;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import java.io.Serializable;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Test;
+import org.ow2.proactive.scheduler.common.TaskResultsGrant;
+import org.ow2.proactive.scheduler.common.TaskResultsProvider;
+import org.ow2.proactive.scheduler.common.task.TaskId;
+import org.ow2.proactive.scheduler.common.task.TaskResult;
+import org.ow2.proactive.scheduler.job.JobIdImpl;
+import org.ow2.proactive.utils.ObjectByteConverter;
+
+
+public class TaskResultReferenceTest {
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(4);
+
+    private final CountingProvider provider = new CountingProvider();
+
+    private final TaskResultsGrant grant = new TaskResultsGrant(JobIdImpl.makeJobId("1"), new HashSet<>(), new byte[0]);
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void testMetadataAndVariablesDoNotFetchTheResult() throws Exception {
+        TaskResultImpl result = createResult(1);
+        TaskResultReference reference = new TaskResultReference(result, provider, grant);
+
+        assertThat(reference.getTaskId()).isEqualTo(result.getTaskId());
+        assertThat(reference.getMetadata()).containsEntry("metadata", "1");
+        assertThat(reference.getVariables()).containsEntry("variable", "1");
+        assertThat(reference.hadException()).isFalse();
+        assertThat(provider.requests.get()).isEqualTo(0);
+
+        assertThat(reference.value()).isEqualTo("value1");
+        assertThat(reference.value()).isEqualTo("value1");
+        assertThat(provider.requests.get()).isEqualTo(1);
+    }
+
+    @Test
+    public void testResolveAllFetchesTheReferencesByBatches() throws Exception {
+        TaskResult[] results = new TaskResult[25];
+        for (int i = 0; i < results.length; i++) {
+            TaskResultImpl result = createResult(i);
+            // the results which are not references are kept as they are
+            results[i] = i == 0 ? result : new TaskResultReference(result, provider, grant);
+        }
+
+        TaskResult[] resolvedResults = TaskResultReference.resolveAll(results, executor, 10);
+
+        assertThat(provider.requests.get()).isEqualTo(3);
+        assertThat(resolvedResults[0]).isSameAs(results[0]);
+        for (int i = 0; i < resolvedResults.length; i++) {
+            assertThat(resolvedResults[i]).isInstanceOf(TaskResultImpl.class);
+            assertThat(resolvedResults[i].value()).isEqualTo("value" + i);
+        }
+    }
+
+    private TaskResultImpl createResult(int index) throws Exception {
+        TaskId taskId = TaskIdImpl.createTaskId(JobIdImpl.makeJobId("1"), "task" + index, index);
+        TaskResultImpl result = new TaskResultImpl(taskId, "value" + index, null, 0);
+        result.setMetadata(new HashMap<>(Collections.singletonMap("metadata", String.valueOf(index))));
+        result.setPropagatedVariables(ObjectByteConverter.mapOfSerializableToByteArray(Collections.<String, Serializable> singletonMap("variable",
+                                                                                                                String.valueOf(index))));
+        provider.results.put(taskId, result);
+        return result;
+    }
+
+    private static class CountingProvider implements TaskResultsProvider {
+
+        private final Map<TaskId, TaskResult> results = new HashMap<>();
+
+        private final AtomicInteger requests = new AtomicInteger();
+
+        @Override
+        public Map<TaskId, TaskResult> getTaskResults(TaskResultsGrant grant, List<TaskId> taskIds) {
+            requests.incrementAndGet();
+            Map<TaskId, TaskResult> answer = new HashMap<>();
+            for (TaskId taskId : taskIds) {
+                answer.put(taskId, results.get(taskId));
+            }
+            return answer;
+        }
+    }
+}
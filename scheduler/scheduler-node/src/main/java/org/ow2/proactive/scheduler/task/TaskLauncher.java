@@ -27,11 +27,16 @@ package org.ow2.proactive.scheduler.task;
 
 import java.io.File;
 import java.io.Serializable;
+import java.security.KeyException;
 import java.security.KeyPair;
 import java.security.NoSuchAlgorithmException;
 import java.security.PublicKey;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 
@@ -44,6 +49,9 @@ import org.objectweb.proactive.core.util.ProActiveInet;
 import org.objectweb.proactive.extensions.annotation.ActiveObject;
 import org.objectweb.proactive.extensions.dataspaces.exceptions.FileSystemException;
 import org.objectweb.proactive.extensions.dataspaces.vfs.selector.FileSelector;
+import org.objectweb.proactive.utils.NamedThreadFactory;
+import org.ow2.proactive.authentication.crypto.CredData;
+import org.ow2.proactive.authentication.crypto.Credentials;
 import org.ow2.proactive.resourcemanager.nodesource.dataspace.DataSpaceNodeConfigurationAgent;
 import org.ow2.proactive.resourcemanager.utils.RMNodeStarter;
 import org.ow2.proactive.scheduler.common.TaskTerminateNotification;
@@ -90,6 +98,12 @@ public class TaskLauncher implements InitActive {
 
     private static final Logger logger = Logger.getLogger(TaskLauncher.class);
 
+    /** Number of threads fetching the results of the parent tasks received by reference */
+    private static final int PREVIOUS_RESULTS_FETCH_THREADS = 4;
+
+    /** Number of results of the parent tasks fetched by request */
+    private static final int PREVIOUS_RESULTS_FETCH_BATCH_SIZE = 20;
+
     final private TaskContextVariableExtractor taskContextVariableExtractor = new TaskContextVariableExtractor();
 
     private TaskLauncherFactory factory;
@@ -104,6 +118,12 @@ public class TaskLauncher implements InitActive {
 
     private Decrypter decrypter;
 
+    /** public key of the task, set when its credentials are encrypted with the session key of the node */
+    private PublicKey taskPublicKey;
+
+    /** key pair of the node, used to decrypt the session keys of the scheduler */
+    private static KeyPair sessionKeyPair;
+
     private ProgressFileReaderInterface progressFileReader;
 
     private Thread nodeShutdownHook;
@@ -194,6 +214,8 @@ public class TaskLauncher implements InitActive {
 
             progressFileReader.start(dataspaces.getScratchFolder(), taskId);
 
+            previousTasksResults = fetchPreviousTasksResults(previousTasksResults);
+
             context = new TaskContext(executableContainer,
                                       initializer,
                                       previousTasksResults,
@@ -222,7 +244,7 @@ public class TaskLauncher implements InitActive {
             dataspaces.copyInputDataToScratch(initializer.getFilteredInputFiles(fileSelectorsFilters(context))); // should handle interrupt
 
             if (decrypter != null) {
-                decrypter.setCredentials(executableContainer.getCredentials());
+                decrypter.setCredentials(getTaskCredentials(executableContainer.getCredentials()));
             }
 
             TaskExecutor taskExecutor = factory.createTaskExecutor(workingDir);
@@ -250,6 +272,8 @@ public class TaskLauncher implements InitActive {
             dataspaces.copyScratchDataToOutput(initializer.getFilteredOutputFiles(fileSelectorsFilters(context,
                                                                                                        taskResult)));
 
+            addStagingMetrics(taskResult, dataspaces);
+
             wallTimer.stop();
 
             copyTaskLogsToUserSpace(taskLogFile, dataspaces);
@@ -300,6 +324,23 @@ public class TaskLauncher implements InitActive {
         }
     }
 
+    /**
+     * Replaces the results received by reference with the complete results, fetched by batches in parallel.
+     */
+    private TaskResult[] fetchPreviousTasksResults(TaskResult[] previousTasksResults) throws InterruptedException {
+        if (previousTasksResults == null ||
+            Arrays.stream(previousTasksResults).noneMatch(result -> result instanceof TaskResultReference)) {
+            return previousTasksResults;
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(PREVIOUS_RESULTS_FETCH_THREADS,
+                                                                new NamedThreadFactory(taskId + "_ResultsFetch"));
+        try {
+            return TaskResultReference.resolveAll(previousTasksResults, executor, PREVIOUS_RESULTS_FETCH_BATCH_SIZE);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
     private Map<String, byte[]> extractVariablesFromContext(TaskContext context) {
         if (context != null) {
             try {
@@ -371,6 +412,19 @@ public class TaskLauncher implements InitActive {
         }
     }
 
+    private void addStagingMetrics(TaskResultImpl taskResult, TaskDataspaces dataspaces) {
+        Map<String, String> stagingMetrics = dataspaces.getStagingMetrics();
+        if (taskResult == null || stagingMetrics == null || stagingMetrics.isEmpty()) {
+            return;
+        }
+        Map<String, String> metadata = new HashMap<>();
+        if (taskResult.getMetadata() != null) {
+            metadata.putAll(taskResult.getMetadata());
+        }
+        metadata.putAll(stagingMetrics);
+        taskResult.setMetadata(metadata);
+    }
+
     private void copyTaskLogsToUserSpace(File taskLogFile, TaskDataspaces dataspaces) {
         if (initializer.isPreciousLogs()) {
             try {
@@ -479,6 +533,34 @@ public class TaskLauncher implements InitActive {
         return keyPair.getPublic();
     }
 
+    /**
+     * Same as {@link #generatePublicKey()}, but the credentials of the task are encrypted by the scheduler with its
+     * session key for this node: the public key of the node is returned instead of the public key of the task.
+     */
+    public PublicKey generateSessionPublicKey() throws NoSuchAlgorithmException {
+        taskPublicKey = generatePublicKey();
+        return getSessionKeyPair().getPublic();
+    }
+
+    private static synchronized KeyPair getSessionKeyPair() throws NoSuchAlgorithmException {
+        if (sessionKeyPair == null) {
+            sessionKeyPair = RMNodeStarter.getKeyPair();
+        }
+        return sessionKeyPair;
+    }
+
+    /**
+     * Credentials encrypted with the session key of the node are encrypted again for the key pair of the task,
+     * so that the session key never leaves the node.
+     */
+    private Credentials getTaskCredentials(Credentials credentials) throws KeyException, NoSuchAlgorithmException {
+        if (taskPublicKey == null || credentials == null) {
+            return credentials;
+        }
+        CredData credData = credentials.decryptWithSessionKey(getSessionKeyPair().getPrivate());
+        return Credentials.createCredentials(credData, taskPublicKey);
+    }
+
     @ImmediateService
     public void kill() {
         taskLogger.resetLogContextForImmediateService();
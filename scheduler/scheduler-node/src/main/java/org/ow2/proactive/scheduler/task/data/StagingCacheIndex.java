@@ -0,0 +1,96 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive.scheduler.task.data;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+
+/**
+ * Remembers which source files have been copied to the cache space of this node, so that the tasks which
+ * transfer the same files to their scratch space copy them from the cache space instead of their source space.
+ * <p>
+ * A cached copy is only used when the source file still has the size and the modification time it had when
+ * it was cached, and when the cached copy still exists with this size (the cache space is cleaned regularly).
+ * The index is kept in memory and shared by the tasks of the node, the least recently used entries are evicted.
+ */
+class StagingCacheIndex {
+
+    private static final int MAX_ENTRIES = 100000;
+
+    private static final Map<String, CachedFile> cachedFiles = Collections.synchronizedMap(new LinkedHashMap<String, CachedFile>(16,
+                                                                                                                              0.75f,
+                                                                                                                              true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, CachedFile> eldest) {
+            return size() > MAX_ENTRIES;
+        }
+    });
+
+    private StagingCacheIndex() {
+    }
+
+    static void put(String sourceUri, String cachePath, long size, long lastModified) {
+        cachedFiles.put(sourceUri, new CachedFile(cachePath, size, lastModified));
+    }
+
+    static boolean contains(String sourceUri) {
+        return cachedFiles.containsKey(sourceUri);
+    }
+
+    /**
+     * @return the path, relative to the cache space, of the cached copy of the given source, or null if the
+     *         source has not been cached with this size and modification time
+     */
+    static String get(String sourceUri, long size, long lastModified) {
+        CachedFile cachedFile = cachedFiles.get(sourceUri);
+        if (cachedFile == null || cachedFile.size != size || cachedFile.lastModified != lastModified) {
+            return null;
+        }
+        return cachedFile.path;
+    }
+
+    static void remove(String sourceUri) {
+        cachedFiles.remove(sourceUri);
+    }
+
+    private static final class CachedFile {
+
+        private final String path;
+
+        private final long size;
+
+        private final long lastModified;
+
+        private CachedFile(String path, long size, long lastModified) {
+            this.path = path;
+            this.size = size;
+            this.lastModified = lastModified;
+        }
+    }
+
+}
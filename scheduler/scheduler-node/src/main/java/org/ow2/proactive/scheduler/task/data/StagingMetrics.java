@@ -0,0 +1,121 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive.scheduler.task.data;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+
+/**
+ * Counters of the files staged in or out by a task, reported in the metadata of the task result.
+ */
+class StagingMetrics {
+
+    static final String INPUT_PREFIX = "staging.input.";
+
+    static final String OUTPUT_PREFIX = "staging.output.";
+
+    private final String prefix;
+
+    /** files copied, including the files copied from the cache space */
+    private final AtomicLong files = new AtomicLong();
+
+    /** bytes copied, only counted for the files whose destination is on the local file system */
+    private final AtomicLong bytes = new AtomicLong();
+
+    /** files not copied because the destination was already up to date */
+    private final AtomicLong skipped = new AtomicLong();
+
+    /** files copied from the cache space instead of their source space */
+    private final AtomicLong fromCache = new AtomicLong();
+
+    /** files copied in several chunks in parallel */
+    private final AtomicLong chunked = new AtomicLong();
+
+    private final AtomicLong timeMs = new AtomicLong();
+
+    StagingMetrics(String prefix) {
+        this.prefix = prefix;
+    }
+
+    void fileCopied(long size) {
+        files.incrementAndGet();
+        if (size > 0) {
+            bytes.addAndGet(size);
+        }
+    }
+
+    void fileCopiedFromCache() {
+        fromCache.incrementAndGet();
+    }
+
+    void fileChunked() {
+        chunked.incrementAndGet();
+    }
+
+    void fileSkipped() {
+        skipped.incrementAndGet();
+    }
+
+    void addTime(long ms) {
+        timeMs.addAndGet(ms);
+    }
+
+    long getFiles() {
+        return files.get();
+    }
+
+    long getSkipped() {
+        return skipped.get();
+    }
+
+    long getFromCache() {
+        return fromCache.get();
+    }
+
+    boolean isEmpty() {
+        return files.get() == 0 && skipped.get() == 0;
+    }
+
+    void addTo(Map<String, String> metadata) {
+        if (isEmpty()) {
+            return;
+        }
+        metadata.put(prefix + "files", Long.toString(files.get()));
+        metadata.put(prefix + "bytes", Long.toString(bytes.get()));
+        metadata.put(prefix + "skipped", Long.toString(skipped.get()));
+        metadata.put(prefix + "fromCache", Long.toString(fromCache.get()));
+        metadata.put(prefix + "chunked", Long.toString(chunked.get()));
+        metadata.put(prefix + "time.ms", Long.toString(timeMs.get()));
+    }
+
+    @Override
+    public String toString() {
+        return files + " files copied (" + bytes + " bytes, " + fromCache + " from cache, " + chunked +
+               " in chunks), " + skipped + " up to date, " + timeMs + " ms";
+    }
+
+}
@@ -28,6 +28,7 @@ package org.ow2.proactive.scheduler.task.data;
 import java.io.File;
 import java.io.Serializable;
 import java.util.List;
+import java.util.Map;
 
 import org.objectweb.proactive.extensions.dataspaces.exceptions.FileSystemException;
 import org.ow2.proactive.scheduler.common.task.dataspaces.InputSelector;
@@ -54,6 +55,11 @@ public interface TaskDataspaces extends Serializable {
 
     void copyScratchDataToOutput(List<OutputSelector> outputFiles) throws FileSystemException;
 
+    /**
+     * @return counters of the files staged in and out by the task, to be added to the metadata of its result
+     */
+    Map<String, String> getStagingMetrics();
+
     void close();
 
 }
@@ -28,17 +28,27 @@ package org.ow2.proactive.scheduler.task.data;
 import static com.google.common.base.Throwables.getStackTraceAsString;
 
 import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
+import java.util.EnumMap;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.locks.ReentrantLock;
 
 import org.apache.commons.io.FileUtils;
@@ -62,6 +72,7 @@ import org.objectweb.proactive.utils.StackTraceUtil;
 import org.ow2.proactive.resourcemanager.nodesource.dataspace.DataSpaceNodeConfigurationAgent;
 import org.ow2.proactive.scheduler.common.SchedulerConstants;
 import org.ow2.proactive.scheduler.common.task.TaskId;
+import org.ow2.proactive.scheduler.common.task.dataspaces.InputAccessMode;
 import org.ow2.proactive.scheduler.common.task.dataspaces.InputSelector;
 import org.ow2.proactive.scheduler.common.task.dataspaces.OutputSelector;
 
@@ -74,6 +85,18 @@ public class TaskProActiveDataspaces implements TaskDataspaces {
 
     public static final String PA_NODE_DATASPACE_CREATE_FOLDER_HIERARCHY_SEQUENTIALLY = "pa.node.dataspace.create_folder_hierarchy_sequentially";
 
+    public static final String PA_NODE_DATASPACE_FILE_TRANSFER_BATCH_SIZE = "pa.node.dataspace.filetransfer.batchsize";
+
+    public static final String PA_NODE_DATASPACE_FILE_TRANSFER_CHUNK_SIZE = "pa.node.dataspace.filetransfer.chunksize";
+
+    public static final String PA_NODE_DATASPACE_CACHE_REUSE = "pa.node.dataspace.cache.reuse";
+
+    private static final int DEFAULT_FILE_TRANSFER_BATCH_SIZE = 64;
+
+    private static final long DEFAULT_FILE_TRANSFER_CHUNK_SIZE = 64L * 1024 * 1024;
+
+    private static final String PARTIAL_COPY_SUFFIX = ".part";
+
     private transient DataSpacesFileObject SCRATCH;
 
     private transient DataSpacesFileObject CACHE;
@@ -100,7 +123,19 @@ public class TaskProActiveDataspaces implements TaskDataspaces {
 
     private transient StringBuffer clientLogs = new StringBuffer();
 
-    private transient ExecutorService executorTransfer = Executors.newFixedThreadPool(getFileTransferThreadPoolSize(),
+    private transient int fileTransferThreadPoolSize = getFileTransferThreadPoolSize();
+
+    private transient int fileTransferBatchSize = getFileTransferBatchSize();
+
+    private transient long fileTransferChunkSize = getFileTransferChunkSize();
+
+    private transient boolean cacheReuseEnabled = !"false".equalsIgnoreCase(System.getProperty(PA_NODE_DATASPACE_CACHE_REUSE));
+
+    private transient StagingMetrics inputMetrics = new StagingMetrics(StagingMetrics.INPUT_PREFIX);
+
+    private transient StagingMetrics outputMetrics = new StagingMetrics(StagingMetrics.OUTPUT_PREFIX);
+
+    private transient ExecutorService executorTransfer = Executors.newFixedThreadPool(fileTransferThreadPoolSize,
                                                                                       new NamedThreadFactory("FileTransferThreadPool"));
 
     /**
@@ -140,6 +175,52 @@ public class TaskProActiveDataspaces implements TaskDataspaces {
         return result;
     }
 
+    /**
+     * @return the maximum number of files copied by a transfer thread at once
+     */
+    protected int getFileTransferBatchSize() {
+        String sizeAsString = System.getProperty(PA_NODE_DATASPACE_FILE_TRANSFER_BATCH_SIZE);
+
+        int result = DEFAULT_FILE_TRANSFER_BATCH_SIZE;
+
+        if (sizeAsString != null) {
+            try {
+                result = Math.max(1, Integer.parseInt(sizeAsString));
+            } catch (NumberFormatException e) {
+                // default value will be used
+                String message = "Invalid value set for property '" + PA_NODE_DATASPACE_FILE_TRANSFER_BATCH_SIZE +
+                                 "': " + sizeAsString;
+                logger.warn(message);
+                logDataspacesStatus(message, DataspacesStatusLevel.WARNING);
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * @return the size in bytes above which a local file is copied in parallel chunks, 0 if files are never chunked
+     */
+    protected long getFileTransferChunkSize() {
+        String sizeAsString = System.getProperty(PA_NODE_DATASPACE_FILE_TRANSFER_CHUNK_SIZE);
+
+        long result = DEFAULT_FILE_TRANSFER_CHUNK_SIZE;
+
+        if (sizeAsString != null) {
+            try {
+                result = Math.max(0, Long.parseLong(sizeAsString));
+            } catch (NumberFormatException e) {
+                // default value will be used
+                String message = "Invalid value set for property '" + PA_NODE_DATASPACE_FILE_TRANSFER_CHUNK_SIZE +
+                                 "': " + sizeAsString;
+                logger.warn(message);
+                logDataspacesStatus(message, DataspacesStatusLevel.WARNING);
+            }
+        }
+
+        return result;
+    }
+
     private DataSpacesFileObject createTaskIdFolder(DataSpacesFileObject space, String spaceName) {
         if (space != null) {
             String realURI = space.getRealURI();
@@ -404,151 +485,110 @@ public class TaskProActiveDataspaces implements TaskDataspaces {
     @Override
     public void copyInputDataToScratch(List<InputSelector> inputSelectors)
             throws FileSystemException, InterruptedException {
+        long startTime = System.currentTimeMillis();
         try {
             if (inputSelectors == null) {
                 logger.debug("Input selector is empty, no file to copy");
                 return;
             }
 
-            ArrayList<DataSpacesFileObject> inputSpaceFiles = new ArrayList<>();
-            ArrayList<DataSpacesFileObject> outputSpaceFiles = new ArrayList<>();
-            ArrayList<DataSpacesFileObject> globalSpaceFiles = new ArrayList<>();
-            ArrayList<DataSpacesFileObject> userSpaceFiles = new ArrayList<>();
-            ArrayList<DataSpacesFileObject> inputSpaceCacheFiles = new ArrayList<>();
-            ArrayList<DataSpacesFileObject> outputSpaceCacheFiles = new ArrayList<>();
-            ArrayList<DataSpacesFileObject> globalSpaceCacheFiles = new ArrayList<>();
-            ArrayList<DataSpacesFileObject> userSpaceCacheFiles = new ArrayList<>();
-
-            findFilesToCopyFromInput(inputSelectors,
-                                     inputSpaceFiles,
-                                     outputSpaceFiles,
-                                     globalSpaceFiles,
-                                     userSpaceFiles,
-                                     inputSpaceCacheFiles,
-                                     outputSpaceCacheFiles,
-                                     globalSpaceCacheFiles,
-                                     userSpaceCacheFiles);
-
-            String inputSpaceUri = virtualResolve(INPUT);
-            String outputSpaceUri = virtualResolve(OUTPUT);
-            String globalSpaceUri = virtualResolve(GLOBAL);
-            String userSpaceUri = virtualResolve(USER);
-
-            boolean cacheTransferPresent = !inputSpaceCacheFiles.isEmpty() || !outputSpaceCacheFiles.isEmpty() ||
-                                           !globalSpaceCacheFiles.isEmpty() || !userSpaceCacheFiles.isEmpty();
-            if (cacheTransferPresent && CACHE != null) {
-                cacheTransferLock.lockInterruptibly();
-                try {
+            // all the selectors are resolved in parallel, and the files of a selector are copied as soon as they
+            // are found, and the files of the selectors which take precedence over it are known
+            Map<InputAccessMode, List<Future<List<DataSpacesFileObject>>>> selectedFiles = findFilesToCopyFromInput(inputSelectors);
 
-                    Map<String, DataSpacesFileObject> filesToCopyToCache = createFolderHierarchySequentially(CACHE,
-                                                                                                             inputSpaceUri,
-                                                                                                             inputSpaceCacheFiles,
-                                                                                                             outputSpaceUri,
-                                                                                                             outputSpaceCacheFiles,
-                                                                                                             globalSpaceUri,
-                                                                                                             globalSpaceCacheFiles,
-                                                                                                             userSpaceUri,
-                                                                                                             userSpaceCacheFiles);
-
-                    long startTime = System.currentTimeMillis();
-                    List<Future<Boolean>> transferFuturesCache = doCopyInputDataToSpace(CACHE, filesToCopyToCache);
-
-                    handleResultsWhileTransferringFile(transferFuturesCache, "CACHE", startTime);
-                } finally {
-                    if (cacheTransferPresent) {
-                        cacheTransferLock.unlock();
-                    }
-                }
-            } else if (cacheTransferPresent) {
+            boolean cacheTransferPresent = selectedFiles.containsKey(InputAccessMode.CacheFromInputSpace) ||
+                                           selectedFiles.containsKey(InputAccessMode.CacheFromOutputSpace) ||
+                                           selectedFiles.containsKey(InputAccessMode.CacheFromGlobalSpace) ||
+                                           selectedFiles.containsKey(InputAccessMode.CacheFromUserSpace);
+            if (cacheTransferPresent && CACHE == null) {
                 logDataspacesStatus("CACHE dataspace is not available while file transfers to cache were required. Check the Node logs for errors.",
                                     DataspacesStatusLevel.ERROR);
             }
 
-            Map<String, DataSpacesFileObject> filesToCopyToScratch = createFolderHierarchySequentially(SCRATCH,
-                                                                                                       inputSpaceUri,
-                                                                                                       inputSpaceFiles,
-                                                                                                       outputSpaceUri,
-                                                                                                       outputSpaceFiles,
-                                                                                                       globalSpaceUri,
-                                                                                                       globalSpaceFiles,
-                                                                                                       userSpaceUri,
-                                                                                                       userSpaceFiles);
-
-            long startTime = System.currentTimeMillis();
-            List<Future<Boolean>> transferFuturesScratch = doCopyInputDataToSpace(SCRATCH, filesToCopyToScratch);
-
-            handleResultsWhileTransferringFile(transferFuturesScratch, "LOCAL", startTime);
+            StagingPipeline scratchPipeline = new StagingPipeline(SCRATCH, "LOCAL", true, false, inputMetrics);
+            StagingPipeline cachePipeline = null;
+            boolean cacheLocked = false;
+            try {
+                if (cacheTransferPresent && CACHE != null) {
+                    cacheTransferLock.lockInterruptibly();
+                    cacheLocked = true;
+                    cachePipeline = new StagingPipeline(CACHE, "CACHE", true, true, inputMetrics);
+                }
 
+                // Since multiple spaces are involved, it is possible to have
+                // a file with the same name present in each space. Consequently,
+                // the one to copy has to be selected since there is only a single
+                // possible destination.
+                // The order of the next calls gives the precedence order
+                // of the spaces when the previous situation occurs:
+                // output, input, user and global space
+                // Precedence is given to the more specific files
+                dispatchSelectedFiles(selectedFiles,
+                                      OUTPUT,
+                                      InputAccessMode.TransferFromOutputSpace,
+                                      scratchPipeline,
+                                      InputAccessMode.CacheFromOutputSpace,
+                                      cachePipeline);
+                dispatchSelectedFiles(selectedFiles,
+                                      INPUT,
+                                      InputAccessMode.TransferFromInputSpace,
+                                      scratchPipeline,
+                                      InputAccessMode.CacheFromInputSpace,
+                                      cachePipeline);
+                dispatchSelectedFiles(selectedFiles,
+                                      USER,
+                                      InputAccessMode.TransferFromUserSpace,
+                                      scratchPipeline,
+                                      InputAccessMode.CacheFromUserSpace,
+                                      cachePipeline);
+                dispatchSelectedFiles(selectedFiles,
+                                      GLOBAL,
+                                      InputAccessMode.TransferFromGlobalSpace,
+                                      scratchPipeline,
+                                      InputAccessMode.CacheFromGlobalSpace,
+                                      cachePipeline);
+
+                if (cachePipeline != null) {
+                    try {
+                        cachePipeline.await();
+                    } finally {
+                        cacheTransferLock.unlock();
+                        cacheLocked = false;
+                    }
+                }
+                scratchPipeline.await();
+            } catch (FileSystemException | InterruptedException | RuntimeException e) {
+                scratchPipeline.cancel();
+                if (cachePipeline != null) {
+                    cachePipeline.cancel();
+                }
+                throw e;
+            } finally {
+                if (cacheLocked) {
+                    cacheTransferLock.unlock();
+                }
+            }
         } finally {
+            inputMetrics.addTime(System.currentTimeMillis() - startTime);
+            logger.info("Input files staging: " + inputMetrics);
             // display dataspaces error and warns if any
             displayDataspacesStatus();
         }
     }
 
-    private Map<String, DataSpacesFileObject> createFolderHierarchySequentially(DataSpacesFileObject space,
-            String inputSpaceUri, ArrayList<DataSpacesFileObject> inputSpaceFiles, String outputSpaceUri,
-            ArrayList<DataSpacesFileObject> outputSpaceFiles, String globalSpaceUri,
-            ArrayList<DataSpacesFileObject> globalSpaceFiles, String userSpaceUri,
-            ArrayList<DataSpacesFileObject> userSpaceFiles) throws FileSystemException {
-
-        // This map will contain the files that have to be copied.
-        Map<String, DataSpacesFileObject> result = new HashMap<>(outputSpaceFiles.size() + globalSpaceFiles.size() +
-                                                                 userSpaceFiles.size() + inputSpaceFiles.size());
-
-        // Since multiple spaces are involved, it is possible to have
-        // a file with the same name present in each space. Consequently,
-        // the one to copy has to be selected since there is only a single
-        // possible destination, the scratch space.
-        // The reverse order of the next calls gives the precedence order
-        // of the spaces when the previous situation occurs:
-        // output, input, user and global space
-        // Precedence is given to the more specific files
-        createFolderHierarchySequentially(space, globalSpaceUri, globalSpaceFiles, result);
-        createFolderHierarchySequentially(space, userSpaceUri, userSpaceFiles, result);
-        createFolderHierarchySequentially(space, inputSpaceUri, inputSpaceFiles, result);
-        createFolderHierarchySequentially(space, outputSpaceUri, outputSpaceFiles, result);
-
-        return result;
-    }
-
-    /*
-     * Create the folder hierarchy and select the files to copy
-     * from the specified list of FileObjects.
-     */
-    protected void createFolderHierarchySequentially(DataSpacesFileObject destination, String spaceUri,
-            List<DataSpacesFileObject> spaceFiles, Map<String, DataSpacesFileObject> filesToCopy)
-            throws FileSystemException {
-
-        boolean isDebugEnabled = logger.isDebugEnabled();
-        boolean isFolderHierarchyCreationEnabled = isCreateFolderHierarchySequentiallyEnabled();
-        long startTime = System.currentTimeMillis();
-
-        for (DataSpacesFileObject fileObject : spaceFiles) {
-            String relativePath = relativize(spaceUri, fileObject);
-
-            if (isFolderHierarchyCreationEnabled) {
-                try {
-                    DataSpacesFileObject target = destination.resolveFile(relativePath);
-                    createFolderHierarchy(isDebugEnabled, fileObject, target);
-                } catch (FileSystemException e) {
-                    String message = "Could not create folder hierarchy for " + relativePath + " on " +
-                                     destination.getRealURI();
-                    logger.warn(message);
-                    logDataspacesStatus(message, DataspacesStatusLevel.WARNING);
-                }
-            }
+    private void dispatchSelectedFiles(Map<InputAccessMode, List<Future<List<DataSpacesFileObject>>>> selectedFiles,
+            DataSpacesFileObject space, InputAccessMode transferMode, StagingPipeline scratchPipeline,
+            InputAccessMode cacheMode, StagingPipeline cachePipeline)
+            throws FileSystemException, InterruptedException {
+        String spaceUri = virtualResolve(space);
 
-            DataSpacesFileObject oldFileObject = filesToCopy.put(relativePath, fileObject);
-            if (oldFileObject != null) {
-                String message = fileObject.getRealURI() + " will be copied instead of " + oldFileObject.getRealURI() +
-                                 ".\n " + "Precedence order is output space, input space, user space, global space.";
-                logger.warn(message);
-                logDataspacesStatus(message, DataspacesStatusLevel.WARNING);
-            }
+        if (selectedFiles.containsKey(transferMode)) {
+            dispatchFilesResults(selectedFiles.get(transferMode), spaceUri, scratchPipeline);
         }
 
-        logger.info("Time needed to build folder hierarchy: " + (System.currentTimeMillis() - startTime) + " ms");
-
+        if (selectedFiles.containsKey(cacheMode) && cachePipeline != null) {
+            dispatchFilesResults(selectedFiles.get(cacheMode), spaceUri, cachePipeline);
+        }
     }
 
     protected void createFolderHierarchy(boolean isDebugEnabled, DataSpacesFileObject fileObject,
@@ -657,85 +697,69 @@ public class TaskProActiveDataspaces implements TaskDataspaces {
         }
     }
 
-    private void findFilesToCopyFromInput(List<InputSelector> inputSelectors, ArrayList<DataSpacesFileObject> inResults,
-            ArrayList<DataSpacesFileObject> outResults, ArrayList<DataSpacesFileObject> globResults,
-            ArrayList<DataSpacesFileObject> userResults, ArrayList<DataSpacesFileObject> inResultsCache,
-            ArrayList<DataSpacesFileObject> outResultsCache, ArrayList<DataSpacesFileObject> globResultsCache,
-            ArrayList<DataSpacesFileObject> userResultsCache) throws FileSystemException, InterruptedException {
-
-        long startTime = System.currentTimeMillis();
-
-        ArrayList<Future<List<DataSpacesFileObject>>> inResultsFutures = new ArrayList<>();
-        ArrayList<Future<List<DataSpacesFileObject>>> outResultsFutures = new ArrayList<>();
-        ArrayList<Future<List<DataSpacesFileObject>>> globResultsFutures = new ArrayList<>();
-        ArrayList<Future<List<DataSpacesFileObject>>> userResultsFutures = new ArrayList<>();
-        ArrayList<Future<List<DataSpacesFileObject>>> inResultsCacheFutures = new ArrayList<>();
-        ArrayList<Future<List<DataSpacesFileObject>>> outResultsCacheFutures = new ArrayList<>();
-        ArrayList<Future<List<DataSpacesFileObject>>> globResultsCacheFutures = new ArrayList<>();
-        ArrayList<Future<List<DataSpacesFileObject>>> userResultsCacheFutures = new ArrayList<>();
+    private Map<InputAccessMode, List<Future<List<DataSpacesFileObject>>>>
+            findFilesToCopyFromInput(List<InputSelector> inputSelectors) {
+        Map<InputAccessMode, List<Future<List<DataSpacesFileObject>>>> results = new EnumMap<>(InputAccessMode.class);
 
         for (InputSelector is : inputSelectors) {
             org.objectweb.proactive.extensions.dataspaces.vfs.selector.FileSelector selector = new org.objectweb.proactive.extensions.dataspaces.vfs.selector.FileSelector();
             selector.setIncludes(is.getInputFiles().getIncludes());
             selector.setExcludes(is.getInputFiles().getExcludes());
 
+            Future<List<DataSpacesFileObject>> future;
             switch (is.getMode()) {
                 case TransferFromInputSpace:
-                    inResultsFutures.add(findFilesToCopyFromInput(INPUT, "INPUT", is, selector));
-                    break;
-                case TransferFromOutputSpace:
-                    outResultsFutures.add(findFilesToCopyFromInput(OUTPUT, "OUTPUT", is, selector));
-                    break;
-                case TransferFromGlobalSpace:
-                    globResultsFutures.add(findFilesToCopyFromInput(GLOBAL, "GLOBAL", is, selector));
-                    break;
-                case TransferFromUserSpace:
-                    userResultsFutures.add(findFilesToCopyFromInput(USER, "USER", is, selector));
-                    break;
                 case CacheFromInputSpace:
-                    inResultsCacheFutures.add(findFilesToCopyFromInput(INPUT, "INPUT", is, selector));
+                    future = findFilesToCopyFromInput(INPUT, "INPUT", is, selector);
                     break;
+                case TransferFromOutputSpace:
                 case CacheFromOutputSpace:
-                    outResultsCacheFutures.add(findFilesToCopyFromInput(OUTPUT, "OUTPUT", is, selector));
+                    future = findFilesToCopyFromInput(OUTPUT, "OUTPUT", is, selector);
                     break;
+                case TransferFromGlobalSpace:
                 case CacheFromGlobalSpace:
-                    globResultsCacheFutures.add(findFilesToCopyFromInput(GLOBAL, "GLOBAL", is, selector));
+                    future = findFilesToCopyFromInput(GLOBAL, "GLOBAL", is, selector);
                     break;
+                case TransferFromUserSpace:
                 case CacheFromUserSpace:
-                    userResultsCacheFutures.add(findFilesToCopyFromInput(USER, "USER", is, selector));
-                case none:
-                    //do nothing
+                    future = findFilesToCopyFromInput(USER, "USER", is, selector);
                     break;
+                default:
+                    //do nothing
+                    continue;
             }
-        }
-
-        addFilesResultToList(inResultsFutures, inResults);
-        addFilesResultToList(outResultsFutures, outResults);
-        addFilesResultToList(globResultsFutures, globResults);
-        addFilesResultToList(userResultsFutures, userResults);
 
-        addFilesResultToList(inResultsCacheFutures, inResultsCache);
-        addFilesResultToList(outResultsCacheFutures, outResultsCache);
-        addFilesResultToList(globResultsCacheFutures, globResultsCache);
-        addFilesResultToList(userResultsCacheFutures, userResultsCache);
-
-        logger.info("Time needed to create list of files to copy: " + (System.currentTimeMillis() - startTime) + " ms");
+            List<Future<List<DataSpacesFileObject>>> futures = results.get(is.getMode());
+            if (futures == null) {
+                futures = new ArrayList<>();
+                results.put(is.getMode(), futures);
+            }
+            futures.add(future);
+        }
 
+        return results;
     }
 
-    private void addFilesResultToList(List<Future<List<DataSpacesFileObject>>> futures,
-            ArrayList<DataSpacesFileObject> results) throws InterruptedException, FileSystemException {
+    /**
+     * Dispatch the files found by each selector of a space, in the order of the selectors. The files of a selector
+     * are copied as soon as it is resolved, while the next selectors are still resolved.
+     */
+    private void dispatchFilesResults(List<Future<List<DataSpacesFileObject>>> futures, String spaceUri,
+            StagingPipeline pipeline) throws InterruptedException, FileSystemException {
 
         StringBuilder message = new StringBuilder();
         String nl = System.lineSeparator();
 
         for (Future<List<DataSpacesFileObject>> future : futures) {
+            List<DataSpacesFileObject> files;
             try {
-                results.addAll(future.get());
+                files = future.get();
             } catch (InterruptedException | ExecutionException e) {
                 logger.error("Exception while selecting input files to copy ", e);
                 message.append(StackTraceUtil.getStackTrace(e)).append(nl);
+                continue;
             }
+            pipeline.dispatch(spaceUri, files);
         }
 
         if (message.length() > 0) {
@@ -744,59 +768,6 @@ public class TaskProActiveDataspaces implements TaskDataspaces {
         }
     }
 
-    private List<Future<Boolean>> doCopyInputDataToSpace(DataSpacesFileObject space,
-            Map<String, DataSpacesFileObject> filesToCopy) {
-
-        List<Future<Boolean>> transferFutures = new ArrayList<>(filesToCopy.size());
-
-        for (Map.Entry<String, DataSpacesFileObject> entry : filesToCopy.entrySet()) {
-            transferFutures.add(parallelFileCopy(entry.getValue(), space, entry.getKey(), true));
-        }
-
-        return transferFutures;
-    }
-
-    private Future<Boolean> parallelFileCopy(final DataSpacesFileObject source,
-            final DataSpacesFileObject destinationBase, final String destinationRelativeToBase,
-            final boolean isInputFile) {
-
-        logger.debug("------------ resolving " + destinationRelativeToBase);
-
-        return executorTransfer.submit(new Callable<Boolean>() {
-            @Override
-            public Boolean call() throws FileSystemException {
-
-                DataSpacesFileObject target = destinationBase.resolveFile(destinationRelativeToBase);
-
-                target.refresh();
-                if (!target.exists()) {
-                    logger.info("Copying " + source.getRealURI() + " to " + destinationBase.getRealURI() + "/" +
-                                destinationRelativeToBase);
-                    target.copyFrom(source, FileSelector.SELECT_SELF);
-                } else if (source.getContent().getLastModifiedTime() > target.getContent().getLastModifiedTime()) {
-                    logger.info("Copying " + source.getRealURI() + " to " + destinationBase.getRealURI() + "/" +
-                                destinationRelativeToBase + " (newer version)");
-                    target.copyFrom(source, FileSelector.SELECT_SELF);
-                } else {
-                    logger.debug("Destination file " + target.getRealURI() + " is already present and newer.");
-                }
-
-                target.refresh();
-                if (!target.exists()) {
-                    String message = "There was a problem during the copy of " + source.getRealURI() + " to " +
-                                     target.getRealURI() + ". File not present after copy.";
-                    logger.error(message);
-                    logDataspacesStatus(message, DataspacesStatusLevel.ERROR);
-                } else {
-                    if (isInputFile) {
-                        setFileRightsForRunAsUserMode(target);
-                    }
-                }
-                return true;
-            }
-        });
-    }
-
     private Future<List<DataSpacesFileObject>> findFilesToCopyFromInput(final DataSpacesFileObject space,
             final String spaceName, final InputSelector inputSelector,
             final org.objectweb.proactive.extensions.dataspaces.vfs.selector.FileSelector selector) {
@@ -849,6 +820,7 @@ public class TaskProActiveDataspaces implements TaskDataspaces {
 
     @Override
     public void copyScratchDataToOutput(List<OutputSelector> outputSelectors) throws FileSystemException {
+        long startTime = System.currentTimeMillis();
         try {
             if (outputSelectors == null) {
                 logger.debug("Output selector is empty, no file to copy");
@@ -895,11 +867,21 @@ public class TaskProActiveDataspaces implements TaskDataspaces {
             }
 
         } finally {
+            outputMetrics.addTime(System.currentTimeMillis() - startTime);
+            logger.info("Output files staging: " + outputMetrics);
             // display dataspaces error and warns if any
             displayDataspacesStatus();
         }
     }
 
+    @Override
+    public Map<String, String> getStagingMetrics() {
+        Map<String, String> metrics = new HashMap<>();
+        inputMetrics.addTo(metrics);
+        outputMetrics.addTo(metrics);
+        return metrics;
+    }
+
     private void checkOutputSpacesConfigured(List<OutputSelector> outputSelectors) {
         // Check that output spaces are properly configured, A message is put in the user log output if not
         for (OutputSelector os1 : outputSelectors) {
@@ -1004,8 +986,6 @@ public class TaskProActiveDataspaces implements TaskDataspaces {
             org.objectweb.proactive.extensions.dataspaces.vfs.selector.FileSelector selector,
             List<DataSpacesFileObject> results) throws FileSystemException {
 
-        long startTime = System.currentTimeMillis();
-
         Utils.findFiles(SCRATCH, selector, results);
 
         if (logger.isDebugEnabled()) {
@@ -1016,19 +996,486 @@ public class TaskProActiveDataspaces implements TaskDataspaces {
             }
         }
 
-        String base = SCRATCH.getVirtualURI();
+        StagingPipeline pipeline = new StagingPipeline(dataspaceDestination, spaceName, false, false, outputMetrics);
+        try {
+            pipeline.dispatch(SCRATCH.getVirtualURI(), results);
+        } catch (FileSystemException | RuntimeException e) {
+            pipeline.cancel();
+            throw e;
+        }
+        pipeline.await();
+    }
 
-        Map<String, DataSpacesFileObject> filesToCopy = new HashMap<>(results.size());
+    private static File toLocalFile(DataSpacesFileObject fileObject) {
+        String realUri = fileObject.getRealURI();
+        if (realUri == null || !realUri.startsWith("file:")) {
+            return null;
+        }
+        try {
+            return new File(new URI(realUri));
+        } catch (URISyntaxException | IllegalArgumentException e) {
+            // not a valid file URI, the file is handled through the data spaces API
+        }
+        return null;
+    }
+
+    private static void copyChunk(File source, File target, long position, long count) throws IOException {
+        try (FileChannel in = FileChannel.open(source.toPath(), StandardOpenOption.READ);
+                FileChannel out = FileChannel.open(target.toPath(), StandardOpenOption.WRITE)) {
+            out.position(position);
+            long copied = 0;
+            while (copied < count) {
+                long transferred = in.transferTo(position + copied, count - copied, out);
+                if (transferred <= 0) {
+                    throw new IOException("Unexpected end of file " + source + " at " + (position + copied));
+                }
+                copied += transferred;
+            }
+        }
+    }
+
+    /**
+     * Copies the files selected by a task to one destination space, the files of each selector while the next
+     * selectors are being resolved.
+     * <p>
+     * Files are dispatched in the precedence order of their spaces: a file whose path is already taken by a file
+     * of a more specific space is ignored. The dispatching thread creates the folder hierarchy of the files, once
+     * per folder, and the transfer threads copy the files by batches, so that the many small files of a task
+     * do not cost a thread hand-off each. A file of the local file system larger than the chunk size is copied
+     * in several chunks in parallel when its destination is also on the local file system.
+     * <p>
+     * The files copied to the CACHE space are recorded in the {@link StagingCacheIndex}, the files copied to the
+     * scratch space are then taken from the CACHE space when it holds the same version of their source. A file of
+     * the CACHE space is written to a temporary file which then replaces it atomically, so that the tasks reading
+     * it never see a partial copy.
+     */
+    class StagingPipeline {
+
+        private final DataSpacesFileObject destination;
+
+        private final String destinationName;
+
+        /** destination folder when the destination is on the local file system, null otherwise */
+        private final File localDestination;
+
+        private final boolean input;
+
+        private final boolean toCache;
+
+        private final StagingMetrics metrics;
+
+        private final boolean isDebugEnabled = logger.isDebugEnabled();
+
+        private final boolean isFolderHierarchyCreationEnabled = isCreateFolderHierarchySequentiallyEnabled();
+
+        private final Map<String, DataSpacesFileObject> selectedFiles = new HashMap<>();
+
+        private final Set<String> createdFolders = new HashSet<>();
+
+        private final List<Future<Boolean>> transferFutures = new ArrayList<>();
+
+        private final long startTime = System.currentTimeMillis();
+
+        private List<FileToCopy> batch;
+
+        StagingPipeline(DataSpacesFileObject destination, String destinationName, boolean input, boolean toCache,
+                StagingMetrics metrics) {
+            this.destination = destination;
+            this.destinationName = destinationName;
+            this.localDestination = toLocalFile(destination);
+            this.input = input;
+            this.toCache = toCache;
+            this.metrics = metrics;
+        }
+
+        /**
+         * Select the given files and start their copy
+         *
+         * @param spaceUri virtual URI of the space of the files
+         * @param files files to copy, which do not take precedence over the files already dispatched
+         */
+        void dispatch(String spaceUri, List<DataSpacesFileObject> files) throws FileSystemException {
+            // a batch of files is large enough to keep all the transfer threads busy
+            int batchSize = (int) Math.max(1, Math.min(fileTransferBatchSize, files.size() / fileTransferThreadPoolSize));
+
+            for (DataSpacesFileObject fileObject : files) {
+                String relativePath = relativize(spaceUri, fileObject);
+
+                DataSpacesFileObject selectedFile = selectedFiles.putIfAbsent(relativePath, fileObject);
+                if (selectedFile != null) {
+                    String message = selectedFile.getRealURI() + " will be copied instead of " +
+                                     fileObject.getRealURI() + ".\n " +
+                                     "Precedence order is output space, input space, user space, global space.";
+                    logger.warn(message);
+                    logDataspacesStatus(message, DataspacesStatusLevel.WARNING);
+                    continue;
+                }
+
+                if (isFolderHierarchyCreationEnabled && createFolders(relativePath, fileObject)) {
+                    // the folder itself has been created
+                    continue;
+                }
+
+                File localSource = fileTransferChunkSize > 0 && localDestination != null ? toLocalFile(fileObject)
+                                                                                         : null;
+                if (localSource != null && localSource.length() > fileTransferChunkSize) {
+                    copyInChunks(fileObject, localSource, relativePath);
+                } else {
+                    if (batch == null) {
+                        batch = new ArrayList<>(batchSize);
+                    }
+                    batch.add(new FileToCopy(fileObject, relativePath));
+                    if (batch.size() >= batchSize) {
+                        submitBatch();
+                    }
+                }
+            }
+            submitBatch();
+        }
+
+        /**
+         * Wait for the end of the copies
+         *
+         * @throws FileSystemException if some files could not be copied
+         */
+        void await() throws FileSystemException {
+            submitBatch();
+            handleResultsWhileTransferringFile(transferFutures, destinationName, startTime);
+        }
+
+        void cancel() {
+            for (Future<Boolean> future : transferFutures) {
+                future.cancel(true);
+            }
+        }
+
+        List<Future<Boolean>> getTransferFutures() {
+            return transferFutures;
+        }
+
+        /**
+         * Create the folder hierarchy of a file, if it has not been created yet
+         *
+         * @return true if the file is a folder
+         */
+        private boolean createFolders(String relativePath, DataSpacesFileObject fileObject) {
+            try {
+                boolean isFolder = FileType.FOLDER.equals(fileObject.getType());
+                int lastSeparator = relativePath.lastIndexOf('/');
+                String folder = isFolder ? relativePath
+                                         : (lastSeparator < 0 ? "" : relativePath.substring(0, lastSeparator));
+                if (createdFolders.add(folder)) {
+                    createFolderHierarchy(isDebugEnabled, fileObject, destination.resolveFile(relativePath));
+                }
+                return isFolder;
+            } catch (FileSystemException e) {
+                String message = "Could not create folder hierarchy for " + relativePath + " on " +
+                                 destination.getRealURI();
+                logger.warn(message);
+                logDataspacesStatus(message, DataspacesStatusLevel.WARNING);
+                return false;
+            }
+        }
+
+        private void submitBatch() {
+            if (batch != null && !batch.isEmpty()) {
+                final List<FileToCopy> files = batch;
+                batch = null;
+                transferFutures.add(executorTransfer.submit(new Callable<Boolean>() {
+                    @Override
+                    public Boolean call() throws FileSystemException {
+                        return copyFiles(files);
+                    }
+                }));
+            }
+        }
+
+        private boolean copyFiles(List<FileToCopy> files) throws FileSystemException {
+            StringBuilder errors = new StringBuilder();
+            for (FileToCopy file : files) {
+                if (Thread.currentThread().isInterrupted()) {
+                    throw new FileSystemException("Transfer to " + destinationName + " space interrupted");
+                }
+                try {
+                    copyFile(file.source, file.relativePath);
+                } catch (FileSystemException | RuntimeException e) {
+                    logger.error("Could not copy " + file.source.getRealURI() + " to " + destinationName + " space", e);
+                    errors.append(StackTraceUtil.getStackTrace(e)).append(System.lineSeparator());
+                }
+            }
+            if (errors.length() > 0) {
+                throw new FileSystemException(errors.toString());
+            }
+            return true;
+        }
+
+        private void copyFile(DataSpacesFileObject source, String relativePath) throws FileSystemException {
+            DataSpacesFileObject target = destination.resolveFile(relativePath);
+            File localTarget = localDestination == null ? null : new File(localDestination, relativePath);
+
+            if (toCache) {
+                if (!copyToCache(source, target, localTarget, relativePath)) {
+                    metrics.fileSkipped();
+                    return;
+                }
+            } else if (localTarget != null && !localTarget.exists()) {
+                // nothing to compare with, the file may be taken from the CACHE space instead of its source space
+                DataSpacesFileObject cachedCopy = input ? findCachedCopy(source) : null;
+                if (cachedCopy != null) {
+                    logger.info("Copying " + cachedCopy.getRealURI() + " (cached copy of " + source.getRealURI() +
+                                ") to " + destination.getRealURI() + "/" + relativePath);
+                    target.copyFrom(cachedCopy, FileSelector.SELECT_SELF);
+                    metrics.fileCopiedFromCache();
+                } else {
+                    logger.info("Copying " + source.getRealURI() + " to " + destination.getRealURI() + "/" +
+                                relativePath);
+                    target.copyFrom(source, FileSelector.SELECT_SELF);
+                }
+            } else if (!copyIfNewer(source, target, relativePath)) {
+                metrics.fileSkipped();
+                return;
+            }
 
-        createFolderHierarchySequentially(dataspaceDestination, base, results, filesToCopy);
+            boolean exists;
+            if (localTarget != null) {
+                exists = localTarget.exists();
+            } else {
+                target.refresh();
+                exists = target.exists();
+            }
+            if (!exists) {
+                String message = "There was a problem during the copy of " + source.getRealURI() + " to " +
+                                 target.getRealURI() + ". File not present after copy.";
+                logger.error(message);
+                logDataspacesStatus(message, DataspacesStatusLevel.ERROR);
+            } else {
+                if (input) {
+                    setFileRightsForRunAsUserMode(target);
+                }
+                File localFile = localTarget != null ? localTarget : toLocalFile(source);
+                metrics.fileCopied(localFile != null ? localFile.length() : -1);
+            }
+        }
 
-        ArrayList<Future<Boolean>> transferFutures = new ArrayList<>(results.size());
+        private boolean copyIfNewer(DataSpacesFileObject source, DataSpacesFileObject target, String relativePath)
+                throws FileSystemException {
+            target.refresh();
+            if (!target.exists()) {
+                logger.info("Copying " + source.getRealURI() + " to " + destination.getRealURI() + "/" + relativePath);
+                target.copyFrom(source, FileSelector.SELECT_SELF);
+            } else if (source.getContent().getLastModifiedTime() > target.getContent().getLastModifiedTime()) {
+                logger.info("Copying " + source.getRealURI() + " to " + destination.getRealURI() + "/" + relativePath +
+                            " (newer version)");
+                target.copyFrom(source, FileSelector.SELECT_SELF);
+            } else {
+                logger.debug("Destination file " + target.getRealURI() + " is already present and newer.");
+                return false;
+            }
+            return true;
+        }
 
-        for (Map.Entry<String, DataSpacesFileObject> entry : filesToCopy.entrySet()) {
-            transferFutures.add(parallelFileCopy(entry.getValue(), dataspaceDestination, entry.getKey(), false));
+        /**
+         * A file is copied to the CACHE space unless it is already there with the same size, and is not older
+         * than its source.
+         *
+         * @return true if the file has been copied
+         */
+        private boolean copyToCache(DataSpacesFileObject source, DataSpacesFileObject target, File localTarget,
+                String relativePath) throws FileSystemException {
+            long size = source.getContent().getSize();
+            long lastModified = source.getContent().getLastModifiedTime();
+
+            boolean upToDate;
+            if (localTarget != null) {
+                upToDate = localTarget.isFile() && localTarget.length() == size &&
+                           localTarget.lastModified() >= lastModified;
+            } else {
+                target.refresh();
+                upToDate = target.exists() && target.getContent().getSize() == size &&
+                           target.getContent().getLastModifiedTime() >= lastModified;
+            }
+
+            if (upToDate) {
+                logger.debug("Destination file " + target.getRealURI() + " is already present and newer.");
+            } else {
+                logger.info("Copying " + source.getRealURI() + " to " + destination.getRealURI() + "/" + relativePath);
+                StagingCacheIndex.remove(source.getRealURI());
+                if (localTarget != null) {
+                    // the scratch pipelines of other tasks may be reading the cached copy, it is replaced at once
+                    File partialTarget = createPartialCopy(localTarget, relativePath);
+                    try {
+                        destination.resolveFile(getPartialCopyPath(relativePath, partialTarget))
+                                   .copyFrom(source, FileSelector.SELECT_SELF);
+                        replaceWithPartialCopy(partialTarget, localTarget);
+                    } catch (FileSystemException | RuntimeException e) {
+                        FileUtils.deleteQuietly(partialTarget);
+                        throw e;
+                    }
+                } else {
+                    // a cached copy which is not on the local file system is never read by other tasks
+                    target.copyFrom(source, FileSelector.SELECT_SELF);
+                }
+            }
+            StagingCacheIndex.put(source.getRealURI(), relativePath, size, lastModified);
+            return !upToDate;
         }
 
-        handleResultsWhileTransferringFile(transferFutures, spaceName, startTime);
+        /**
+         * @return the copy of the given source in the CACHE space, or null if the CACHE space does not hold the
+         *         current version of the source
+         */
+        private DataSpacesFileObject findCachedCopy(DataSpacesFileObject source) {
+            String sourceUri = source.getRealURI();
+            if (!cacheReuseEnabled || CACHE == null || !StagingCacheIndex.contains(sourceUri)) {
+                return null;
+            }
+            try {
+                long size = source.getContent().getSize();
+                String cachePath = StagingCacheIndex.get(sourceUri, size, source.getContent().getLastModifiedTime());
+                if (cachePath == null) {
+                    return null;
+                }
+                DataSpacesFileObject cachedCopy = CACHE.resolveFile(cachePath);
+                File localCachedCopy = toLocalFile(cachedCopy);
+                if (localCachedCopy == null || !localCachedCopy.isFile() || localCachedCopy.length() != size) {
+                    // removed by the cache cleaning, or replaced by another version
+                    StagingCacheIndex.remove(sourceUri);
+                    return null;
+                }
+                return cachedCopy;
+            } catch (FileSystemException e) {
+                logger.debug("Could not look for a cached copy of " + sourceUri, e);
+                return null;
+            }
+        }
+
+        private void copyInChunks(final DataSpacesFileObject source, final File localSource,
+                final String relativePath) throws FileSystemException {
+            final File localTarget = new File(localDestination, relativePath);
+            final long size = localSource.length();
+            final long lastModified = localSource.lastModified();
+
+            if (localTarget.exists() && localTarget.lastModified() >= lastModified &&
+                (!toCache || localTarget.length() == size)) {
+                logger.debug("Destination file " + localTarget + " is already present and newer.");
+                if (toCache) {
+                    StagingCacheIndex.put(source.getRealURI(), relativePath, size, lastModified);
+                }
+                metrics.fileSkipped();
+                return;
+            }
+
+            final int chunks = (int) ((size + fileTransferChunkSize - 1) / fileTransferChunkSize);
+            logger.info("Copying " + source.getRealURI() + " to " + destination.getRealURI() + "/" + relativePath +
+                        " in " + chunks + " chunks");
+
+            if (toCache) {
+                // the cached copy must not be read by other tasks while it is replaced
+                StagingCacheIndex.remove(source.getRealURI());
+            }
+
+            // the chunks are written to a temporary file, which replaces the target once complete, so that the
+            // target is never seen partially written
+            final File partialTarget = createPartialCopy(localTarget, relativePath);
+            try (RandomAccessFile file = new RandomAccessFile(partialTarget, "rw")) {
+                file.setLength(size);
+            } catch (IOException e) {
+                FileUtils.deleteQuietly(partialTarget);
+                throw new FileSystemException("Could not allocate " + partialTarget + ": " + e.getMessage());
+            }
+
+            final AtomicInteger remainingChunks = new AtomicInteger(chunks);
+            for (int i = 0; i < chunks; i++) {
+                final long position = i * fileTransferChunkSize;
+                final long count = Math.min(fileTransferChunkSize, size - position);
+                transferFutures.add(executorTransfer.submit(new Callable<Boolean>() {
+                    @Override
+                    public Boolean call() throws FileSystemException {
+                        try {
+                            copyChunk(localSource, partialTarget, position, count);
+                        } catch (IOException e) {
+                            FileUtils.deleteQuietly(partialTarget);
+                            throw new FileSystemException("Could not copy " + localSource + " to " + localTarget +
+                                                          " at " + position + ": " + e.getMessage());
+                        }
+                        // the thread which copies the last chunk completes the copy
+                        if (remainingChunks.decrementAndGet() == 0) {
+                            replaceWithPartialCopy(partialTarget, localTarget);
+                            if (input) {
+                                setFileRightsForRunAsUserMode(destination.resolveFile(relativePath));
+                            }
+                            if (toCache) {
+                                StagingCacheIndex.put(source.getRealURI(), relativePath, size, lastModified);
+                            }
+                            metrics.fileChunked();
+                            metrics.fileCopied(size);
+                        }
+                        return true;
+                    }
+                }));
+            }
+        }
+
+        /**
+         * Create, in the folder of the given target, the temporary file to which the target is copied before
+         * replacing it. The folder is created if needed.
+         */
+        private File createPartialCopy(File localTarget, String relativePath) throws FileSystemException {
+            File parent = localTarget.getParentFile();
+            if (!parent.isDirectory()) {
+                // the folder has not been created while dispatching the files
+                if (!parent.mkdirs() && !parent.isDirectory()) {
+                    throw new FileSystemException("Could not create folder " + parent);
+                }
+                if (runAsUser) {
+                    setFolderRightsForRunAsUserMode(destination.resolveFile(relativePath).getParent());
+                }
+            }
+            try {
+                return File.createTempFile("." + localTarget.getName(), PARTIAL_COPY_SUFFIX, parent);
+            } catch (IOException e) {
+                throw new FileSystemException("Could not create a temporary file for " + localTarget + ": " +
+                                              e.getMessage());
+            }
+        }
+
+        /**
+         * @return the path of the given temporary file, relative to the destination
+         */
+        private String getPartialCopyPath(String relativePath, File partialTarget) {
+            int lastSeparator = relativePath.lastIndexOf('/');
+            return lastSeparator < 0 ? partialTarget.getName()
+                                     : relativePath.substring(0, lastSeparator + 1) + partialTarget.getName();
+        }
+
+        /**
+         * Atomically replace the target with its complete temporary copy, a reader of the target sees either the
+         * previous version or the new one
+         */
+        private void replaceWithPartialCopy(File partialTarget, File localTarget) throws FileSystemException {
+            try {
+                Files.move(partialTarget.toPath(),
+                           localTarget.toPath(),
+                           StandardCopyOption.REPLACE_EXISTING,
+                           StandardCopyOption.ATOMIC_MOVE);
+            } catch (IOException e) {
+                FileUtils.deleteQuietly(partialTarget);
+                throw new FileSystemException("Could not move " + partialTarget + " to " + localTarget + ": " +
+                                              e.getMessage());
+            }
+        }
+    }
+
+    private static final class FileToCopy {
+
+        private final DataSpacesFileObject source;
+
+        private final String relativePath;
+
+        private FileToCopy(DataSpacesFileObject source, String relativePath) {
+            this.source = source;
+            this.relativePath = relativePath;
+        }
     }
 
 }
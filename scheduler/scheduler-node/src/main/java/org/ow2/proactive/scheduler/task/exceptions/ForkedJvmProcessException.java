@@ -43,4 +43,13 @@ public class ForkedJvmProcessException extends RuntimeException {
         super(msg, cause);
     }
 
+    /**
+     * Create a new instance of ForkedJvmProcessException
+     *
+     * @param msg the message that causes the exception
+     */
+    public ForkedJvmProcessException(String msg) {
+        super(msg);
+    }
+
 }
@@ -42,6 +42,7 @@ import org.ow2.proactive.scheduler.task.context.TaskContext;
 import org.ow2.proactive.scheduler.task.context.TaskContextSerializer;
 import org.ow2.proactive.scheduler.task.exceptions.ForkedJvmProcessException;
 import org.ow2.proactive.scheduler.task.executors.forked.env.ExecuteForkedTaskInsideNewJvm;
+import org.ow2.proactive.scheduler.task.executors.forked.pool.ForkedJvmPool;
 import org.ow2.proactive.scheduler.task.utils.ProcessStreamsReader;
 import org.ow2.proactive.scheduler.task.utils.task.termination.CleanupTimeoutGetter;
 import org.ow2.proactive.utils.CookieBasedProcessTreeKiller;
@@ -49,6 +50,7 @@ import org.ow2.proactive.utils.CookieBasedProcessTreeKiller;
 
 /**
  * Executor in charge to fork a new process for running a non forked task in a dedicated JVM.
+ * When the {@link ForkedJvmPool} of the node is enabled and accepts the task, the task runs in a JVM of the pool.
  *
  * @see ExecuteForkedTaskInsideNewJvm#fromForkedJVM(String)
  * @see InProcessTaskExecutor
@@ -63,12 +65,29 @@ public class ForkedTaskExecutor implements TaskExecutor {
 
     private final File workingDir;
 
+    private transient ForkedJvmPool forkedJvmPool;
+
     public ForkedTaskExecutor(File workingDir) {
+        this(workingDir, null);
+    }
+
+    /**
+     * @param forkedJvmPool the pool of JVMs to use instead of the pool of the node, when not null
+     */
+    public ForkedTaskExecutor(File workingDir, ForkedJvmPool forkedJvmPool) {
         this.workingDir = workingDir;
+        this.forkedJvmPool = forkedJvmPool;
     }
 
     @Override
     public TaskResultImpl execute(TaskContext context, PrintStream outputSink, PrintStream errorSink) {
+        if (forkedJvmPool == null) {
+            forkedJvmPool = ForkedJvmPool.getInstance();
+        }
+        if (forkedJvmPool.accepts(context)) {
+            return executeInPooledJvm(context, outputSink, errorSink);
+        }
+
         CookieBasedProcessTreeKiller taskProcessTreeKiller = null;
         Process process = null;
         ProcessStreamsReader processStreamsReader = null;
@@ -142,6 +161,19 @@ public class ForkedTaskExecutor implements TaskExecutor {
         }
     }
 
+    private TaskResultImpl executeInPooledJvm(TaskContext context, PrintStream outputSink, PrintStream errorSink) {
+        try {
+            Object result = forkedJvmPool.execute(context, outputSink, errorSink);
+            if (result instanceof TaskResultImpl) {
+                return (TaskResultImpl) result;
+            } else {
+                return createTaskResult(context, (Throwable) result);
+            }
+        } catch (Throwable throwable) {
+            return createTaskResult(context, throwable);
+        }
+    }
+
     private TaskResultImpl createTaskResult(TaskContext context, Throwable throwable) {
         return new TaskResultImpl(context.getTaskId(),
                                   new ForkedJvmProcessException("Failed to execute task in a forked JVM", throwable));
@@ -0,0 +1,122 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive.scheduler.task.executors.forked.env;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.NotSerializableException;
+import java.io.PrintStream;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.security.Policy;
+
+import org.ow2.proactive.scheduler.task.context.TaskContext;
+import org.ow2.proactive.scheduler.task.executors.InProcessTaskExecutor;
+import org.ow2.proactive.scheduler.task.executors.forked.pool.PooledJvmChannel;
+
+
+/**
+ * Main class of a JVM started in advance by the node to run forked tasks, one after the other.
+ * <p>
+ * The JVM connects back to the node on the loopback interface and receives the task contexts through this
+ * connection instead of a context file. The outputs of each task and its result are sent back on the same
+ * connection.
+ *
+ * @see ExecuteForkedTaskInsideNewJvm
+ * @see org.ow2.proactive.scheduler.task.executors.forked.pool.ForkedJvmPool
+ */
+public class ExecuteForkedTasksInsidePooledJvm {
+
+    private static final String JAVA_SECURITY_POLICY_FILE = "security.java.policy-client";
+
+    private ExecuteForkedTasksInsidePooledJvm() {
+
+    }
+
+    /**
+     * Everything here and called from here should only use System.out and System.err
+     */
+    public static void main(String[] args) throws Throwable {
+        if (args.length != 2) {
+            System.err.println("Node port and token are expected");
+            System.exit(-1);
+        }
+
+        System.setProperty("java.security.policy",
+                           ExecuteForkedTasksInsidePooledJvm.class.getResource("/" + JAVA_SECURITY_POLICY_FILE)
+                                                                  .toString());
+        Policy.getPolicy().refresh();
+
+        try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), Integer.parseInt(args[0]))) {
+            socket.setTcpNoDelay(true);
+            DataOutputStream output = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+            output.writeUTF(args[1]);
+            output.flush();
+            PooledJvmChannel channel = new PooledJvmChannel(new DataInputStream(new BufferedInputStream(socket.getInputStream())),
+                                                            output);
+            runTasks(channel);
+        } catch (Throwable throwable) {
+            throwable.printStackTrace(System.err);
+            System.exit(1);
+        }
+
+        // the tasks can leave non-daemon threads alive
+        System.exit(0);
+    }
+
+    private static void runTasks(PooledJvmChannel channel) throws Exception {
+        PrintStream jvmOutput = System.out;
+        PrintStream jvmError = System.err;
+        PrintStream taskOutput = new PrintStream(channel.frameOutputStream(PooledJvmChannel.OUTPUT_FRAME), true);
+        PrintStream taskError = new PrintStream(channel.frameOutputStream(PooledJvmChannel.ERROR_FRAME), true);
+
+        Object context;
+        while ((context = channel.readTaskContext()) != null) {
+            Object result;
+            System.setOut(taskOutput);
+            System.setErr(taskError);
+            try {
+                result = new InProcessTaskExecutor().execute((TaskContext) context, taskOutput, taskError);
+            } catch (Throwable throwable) {
+                throwable.printStackTrace(taskError);
+                result = throwable;
+            } finally {
+                taskOutput.flush();
+                taskError.flush();
+                System.setOut(jvmOutput);
+                System.setErr(jvmError);
+            }
+            try {
+                channel.writeResult(result);
+            } catch (NotSerializableException e) {
+                // same behavior as a JVM forked for a single task which cannot serialize its result
+                channel.writeResult(new IllegalStateException("Could not serialize task result", e));
+            }
+        }
+    }
+}
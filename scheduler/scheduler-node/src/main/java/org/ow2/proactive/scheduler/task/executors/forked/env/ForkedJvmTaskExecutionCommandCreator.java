@@ -85,6 +85,37 @@ public class ForkedJvmTaskExecutionCommandCreator implements Serializable {
         if (taskContext == null) {
             return new ArrayList<>(0);
         }
+        List<String> javaCommand = createJavaCommand(taskContext, forkEnvironmentScriptResult);
+        javaCommand.add(ExecuteForkedTaskInsideNewJvm.class.getName());
+        javaCommand.add(convertToLinuxPathIfNeeded(isDockerWindowsToLinux(taskContext), serializedContextAbsolutePath));
+
+        if (logger.isDebugEnabled()) {
+            logger.debug("Forked JVM command : " + javaCommand);
+        }
+        return javaCommand;
+    }
+
+    /**
+     * Creates the java command of a pooled JVM able to run a task, without its main class and arguments.
+     * Two tasks whose commands are equal can be run by the same pooled JVM: the command holds the java home,
+     * the JVM arguments and the classpath resulting from the fork environment of the task.
+     *
+     * @param taskContext TaskContext object describing the task, it must not use a fork environment script.
+     * @return the java executable followed by its classpath and JVM arguments.
+     * @throws Exception If the {@link TaskContextVariableExtractor} could not extract all variables from the
+     *                   TaskContext.
+     */
+    public List<String> createPooledJvmCommand(TaskContext taskContext) throws Exception {
+        return createJavaCommand(taskContext, null);
+    }
+
+    private boolean isDockerWindowsToLinux(TaskContext taskContext) {
+        return taskContext.getInitializer() != null && taskContext.getInitializer().getForkEnvironment() != null &&
+               taskContext.getInitializer().getForkEnvironment().isDockerWindowsToLinux();
+    }
+
+    private List<String> createJavaCommand(TaskContext taskContext, ScriptResult forkEnvironmentScriptResult)
+            throws Exception {
         Map<String, Serializable> variables = taskContextVariableExtractor.getAllVariables(taskContext);
         String javaHome = System.getProperty("java.home");
         List<String> jvmArguments = new ArrayList<>(1);
@@ -171,12 +202,6 @@ public class ForkedJvmTaskExecutionCommandCreator implements Serializable {
                                        .map(arg -> isDockerWindowsToLinux ? ForkEnvironment.convertToLinuxPathInJVMArgument(arg)
                                                                           : arg)
                                        .collect(Collectors.toList()));
-        javaCommand.add(ExecuteForkedTaskInsideNewJvm.class.getName());
-        javaCommand.add(convertToLinuxPathIfNeeded(isDockerWindowsToLinux, serializedContextAbsolutePath));
-
-        if (logger.isDebugEnabled()) {
-            logger.debug("Forked JVM command : " + javaCommand);
-        }
         return javaCommand;
     }
 
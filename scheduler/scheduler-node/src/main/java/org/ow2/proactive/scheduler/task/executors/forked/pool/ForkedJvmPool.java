@@ -0,0 +1,332 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive.scheduler.task.executors.forked.pool;
+
+import java.io.PrintStream;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.log4j.Logger;
+import org.objectweb.proactive.utils.NamedThreadFactory;
+import org.ow2.proactive.scheduler.common.SchedulerConstants;
+import org.ow2.proactive.scheduler.common.task.ForkEnvironment;
+import org.ow2.proactive.scheduler.task.TaskResultImpl;
+import org.ow2.proactive.scheduler.task.context.TaskContext;
+import org.ow2.proactive.scheduler.task.executors.forked.env.ForkedJvmTaskExecutionCommandCreator;
+
+
+/**
+ * Keeps forked JVMs started in advance, to run forked tasks without paying the startup of a JVM for each task.
+ * <p>
+ * The JVMs are grouped by signature, i.e. the job owner and the java command resulting from the fork environment
+ * of the task (java home, JVM arguments and classpath), so that a JVM only runs the tasks of one user. Once a
+ * signature is used again, the pool starts in background the JVMs needed to keep {@link #POOL_SIZE_PROP_NAME}
+ * idle JVMs for it; signatures used by a single task, e.g. with task specific JVM arguments, are not refilled.
+ * A JVM is stopped after {@link #MAX_TASKS_PROP_NAME} tasks, when a task fails, or when it stays idle longer
+ * than {@link #IDLE_TIMEOUT_PROP_NAME}.
+ * <p>
+ * A pooled JVM keeps the working directory of the node instead of the scratch directory of the task, and the
+ * processes started by a task are only killed when the JVM is stopped. A task must thus ask for a pooled JVM
+ * with the {@link SchedulerConstants#FORK_IN_POOLED_JVM_GENERIC_INFO} generic information. Only the tasks
+ * which do not need a dedicated process can run in a pooled JVM: no run as me, no fork environment script,
+ * no pre java command, no system environment, no working directory and no disabled process tree killer.
+ * The pool is disabled by default.
+ */
+public class ForkedJvmPool {
+
+    private static final Logger logger = Logger.getLogger(ForkedJvmPool.class);
+
+    /** Number of idle JVMs kept per signature, 0 (the default) to start a new JVM for each forked task */
+    public static final String POOL_SIZE_PROP_NAME = "proactive.node.task.fork.pool.size";
+
+    /** Number of tasks run by a pooled JVM before it is replaced */
+    public static final String MAX_TASKS_PROP_NAME = "proactive.node.task.fork.pool.max.tasks";
+
+    /** Time in seconds after which an idle pooled JVM is stopped */
+    public static final String IDLE_TIMEOUT_PROP_NAME = "proactive.node.task.fork.pool.idle.timeout";
+
+    private static final int MAX_TASKS_DEFAULT = 100;
+
+    private static final long IDLE_TIMEOUT_DEFAULT_SECONDS = 300;
+
+    private static final long START_TIMEOUT_MILLIS = 60000;
+
+    /** number of signatures remembered to detect the ones used by several tasks */
+    private static final int RECENT_SIGNATURES_SIZE = 256;
+
+    private static ForkedJvmPool instance;
+
+    private final int poolSize;
+
+    private final int maxTasks;
+
+    private final long idleTimeoutMillis;
+
+    private final ForkedJvmTaskExecutionCommandCreator commandCreator = new ForkedJvmTaskExecutionCommandCreator();
+
+    /** idle JVMs per signature, the most recently released first */
+    private final Map<JvmSignature, Deque<PooledForkedJvm>> idleJvms = new HashMap<>();
+
+    /** number of JVMs being started in background per signature */
+    private final Map<JvmSignature, Integer> startingJvms = new HashMap<>();
+
+    /** signatures of the last tasks, the least recently used first */
+    private final Map<JvmSignature, Boolean> recentSignatures = new LinkedHashMap<JvmSignature, Boolean>(16,
+                                                                                                         0.75f,
+                                                                                                         true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<JvmSignature, Boolean> eldest) {
+            return size() > RECENT_SIGNATURES_SIZE;
+        }
+    };
+
+    private ScheduledExecutorService backgroundExecutor;
+
+    private boolean shutdown = false;
+
+    public ForkedJvmPool(int poolSize, int maxTasks, long idleTimeoutMillis) {
+        this.poolSize = poolSize;
+        this.maxTasks = maxTasks;
+        this.idleTimeoutMillis = idleTimeoutMillis;
+        if (poolSize > 0) {
+            backgroundExecutor = Executors.newSingleThreadScheduledExecutor(new NamedThreadFactory("ForkedJvmPool",
+                                                                                                   true));
+            long sweepPeriod = Math.max(1000, idleTimeoutMillis / 2);
+            backgroundExecutor.scheduleWithFixedDelay(this::stopIdleJvms,
+                                                      sweepPeriod,
+                                                      sweepPeriod,
+                                                      TimeUnit.MILLISECONDS);
+            Runtime.getRuntime().addShutdownHook(new Thread(this::shutdown));
+        }
+    }
+
+    /**
+     * @return the pool of this node, configured from the system properties of the node
+     */
+    public static synchronized ForkedJvmPool getInstance() {
+        if (instance == null) {
+            instance = new ForkedJvmPool(readProperty(POOL_SIZE_PROP_NAME, 0),
+                                         readProperty(MAX_TASKS_PROP_NAME, MAX_TASKS_DEFAULT),
+                                         TimeUnit.SECONDS.toMillis(readProperty(IDLE_TIMEOUT_PROP_NAME,
+                                                                                IDLE_TIMEOUT_DEFAULT_SECONDS)));
+        }
+        return instance;
+    }
+
+    private static int readProperty(String name, int defaultValue) {
+        return (int) readProperty(name, (long) defaultValue);
+    }
+
+    private static long readProperty(String name, long defaultValue) {
+        String value = System.getProperty(name);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            logger.warn(name + ": " + value + " is not parsable to long, fallback to default value " + defaultValue);
+            return defaultValue;
+        }
+    }
+
+    public boolean isEnabled() {
+        return poolSize > 0;
+    }
+
+    /**
+     * @return true if the task asked for a pooled JVM and can run in it
+     */
+    public boolean accepts(TaskContext context) {
+        if (!isEnabled() || context.isRunAsUser() || context.getInitializer() == null) {
+            return false;
+        }
+        Map<String, String> genericInformation = context.getInitializer().getGenericInformation();
+        if (genericInformation == null ||
+            !"true".equalsIgnoreCase(genericInformation.get(SchedulerConstants.FORK_IN_POOLED_JVM_GENERIC_INFO)) ||
+            "true".equalsIgnoreCase(genericInformation.get(SchedulerConstants.DISABLE_PROCESS_TREE_KILLER_GENERIC_INFO))) {
+            return false;
+        }
+        ForkEnvironment forkEnvironment = context.getInitializer().getForkEnvironment();
+        return forkEnvironment == null ||
+               (forkEnvironment.getEnvScript() == null &&
+                (forkEnvironment.getPreJavaCommand() == null || forkEnvironment.getPreJavaCommand().isEmpty()) &&
+                forkEnvironment.getSystemEnvironment().isEmpty() && forkEnvironment.getWorkingDir() == null &&
+                !forkEnvironment.isDockerWindowsToLinux());
+    }
+
+    /**
+     * Runs a task in a pooled JVM of its signature, started if none is idle.
+     *
+     * @return the result sent by the JVM, either a task result or a throwable
+     */
+    public Object execute(TaskContext context, PrintStream outputSink, PrintStream errorSink) throws Exception {
+        JvmSignature signature = new JvmSignature(context.getInitializer().getJobOwner(),
+                                                  commandCreator.createPooledJvmCommand(context));
+        String schedulerHome = context.getSchedulerHome();
+        boolean usedBefore = markUsed(signature);
+        PooledForkedJvm jvm = acquire(signature);
+        if (jvm == null) {
+            jvm = PooledForkedJvm.start(signature, schedulerHome, START_TIMEOUT_MILLIS);
+        }
+        boolean reusable = false;
+        try {
+            Object result = jvm.execute(context, outputSink, errorSink);
+            reusable = result instanceof TaskResultImpl && !((TaskResultImpl) result).hadException();
+            return result;
+        } finally {
+            release(jvm, reusable);
+            if (usedBefore) {
+                scheduleRefill(signature, schedulerHome);
+            }
+        }
+    }
+
+    /**
+     * @return true if the signature was used by one of the last tasks
+     */
+    private synchronized boolean markUsed(JvmSignature signature) {
+        return recentSignatures.put(signature, Boolean.TRUE) != null;
+    }
+
+    private PooledForkedJvm acquire(JvmSignature signature) {
+        List<PooledForkedJvm> deadJvms = new ArrayList<>();
+        PooledForkedJvm acquired = null;
+        synchronized (this) {
+            Deque<PooledForkedJvm> jvms = idleJvms.get(signature);
+            while (jvms != null && !jvms.isEmpty() && acquired == null) {
+                PooledForkedJvm jvm = jvms.pollFirst();
+                if (jvm.isAlive()) {
+                    acquired = jvm;
+                } else {
+                    deadJvms.add(jvm);
+                }
+            }
+        }
+        deadJvms.forEach(PooledForkedJvm::destroy);
+        return acquired;
+    }
+
+    private void release(PooledForkedJvm jvm, boolean reusable) {
+        if (reusable && jvm.isAlive() && jvm.getExecutedTasks() < maxTasks) {
+            synchronized (this) {
+                Deque<PooledForkedJvm> jvms = idleJvms.computeIfAbsent(jvm.getSignature(), key -> new ArrayDeque<>());
+                if (!shutdown && jvms.size() < poolSize) {
+                    jvm.setLastReleaseTime(System.currentTimeMillis());
+                    jvms.addFirst(jvm);
+                    return;
+                }
+            }
+        }
+        jvm.destroy();
+    }
+
+    /**
+     * Submits the refill of a signature, unless the pool is shut down. The submission is done under the lock of
+     * the pool, thus the background executor cannot be shut down meanwhile.
+     */
+    private synchronized void scheduleRefill(JvmSignature signature, String schedulerHome) {
+        if (!shutdown) {
+            backgroundExecutor.execute(() -> refill(signature, schedulerHome));
+        }
+    }
+
+    /**
+     * Starts JVMs until the signature has enough idle JVMs, runs in the background executor.
+     */
+    private void refill(JvmSignature signature, String schedulerHome) {
+        while (true) {
+            synchronized (this) {
+                Deque<PooledForkedJvm> jvms = idleJvms.get(signature);
+                int starting = startingJvms.getOrDefault(signature, 0);
+                if (shutdown || (jvms == null ? 0 : jvms.size()) + starting >= poolSize) {
+                    return;
+                }
+                startingJvms.put(signature, starting + 1);
+            }
+            PooledForkedJvm jvm = null;
+            try {
+                jvm = PooledForkedJvm.start(signature, schedulerHome, START_TIMEOUT_MILLIS);
+            } catch (Exception e) {
+                logger.warn("Could not start a pooled JVM: " + signature, e);
+            } finally {
+                synchronized (this) {
+                    startingJvms.merge(signature, -1, Integer::sum);
+                    startingJvms.remove(signature, 0);
+                }
+            }
+            if (jvm == null) {
+                return;
+            }
+            release(jvm, true);
+        }
+    }
+
+    private void stopIdleJvms() {
+        List<PooledForkedJvm> expiredJvms = new ArrayList<>();
+        long expirationTime = System.currentTimeMillis() - idleTimeoutMillis;
+        synchronized (this) {
+            Iterator<Deque<PooledForkedJvm>> signatures = idleJvms.values().iterator();
+            while (signatures.hasNext()) {
+                Deque<PooledForkedJvm> jvms = signatures.next();
+                // the least recently released JVMs are at the end
+                while (!jvms.isEmpty() && (jvms.peekLast().getLastReleaseTime() < expirationTime ||
+                                           !jvms.peekLast().isAlive())) {
+                    expiredJvms.add(jvms.pollLast());
+                }
+                if (jvms.isEmpty()) {
+                    signatures.remove();
+                }
+            }
+        }
+        expiredJvms.forEach(PooledForkedJvm::destroy);
+    }
+
+    /**
+     * Stops all the idle JVMs, the JVMs running a task are stopped when the task ends.
+     */
+    public void shutdown() {
+        List<PooledForkedJvm> jvms = new ArrayList<>();
+        synchronized (this) {
+            shutdown = true;
+            idleJvms.values().forEach(jvms::addAll);
+            idleJvms.clear();
+        }
+        jvms.forEach(PooledForkedJvm::destroy);
+        if (backgroundExecutor != null) {
+            backgroundExecutor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,75 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive.scheduler.task.executors.forked.pool;
+
+import java.util.List;
+import java.util.Objects;
+
+
+/**
+ * Identifies the tasks which can share a pooled JVM: the tasks of the same job owner whose fork environments
+ * result in the same java command.
+ */
+final class JvmSignature {
+
+    private final String owner;
+
+    private final List<String> command;
+
+    JvmSignature(String owner, List<String> command) {
+        this.owner = owner;
+        this.command = command;
+    }
+
+    /**
+     * @return the java command of the JVM, without its main class
+     */
+    List<String> getCommand() {
+        return command;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        JvmSignature that = (JvmSignature) o;
+        return Objects.equals(owner, that.owner) && command.equals(that.command);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * Objects.hashCode(owner) + command.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return owner + " " + command;
+    }
+}
@@ -0,0 +1,300 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive.scheduler.task.executors.forked.pool;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.log4j.Logger;
+import org.objectweb.proactive.extensions.processbuilder.OSProcessBuilder;
+import org.ow2.proactive.scheduler.task.exceptions.ForkedJvmProcessException;
+import org.ow2.proactive.scheduler.task.executors.forked.env.ExecuteForkedTasksInsidePooledJvm;
+import org.ow2.proactive.scheduler.task.utils.ForkerUtils;
+import org.ow2.proactive.scheduler.task.utils.ProcessStreamsReader;
+import org.ow2.proactive.scheduler.task.utils.task.termination.CleanupTimeoutGetter;
+import org.ow2.proactive.utils.CookieBasedProcessTreeKiller;
+
+
+/**
+ * A JVM started by the {@link ForkedJvmPool}, which runs the tasks it receives one after the other.
+ * <p>
+ * A reader thread dispatches the frames sent by the JVM: the task outputs go to the sinks of the current task
+ * and the result completes the current execution. The outputs received between the result of a task and the
+ * start of the next one, e.g. written by threads left running by the task, are dropped; the outputs written by
+ * such threads once the next task started cannot be told apart and go to the sinks of the next task. The JVM is
+ * considered dead as soon as its connection is closed.
+ */
+class PooledForkedJvm {
+
+    private static final Logger logger = Logger.getLogger(PooledForkedJvm.class);
+
+    private static final AtomicLong jvmCounter = new AtomicLong();
+
+    private final long id;
+
+    private final JvmSignature signature;
+
+    private final Process process;
+
+    private final CookieBasedProcessTreeKiller processTreeKiller;
+
+    private final ProcessStreamsReader processStreamsReader;
+
+    private final Socket socket;
+
+    private final PooledJvmChannel channel;
+
+    private volatile PrintStream outputSink;
+
+    private volatile PrintStream errorSink;
+
+    private volatile CompletableFuture<Object> currentResult;
+
+    private volatile boolean connected = true;
+
+    private int executedTasks;
+
+    private long lastReleaseTime;
+
+    private PooledForkedJvm(long id, JvmSignature signature, Process process,
+            CookieBasedProcessTreeKiller processTreeKiller, Socket socket) throws IOException {
+        this.id = id;
+        this.signature = signature;
+        this.process = process;
+        this.processTreeKiller = processTreeKiller;
+        this.socket = socket;
+        // the outputs of the tasks go through the channel, only the JVM messages (e.g. crashes) remain
+        this.processStreamsReader = new ProcessStreamsReader("PooledJvm" + id, process, System.out, System.err);
+        this.channel = new PooledJvmChannel(new DataInputStream(new BufferedInputStream(socket.getInputStream())),
+                                            new DataOutputStream(new BufferedOutputStream(socket.getOutputStream())));
+        Thread reader = new Thread(this::readFrames, "PooledJvm" + id + "_CHANNEL");
+        reader.setDaemon(true);
+        reader.start();
+    }
+
+    /**
+     * Starts a JVM and waits until it is connected.
+     *
+     * @param signature the owner of the tasks and the java command of the JVM
+     * @param schedulerHome used to find the process builder scripts
+     * @param startTimeoutMillis maximum time to wait for the connection of the JVM
+     */
+    static PooledForkedJvm start(JvmSignature signature, String schedulerHome, long startTimeoutMillis)
+            throws Exception {
+        long id = jvmCounter.incrementAndGet();
+        String token = UUID.randomUUID().toString();
+        Process process = null;
+        CookieBasedProcessTreeKiller processTreeKiller = null;
+
+        try (ServerSocket serverSocket = new ServerSocket(0, 1, InetAddress.getLoopbackAddress())) {
+            OSProcessBuilder processBuilder = ForkerUtils.getOSProcessBuilderFactory(schedulerHome).getBuilder();
+            processBuilder.command().addAll(signature.getCommand());
+            processBuilder.command().add(ExecuteForkedTasksInsidePooledJvm.class.getName());
+            processBuilder.command().add(String.valueOf(serverSocket.getLocalPort()));
+            processBuilder.command().add(token);
+            processTreeKiller = CookieBasedProcessTreeKiller.createProcessChildrenKiller("PooledJvm" + id,
+                                                                                         processBuilder.environment());
+            process = processBuilder.start();
+
+            long deadline = System.currentTimeMillis() + startTimeoutMillis;
+            while (true) {
+                long remaining = deadline - System.currentTimeMillis();
+                if (remaining <= 0 || !process.isAlive()) {
+                    throw new ForkedJvmProcessException("Pooled JVM did not connect to the node (" +
+                                                        (process.isAlive() ? "timeout"
+                                                                           : "exit code " + process.exitValue()) +
+                                                        ")");
+                }
+                serverSocket.setSoTimeout((int) Math.min(remaining, 1000));
+                Socket socket;
+                try {
+                    socket = serverSocket.accept();
+                } catch (SocketTimeoutException e) {
+                    continue;
+                }
+                if (acceptConnection(socket, token)) {
+                    logger.debug("Pooled JVM " + id + " started: " + signature);
+                    return new PooledForkedJvm(id, signature, process, processTreeKiller, socket);
+                }
+            }
+        } catch (Exception e) {
+            if (process != null) {
+                process.destroy();
+            }
+            if (processTreeKiller != null) {
+                processTreeKiller.kill();
+            }
+            throw e;
+        }
+    }
+
+    private static boolean acceptConnection(Socket socket, String token) {
+        try {
+            socket.setSoTimeout(5000);
+            String receivedToken = new DataInputStream(socket.getInputStream()).readUTF();
+            if (token.equals(receivedToken)) {
+                socket.setSoTimeout(0);
+                socket.setTcpNoDelay(true);
+                return true;
+            }
+            logger.warn("Rejected connection with an invalid token from " + socket.getRemoteSocketAddress());
+        } catch (IOException e) {
+            logger.warn("Rejected connection from " + socket.getRemoteSocketAddress(), e);
+        }
+        IOUtils.closeQuietly(socket);
+        return false;
+    }
+
+    /**
+     * Runs a task in this JVM and waits for its result. The caller must destroy the JVM if this method throws.
+     *
+     * @return the result sent by the JVM, either a task result or a throwable
+     */
+    Object execute(Object context, PrintStream outputSink, PrintStream errorSink) throws Exception {
+        CompletableFuture<Object> result = new CompletableFuture<>();
+        this.outputSink = outputSink;
+        this.errorSink = errorSink;
+        this.currentResult = result;
+        if (!connected) {
+            throw new ForkedJvmProcessException("Pooled JVM " + id + " is disconnected");
+        }
+        channel.writeTaskContext(context);
+        try {
+            return result.get();
+        } catch (ExecutionException e) {
+            throw (Exception) e.getCause();
+        } finally {
+            executedTasks++;
+        }
+    }
+
+    private void readFrames() {
+        try {
+            while (true) {
+                channel.readFrame(this::handleFrame);
+            }
+        } catch (Exception e) {
+            connected = false;
+            CompletableFuture<Object> result = currentResult;
+            if (result != null) {
+                result.completeExceptionally(new ForkedJvmProcessException("Pooled JVM " + id +
+                                                                           " was disconnected (it may have been killed by the task)",
+                                                                           e));
+            }
+        }
+    }
+
+    private void handleFrame(byte type, byte[] bytes) throws IOException {
+        switch (type) {
+            case PooledJvmChannel.OUTPUT_FRAME:
+                writeToSink(outputSink, bytes);
+                break;
+            case PooledJvmChannel.ERROR_FRAME:
+                writeToSink(errorSink, bytes);
+                break;
+            case PooledJvmChannel.RESULT_FRAME:
+                // the sinks belong to the task which ends, they are released before the next task can set its own
+                outputSink = null;
+                errorSink = null;
+                try {
+                    currentResult.complete(PooledJvmChannel.deserialize(bytes));
+                } catch (ClassNotFoundException e) {
+                    currentResult.completeExceptionally(new ForkedJvmProcessException("Could not read task result",
+                                                                                      e));
+                }
+                break;
+            default:
+                throw new IOException("Unknown frame type " + type);
+        }
+    }
+
+    private void writeToSink(PrintStream sink, byte[] bytes) throws IOException {
+        if (sink == null) {
+            logger.debug("Dropped " + bytes.length + " bytes written by pooled JVM " + id +
+                         " after the end of its task");
+            return;
+        }
+        sink.write(bytes);
+        sink.flush();
+    }
+
+    boolean isAlive() {
+        return connected && process.isAlive();
+    }
+
+    JvmSignature getSignature() {
+        return signature;
+    }
+
+    int getExecutedTasks() {
+        return executedTasks;
+    }
+
+    long getLastReleaseTime() {
+        return lastReleaseTime;
+    }
+
+    void setLastReleaseTime(long lastReleaseTime) {
+        this.lastReleaseTime = lastReleaseTime;
+    }
+
+    /**
+     * Stops the JVM and the processes started by the tasks it ran.
+     */
+    void destroy() {
+        if (connected) {
+            try {
+                channel.writeStop();
+            } catch (IOException e) {
+                logger.debug("Could not ask pooled JVM " + id + " to exit", e);
+            }
+        }
+        IOUtils.closeQuietly(socket);
+        process.destroy();
+        try {
+            process.waitFor(new CleanupTimeoutGetter().getCleanupTimeSeconds(), TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        processTreeKiller.kill();
+        processStreamsReader.close();
+        logger.debug("Pooled JVM " + id + " destroyed after " + executedTasks + " tasks");
+    }
+}
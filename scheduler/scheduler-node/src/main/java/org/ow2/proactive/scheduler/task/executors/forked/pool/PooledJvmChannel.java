@@ -0,0 +1,157 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive.scheduler.task.executors.forked.pool;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+
+
+/**
+ * Local channel between a node and one of its pooled JVMs, over a loopback socket.
+ * <p>
+ * The node sends the serialized task contexts, each one as a length followed by the bytes, a negative length
+ * asks the pooled JVM to exit. The pooled JVM answers with frames made of a type, a length and the bytes:
+ * the standard and error outputs of the task as they are written, then its serialized result.
+ */
+public class PooledJvmChannel {
+
+    public static final byte OUTPUT_FRAME = 1;
+
+    public static final byte ERROR_FRAME = 2;
+
+    public static final byte RESULT_FRAME = 3;
+
+    public static final int STOP = -1;
+
+    private final DataInputStream input;
+
+    private final DataOutputStream output;
+
+    public PooledJvmChannel(DataInputStream input, DataOutputStream output) {
+        this.input = input;
+        this.output = output;
+    }
+
+    /**
+     * @return the next task context sent by the node, null if the pooled JVM must exit
+     */
+    public Object readTaskContext() throws IOException, ClassNotFoundException {
+        int length = input.readInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        input.readFully(bytes);
+        return deserialize(bytes);
+    }
+
+    public void writeTaskContext(Object context) throws IOException {
+        byte[] bytes = serialize(context);
+        synchronized (output) {
+            output.writeInt(bytes.length);
+            output.write(bytes);
+            output.flush();
+        }
+    }
+
+    public void writeStop() throws IOException {
+        synchronized (output) {
+            output.writeInt(STOP);
+            output.flush();
+        }
+    }
+
+    public void writeFrame(byte type, byte[] bytes, int offset, int length) throws IOException {
+        synchronized (output) {
+            output.writeByte(type);
+            output.writeInt(length);
+            output.write(bytes, offset, length);
+            output.flush();
+        }
+    }
+
+    public void writeResult(Object result) throws IOException {
+        byte[] bytes = serialize(result);
+        writeFrame(RESULT_FRAME, bytes, 0, bytes.length);
+    }
+
+    /**
+     * Reads the next frame written by the pooled JVM.
+     *
+     * @param frameHandler receives the type and the bytes of the frame
+     * @return the type of the frame
+     */
+    public byte readFrame(FrameHandler frameHandler) throws IOException {
+        byte type = input.readByte();
+        byte[] bytes = new byte[input.readInt()];
+        input.readFully(bytes);
+        frameHandler.handle(type, bytes);
+        return type;
+    }
+
+    /**
+     * @return a stream writing the bytes it receives as frames of the given type
+     */
+    public OutputStream frameOutputStream(final byte type) {
+        return new OutputStream() {
+            @Override
+            public void write(int b) throws IOException {
+                write(new byte[] { (byte) b }, 0, 1);
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                if (len > 0) {
+                    writeFrame(type, b, off, len);
+                }
+            }
+        };
+    }
+
+    public static byte[] serialize(Object object) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream objectOutputStream = new ObjectOutputStream(bytes)) {
+            objectOutputStream.writeObject(object);
+        }
+        return bytes.toByteArray();
+    }
+
+    public static Object deserialize(byte[] bytes) throws IOException, ClassNotFoundException {
+        try (ObjectInputStream objectInputStream = new ObjectInputStream(new ByteArrayInputStream(bytes))) {
+            return objectInputStream.readObject();
+        }
+    }
+
+    public interface FrameHandler {
+        void handle(byte type, byte[] bytes) throws IOException;
+    }
+}
@@ -0,0 +1,136 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package functionaltests;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.apache.commons.io.FileUtils;
+import org.ow2.proactive.scheduler.common.SchedulerConstants;
+import org.ow2.proactive.scheduler.job.JobIdImpl;
+import org.ow2.proactive.scheduler.task.TaskIdImpl;
+import org.ow2.proactive.scheduler.task.TaskLauncherInitializer;
+import org.ow2.proactive.scheduler.task.TaskResultImpl;
+import org.ow2.proactive.scheduler.task.TestTaskOutput;
+import org.ow2.proactive.scheduler.task.containers.ScriptExecutableContainer;
+import org.ow2.proactive.scheduler.task.context.NodeDataSpacesURIs;
+import org.ow2.proactive.scheduler.task.context.NodeInfo;
+import org.ow2.proactive.scheduler.task.context.TaskContext;
+import org.ow2.proactive.scheduler.task.executors.ForkedTaskExecutor;
+import org.ow2.proactive.scheduler.task.executors.forked.pool.ForkedJvmPool;
+import org.ow2.proactive.scripting.SimpleScript;
+import org.ow2.proactive.scripting.TaskScript;
+
+
+/**
+ * Runs short groovy tasks with the {@link ForkedTaskExecutor}, first forking a new JVM for each task, then with a
+ * {@link ForkedJvmPool}, and prints the number of tasks per second in both cases.
+ * <p>
+ * This is not a unit test, run it manually with the test classpath:
+ * <pre>java functionaltests.ForkedTaskExecutorBenchmark [number of tasks] [concurrent tasks] [task duration in ms]</pre>
+ */
+public class ForkedTaskExecutorBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int tasks = args.length > 0 ? Integer.parseInt(args[0]) : 50;
+        int concurrentTasks = args.length > 1 ? Integer.parseInt(args[1]) : 4;
+        long taskDuration = args.length > 2 ? Long.parseLong(args[2]) : 0;
+
+        File workingDir = Files.createTempDirectory("ForkedTaskExecutorBenchmark").toFile();
+        try {
+            System.out.println("mode,tasks,concurrent_tasks,duration_ms,tasks_per_second");
+            benchmark("cold", new ForkedJvmPool(0, 0, 0), workingDir, tasks, concurrentTasks, taskDuration);
+
+            ForkedJvmPool forkedJvmPool = new ForkedJvmPool(concurrentTasks, 100, 60000);
+            try {
+                // first run starts the pooled JVMs
+                benchmark("warmup", forkedJvmPool, workingDir, concurrentTasks, concurrentTasks, taskDuration);
+                benchmark("pooled", forkedJvmPool, workingDir, tasks, concurrentTasks, taskDuration);
+            } finally {
+                forkedJvmPool.shutdown();
+            }
+        } finally {
+            FileUtils.deleteQuietly(workingDir);
+        }
+    }
+
+    private static void benchmark(String mode, ForkedJvmPool forkedJvmPool, File workingDir, int tasks,
+            int concurrentTasks, long taskDuration) throws Exception {
+        ExecutorService executorService = Executors.newFixedThreadPool(concurrentTasks);
+        try {
+            long start = System.currentTimeMillis();
+            List<Future<TaskResultImpl>> results = new ArrayList<>(tasks);
+            for (int i = 0; i < tasks; i++) {
+                final long taskId = i;
+                results.add(executorService.submit(() -> runTask(forkedJvmPool, workingDir, taskId, taskDuration)));
+            }
+            for (Future<TaskResultImpl> result : results) {
+                if (result.get().hadException()) {
+                    throw new IllegalStateException("Task failed", result.get().getException());
+                }
+            }
+            long duration = System.currentTimeMillis() - start;
+            System.out.println(mode + "," + tasks + "," + concurrentTasks + "," + duration + "," +
+                               String.format("%.2f", tasks * 1000.0 / duration));
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+
+    private static TaskResultImpl runTask(ForkedJvmPool forkedJvmPool, File workingDir, long taskId,
+            long taskDuration) {
+        TaskLauncherInitializer initializer = new TaskLauncherInitializer();
+        initializer.setTaskId(TaskIdImpl.createTaskId(JobIdImpl.makeJobId("1000"), "task" + taskId, taskId));
+        initializer.setJobOwner("user");
+        initializer.setGenericInformation(Collections.singletonMap(SchedulerConstants.FORK_IN_POOLED_JVM_GENERIC_INFO,
+                                                                   "true"));
+        TestTaskOutput taskOutput = new TestTaskOutput();
+        return new ForkedTaskExecutor(workingDir,
+                                      forkedJvmPool).execute(new TaskContext(new ScriptExecutableContainer(new TaskScript(new SimpleScript("sleep(" +
+                                                                                                                                           taskDuration +
+                                                                                                                                           "); result = 'done'",
+                                                                                                                                           "groovy"))),
+                                                                             initializer,
+                                                                             null,
+                                                                             new NodeDataSpacesURIs("",
+                                                                                                    "",
+                                                                                                    "",
+                                                                                                    "",
+                                                                                                    "",
+                                                                                                    ""),
+                                                                             "",
+                                                                             new NodeInfo("", "", "", "")),
+                                                             taskOutput.outputStream,
+                                                             taskOutput.error);
+    }
+
+}
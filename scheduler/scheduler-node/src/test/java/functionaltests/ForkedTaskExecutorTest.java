@@ -26,17 +26,21 @@
 package functionaltests;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
 
 import java.io.File;
 import java.io.InputStreamReader;
+import java.lang.management.ManagementFactory;
 import java.security.KeyException;
 import java.security.KeyPair;
 import java.security.KeyPairGenerator;
 import java.security.NoSuchAlgorithmException;
 import java.security.SecureRandom;
 import java.util.Collections;
+import java.util.Map;
 
 import org.junit.After;
 import org.junit.Assert;
@@ -46,6 +50,7 @@ import org.junit.Test;
 import org.junit.rules.TemporaryFolder;
 import org.ow2.proactive.authentication.crypto.CredData;
 import org.ow2.proactive.authentication.crypto.Credentials;
+import org.ow2.proactive.scheduler.common.SchedulerConstants;
 import org.ow2.proactive.scheduler.common.job.JobVariable;
 import org.ow2.proactive.scheduler.common.task.ForkEnvironment;
 import org.ow2.proactive.scheduler.common.task.util.SerializationUtil;
@@ -60,6 +65,7 @@ import org.ow2.proactive.scheduler.task.context.NodeDataSpacesURIs;
 import org.ow2.proactive.scheduler.task.context.NodeInfo;
 import org.ow2.proactive.scheduler.task.context.TaskContext;
 import org.ow2.proactive.scheduler.task.executors.ForkedTaskExecutor;
+import org.ow2.proactive.scheduler.task.executors.forked.pool.ForkedJvmPool;
 import org.ow2.proactive.scheduler.task.utils.Decrypter;
 import org.ow2.proactive.scripting.SimpleScript;
 import org.ow2.proactive.scripting.TaskScript;
@@ -310,6 +316,86 @@ public class ForkedTaskExecutorTest {
         assertTrue(taskResult.hadException());
     }
 
+    @Test(timeout = 60000)
+    public void pooledJvmIsReusedForTasksWithSameForkEnvironment() throws Exception {
+        ForkedJvmPool forkedJvmPool = new ForkedJvmPool(1, 10, 60000);
+        try {
+            ForkEnvironment forkEnvironment = new ForkEnvironment();
+            forkEnvironment.addJVMArgument("-DjvmArg=jvmValue");
+
+            String firstJvm = executeInPool(forkedJvmPool, forkEnvironment, "user", true);
+            String secondJvm = executeInPool(forkedJvmPool, forkEnvironment, "user", true);
+
+            assertEquals(firstJvm, secondJvm);
+            assertNotEquals(ManagementFactory.getRuntimeMXBean().getName(), firstJvm);
+        } finally {
+            forkedJvmPool.shutdown();
+        }
+    }
+
+    @Test(timeout = 60000)
+    public void pooledJvmIsNotSharedBetweenOwners() throws Exception {
+        ForkedJvmPool forkedJvmPool = new ForkedJvmPool(1, 10, 60000);
+        try {
+            ForkEnvironment forkEnvironment = new ForkEnvironment();
+            forkEnvironment.addJVMArgument("-DjvmArg=jvmValue");
+
+            String firstJvm = executeInPool(forkedJvmPool, forkEnvironment, "user", true);
+            String secondJvm = executeInPool(forkedJvmPool, forkEnvironment, "admin", true);
+
+            assertNotEquals(firstJvm, secondJvm);
+        } finally {
+            forkedJvmPool.shutdown();
+        }
+    }
+
+    @Test(timeout = 60000)
+    public void taskRunsInPooledJvmOnlyWhenAsked() throws Exception {
+        ForkedJvmPool forkedJvmPool = new ForkedJvmPool(1, 10, 60000);
+        try {
+            ForkEnvironment forkEnvironment = new ForkEnvironment();
+            forkEnvironment.addJVMArgument("-DjvmArg=jvmValue");
+
+            String firstJvm = executeInPool(forkedJvmPool, forkEnvironment, "user", false);
+            String secondJvm = executeInPool(forkedJvmPool, forkEnvironment, "user", false);
+
+            // a new JVM is forked for each task
+            assertNotEquals(firstJvm, secondJvm);
+        } finally {
+            forkedJvmPool.shutdown();
+        }
+    }
+
+    private String executeInPool(ForkedJvmPool forkedJvmPool, ForkEnvironment forkEnvironment, String owner,
+            boolean pooledJvmRequested) throws Exception {
+        TestTaskOutput taskOutput = new TestTaskOutput();
+
+        ForkedTaskExecutor taskExecutor = new ForkedTaskExecutor(tmpFolder.newFolder(), forkedJvmPool);
+
+        TaskLauncherInitializer initializer = new TaskLauncherInitializer();
+        initializer.setTaskId((TaskIdImpl.createTaskId(JobIdImpl.makeJobId("1000"), "job", 1000L)));
+        initializer.setForkEnvironment(forkEnvironment);
+        initializer.setJobOwner(owner);
+        Map<String, String> genericInformation = Collections.singletonMap(SchedulerConstants.FORK_IN_POOLED_JVM_GENERIC_INFO,
+                                                                          String.valueOf(pooledJvmRequested));
+        initializer.setGenericInformation(genericInformation);
+
+        TaskResultImpl result = taskExecutor.execute(new TaskContext(new ScriptExecutableContainer(new TaskScript(new SimpleScript("println System.getProperty('jvmArg'); " +
+                                                                                                                                   "result = java.lang.management.ManagementFactory.getRuntimeMXBean().getName()",
+                                                                                                                                   "groovy"))),
+                                                                     initializer,
+                                                                     null,
+                                                                     new NodeDataSpacesURIs("", "", "", "", "", ""),
+                                                                     "",
+                                                                     new NodeInfo("", "", "", "")),
+                                                     taskOutput.outputStream,
+                                                     taskOutput.error);
+
+        assertFalse(result.hadException());
+        assertEquals(String.format("jvmValue%n"), taskOutput.output());
+        return (String) result.value();
+    }
+
     private Decrypter createCredentials(String username) throws NoSuchAlgorithmException, KeyException {
         CredData credData = new CredData(username, "pwd");
         KeyPairGenerator keyGen;
@@ -26,7 +26,9 @@
 package org.ow2.proactive.scheduler.task;
 
 import java.io.File;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.Semaphore;
 
@@ -120,6 +122,11 @@ public class SlowDataspacesTaskLauncherFactory extends ProActiveForkedTaskLaunch
 
         }
 
+        @Override
+        public Map<String, String> getStagingMetrics() {
+            return Collections.emptyMap();
+        }
+
         @Override
         public void close() {
 
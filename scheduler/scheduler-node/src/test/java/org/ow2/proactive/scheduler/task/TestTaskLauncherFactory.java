@@ -28,7 +28,9 @@ package org.ow2.proactive.scheduler.task;
 import java.io.File;
 import java.io.IOException;
 import java.io.PrintStream;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.Semaphore;
@@ -210,6 +212,11 @@ public class TestTaskLauncherFactory extends ProActiveForkedTaskLauncherFactory
             }
         }
 
+        @Override
+        public Map<String, String> getStagingMetrics() {
+            return Collections.emptyMap();
+        }
+
         @Override
         public void close() {
             FileUtils.deleteQuietly(getScratchFolder());
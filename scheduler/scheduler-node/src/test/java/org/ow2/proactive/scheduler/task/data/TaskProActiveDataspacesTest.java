@@ -26,24 +26,35 @@
 package org.ow2.proactive.scheduler.task.data;
 
 import static com.google.common.truth.Truth.assertThat;
-import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
+import java.io.File;
+import java.io.FileOutputStream;
+import java.nio.file.Files;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
+import java.util.Random;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
 
+import org.junit.After;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 import org.mockito.Mockito;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
 import org.objectweb.proactive.core.config.CentralPAPropertyRepository;
 import org.objectweb.proactive.extensions.dataspaces.api.DataSpacesFileObject;
+import org.objectweb.proactive.extensions.dataspaces.api.FileSelector;
+import org.objectweb.proactive.extensions.dataspaces.api.FileType;
 import org.objectweb.proactive.extensions.dataspaces.exceptions.FileSystemException;
 import org.ow2.proactive.scheduler.common.task.dataspaces.InputSelector;
 import org.ow2.proactive.scheduler.job.JobIdImpl;
@@ -56,6 +67,15 @@ import com.google.common.collect.ImmutableList;
 
 public class TaskProActiveDataspacesTest extends ProActiveTestClean {
 
+    @Rule
+    public TemporaryFolder tempFolder = new TemporaryFolder();
+
+    @After
+    public void clearProperties() {
+        System.clearProperty(TaskProActiveDataspaces.PA_NODE_DATASPACE_CREATE_FOLDER_HIERARCHY_SEQUENTIALLY);
+        System.clearProperty(TaskProActiveDataspaces.PA_NODE_DATASPACE_FILE_TRANSFER_CHUNK_SIZE);
+    }
+
     @Test(expected = Exception.class)
     public void testCopyEmptyListFromInputDataToScratchThrown() throws Exception {
         CentralPAPropertyRepository.PA_CLASSLOADING_USEHTTP.setValue(false);
@@ -70,50 +90,162 @@ public class TaskProActiveDataspacesTest extends ProActiveTestClean {
     }
 
     @Test
-    public void testCreateFolderHierarchySequentially() throws Exception {
-        CreateFolderHierarchySequentiallyFixture fixture = new CreateFolderHierarchySequentiallyFixture(10);
+    public void testDispatchCreatesEachFolderOnce() throws Exception {
+        System.setProperty(TaskProActiveDataspaces.PA_NODE_DATASPACE_CREATE_FOLDER_HIERARCHY_SEQUENTIALLY, "true");
+
+        StagingPipelineFixture fixture = new StagingPipelineFixture(10);
 
-        fixture.test();
+        fixture.pipeline.dispatch(fixture.spaceUri, fixture.spaceFiles);
+        fixture.pipeline.await();
 
         verify(fixture.taskProActiveDataspaces,
-               times(fixture.nbFiles)).createFolderHierarchy(Mockito.anyBoolean(),
-                                                             Mockito.<DataSpacesFileObject> anyObject(),
-                                                             Mockito.<DataSpacesFileObject> anyObject());
-
-        int halfNbFiles = fixture.nbFiles / 2;
-        verify(fixture.spaceFileWithFolderType, times(halfNbFiles)).getType();
-        verify(fixture.spaceFileWithFolderType, times(halfNbFiles)).getType();
-        verify(fixture.target, times(halfNbFiles)).getParent();
-        verify(fixture.target, times(fixture.nbFiles)).createFolder();
-
-        assertThat(fixture.filesToCopy).hasSize(1);
-        verify(fixture.filesToCopy, times(fixture.nbFiles)).put(anyString(),
-                                                                Mockito.<DataSpacesFileObject> anyObject());
+               times(1)).createFolderHierarchy(Mockito.anyBoolean(),
+                                               Mockito.<DataSpacesFileObject> anyObject(),
+                                               Mockito.<DataSpacesFileObject> anyObject());
+        verify(fixture.target, times(1)).createFolder();
+        verify(fixture.target, times(fixture.nbFiles)).copyFrom(Mockito.<DataSpacesFileObject> anyObject(),
+                                                                Mockito.<FileSelector> anyObject());
     }
 
     @Test
-    public void testCreateFolderHierarchySequentiallyDisabled() throws Exception {
+    public void testDispatchFolderHierarchyDisabled() throws Exception {
         System.setProperty(TaskProActiveDataspaces.PA_NODE_DATASPACE_CREATE_FOLDER_HIERARCHY_SEQUENTIALLY, "fAlSe");
 
-        CreateFolderHierarchySequentiallyFixture fixture = new CreateFolderHierarchySequentiallyFixture(10);
+        StagingPipelineFixture fixture = new StagingPipelineFixture(10);
 
-        fixture.test();
+        fixture.pipeline.dispatch(fixture.spaceUri, fixture.spaceFiles);
+        fixture.pipeline.await();
 
-        verify(fixture.spaceFileWithFolderType, never()).getType();
-        verify(fixture.spaceFileWithFolderType, never()).getType();
+        verify(fixture.taskProActiveDataspaces,
+               never()).createFolderHierarchy(Mockito.anyBoolean(),
+                                              Mockito.<DataSpacesFileObject> anyObject(),
+                                              Mockito.<DataSpacesFileObject> anyObject());
         verify(fixture.target, never()).getParent();
+        verify(fixture.target, times(fixture.nbFiles)).copyFrom(Mockito.<DataSpacesFileObject> anyObject(),
+                                                                Mockito.<FileSelector> anyObject());
+    }
 
-        verify(fixture.taskProActiveDataspaces,
-               Mockito.never()).createFolderHierarchy(Mockito.anyBoolean(),
-                                                      Mockito.<DataSpacesFileObject> anyObject(),
-                                                      Mockito.<DataSpacesFileObject> anyObject());
+    @Test
+    public void testDispatchKeepsFilesOfTheSpaceWithPrecedence() throws Exception {
+        StagingPipelineFixture fixture = new StagingPipelineFixture(1);
+
+        DataSpacesFileObject otherSpaceFile = Mockito.mock(DataSpacesFileObject.class);
+        doReturn("otherSpace/folder/file0").when(otherSpaceFile).getVirtualURI();
+        doReturn(FileType.FILE).when(otherSpaceFile).getType();
+
+        fixture.pipeline.dispatch(fixture.spaceUri, fixture.spaceFiles);
+        fixture.pipeline.dispatch("otherSpace", Collections.singletonList(otherSpaceFile));
+        fixture.pipeline.await();
+
+        verify(fixture.target).copyFrom(Mockito.eq(fixture.spaceFiles.get(0)), Mockito.<FileSelector> anyObject());
+        verify(fixture.target, never()).copyFrom(Mockito.eq(otherSpaceFile), Mockito.<FileSelector> anyObject());
+    }
+
+    @Test
+    public void testChunkedCopyCreatesTheFolderAndReplacesTheTargetOnceComplete() throws Exception {
+        System.setProperty(TaskProActiveDataspaces.PA_NODE_DATASPACE_CREATE_FOLDER_HIERARCHY_SEQUENTIALLY, "false");
+        System.setProperty(TaskProActiveDataspaces.PA_NODE_DATASPACE_FILE_TRANSFER_CHUNK_SIZE, "10");
+
+        byte[] content = new byte[105];
+        new Random(42).nextBytes(content);
+        File sourceFile = tempFolder.newFile("source");
+        Files.write(sourceFile.toPath(), content);
+        File destinationFolder = tempFolder.newFolder("destination");
+
+        DataSpacesFileObject source = Mockito.mock(DataSpacesFileObject.class);
+        doReturn("mySpace/folder/file").when(source).getVirtualURI();
+        doReturn(sourceFile.toURI().toString()).when(source).getRealURI();
+        doReturn(FileType.FILE).when(source).getType();
+        DataSpacesFileObject destination = Mockito.mock(DataSpacesFileObject.class);
+        doReturn(destinationFolder.toURI().toString()).when(destination).getRealURI();
+
+        TaskProActiveDataspaces taskProActiveDataspaces = new TaskProActiveDataspaces();
+        StagingMetrics metrics = new StagingMetrics(StagingMetrics.INPUT_PREFIX);
+        TaskProActiveDataspaces.StagingPipeline pipeline = taskProActiveDataspaces.new StagingPipeline(destination,
+                                                                                                       "LOCAL",
+                                                                                                       false,
+                                                                                                       false,
+                                                                                                       metrics);
+
+        pipeline.dispatch("mySpace", Collections.singletonList(source));
+        pipeline.await();
+
+        File folder = new File(destinationFolder, "folder");
+        assertThat(pipeline.getTransferFutures()).hasSize(11);
+        assertThat(folder.list()).asList().containsExactly("file");
+        assertThat(Files.readAllBytes(new File(folder, "file").toPath())).isEqualTo(content);
+    }
+
+    @Test
+    public void testCacheCopyReplacesThePreviousVersionAtOnce() throws Exception {
+        System.setProperty(TaskProActiveDataspaces.PA_NODE_DATASPACE_CREATE_FOLDER_HIERARCHY_SEQUENTIALLY, "false");
+
+        final byte[] previousContent = new byte[100];
+        Arrays.fill(previousContent, (byte) 'a');
+        final byte[] newContent = new byte[100];
+        Arrays.fill(newContent, (byte) 'b');
+        final File cacheFolder = tempFolder.newFolder("cache");
+        final File cachedFile = new File(cacheFolder, "folder/file");
+        assertThat(cachedFile.getParentFile().mkdirs()).isTrue();
+        Files.write(cachedFile.toPath(), previousContent);
+
+        String sourceUri = "file:///remote/source/file";
+        DataSpacesFileObject source = Mockito.mock(DataSpacesFileObject.class, Mockito.RETURNS_DEEP_STUBS);
+        doReturn("mySpace/folder/file").when(source).getVirtualURI();
+        doReturn(sourceUri).when(source).getRealURI();
+        doReturn(FileType.FILE).when(source).getType();
+        long lastModified = cachedFile.lastModified() + 10000;
+        when(source.getContent().getSize()).thenReturn((long) newContent.length);
+        when(source.getContent().getLastModifiedTime()).thenReturn(lastModified);
+
+        // the content of the cached file seen by another task while the new version is being copied
+        final List<byte[]> contentsSeenDuringTheCopy = new ArrayList<>();
+        DataSpacesFileObject destination = Mockito.mock(DataSpacesFileObject.class);
+        doReturn(cacheFolder.toURI().toString()).when(destination).getRealURI();
+        doAnswer(new Answer<DataSpacesFileObject>() {
+            @Override
+            public DataSpacesFileObject answer(InvocationOnMock invocation) throws Throwable {
+                final File file = new File(cacheFolder, (String) invocation.getArguments()[0]);
+                DataSpacesFileObject fileObject = Mockito.mock(DataSpacesFileObject.class);
+                doReturn(file.toURI().toString()).when(fileObject).getRealURI();
+                doAnswer(new Answer<Void>() {
+                    @Override
+                    public Void answer(InvocationOnMock invocation) throws Throwable {
+                        try (FileOutputStream out = new FileOutputStream(file)) {
+                            out.write(newContent, 0, newContent.length / 2);
+                            out.flush();
+                            contentsSeenDuringTheCopy.add(Files.readAllBytes(cachedFile.toPath()));
+                            out.write(newContent, newContent.length / 2, newContent.length / 2);
+                        }
+                        return null;
+                    }
+                }).when(fileObject).copyFrom(Mockito.<DataSpacesFileObject> anyObject(),
+                                             Mockito.<FileSelector> anyObject());
+                return fileObject;
+            }
+        }).when(destination).resolveFile(Mockito.anyString());
 
-        assertThat(fixture.filesToCopy).hasSize(1);
-        verify(fixture.filesToCopy, times(fixture.nbFiles)).put(anyString(),
-                                                                Mockito.<DataSpacesFileObject> anyObject());
+        TaskProActiveDataspaces taskProActiveDataspaces = new TaskProActiveDataspaces();
+        TaskProActiveDataspaces.StagingPipeline pipeline = taskProActiveDataspaces.new StagingPipeline(destination,
+                                                                                                       "CACHE",
+                                                                                                       true,
+                                                                                                       true,
+                                                                                                       new StagingMetrics(StagingMetrics.INPUT_PREFIX));
+        try {
+            pipeline.dispatch("mySpace", Collections.singletonList(source));
+            pipeline.await();
+
+            assertThat(contentsSeenDuringTheCopy).hasSize(1);
+            assertThat(contentsSeenDuringTheCopy.get(0)).isEqualTo(previousContent);
+            assertThat(Files.readAllBytes(cachedFile.toPath())).isEqualTo(newContent);
+            assertThat(cachedFile.getParentFile().list()).asList().containsExactly("file");
+            assertThat(StagingCacheIndex.get(sourceUri, newContent.length, lastModified)).isEqualTo("folder/file");
+        } finally {
+            StagingCacheIndex.remove(sourceUri);
+        }
     }
 
-    private static final class CreateFolderHierarchySequentiallyFixture {
+    private static final class StagingPipelineFixture {
 
         DataSpacesFileObject target;
 
@@ -123,17 +255,13 @@ public class TaskProActiveDataspacesTest extends ProActiveTestClean {
 
         List<DataSpacesFileObject> spaceFiles;
 
-        DataSpacesFileObject spaceFileWithFolderType;
-
-        DataSpacesFileObject spaceFileWithFileType;
-
-        Map<String, DataSpacesFileObject> filesToCopy;
-
         TaskProActiveDataspaces taskProActiveDataspaces;
 
+        TaskProActiveDataspaces.StagingPipeline pipeline;
+
         int nbFiles;
 
-        public CreateFolderHierarchySequentiallyFixture(int nbFiles) throws FileSystemException {
+        public StagingPipelineFixture(int nbFiles) throws FileSystemException {
             target = Mockito.mock(DataSpacesFileObject.class);
             doReturn(target).when(target).getParent();
 
@@ -141,36 +269,23 @@ public class TaskProActiveDataspacesTest extends ProActiveTestClean {
             doReturn(target).when(destination).resolveFile(Mockito.anyString());
 
             spaceFiles = new ArrayList<>(nbFiles);
-            filesToCopy = Mockito.spy(new HashMap<String, DataSpacesFileObject>());
-
-            spaceFileWithFolderType = Mockito.mock(DataSpacesFileObject.class);
-            doReturn(org.objectweb.proactive.extensions.dataspaces.api.FileType.FOLDER).when(spaceFileWithFolderType)
-                                                                                       .getType();
-
-            spaceFileWithFileType = Mockito.mock(DataSpacesFileObject.class);
-            doReturn(org.objectweb.proactive.extensions.dataspaces.api.FileType.FILE).when(spaceFileWithFileType)
-                                                                                     .getType();
-
             for (int i = 0; i < nbFiles; i++) {
-                if (i % 2 == 0) {
-                    spaceFiles.add(spaceFileWithFolderType);
-                } else {
-                    spaceFiles.add(spaceFileWithFileType);
-                }
+                DataSpacesFileObject spaceFile = Mockito.mock(DataSpacesFileObject.class);
+                doReturn(spaceUri + "/folder/file" + i).when(spaceFile).getVirtualURI();
+                doReturn(FileType.FILE).when(spaceFile).getType();
+                spaceFiles.add(spaceFile);
             }
 
             taskProActiveDataspaces = Mockito.spy(new TaskProActiveDataspaces());
-
-            doReturn("relativizedValue").when(taskProActiveDataspaces)
-                                        .relativize(Mockito.anyString(), Mockito.<DataSpacesFileObject> anyObject());
+            pipeline = taskProActiveDataspaces.new StagingPipeline(destination,
+                                                                   "LOCAL",
+                                                                   false,
+                                                                   false,
+                                                                   new StagingMetrics(StagingMetrics.INPUT_PREFIX));
 
             this.nbFiles = nbFiles;
         }
 
-        public void test() throws FileSystemException {
-            taskProActiveDataspaces.createFolderHierarchySequentially(destination, spaceUri, spaceFiles, filesToCopy);
-        }
-
     }
 
     @Test
@@ -26,7 +26,9 @@
 package org.ow2.proactive.scheduler.core;
 
 import java.lang.reflect.Method;
+import java.util.ArrayList;
 import java.util.LinkedList;
+import java.util.List;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
@@ -38,12 +40,18 @@ import org.objectweb.proactive.core.UniqueID;
 import org.objectweb.proactive.utils.NamedThreadFactory;
 import org.ow2.proactive.scheduler.common.SchedulerEventListener;
 import org.ow2.proactive.scheduler.core.properties.PASchedulerProperties;
+import org.ow2.proactive.scheduler.job.UserIdentificationImpl;
 import org.ow2.proactive.threading.ReifiedMethodCall;
 
 
 /**
  * ClientRequestHandler is used to delegate event call to client.
  * This class should be used with the ThreadPoolController which handles threads.
+ * <p>
+ * The events are either added to the queue of this handler by the front-end, or read by this handler from the
+ * {@link SchedulerEventBus} of the front-end when it is enabled. In the latter case, the handler filters the events
+ * for its user, coalesces the successive updates of a same task and disconnects its client if it falls behind the
+ * event bus.
  *
  * @author The ProActive Team
  * @since ProActive Scheduling 2.0
@@ -61,6 +69,9 @@ public class ClientRequestHandler {
 
     private static final AtomicInteger requestLeft = new AtomicInteger();
 
+    /** Maximum number of events read from the event bus before sending them */
+    private static final int EVENT_BUS_BATCH_SIZE = 1000;
+
     public static void terminate() {
         // Precondition: no new event is emitted
         try {
@@ -91,6 +102,20 @@ public class ClientRequestHandler {
     /** Cross reference to the front-end : used to mark client as dirty */
     private final SchedulerFrontendState frontend;
 
+    /** Event bus from which the events are read, null if the events are added to this handler */
+    private final SchedulerEventBus eventBus;
+
+    /** User whose events are read from the event bus */
+    private final UserIdentificationImpl user;
+
+    /** Sequence of the next event to read from the event bus, only used by the thread sending the events */
+    private long cursor;
+
+    /** Number of signals received from the event bus since the events were last read */
+    private final AtomicInteger eventBusSignals = new AtomicInteger();
+
+    private volatile boolean closed;
+
     /**
      * Create a new instance of ClientRequestHandler
      *
@@ -103,6 +128,107 @@ public class ClientRequestHandler {
         this.frontend = frontend;
         this.clientId = clientId;
         this.eventCallsToStore = new LinkedList<>();
+        this.eventBus = null;
+        this.user = null;
+    }
+
+    /**
+     * Create a new instance of ClientRequestHandler which reads the events of the given user from the event bus,
+     * starting from the next published event.
+     *
+     * @param frontend a link to the front-end
+     * @param clientId the Id of the client on which to talk to.
+     * @param client the reference on the client itself.
+     * @param eventBus the event bus of the front-end
+     * @param user the user whose events are sent to the client
+     */
+    public ClientRequestHandler(SchedulerFrontendState frontend, UniqueID clientId, SchedulerEventListener client,
+            SchedulerEventBus eventBus, UserIdentificationImpl user) {
+        this.client = client;
+        this.frontend = frontend;
+        this.clientId = clientId;
+        this.eventCallsToStore = new LinkedList<>();
+        this.eventBus = eventBus;
+        this.user = user;
+        this.cursor = eventBus.getNextSequence();
+        eventBus.subscribe(this);
+    }
+
+    /**
+     * Stop reading events from the event bus, the events already read may still be sent.
+     */
+    public void close() {
+        closed = true;
+        if (eventBus != null) {
+            eventBus.unsubscribe(this);
+        }
+    }
+
+    /**
+     * Called by the event bus when an event is published: starts a task sending the new events, unless a task is
+     * already running, in which case it will read them as well.
+     */
+    void signal() {
+        if (eventBusSignals.getAndIncrement() == 0) {
+            threadPoolForNetworkCalls.execute(this::sendEventBusEvents);
+        }
+    }
+
+    private void sendEventBusEvents() {
+        int signals = eventBusSignals.get();
+        while (true) {
+            try {
+                List<SchedulerEventBus.Event> events;
+                while (!closed && (events = readEventBusEvents()) != null) {
+                    for (SchedulerEventBus.Event event : events) {
+                        event.getMethod().invoke(client, event.getArgument());
+                    }
+                }
+            } catch (IllegalStateException e) {
+                logger.warn("Client " + clientId + " is too slow to receive the events, it will be disconnected: " +
+                            e.getMessage());
+                close();
+                frontend.markAsDirty(clientId);
+            } catch (Throwable t) {
+                if (logger.isDebugEnabled()) {
+                    logger.debug("Error during sending event to the cleint " + clientId, t);
+                }
+                //remove this client from Frontend (client dead or timed out)
+                close();
+                frontend.markAsDirty(clientId);
+            }
+            // read again if events were published meanwhile
+            signals = eventBusSignals.addAndGet(-signals);
+            if (signals == 0) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Read the next events of the user from the event bus, the successive updates of a same task are coalesced.
+     *
+     * @return the events to send, null if there is no new event
+     * @throws IllegalStateException if events have been overwritten before being read
+     */
+    private List<SchedulerEventBus.Event> readEventBusEvents() {
+        List<SchedulerEventBus.Event> events = new ArrayList<>();
+        SchedulerEventBus.Event event;
+        int read = 0;
+        while (read < EVENT_BUS_BATCH_SIZE && (event = eventBus.get(cursor)) != null) {
+            cursor++;
+            read++;
+            if (!SchedulerFrontendState.isEventAllowed(user, event.getEventType(), event.getOwner())) {
+                continue;
+            }
+            int last = events.size() - 1;
+            if (last >= 0 && event.supersedes(events.get(last))) {
+                events.set(last, event);
+            } else {
+                events.add(event);
+            }
+        }
+        return read == 0 ? null : events;
     }
 
     /**
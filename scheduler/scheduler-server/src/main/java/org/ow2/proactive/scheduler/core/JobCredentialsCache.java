@@ -0,0 +1,173 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive.scheduler.core;
+
+import java.security.KeyException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.ow2.proactive.authentication.crypto.CredData;
+import org.ow2.proactive.scheduler.common.job.JobId;
+
+import com.google.common.base.Ticker;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+
+/**
+ * Keeps the decrypted credentials of the running jobs, so that the credentials of a job are decrypted with the
+ * scheduler private key once for the job instead of once for each of its tasks.
+ * <p>
+ * The cached credentials already hold the global domain and the third-party credentials of the job owner. They
+ * expire after a timeout, and are removed when the job terminates or when its owner changes their third-party
+ * credentials. The least recently used credentials are evicted once the cache is full. Credentials decrypted while
+ * the job is removed, or while the credentials of its owner are removed, are returned but not cached.
+ * <p>
+ * The clear credentials only stay in memory: this class is not serializable and does not print its content.
+ * The cache is disabled when its size is 0.
+ */
+class JobCredentialsCache {
+
+    /**
+     * Decrypts the credentials of a job when they are not cached.
+     */
+    interface Loader {
+        CredData load() throws KeyException;
+    }
+
+    private final Cache<JobId, Entry> credentials;
+
+    /** removed jobs, whose credentials must not be cached again by a decryption started before their removal */
+    private final Cache<JobId, Boolean> removedJobs;
+
+    /** number of times the credentials of each owner have been removed, guarded by this */
+    private final Map<String, Long> ownerGenerations = new HashMap<>();
+
+    JobCredentialsCache(int size, long timeoutInSeconds) {
+        this(size, timeoutInSeconds, Ticker.systemTicker());
+    }
+
+    JobCredentialsCache(int size, long timeoutInSeconds, Ticker ticker) {
+        this.credentials = size > 0 ? CacheBuilder.newBuilder()
+                                                  .maximumSize(size)
+                                                  .expireAfterWrite(timeoutInSeconds, TimeUnit.SECONDS)
+                                                  .ticker(ticker)
+                                                  .build()
+                                    : null;
+        // once the timeout is elapsed, the credentials decrypted before the removal would have expired anyway
+        this.removedJobs = size > 0 ? CacheBuilder.newBuilder()
+                                                  .maximumSize(size)
+                                                  .expireAfterWrite(timeoutInSeconds, TimeUnit.SECONDS)
+                                                  .ticker(ticker)
+                                                  .build()
+                                    : null;
+    }
+
+    boolean isEnabled() {
+        return credentials != null;
+    }
+
+    /**
+     * Get the decrypted credentials of a job, the returned object is shared and must not be modified.
+     *
+     * @param jobId id of the job
+     * @param owner owner of the job
+     * @param loader decrypts the credentials if they are not cached yet
+     * @return the decrypted credentials
+     * @throws KeyException if the credentials cannot be decrypted
+     */
+    CredData get(JobId jobId, String owner, Loader loader) throws KeyException {
+        if (!isEnabled()) {
+            return loader.load();
+        }
+        Entry entry = credentials.getIfPresent(jobId);
+        if (entry != null) {
+            return entry.credData;
+        }
+        long ownerGeneration = getOwnerGeneration(owner);
+        // credentials decrypted concurrently for the same job are simply decrypted several times
+        entry = new Entry(owner, loader.load());
+        synchronized (this) {
+            if (removedJobs.getIfPresent(jobId) == null && ownerGeneration == getOwnerGeneration(owner)) {
+                credentials.put(jobId, entry);
+            }
+        }
+        return entry.credData;
+    }
+
+    void remove(JobId jobId) {
+        if (isEnabled()) {
+            synchronized (this) {
+                removedJobs.put(jobId, Boolean.TRUE);
+                credentials.invalidate(jobId);
+            }
+        }
+    }
+
+    /**
+     * Remove the credentials of all the jobs of a user, i.e. when their third-party credentials are modified.
+     */
+    void removeOwner(String owner) {
+        if (isEnabled()) {
+            synchronized (this) {
+                ownerGenerations.merge(owner, 1L, Long::sum);
+                credentials.asMap().values().removeIf(entry -> owner.equals(entry.owner));
+            }
+        }
+    }
+
+    private synchronized long getOwnerGeneration(String owner) {
+        return ownerGenerations.getOrDefault(owner, 0L);
+    }
+
+    long size() {
+        return isEnabled() ? credentials.size() : 0;
+    }
+
+    @Override
+    public String toString() {
+        return "JobCredentialsCache[" + size() + " jobs]";
+    }
+
+    private static final class Entry {
+
+        private final String owner;
+
+        private final CredData credData;
+
+        private Entry(String owner, CredData credData) {
+            this.owner = owner;
+            this.credData = credData;
+        }
+
+        @Override
+        public String toString() {
+            return "[credentials of " + owner + "]";
+        }
+    }
+
+}
@@ -58,7 +58,7 @@ public class ListeningUser {
     }
 
     /**
-     * Set the listener associated to this user
+     * Set the listener associated to this user, the previous listener if any is closed
      *
      * Listener must not be null !
      */
@@ -66,13 +66,19 @@ public class ListeningUser {
         if (listener == null) {
             throw new IllegalArgumentException("Listener must not be null !");
         }
+        if (this.listener != null && this.listener != listener) {
+            this.listener.close();
+        }
         this.listener = listener;
     }
 
     /**
-     * clear the listener associated to this user
+     * clear and close the listener associated to this user
      */
     public void clearListener() {
+        if (this.listener != null) {
+            this.listener.close();
+        }
         this.listener = null;
     }
 
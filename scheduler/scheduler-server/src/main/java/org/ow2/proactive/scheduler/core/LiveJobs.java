@@ -85,13 +85,60 @@ class LiveJobs {
 
         final ReentrantLock jobLock = new ReentrantLock();
 
+        /** state of the job when its lock was last released */
+        private volatile JobSnapshot snapshot;
+
         private JobData(InternalJob job) {
             this.job = job;
+            // a new job is considered to have eligible tasks until it is locked for the first time
+            this.snapshot = new JobSnapshot(job.getStatus(), job.getPriority(), true);
         }
 
         void unlock() {
+            if (jobLock.getHoldCount() == 1) {
+                // the job may have been modified while it was locked
+                snapshot = new JobSnapshot(job.getStatus(),
+                                           job.getPriority(),
+                                           job.getJobDescriptor().hasEligibleTasks());
+            }
             jobLock.unlock();
         }
+
+        JobSnapshot getSnapshot() {
+            return snapshot;
+        }
+    }
+
+    /**
+     * Immutable view of the scheduling state of a job, published each time the job is unlocked.
+     * It can be read without locking the job, and reflects its state before the current modification
+     * if the job is locked.
+     */
+    static final class JobSnapshot {
+
+        private final JobStatus status;
+
+        private final JobPriority priority;
+
+        private final boolean eligibleTasks;
+
+        private JobSnapshot(JobStatus status, JobPriority priority, boolean eligibleTasks) {
+            this.status = status;
+            this.priority = priority;
+            this.eligibleTasks = eligibleTasks;
+        }
+
+        JobStatus getStatus() {
+            return status;
+        }
+
+        JobPriority getPriority() {
+            return priority;
+        }
+
+        boolean hasEligibleTasks() {
+            return eligibleTasks;
+        }
     }
 
     private final SchedulerDBManager dbManager;
@@ -106,6 +153,8 @@ class LiveJobs {
 
     private final StartAtUpdater startAtUpdater = new StartAtUpdater();
 
+    private final ReadyJobsQueue readyJobsQueue = new ReadyJobsQueue();
+
     LiveJobs(SchedulerDBManager dbManager, SchedulerStateUpdate listener) {
         this.dbManager = dbManager;
         this.listener = listener;
@@ -115,12 +164,24 @@ class LiveJobs {
         return runningTasksData.values();
     }
 
+    long getReadyJobsQueueVersion() {
+        return readyJobsQueue.getVersion();
+    }
+
+    /**
+     * Record an event not related to a particular job which may change a scheduling decision
+     */
+    void schedulingStateChanged() {
+        readyJobsQueue.markChanged();
+    }
+
     boolean canPingTask(RunningTaskData taskData) {
         return runningTasksData.get(TaskIdWrapper.wrap(taskData.getTask().getId())) == taskData;
     }
 
     void jobRecovered(InternalJob job) {
         jobs.put(job.getId(), new JobData(job));
+        readyJobsQueue.markReady(job.getId());
         for (InternalTask task : job.getITasks()) {
             if (task.getStatus() == TaskStatus.RUNNING) {
                 logger.info("Recover task " + task.getId() + " (" + task.getName() + ") of job " + job.getId() + " (" +
@@ -140,6 +201,7 @@ class LiveJobs {
             JobData jobData = lockJob(jobId);
             if (jobData != null) {
                 try {
+                    readyJobsQueue.markReady(jobData.job.getId());
                     InternalJob job = jobData.job;
                     if (job.getStatus() == JobStatus.PAUSED) {
                         job.setUnPause();
@@ -209,6 +271,7 @@ class LiveJobs {
             return;
         }
         try {
+            readyJobsQueue.markReady(jobData.job.getId());
             jobData.job.setPriority(priority);
 
             dbManager.changeJobPriority(jobId, priority);
@@ -229,6 +292,7 @@ class LiveJobs {
             return false;
         }
         try {
+            readyJobsQueue.markReady(jobData.job.getId());
             InternalJob job = jobData.job;
             for (TaskState taskState : job.getTasks()) {
                 try {
@@ -257,6 +321,7 @@ class LiveJobs {
             return false;
         }
         try {
+            readyJobsQueue.markReady(jobData.job.getId());
             InternalJob job = jobData.job;
             Set<TaskId> updatedTasks = job.setUnPause();
 
@@ -306,6 +371,7 @@ class LiveJobs {
             return false;
         }
         try {
+            readyJobsQueue.markReady(jobData.job.getId());
             return startAtUpdater.updateStartAt(jobData.job, startAt, dbManager);
         } finally {
             jobData.unlock();
@@ -318,44 +384,96 @@ class LiveJobs {
         dbManager.newJobSubmitted(job);
         ClientJobState clientJobState = new ClientJobState(job);
         jobs.put(job.getId(), new JobData(job));
+        readyJobsQueue.markReady(job.getId());
         listener.jobSubmitted(clientJobState);
     }
 
     Map<JobId, JobDescriptor> lockJobsToSchedule(boolean isSchedulerPausedOrStopped) {
+        return lockJobsToSchedule(isSchedulerPausedOrStopped, false);
+    }
+
+    /**
+     * Lock the jobs which can be scheduled.
+     *
+     * @param isSchedulerPausedOrStopped if true, only running or stalled jobs are selected
+     * @param onlyReadyJobs if true, only the jobs of the ready-queue are visited (incremental scheduling),
+     *                      otherwise every live job is visited and the ready-queue is rebuilt
+     * @return the locked jobs descriptors, without the jobs of lower priority than a job which has eligible tasks
+     * but could not be locked
+     */
+    Map<JobId, JobDescriptor> lockJobsToSchedule(boolean isSchedulerPausedOrStopped, boolean onlyReadyJobs) {
 
         TreeSet<JobPriority> prioritiesScheduled = new TreeSet<>();
         TreeSet<JobPriority> prioritiesNotScheduled = new TreeSet<>();
 
+        Collection<JobData> candidates;
+        if (onlyReadyJobs) {
+            candidates = new ArrayList<>(readyJobsQueue.size());
+            for (JobId jobId : readyJobsQueue.getReadyJobs()) {
+                JobData jobData = jobs.get(jobId);
+                if (jobData != null) {
+                    candidates.add(jobData);
+                } else {
+                    readyJobsQueue.removeIdle(jobId);
+                }
+            }
+        } else {
+            candidates = jobs.values();
+        }
+
         Map<JobId, JobDescriptor> result = new HashMap<>();
-        for (Map.Entry<JobId, JobData> entry : jobs.entrySet()) {
-            JobData value = entry.getValue();
+        for (JobData value : candidates) {
+            JobSnapshot snapshot = value.getSnapshot();
 
             // If the scheduler is paused, schedule only running or stalled jobs
             if (isSchedulerPausedOrStopped &&
-                (value.job.getStatus() != JobStatus.RUNNING && value.job.getStatus() != JobStatus.STALLED)) {
+                (snapshot.getStatus() != JobStatus.RUNNING && snapshot.getStatus() != JobStatus.STALLED)) {
                 continue;
             }
 
             if (value.jobLock.tryLock()) {
-                InternalJob job = entry.getValue().job;
+                InternalJob job = value.job;
+                if (!job.getJobDescriptor().hasEligibleTasks()) {
+                    // nothing to schedule for this job until a new event makes it ready again
+                    readyJobsQueue.removeIdle(job.getId());
+                    if (onlyReadyJobs) {
+                        value.unlock();
+                        continue;
+                    }
+                } else if (!onlyReadyJobs) {
+                    readyJobsQueue.add(job.getId());
+                }
                 result.put(job.getId(), job.getJobDescriptor());
-                prioritiesScheduled.add(job.getPriority());
-            } else {
-                prioritiesNotScheduled.add(value.job.getPriority());
+                if (job.getJobDescriptor().hasEligibleTasks()) {
+                    prioritiesScheduled.add(job.getPriority());
+                }
+            } else if (snapshot.hasEligibleTasks()) {
+                prioritiesNotScheduled.add(snapshot.getPriority());
             }
-            if (unlockIfConflict(prioritiesScheduled, prioritiesNotScheduled, result))
-                return new HashMap<>(0);
+            // a job which had nothing to schedule when it was locked by another thread cannot change any
+            // priority decision: if it gets eligible tasks, it will be marked ready for the next cycle
         }
+        unlockIfConflict(prioritiesScheduled, prioritiesNotScheduled, result);
         return result;
     }
 
-    private boolean unlockIfConflict(TreeSet<JobPriority> prioritiesScheduled,
+    /**
+     * Unlock and remove from the given jobs the ones which have a strictly lower priority than a job which could not
+     * be locked, so that the remaining jobs can still be scheduled without breaking the priorities.
+     */
+    private void unlockIfConflict(TreeSet<JobPriority> prioritiesScheduled,
             TreeSet<JobPriority> prioritiesNotScheduled, Map<JobId, JobDescriptor> result) {
         if (priorityConflict(prioritiesScheduled, prioritiesNotScheduled)) {
-            unlockJobsToSchedule(result.values());
-            return true;
+            JobPriority highestNotScheduled = prioritiesNotScheduled.last();
+            Iterator<JobDescriptor> iterator = result.values().iterator();
+            while (iterator.hasNext()) {
+                JobData jobData = checkJobAccess(iterator.next().getJobId());
+                if (jobData != null && jobData.job.getPriority().compareTo(highestNotScheduled) < 0) {
+                    jobData.unlock();
+                    iterator.remove();
+                }
+            }
         }
-        return false;
     }
 
     /**
@@ -378,6 +496,30 @@ class LiveJobs {
         return false;
     }
 
+    /**
+     * Lock again, without waiting, jobs returned by {@link #lockJobsToSchedule(boolean, boolean)} and unlocked
+     * since then. The jobs which are not alive anymore are ignored.
+     *
+     * @return true if the jobs are locked, false if one of them is locked by another thread, in which case
+     * none of them is locked
+     */
+    boolean tryLockJobsToSchedule(Collection<JobDescriptor> jobDescriptors) {
+        List<JobData> lockedJobs = new ArrayList<>(jobDescriptors.size());
+        for (JobDescriptor desc : jobDescriptors) {
+            JobData jobData = jobs.get(desc.getJobId());
+            if (jobData == null) {
+                continue;
+            }
+            if (jobData.jobLock.tryLock()) {
+                lockedJobs.add(jobData);
+            } else {
+                lockedJobs.forEach(JobData::unlock);
+                return false;
+            }
+        }
+        return true;
+    }
+
     void unlockJobsToSchedule(Collection<JobDescriptor> jobDescriptors) {
         for (JobDescriptor desc : jobDescriptors) {
             JobData jobData = checkJobAccess(desc.getJobId());
@@ -393,6 +535,7 @@ class LiveJobs {
             return;
         }
         try {
+            readyJobsQueue.markReady(jobData.job.getId());
             InternalTask task = jobData.job.getTask(taskId);
             if (!task.getStatus().isTaskAlive()) {
                 tlogger.warn(taskId, "task to be restarted isn't alive " + task.getStatus());
@@ -437,6 +580,7 @@ class LiveJobs {
             return emptyResult(task.getId());
         }
         try {
+            readyJobsQueue.markReady(jobData.job.getId());
             TaskId taskId = task.getId();
 
             if (task.getStatus() != TaskStatus.RUNNING) {
@@ -569,6 +713,7 @@ class LiveJobs {
             return emptyResult(taskId);
         }
         try {
+            readyJobsQueue.markReady(jobData.job.getId());
             InternalTask task;
             try {
                 task = jobData.job.getTask(taskId);
@@ -733,6 +878,7 @@ class LiveJobs {
         }
         InternalJob job = jobData.job;
         try {
+            readyJobsQueue.markReady(jobData.job.getId());
             InternalTask task = job.getTask(taskName);
             if (task == null) {
                 throw new UnknownTaskException(taskName);
@@ -764,6 +910,7 @@ class LiveJobs {
                 job.terminate();
                 jlogger.debug(job.getId(), "terminated");
                 jobs.remove(job.getId());
+                readyJobsQueue.remove(job.getId());
                 terminationData.addJobToTerminate(job.getId());
             }
 
@@ -800,6 +947,7 @@ class LiveJobs {
     void restartInErrorTask(JobId jobId, String taskName) throws UnknownTaskException {
         JobData jobData = lockJob(jobId);
         try {
+            readyJobsQueue.markReady(jobData.job.getId());
             InternalTask task = jobData.job.getTask(taskName);
             tlogger.info(task.getId(), "restarting in-error task " + task.getId());
             jobData.job.restartInErrorTask(task);
@@ -815,6 +963,7 @@ class LiveJobs {
             throw new UnknownJobException(jobId);
         }
         try {
+            readyJobsQueue.markReady(jobData.job.getId());
             InternalTask task = jobData.job.getTask(taskName);
             tlogger.info(task.getId(), "restarting task " + task.getId());
             if (!task.getStatus().isTaskAlive()) {
@@ -870,6 +1019,7 @@ class LiveJobs {
             throw new UnknownJobException(jobId);
         }
         try {
+            readyJobsQueue.markReady(jobData.job.getId());
             InternalTask task = jobData.job.getTask(taskName);
             tlogger.info(task.getId(), "preempting task " + task.getId());
             if (!task.getStatus().isTaskAlive()) {
@@ -911,6 +1061,7 @@ class LiveJobs {
             throw new UnknownJobException(jobId);
         }
         try {
+            readyJobsQueue.markReady(jobData.job.getId());
             InternalTask task = jobData.job.getTask(taskName);
             tlogger.info(task.getId(), "killing task " + task.getId());
             if (!task.getStatus().isTaskAlive()) {
@@ -973,6 +1124,7 @@ class LiveJobs {
             jlogger.debug(job.getId(), "terminated");
             terminationData.addJobToTerminate(job.getId());
             jobs.remove(job.getId());
+            readyJobsQueue.remove(job.getId());
         }
 
         task.setTaskResult(result);
@@ -1044,6 +1196,7 @@ class LiveJobs {
                 JobId jobId = jobData.job.getId();
 
                 jobs.remove(jobId);
+                readyJobsQueue.remove(jobId);
                 terminationData.addJobToTerminate(jobId);
 
                 InternalJob job = jobData.job;
@@ -1103,6 +1256,7 @@ class LiveJobs {
         JobId jobId = jobData.job.getId();
 
         jobs.remove(jobId);
+        readyJobsQueue.remove(jobId);
         terminationData.addJobToTerminate(jobId);
 
         InternalJob job = jobData.job;
@@ -0,0 +1,78 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive.scheduler.core;
+
+import java.nio.ByteBuffer;
+import java.security.KeyException;
+import java.security.PublicKey;
+import java.util.concurrent.TimeUnit;
+
+import org.ow2.proactive.authentication.crypto.SessionKey;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+
+/**
+ * Session keys shared with the nodes, used to encrypt the credentials of the tasks sent to a node with a symmetric
+ * key only.
+ * <p>
+ * Each node holds a key pair for its whole lifetime, the session key of a node is encrypted once with its public
+ * key. A node which is restarted has a new key pair, and thus gets a new session key. A session key is replaced by
+ * a new one after its lifetime.
+ */
+class NodeSessionKeys {
+
+    private final Cache<ByteBuffer, SessionKey> sessionKeys;
+
+    NodeSessionKeys(long lifetimeInSeconds) {
+        this.sessionKeys = CacheBuilder.newBuilder().expireAfterWrite(lifetimeInSeconds, TimeUnit.SECONDS).build();
+    }
+
+    /**
+     * Get the session key shared with the owner of the given public key, creating it if needed.
+     *
+     * @param nodePublicKey the public key of the node
+     * @return the session key of the node
+     * @throws KeyException if the session key cannot be encrypted with the public key of the node
+     */
+    SessionKey get(PublicKey nodePublicKey) throws KeyException {
+        ByteBuffer id = ByteBuffer.wrap(nodePublicKey.getEncoded());
+        SessionKey sessionKey = sessionKeys.getIfPresent(id);
+        if (sessionKey == null) {
+            // sessions created concurrently for the same node are simply replaced, the node knows all of them
+            sessionKey = SessionKey.create(nodePublicKey);
+            sessionKeys.put(id, sessionKey);
+        }
+        return sessionKey;
+    }
+
+    @Override
+    public String toString() {
+        return "NodeSessionKeys[" + sessionKeys.size() + " nodes]";
+    }
+
+}
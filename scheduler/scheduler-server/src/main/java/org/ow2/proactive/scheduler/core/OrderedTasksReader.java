@@ -0,0 +1,145 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive.scheduler.core;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Consumer;
+
+import org.ow2.proactive.scheduler.core.helpers.VariableBatchSizeIterator;
+import org.ow2.proactive.scheduler.descriptor.EligibleTaskDescriptor;
+
+
+/**
+ * Reads the tasks ordered by the policy batch by batch, while the jobs of the scheduling loop are locked.
+ * <p>
+ * The tasks are only pulled from the policy iterator when the scheduling loop asks for a new batch, and only the
+ * tasks read are given to the read callback (which sets their pending status), so the cost of a scheduling loop
+ * is proportional to the number of tasks it reaches instead of the number of eligible tasks.
+ * <p>
+ * The first batches are read while the jobs are still locked by the scheduling loop. Once the loop unlocked them,
+ * each batch locks the jobs again without waiting: if another thread holds one of them, the reading stops and the
+ * remaining tasks are left to the next scheduling loop.
+ */
+final class OrderedTasksReader {
+
+    /**
+     * Lock of the jobs whose tasks are read
+     */
+    interface JobsLock {
+
+        /**
+         * @return true if every job has been locked, false if none of them is locked
+         */
+        boolean tryLock();
+
+        void unlock();
+    }
+
+    private final VariableBatchSizeIterator<EligibleTaskDescriptor> tasks;
+
+    private final Consumer<List<EligibleTaskDescriptor>> readCallback;
+
+    private final JobsLock jobsLock;
+
+    private boolean jobsLocked = true;
+
+    private boolean exhausted = false;
+
+    private boolean stopped = false;
+
+    private int readTasksNumber = 0;
+
+    /**
+     * @param orderedTasks tasks given by the policy, they are read while the jobs are locked
+     * @param readCallback called with each batch of tasks read, while the jobs are locked
+     * @param jobsLock lock of the jobs, used once the scheduling loop unlocked them
+     */
+    OrderedTasksReader(Iterator<EligibleTaskDescriptor> orderedTasks,
+            Consumer<List<EligibleTaskDescriptor>> readCallback, JobsLock jobsLock) {
+        this.tasks = new VariableBatchSizeIterator<>(orderedTasks);
+        this.readCallback = readCallback;
+        this.jobsLock = jobsLock;
+    }
+
+    /**
+     * Read the next tasks.
+     *
+     * @param limit maximum number of tasks to read
+     * @return up to limit tasks, an empty list if there is no task left or if the jobs could not be locked
+     */
+    List<EligibleTaskDescriptor> nextBatch(int limit) {
+        if (exhausted || stopped || limit == 0) {
+            return Collections.emptyList();
+        }
+        if (jobsLocked) {
+            return read(limit);
+        }
+        if (!jobsLock.tryLock()) {
+            stopped = true;
+            return Collections.emptyList();
+        }
+        try {
+            return read(limit);
+        } finally {
+            jobsLock.unlock();
+        }
+    }
+
+    /**
+     * Tell the reader that the scheduling loop unlocked the jobs, the next batches lock them again.
+     */
+    void jobsUnlocked() {
+        jobsLocked = false;
+    }
+
+    /**
+     * @return true if the reading stopped because the jobs could not be locked again, some tasks may not be read
+     */
+    boolean isStopped() {
+        return stopped;
+    }
+
+    /**
+     * @return the number of tasks read so far
+     */
+    int getReadTasksNumber() {
+        return readTasksNumber;
+    }
+
+    private List<EligibleTaskDescriptor> read(int limit) {
+        List<EligibleTaskDescriptor> batch = tasks.getNextElements(limit);
+        if (batch.size() < limit) {
+            exhausted = true;
+        }
+        readTasksNumber += batch.size();
+        if (!batch.isEmpty()) {
+            readCallback.accept(batch);
+        }
+        return batch;
+    }
+}
@@ -0,0 +1,102 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive.scheduler.core;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.ow2.proactive.scheduler.common.job.JobId;
+
+
+/**
+ * Persistent ready-queue used by the incremental scheduling mode.
+ * <p>
+ * The eligible task descriptors of a job are already maintained incrementally by its
+ * {@link org.ow2.proactive.scheduler.descriptor.JobDescriptorImpl}, this queue keeps track of
+ * the jobs which may own such eligible tasks so that a scheduling cycle does not have to visit
+ * (and lock) every live job. It also holds a version which is incremented on every event that
+ * may change a scheduling decision (job submitted, task terminated, node freed, ...), allowing
+ * the scheduling loop to detect that nothing changed since its last cycle.
+ * <p>
+ * A job is added when an event makes it ready and removed by the scheduling loop, while it holds
+ * the job lock, once it has no eligible task anymore. As events are also recorded while holding
+ * the job lock, a job cannot be removed while it has eligible tasks.
+ */
+class ReadyJobsQueue {
+
+    private final Set<JobId> readyJobs = ConcurrentHashMap.newKeySet();
+
+    private final AtomicLong version = new AtomicLong();
+
+    /**
+     * Record that the given job may have eligible tasks
+     */
+    void markReady(JobId jobId) {
+        readyJobs.add(jobId);
+        version.incrementAndGet();
+    }
+
+    /**
+     * Add a job found with eligible tasks during a full scan, without recording it as a new event
+     */
+    void add(JobId jobId) {
+        readyJobs.add(jobId);
+    }
+
+    /**
+     * Record an event which is not related to a job in particular (i.e. a node has been freed)
+     */
+    void markChanged() {
+        version.incrementAndGet();
+    }
+
+    /**
+     * Must be called while holding the job lock, once the job does not have any eligible task
+     */
+    void removeIdle(JobId jobId) {
+        readyJobs.remove(jobId);
+    }
+
+    void remove(JobId jobId) {
+        if (readyJobs.remove(jobId)) {
+            version.incrementAndGet();
+        }
+    }
+
+    Set<JobId> getReadyJobs() {
+        return readyJobs;
+    }
+
+    int size() {
+        return readyJobs.size();
+    }
+
+    long getVersion() {
+        return version.get();
+    }
+
+}
@@ -0,0 +1,185 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive.scheduler.core;
+
+import java.lang.reflect.Method;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import org.ow2.proactive.scheduler.common.SchedulerEvent;
+
+
+/**
+ * Bounded ring buffer through which the front-end sends the events to its listeners.
+ * <p>
+ * An event is appended once, without lock, whatever the number of listeners. Each listener
+ * ({@link ClientRequestHandler}) reads the events from its own cursor, filters and delivers them on its own.
+ * When the buffer is full, the oldest events are overwritten: publishing never blocks, a listener which missed
+ * events because it was too slow is disconnected instead.
+ */
+class SchedulerEventBus {
+
+    /**
+     * An event sent to the listeners
+     */
+    static final class Event {
+
+        private final long sequence;
+
+        private final Method method;
+
+        private final SchedulerEvent eventType;
+
+        private final String owner;
+
+        private final Object argument;
+
+        private final Object coalescingKey;
+
+        Event(long sequence, Method method, SchedulerEvent eventType, String owner, Object argument,
+                Object coalescingKey) {
+            this.sequence = sequence;
+            this.method = method;
+            this.eventType = eventType;
+            this.owner = owner;
+            this.argument = argument;
+            this.coalescingKey = coalescingKey;
+        }
+
+        long getSequence() {
+            return sequence;
+        }
+
+        /**
+         * @return the listener method to call
+         */
+        Method getMethod() {
+            return method;
+        }
+
+        SchedulerEvent getEventType() {
+            return eventType;
+        }
+
+        /**
+         * @return the owner of the job concerned by this event, null if it concerns every user
+         */
+        String getOwner() {
+            return owner;
+        }
+
+        Object getArgument() {
+            return argument;
+        }
+
+        /**
+         * @return true if this event only updates the given event, so that the given event does not need to be sent
+         *         when it is immediately followed by this one
+         */
+        boolean supersedes(Event previous) {
+            return coalescingKey != null && method.equals(previous.method) && eventType == previous.eventType &&
+                   coalescingKey.equals(previous.coalescingKey);
+        }
+    }
+
+    private final AtomicReferenceArray<Event> ring;
+
+    private final int mask;
+
+    private final AtomicLong nextSequence = new AtomicLong();
+
+    private final Set<ClientRequestHandler> subscribers = ConcurrentHashMap.newKeySet();
+
+    /**
+     * @param capacity number of events kept in the buffer, rounded up to a power of 2
+     */
+    SchedulerEventBus(int capacity) {
+        if (capacity <= 0 || capacity > (1 << 30)) {
+            throw new IllegalArgumentException("Event bus capacity must be between 1 and 2^30: " + capacity);
+        }
+        int size = capacity == 1 ? 1 : Integer.highestOneBit(capacity - 1) << 1;
+        this.ring = new AtomicReferenceArray<>(size);
+        this.mask = size - 1;
+    }
+
+    int getCapacity() {
+        return ring.length();
+    }
+
+    /**
+     * Append an event and signal the listeners.
+     *
+     * @param method the listener method to call
+     * @param eventType type of the event, used to filter the events of the listeners
+     * @param owner owner of the job concerned by the event, null if it concerns every user
+     * @param argument argument of the listener method
+     * @param coalescingKey if not null, the event supersedes the previous event of the same type and key
+     */
+    void publish(Method method, SchedulerEvent eventType, String owner, Object argument, Object coalescingKey) {
+        long sequence = nextSequence.getAndIncrement();
+        ring.set((int) (sequence & mask), new Event(sequence, method, eventType, owner, argument, coalescingKey));
+        for (ClientRequestHandler subscriber : subscribers) {
+            subscriber.signal();
+        }
+    }
+
+    /**
+     * @return the sequence of the next event to be published
+     */
+    long getNextSequence() {
+        return nextSequence.get();
+    }
+
+    /**
+     * @return the event of the given sequence, null if it is not published yet
+     * @throws IllegalStateException if the event has been overwritten
+     */
+    Event get(long sequence) {
+        Event event = ring.get((int) (sequence & mask));
+        if (event == null || event.sequence < sequence) {
+            return null;
+        }
+        if (event.sequence > sequence) {
+            throw new IllegalStateException("Event " + sequence + " has been overwritten by event " + event.sequence);
+        }
+        return event;
+    }
+
+    void subscribe(ClientRequestHandler subscriber) {
+        subscribers.add(subscriber);
+    }
+
+    void unsubscribe(ClientRequestHandler subscriber) {
+        subscribers.remove(subscriber);
+    }
+
+    int getNumberOfSubscribers() {
+        return subscribers.size();
+    }
+
+}
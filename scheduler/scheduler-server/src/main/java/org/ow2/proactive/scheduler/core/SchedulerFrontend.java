@@ -376,7 +376,8 @@ public class SchedulerFrontend implements InitActive, Scheduler, RunActive {
                 metricsMonitorScheduler.schedule(cronExpr,
                                                  new JobsMemoryMonitorRunner(dbManager.getSessionFactory()
                                                                                       .getStatistics(),
-                                                                             recoveredState.getSchedulerState()));
+                                                                             recoveredState.getSchedulerState(),
+                                                                             dbManager.getExecutableContainerCache()));
                 metricsMonitorScheduler.start();
             }
 
@@ -1558,6 +1559,7 @@ public class SchedulerFrontend implements InitActive, Scheduler, RunActive {
             throw new RuntimeException(e.getMessage(), e);
         }
         dbManager.putThirdPartyCredential(ident.getUsername(), key, encryptedData);
+        schedulingService.getJobCredentialsCache().removeOwner(ident.getUsername());
     }
 
     @Override
@@ -1574,6 +1576,7 @@ public class SchedulerFrontend implements InitActive, Scheduler, RunActive {
         UserIdentificationImpl ident = frontendState.checkPermission("removeThirdPartyCredential",
                                                                      YOU_DO_NOT_HAVE_PERMISSION_TO_REMOVE_THIRD_PARTY_CREDENTIALS_FROM_THE_SCHEDULER);
         dbManager.removeThirdPartyCredential(ident.getUsername(), key);
+        schedulingService.getJobCredentialsCache().removeOwner(ident.getUsername());
     }
 
     @Override
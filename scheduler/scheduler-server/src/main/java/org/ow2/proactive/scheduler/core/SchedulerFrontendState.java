@@ -242,7 +242,12 @@ class SchedulerFrontendState implements SchedulerStateUpdate {
 
     private SchedulerDBManager dbManager = null;
 
+    /** Event bus through which the events are sent to the listeners, null if the events are queued per listener */
+    private final SchedulerEventBus eventBus;
+
     SchedulerFrontendState(SchedulerStateImpl schedulerState, SchedulerJMXHelper jmxHelper) {
+        int eventBusCapacity = PASchedulerProperties.SCHEDULER_LISTENERS_EVENT_BUS_CAPACITY.getValueAsInt();
+        this.eventBus = eventBusCapacity > 0 ? new SchedulerEventBus(eventBusCapacity) : null;
         this.identifications = new ConcurrentHashMap<>();
         this.credentials = new HashMap<>();
         this.dirtyList = new HashSet<>();
@@ -489,7 +494,11 @@ class SchedulerFrontendState implements SchedulerStateUpdate {
             uIdent.getUser().setMyEventsOnly(myEventsOnly);
             // add the listener to the list of listener for this user.
             UniqueID id = PAActiveObject.getContext().getCurrentRequest().getSourceBodyID();
-            uIdent.setListener(new ClientRequestHandler(this, id, sel));
+            if (eventBus != null) {
+                uIdent.setListener(new ClientRequestHandler(this, id, sel, eventBus, uIdent.getUser()));
+            } else {
+                uIdent.setListener(new ClientRequestHandler(this, id, sel));
+            }
             // cancel timer for this user : session is now managed by events
             uIdent.getUser().getSession().cancel();
         });
@@ -980,6 +989,46 @@ class SchedulerFrontendState implements SchedulerStateUpdate {
         }
     }
 
+    /**
+     * Send an event to the listeners allowed to receive it. When the event bus is enabled, the event is only
+     * published on the bus, the listeners filter it themselves. Otherwise it is added to the queue of each listener,
+     * under the users write lock.
+     *
+     * @param methodName name of the listener method to call
+     * @param eventType type of the event
+     * @param owner owner of the job concerned by the event, null if the event concerns every user
+     * @param argument argument of the listener method
+     * @param coalescingKey if not null, a listener of the event bus which did not receive the previous event yet can
+     *                      skip it if it has the same type and the same key
+     */
+    private void dispatch(String methodName, SchedulerEvent eventType, String owner, Object argument,
+            Object coalescingKey) {
+        Method method = eventMethods.get(methodName);
+        if (eventBus != null) {
+            eventBus.publish(method, eventType, owner, argument, coalescingKey);
+            return;
+        }
+        Lambda.withLock(usersWriteLock, () -> {
+            for (ListeningUser listeningUser : identifications.values()) {
+                // if this user has a listener
+                if (listeningUser.isListening() && isEventAllowed(listeningUser.getUser(), eventType, owner)) {
+                    listeningUser.getListener().addEvent(method, argument);
+                }
+            }
+        });
+    }
+
+    /**
+     * @param owner owner of the job concerned by the event, null if the event concerns every user
+     * @return true if the given user listens to the given event
+     */
+    static boolean isEventAllowed(UserIdentificationImpl userId, SchedulerEvent eventType, String owner) {
+        // if there is no specified event OR if the specified event is allowed,
+        // and if this userId have the myEventOnly=false or (myEventOnly=true and it is its event)
+        return (userId.getUserEvents() == null || userId.getUserEvents().contains(eventType)) &&
+               (owner == null || !userId.isMyEventsOnly() || userId.getUsername().equals(owner));
+    }
+
     /**
      * Dispatch the scheduler state updated event
      * 
@@ -991,18 +1040,7 @@ class SchedulerFrontendState implements SchedulerStateUpdate {
             if (logger.isDebugEnabled()) {
                 logger.debug("event [" + eventType.toString() + "]");
             }
-            for (ListeningUser userId : identifications.values()) {
-                // if this user has a listener
-                if (userId.isListening()) {
-                    // if there is no specified event OR if the specified event
-                    // is allowed
-                    if ((userId.getUser().getUserEvents() == null) ||
-                        userId.getUser().getUserEvents().contains(eventType)) {
-                        userId.getListener().addEvent(eventMethods.get(SCHEDULER_STATE_UPDATED_EVENT_METHOD),
-                                                      eventType);
-                    }
-                }
-            }
+            dispatch(SCHEDULER_STATE_UPDATED_EVENT_METHOD, eventType, null, eventType, null);
             clearListeners();
         } catch (SecurityException e) {
             logger.error("", e);
@@ -1020,24 +1058,7 @@ class SchedulerFrontendState implements SchedulerStateUpdate {
             if (logger.isDebugEnabled()) {
                 jlogger.debug(job.getJobInfo().getJobId(), " event [" + SchedulerEvent.JOB_SUBMITTED + "]");
             }
-            for (ListeningUser listeningUserId : identifications.values()) {
-                // if this user has a listener
-                if (listeningUserId.isListening()) {
-                    UserIdentificationImpl userId = listeningUserId.getUser();
-                    // if there is no specified event OR if the specified
-                    // event is allowed
-                    if ((userId.getUserEvents() == null) ||
-                        userId.getUserEvents().contains(SchedulerEvent.JOB_SUBMITTED)) {
-                        // if this userId have the myEventOnly=false or
-                        // (myEventOnly=true and it is its event)
-                        if (!userId.isMyEventsOnly() ||
-                            (userId.isMyEventsOnly() && userId.getUsername().equals(job.getOwner()))) {
-                            listeningUserId.getListener().addEvent(eventMethods.get(JOB_SUBMITTED_EVENT_METHOD), job);
-                        }
-                    }
-
-                }
-            }
+            dispatch(JOB_SUBMITTED_EVENT_METHOD, SchedulerEvent.JOB_SUBMITTED, job.getOwner(), job, null);
             clearListeners();
         } catch (SecurityException e) {
             logger.error("", e);
@@ -1065,24 +1086,7 @@ class SchedulerFrontendState implements SchedulerStateUpdate {
                     jlogger.debug(notification.getData().getJobId(), " event [" + notification.getEventType() + "]");
                 }
             }
-            for (ListeningUser listeningUserId : identifications.values()) {
-                // if this user has a listener
-                if (listeningUserId.isListening()) {
-                    UserIdentificationImpl userId = listeningUserId.getUser();
-                    // if there is no specified event OR if the specified event
-                    // is allowed
-                    if ((userId.getUserEvents() == null) ||
-                        userId.getUserEvents().contains(notification.getEventType())) {
-                        // if this userId have the myEventOnly=false or
-                        // (myEventOnly=true and it is its event)
-                        if (!userId.isMyEventsOnly() ||
-                            (userId.isMyEventsOnly() && userId.getUsername().equals(owner))) {
-                            listeningUserId.getListener().addEvent(eventMethods.get(JOB_STATE_UPDATED_EVENT_METHOD),
-                                                                   notification);
-                        }
-                    }
-                }
-            }
+            dispatch(JOB_STATE_UPDATED_EVENT_METHOD, notification.getEventType(), owner, notification, null);
             clearListeners();
         } catch (SecurityException e) {
             logger.error("", e);
@@ -1100,25 +1104,7 @@ class SchedulerFrontendState implements SchedulerStateUpdate {
             if (logger.isDebugEnabled()) {
                 jlogger.debug(job.getJobInfo().getJobId(), " event [" + SchedulerEvent.JOB_UPDATED + "]");
             }
-            for (ListeningUser listeningUserId : identifications.values()) {
-                // if this user has a listener
-                if (listeningUserId.isListening()) {
-                    UserIdentificationImpl userId = listeningUserId.getUser();
-                    // if there is no specified event OR if the specified
-                    // event is allowed
-                    if ((userId.getUserEvents() == null) ||
-                        userId.getUserEvents().contains(SchedulerEvent.JOB_UPDATED)) {
-                        // if this userId have the myEventOnly=false or
-                        // (myEventOnly=true and it is its event)
-                        if (!userId.isMyEventsOnly() ||
-                            (userId.isMyEventsOnly() && userId.getUsername().equals(job.getOwner()))) {
-                            listeningUserId.getListener().addEvent(eventMethods.get(JOB_UPDATED_FULL_DATA_EVENT_METHOD),
-                                                                   job);
-                        }
-                    }
-
-                }
-            }
+            dispatch(JOB_UPDATED_FULL_DATA_EVENT_METHOD, SchedulerEvent.JOB_UPDATED, job.getOwner(), job, null);
             clearListeners();
         } catch (SecurityException e) {
             logger.error("", e);
@@ -1138,24 +1124,12 @@ class SchedulerFrontendState implements SchedulerStateUpdate {
             if (logger.isDebugEnabled()) {
                 tlogger.debug(notification.getData().getTaskId(), "event [" + notification.getEventType() + "]");
             }
-            for (ListeningUser listeningUserId : identifications.values()) {
-                // if this user has a listener
-                if (listeningUserId.isListening()) {
-                    UserIdentificationImpl userId = listeningUserId.getUser();
-                    // if there is no specified event OR if the specified event
-                    // is allowed
-                    if ((userId.getUserEvents() == null) ||
-                        userId.getUserEvents().contains(notification.getEventType())) {
-                        // if this userId have the myEventOnly=false or
-                        // (myEventOnly=true and it is its event)
-                        if (!userId.isMyEventsOnly() ||
-                            (userId.isMyEventsOnly() && userId.getUsername().equals(owner))) {
-                            listeningUserId.getListener().addEvent(eventMethods.get(TASK_STATE_UPDATED_EVENT_METHOD),
-                                                                   notification);
-                        }
-                    }
-                }
-            }
+            // successive updates of a same task with the same event type can be coalesced
+            dispatch(TASK_STATE_UPDATED_EVENT_METHOD,
+                     notification.getEventType(),
+                     owner,
+                     notification,
+                     notification.getData().getTaskId());
             clearListeners();
         } catch (SecurityException e) {
             logger.error("", e);
@@ -1173,25 +1147,11 @@ class SchedulerFrontendState implements SchedulerStateUpdate {
             if (logger.isDebugEnabled()) {
                 logger.debug("event [" + notification.getEventType() + "]");
             }
-            for (ListeningUser listeningUserId : identifications.values()) {
-                // if this user has a listener
-                if (listeningUserId.isListening()) {
-                    UserIdentificationImpl userId = listeningUserId.getUser();
-                    // if there is no specified event OR if the specified event
-                    // is allowed
-                    if ((userId.getUserEvents() == null) ||
-                        userId.getUserEvents().contains(notification.getEventType())) {
-                        // if this userId have the myEventOnly=false or
-                        // (myEventOnly=true and it is its event)
-                        if (!userId.isMyEventsOnly() ||
-                            (userId.isMyEventsOnly() &&
-                             userId.getUsername().equals(notification.getData().getUsername()))) {
-                            listeningUserId.getListener().addEvent(eventMethods.get(USERS_UPDATED_EVENT_METHOD),
-                                                                   notification);
-                        }
-                    }
-                }
-            }
+            dispatch(USERS_UPDATED_EVENT_METHOD,
+                     notification.getEventType(),
+                     notification.getData().getUsername(),
+                     notification,
+                     null);
             // Important condition to avoid recursive checks
             if (checkForDownUser) {
                 clearListeners();
@@ -1248,7 +1208,7 @@ class SchedulerFrontendState implements SchedulerStateUpdate {
             }
         });
         // send the event for all case, except default
-        Lambda.withLock(usersWriteLock, () -> dispatchSchedulerStateUpdated(eventType));
+        dispatchSchedulerStateUpdated(eventType);
         this.jmxHelper.getSchedulerRuntimeMBean().schedulerStateUpdatedEvent(eventType);
     }
 
@@ -1259,7 +1219,7 @@ class SchedulerFrontendState implements SchedulerStateUpdate {
             jobsMap.put(job.getId(), storedJobState);
             schedulerState.update(storedJobState);
         });
-        Lambda.withLock(usersWriteLock, () -> dispatchJobSubmitted(job));
+        dispatchJobSubmitted(job);
     }
 
     @Override
@@ -1314,13 +1274,13 @@ class SchedulerFrontendState implements SchedulerStateUpdate {
                 }
             }
         });
-        Lambda.withLock(usersWriteLock, () -> dispatchJobStateUpdated(owner, notification));
+        dispatchJobStateUpdated(owner, notification);
     }
 
     @Override
     public void jobUpdatedFullData(JobState jobstate) {
         ClientJobState storedJobState = new ClientJobState(jobstate);
-        Lambda.withLock(usersWriteLock, () -> dispatchJobUpdatedFullData(storedJobState));
+        dispatchJobUpdatedFullData(storedJobState);
     }
 
     @Override
@@ -1336,7 +1296,7 @@ class SchedulerFrontendState implements SchedulerStateUpdate {
                 case TASK_SKIPPED:
                 case TASK_REPLICATED:
                 case TASK_IN_ERROR_TO_FINISHED:
-                    Lambda.withLock(usersWriteLock, () -> dispatchTaskStateUpdated(owner, notification));
+                    dispatchTaskStateUpdated(owner, notification);
                     break;
                 case TASK_PROGRESS:
                     // this event can be sent while task is already finished,
@@ -1344,7 +1304,7 @@ class SchedulerFrontendState implements SchedulerStateUpdate {
                     // already finished.
                     // so if task is not finished, send event
                     if (notification.getData().getFinishedTime() <= 0) {
-                        Lambda.withLock(usersWriteLock, () -> dispatchTaskStateUpdated(owner, notification));
+                        dispatchTaskStateUpdated(owner, notification);
                     }
                     break;
                 default:
@@ -1358,7 +1318,7 @@ class SchedulerFrontendState implements SchedulerStateUpdate {
     public void usersUpdated(NotificationData<UserIdentification> notification) {
         switch (notification.getEventType()) {
             case USERS_UPDATE:
-                Lambda.withLock(usersWriteLock, () -> dispatchUsersUpdated(notification, true));
+                dispatchUsersUpdated(notification, true);
                 break;
             default:
                 logger.warn("**WARNING** - Unconsistent update type received from Scheduler Core : " +
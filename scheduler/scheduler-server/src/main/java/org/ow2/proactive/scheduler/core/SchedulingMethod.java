@@ -38,4 +38,9 @@ public interface SchedulingMethod {
      */
     int schedule();
 
+    /**
+     * Release the resources of the scheduling method, called when the scheduling thread stops.
+     */
+    void shutdown();
+
 }
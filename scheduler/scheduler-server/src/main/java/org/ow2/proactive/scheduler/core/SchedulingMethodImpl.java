@@ -29,11 +29,13 @@ import java.io.IOException;
 import java.io.Serializable;
 import java.security.PrivateKey;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
@@ -54,15 +56,16 @@ import org.ow2.proactive.resourcemanager.frontend.topology.TopologyDisabledExcep
 import org.ow2.proactive.scheduler.common.JobDescriptor;
 import org.ow2.proactive.scheduler.common.SchedulerConstants;
 import org.ow2.proactive.scheduler.common.TaskDescriptor;
+import org.ow2.proactive.scheduler.common.TaskResultsProvider;
 import org.ow2.proactive.scheduler.common.TaskTerminateNotification;
 import org.ow2.proactive.scheduler.common.job.JobId;
 import org.ow2.proactive.scheduler.common.job.JobType;
 import org.ow2.proactive.scheduler.common.task.TaskStatus;
 import org.ow2.proactive.scheduler.common.util.VariableSubstitutor;
 import org.ow2.proactive.scheduler.core.db.SchedulerDBManager;
-import org.ow2.proactive.scheduler.core.helpers.VariableBatchSizeIterator;
 import org.ow2.proactive.scheduler.core.properties.PASchedulerProperties;
 import org.ow2.proactive.scheduler.core.rmproxies.RMProxiesManager;
+import org.ow2.proactive.scheduler.core.rmproxies.RMProxy;
 import org.ow2.proactive.scheduler.core.rmproxies.RMProxyCreationException;
 import org.ow2.proactive.scheduler.descriptor.EligibleTaskDescriptor;
 import org.ow2.proactive.scheduler.descriptor.EligibleTaskDescriptorImpl;
@@ -77,6 +80,7 @@ import org.ow2.proactive.scheduler.task.internal.InternalTask;
 import org.ow2.proactive.scheduler.task.internal.TaskRecoveryData;
 import org.ow2.proactive.scheduler.util.JobLogger;
 import org.ow2.proactive.scheduler.util.SchedulingMainLoopTimingLogger;
+import org.ow2.proactive.scheduler.util.SchedulingMetrics;
 import org.ow2.proactive.scheduler.util.TaskLogger;
 import org.ow2.proactive.scripting.InvalidScriptException;
 import org.ow2.proactive.scripting.SelectionScript;
@@ -84,8 +88,10 @@ import org.ow2.proactive.threading.TimeoutThreadPoolExecutor;
 import org.ow2.proactive.topology.descriptor.TopologyDescriptor;
 import org.ow2.proactive.utils.Criteria;
 import org.ow2.proactive.utils.NodeSet;
+import org.ow2.proactive.utils.TaskIdWrapper;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Iterators;
 
 
 /**
@@ -106,9 +112,6 @@ public final class SchedulingMethodImpl implements SchedulingMethod {
     /** Number of time to retry an active object creation if it fails to create */
     protected static final int ACTIVEOBJECT_CREATION_RETRY_TIME_NUMBER = 3;
 
-    /** Maximum blocking time for the do task action */
-    protected int dotaskActionTimeout;
-
     protected int activeObjectCreationRetryTimeNumber;
 
     protected final SchedulingService schedulingService;
@@ -119,10 +122,33 @@ public final class SchedulingMethodImpl implements SchedulingMethod {
 
     private TaskTerminateNotification terminateNotification;
 
+    /** Gives the parent task results to the nodes, null if the results are not sent by reference */
+    private TaskResultsProvider taskResultsProvider;
+
+    private TaskResultsGrants taskResultsGrants;
+
     private CheckEligibleTaskDescriptorScript checkEligibleTaskDescriptorScript;
 
     private SchedulingMainLoopTimingLogger schedulingMainLoopTimingLogger;
 
+    private final SchedulingMetrics schedulingMetrics = SchedulingMetrics.getInstance();
+
+    /** If true, only the jobs of the ready-queue are processed and cycles without any change are skipped */
+    private final boolean incrementalScheduling = PASchedulerProperties.SCHEDULER_INCREMENTAL_SCHEDULING.getValueAsBoolean();
+
+    private final long incrementalFullScanPeriod = PASchedulerProperties.SCHEDULER_INCREMENTAL_SCHEDULING_FULL_SCAN_PERIOD.getValueAsInt();
+
+    /** Scheduling state version observed by the last cycle which did not start any task, -1 if the next cycle must run */
+    private long lastSchedulingStateVersion = -1;
+
+    private long lastFullScanTime = 0;
+
+    /** True if the last cycle stopped reading the ordered tasks because another thread held one of the jobs */
+    private boolean tasksLeftUnread = false;
+
+    /** Launch stage creating the task launchers outside of the scheduling thread, null if disabled */
+    private TaskLaunchPipeline launchPipeline;
+
     public SchedulingMethodImpl(SchedulingService schedulingService) throws Exception {
         this.schedulingService = schedulingService;
         this.checkEligibleTaskDescriptorScript = new CheckEligibleTaskDescriptorScript();
@@ -133,12 +159,45 @@ public final class SchedulingMethodImpl implements SchedulingMethod {
         terminateNotification = PAActiveObject.turnActive(terminateNotification,
                                                           TaskTerminateNotification.class.getName(),
                                                           terminateNotificationNode);
+        if (schedulingService.isTaskResultsByReference()) {
+            taskResultsGrants = new TaskResultsGrants();
+            taskResultsProvider = PAActiveObject.turnActive(new TaskResultsService(schedulingService,
+                                                                                   taskResultsGrants),
+                                                            TaskResultsProvider.class.getName(),
+                                                            terminateNotificationNode);
+        }
 
         this.threadPool = TimeoutThreadPoolExecutor.newFixedThreadPool(PASchedulerProperties.SCHEDULER_STARTTASK_THREADNUMBER.getValueAsInt(),
                                                                        new NamedThreadFactory("DoTask_Action"));
+        if (PASchedulerProperties.SCHEDULER_STARTTASK_PIPELINE.getValueAsBoolean()) {
+            this.launchPipeline = new TaskLaunchPipeline(PASchedulerProperties.SCHEDULER_STARTTASK_PIPELINE_THREADNUMBER.getValueAsInt(),
+                                                         PASchedulerProperties.SCHEDULER_STARTTASK_PIPELINE_QUEUESIZE.getValueAsInt(),
+                                                         new ReservedTaskLauncher());
+        }
+        registerGauges();
         this.corePrivateKey = Credentials.getPrivateKey(PASchedulerProperties.getAbsolutePath(PASchedulerProperties.SCHEDULER_AUTH_PRIVKEY_PATH.getValueAsString()));
     }
 
+    private void registerGauges() {
+        schedulingMetrics.registerGauge(SchedulingMetrics.DO_TASK_ACTION_QUEUE_SIZE_GAUGE,
+                                        () -> threadPool.getQueue().size());
+        schedulingMetrics.registerGauge(SchedulingMetrics.DO_TASK_ACTION_PENDING_TIMEOUTS_GAUGE,
+                                        threadPool::getNumberOfPendingTimeouts);
+        if (launchPipeline != null) {
+            schedulingMetrics.registerGauge(SchedulingMetrics.LAUNCH_PIPELINE_QUEUE_DEPTH_GAUGE,
+                                            launchPipeline::getQueueDepth);
+            schedulingMetrics.registerGauge(SchedulingMetrics.LAUNCH_PIPELINE_LAUNCHING_TASKS_GAUGE,
+                                            launchPipeline::getLaunchingTasksNumber);
+        }
+    }
+
+    @Override
+    public void shutdown() {
+        if (launchPipeline != null) {
+            launchPipeline.shutdown();
+        }
+    }
+
     RMProxiesManager getRMProxiesManager() {
         return schedulingService.getInfrastructure().getRMProxiesManager();
     }
@@ -162,6 +221,9 @@ public final class SchedulingMethodImpl implements SchedulingMethod {
      * 		</ul>
      * 	<li>Manage exception while deploying tasks on nodes
      * </ul>
+     * When incremental scheduling is enabled, only the jobs of the ready-queue are selected (except for periodic
+     * full scans), and the cycle is skipped if no scheduling event occurred since the last cycle which did not
+     * start any task.
      *
      * @return the number of tasks that have been started
      */
@@ -174,24 +236,54 @@ public final class SchedulingMethodImpl implements SchedulingMethod {
         //Number of time to retry an active object creation before leaving scheduling loop
         activeObjectCreationRetryTimeNumber = ACTIVEOBJECT_CREATION_RETRY_TIME_NUMBER;
 
+        boolean fullScan = true;
+        // read the version before locking the jobs, so that events received during this cycle trigger the next one
+        long schedulingStateVersion = schedulingService.getSchedulingStateVersion();
+        if (incrementalScheduling) {
+            long now = System.currentTimeMillis();
+            fullScan = now - lastFullScanTime >= incrementalFullScanPeriod;
+            if (!fullScan && schedulingStateVersion == lastSchedulingStateVersion) {
+                // nothing happened since the last cycle which could not start any task
+                return 0;
+            }
+            if (fullScan) {
+                lastFullScanTime = now;
+            }
+        }
+        lastSchedulingStateVersion = -1;
+
+        schedulingMetrics.incrementSchedulingLoops();
+        schedulingMainLoopTimingLogger.start(SchedulingMetrics.SCHEDULING_LOOP_STAGE);
+
         //get job Descriptor list with eligible jobs (running and pending)
-        Map<JobId, JobDescriptor> jobMap = schedulingService.lockJobsToSchedule();
+        Map<JobId, JobDescriptor> jobMap = fullScan ? schedulingService.lockJobsToSchedule()
+                                                    : schedulingService.lockReadyJobsToSchedule();
 
         Map<JobId, JobDescriptor> toUnlock = jobMap;
 
         logSelectedJobs(jobMap);
 
-        // If there are some jobs which could not be locked it is not possible to do any priority scheduling decision,
-        // we wait for next scheduling loop and don't start any task
+        // The jobs which could not be locked are scheduled in the next loop, as well as the jobs of lower priority,
+        // if there is no job left we don't start any task
         if (jobMap.isEmpty()) {
             updateNeededNodes();
+            schedulingMainLoopTimingLogger.end(SchedulingMetrics.SCHEDULING_LOOP_STAGE);
             return 0;
         }
 
+        tasksLeftUnread = false;
         int tasksStarted = startTasks(currentPolicy, jobMap, toUnlock);
 
+        schedulingMainLoopTimingLogger.end(SchedulingMetrics.SCHEDULING_LOOP_STAGE);
+        schedulingMetrics.addTasksStarted(tasksStarted);
+
         if (tasksStarted > 0) {
             schedulingMainLoopTimingLogger.printTimingsINFOLevel();
+            if (launchPipeline != null) {
+                logger.info("TaskLaunchPipeline::" + launchPipeline.getMetricsSummary());
+            }
+        } else if (!tasksLeftUnread) {
+            lastSchedulingStateVersion = schedulingStateVersion;
         }
 
         return tasksStarted;
@@ -202,9 +294,10 @@ public final class SchedulingMethodImpl implements SchedulingMethod {
     }
 
     private void updateNeededNodes(Collection<? extends TaskDescriptor> eligibleByPolicyTasks) {
-        // Needed nodes
-        final int neededNodes = eligibleByPolicyTasks.stream().mapToInt(TaskDescriptor::getNumberOfNodesNeeded).sum();
+        updateNeededNodes(getNeededNodesOfTasks(eligibleByPolicyTasks));
+    }
 
+    private void updateNeededNodes(int neededNodes) {
         // for statistics used in RM portal
         getRMProxiesManager().getRmProxy().setNeededNodes(neededNodes);
 
@@ -213,42 +306,79 @@ public final class SchedulingMethodImpl implements SchedulingMethod {
 
     }
 
+    private static int getNeededNodesOfTasks(Collection<? extends TaskDescriptor> tasks) {
+        return tasks.stream().mapToInt(TaskDescriptor::getNumberOfNodesNeeded).sum();
+    }
+
+    /**
+     * @return the number of nodes needed by the eligible tasks of the given jobs, which must be locked
+     */
+    private static int getNeededNodes(List<JobDescriptor> jobs) {
+        int neededNodes = 0;
+        for (JobDescriptor job : jobs) {
+            neededNodes += getNeededNodesOfTasks(job.getEligibleTasks());
+        }
+        return neededNodes;
+    }
+
     private int startTasks(Policy currentPolicy, Map<JobId, JobDescriptor> jobMap, Map<JobId, JobDescriptor> toUnlock) {
         try {
             List<JobDescriptor> descriptors = new ArrayList<>(jobMap.values());
 
-            schedulingMainLoopTimingLogger.start("getFreeResources");
+            schedulingMainLoopTimingLogger.start(SchedulingMetrics.GET_FREE_RESOURCES_STAGE);
             //get rmState and update it in scheduling policy
             Set<String> freeResources = getFreeResources(currentPolicy);
 
-            schedulingMainLoopTimingLogger.end("getFreeResources");
-
-            schedulingMainLoopTimingLogger.start("getOrderedTasks");
-            // ask the policy all the tasks to be schedule according to the jobs list.
-            LinkedList<EligibleTaskDescriptor> fullListOfTaskRetrievedFromPolicy = currentPolicy.getOrderedTasks(descriptors);
+            schedulingMainLoopTimingLogger.end(SchedulingMetrics.GET_FREE_RESOURCES_STAGE);
 
-            setPendingStatusesToAllEligibleTasks(fullListOfTaskRetrievedFromPolicy);
+            // nodes needed by the eligible tasks of the locked jobs, read while the jobs are locked
+            int eligibleNeededNodes = getNeededNodes(descriptors);
 
             //if there is no free resources, stop it right now without starting any task
             if (freeResources.isEmpty()) {
-
-                updateNeededNodes(fullListOfTaskRetrievedFromPolicy);
+                updateNeededNodes(eligibleNeededNodes);
                 return 0;
             }
 
-            schedulingMainLoopTimingLogger.end("getOrderedTasks");
+            schedulingMainLoopTimingLogger.start(SchedulingMetrics.GET_ORDERED_TASKS_STAGE);
+            // ask the policy all the tasks to be schedule according to the jobs list.
+            // the policy keeps its jobs index between two loops, so the tasks are not sorted again
+            Iterator<EligibleTaskDescriptor> orderedTasksIterator = currentPolicy.getOrderedTasksIterator(descriptors);
+            if (launchPipeline != null) {
+                // tasks already submitted to the launch pipeline have their nodes
+                orderedTasksIterator = Iterators.filter(orderedTasksIterator,
+                                                        task -> !launchPipeline.isLaunching(task.getTaskId()));
+            }
+            // the tasks are read lazily, and their status is changed, while the jobs are locked
+            OrderedTasksReader orderedTasks = new OrderedTasksReader(orderedTasksIterator,
+                                                                     this::setPendingStatuses,
+                                                                     getJobsLock(descriptors));
+            List<EligibleTaskDescriptor> firstTasks = orderedTasks.nextBatch(freeResources.size());
+
+            schedulingMainLoopTimingLogger.end(SchedulingMetrics.GET_ORDERED_TASKS_STAGE);
 
             //if there is no task to scheduled, return without starting any task
-            if (fullListOfTaskRetrievedFromPolicy == null || fullListOfTaskRetrievedFromPolicy.isEmpty()) {
-                updateNeededNodes();
+            if (firstTasks.isEmpty()) {
+                updateNeededNodes(eligibleNeededNodes);
                 return 0;
             }
 
-            schedulingMainLoopTimingLogger.start("unlockResources");
+            schedulingMainLoopTimingLogger.start(SchedulingMetrics.UNLOCK_RESOURCES_STAGE);
             toUnlock = unlockResources(toUnlock);
-            schedulingMainLoopTimingLogger.end("unlockResources");
-
-            return getNumberOfTaskStarted(currentPolicy, jobMap, freeResources, fullListOfTaskRetrievedFromPolicy);
+            orderedTasks.jobsUnlocked();
+            schedulingMainLoopTimingLogger.end(SchedulingMetrics.UNLOCK_RESOURCES_STAGE);
+
+            int tasksStarted = selectAndStartTasks(currentPolicy,
+                                                   jobMap,
+                                                   freeResources,
+                                                   firstTasks,
+                                                   orderedTasks,
+                                                   eligibleNeededNodes);
+            if (orderedTasks.isStopped()) {
+                // the tasks left unread must be read by the next loop
+                tasksLeftUnread = true;
+            }
+            return tasksStarted;
         } finally {
             if (toUnlock != null) {
                 schedulingService.unlockJobsToSchedule(toUnlock.values());
@@ -256,7 +386,21 @@ public final class SchedulingMethodImpl implements SchedulingMethod {
         }
     }
 
-    private void setPendingStatusesToAllEligibleTasks(List<EligibleTaskDescriptor> eligibleTasks) {
+    private OrderedTasksReader.JobsLock getJobsLock(List<JobDescriptor> descriptors) {
+        return new OrderedTasksReader.JobsLock() {
+            @Override
+            public boolean tryLock() {
+                return schedulingService.tryLockJobsToSchedule(descriptors);
+            }
+
+            @Override
+            public void unlock() {
+                schedulingService.unlockJobsToSchedule(descriptors);
+            }
+        };
+    }
+
+    private void setPendingStatuses(List<EligibleTaskDescriptor> eligibleTasks) {
         List<EligibleTaskDescriptorImpl> notPendingYet = eligibleTasks.stream()
                                                                       .map(task -> (EligibleTaskDescriptorImpl) task)
                                                                       .filter(task -> !task.getInternal()
@@ -279,12 +423,6 @@ public final class SchedulingMethodImpl implements SchedulingMethod {
 
     }
 
-    private int getNumberOfTaskStarted(Policy currentPolicy, Map<JobId, JobDescriptor> jobMap,
-            Set<String> freeResources, LinkedList<EligibleTaskDescriptor> fullListOfTaskRetrievedFromPolicy) {
-        return selectAndStartTasks(currentPolicy, jobMap, freeResources, fullListOfTaskRetrievedFromPolicy);
-
-    }
-
     private Map<JobId, JobDescriptor> unlockResources(Map<JobId, JobDescriptor> toUnlock) {
         schedulingService.unlockJobsToSchedule(toUnlock.values());
         toUnlock = null;
@@ -310,42 +448,51 @@ public final class SchedulingMethodImpl implements SchedulingMethod {
         }
     }
 
+    /**
+     * Start the tasks read from the policy, batch by batch, until there is no free resource or no task left.
+     *
+     * @param firstTasks first batch of tasks, read while the jobs were locked
+     * @param orderedTasks reader of the next batches
+     * @param eligibleNeededNodes number of nodes needed by all the eligible tasks, read or not
+     * @return the number of tasks started
+     */
     private int selectAndStartTasks(Policy currentPolicy, Map<JobId, JobDescriptor> jobMap, Set<String> freeResources,
-            LinkedList<EligibleTaskDescriptor> fullListOfTaskRetrievedFromPolicy) {
+            List<EligibleTaskDescriptor> firstTasks, OrderedTasksReader orderedTasks, int eligibleNeededNodes) {
         int numberOfTaskStarted = 0;
 
-        VariableBatchSizeIterator progressiveIterator = new VariableBatchSizeIterator(fullListOfTaskRetrievedFromPolicy);
+        // tasks retrieved from the policy which are not started yet
+        Set<EligibleTaskDescriptor> rest = new HashSet<>();
+
+        // nodes needed by the tasks retrieved from the policy
+        int retrievedNeededNodes = 0;
+
+        // tasks whose executable container has been loaded by this scheduling loop
+        Set<TaskIdWrapper> loadedTasks = new HashSet<>();
+
+        List<EligibleTaskDescriptor> nextTasks = firstTasks;
 
-        Set<EligibleTaskDescriptor> rest = new HashSet<>(fullListOfTaskRetrievedFromPolicy);
+        while (!nextTasks.isEmpty()) {
 
-        while (progressiveIterator.hasMoreElements() && !freeResources.isEmpty()) {
+            LinkedList<EligibleTaskDescriptor> taskRetrievedFromPolicy = new LinkedList<>(nextTasks);
 
-            LinkedList<EligibleTaskDescriptor> taskRetrievedFromPolicy = new LinkedList<>(progressiveIterator.getNextElements(freeResources.size()));
+            rest.addAll(taskRetrievedFromPolicy);
+            retrievedNeededNodes += getNeededNodesOfTasks(taskRetrievedFromPolicy);
 
             if (logger.isDebugEnabled()) {
-                loggingEligibleTasksDetails(fullListOfTaskRetrievedFromPolicy, taskRetrievedFromPolicy);
+                loggingEligibleTasksDetails(rest.size() + numberOfTaskStarted, taskRetrievedFromPolicy);
             }
 
-            schedulingMainLoopTimingLogger.start("updateVariablesForTasksToSchedule");
+            schedulingMainLoopTimingLogger.start(SchedulingMetrics.UPDATE_VARIABLES_FOR_TASKS_TO_SCHEDULE_STAGE);
 
             updateVariablesForTasksToSchedule(taskRetrievedFromPolicy);
 
-            schedulingMainLoopTimingLogger.end("updateVariablesForTasksToSchedule");
+            schedulingMainLoopTimingLogger.end(SchedulingMetrics.UPDATE_VARIABLES_FOR_TASKS_TO_SCHEDULE_STAGE);
 
-            schedulingMainLoopTimingLogger.start("loadAndInit");
+            schedulingMainLoopTimingLogger.start(SchedulingMetrics.LOAD_AND_INIT_STAGE);
 
-            for (Iterator<EligibleTaskDescriptor> iterator = taskRetrievedFromPolicy.iterator(); iterator.hasNext();) {
-                EligibleTaskDescriptorImpl taskDescriptor = (EligibleTaskDescriptorImpl) iterator.next();
-                // load and Initialize the executable container
-                InternalTask internalTask = taskDescriptor.getInternal();
-                try {
-                    loadAndInit(internalTask);
-                } catch (Exception e) {
-                    handleLoadExecutableContainerError(internalTask, iterator, e);
-                }
-            }
+            loadAndInit(taskRetrievedFromPolicy, loadedTasks);
 
-            schedulingMainLoopTimingLogger.end("loadAndInit");
+            schedulingMainLoopTimingLogger.end(SchedulingMetrics.LOAD_AND_INIT_STAGE);
 
             while (!taskRetrievedFromPolicy.isEmpty()) {
 
@@ -353,98 +500,106 @@ public final class SchedulingMethodImpl implements SchedulingMethod {
                     break;
                 }
 
-                //get the next compatible tasks from the whole returned policy tasks
-                LinkedList<EligibleTaskDescriptor> tasksToSchedule = new LinkedList<>();
-                int neededResourcesNumber = 0;
+                //get the next groups of compatible tasks from the whole returned policy tasks
+                schedulingMainLoopTimingLogger.start(SchedulingMetrics.GET_NEXTCOMPATIBLE_TASKS_STAGE);
 
-                schedulingMainLoopTimingLogger.start("getNextcompatibleTasks");
+                List<CompatibleTasks> groupsToSchedule = getNextCompatibleTasksGroups(jobMap,
+                                                                                      taskRetrievedFromPolicy,
+                                                                                      freeResources.size());
 
-                while (!taskRetrievedFromPolicy.isEmpty() && neededResourcesNumber == 0) {
-                    //the loop will search for next compatible task until it find something
-                    neededResourcesNumber = getNextcompatibleTasks(jobMap,
-                                                                   taskRetrievedFromPolicy,
-                                                                   freeResources.size(),
-                                                                   tasksToSchedule);
-                }
-
-                schedulingMainLoopTimingLogger.end("getNextcompatibleTasks");
-
-                if (logger.isDebugEnabled()) {
-                    logger.debug("tasksToSchedule : " + tasksToSchedule);
-                }
+                schedulingMainLoopTimingLogger.end(SchedulingMetrics.GET_NEXTCOMPATIBLE_TASKS_STAGE);
 
-                logger.debug("required number of nodes : " + neededResourcesNumber);
-                if (neededResourcesNumber == 0 || tasksToSchedule.isEmpty()) {
+                if (groupsToSchedule.isEmpty()) {
                     break;
                 }
 
-                schedulingMainLoopTimingLogger.start("getRMNodes");
-                NodeSet nodeSet = getRMNodes(jobMap, neededResourcesNumber, tasksToSchedule, freeResources);
-                schedulingMainLoopTimingLogger.end("getRMNodes");
-
-                if (nodeSet != null) {
-                    freeResources.removeAll(nodeSet.getAllNodesUrls());
-                }
-
-                //start selected tasks
-                Node node = null;
-                InternalJob currentJob = null;
-                try {
-                    while (nodeSet != null && !nodeSet.isEmpty()) {
-                        EligibleTaskDescriptor taskDescriptor = tasksToSchedule.removeFirst();
-                        currentJob = ((JobDescriptorImpl) jobMap.get(taskDescriptor.getJobId())).getInternal();
-                        InternalTask internalTask = ((EligibleTaskDescriptorImpl) taskDescriptor).getInternal();
+                schedulingMainLoopTimingLogger.start(SchedulingMetrics.GET_RMNODES_STAGE);
+                List<NodeSet> nodeSets = getRMNodes(jobMap, groupsToSchedule, freeResources);
+                schedulingMainLoopTimingLogger.end(SchedulingMetrics.GET_RMNODES_STAGE);
+
+                for (int i = 0; i < groupsToSchedule.size(); i++) {
+                    LinkedList<EligibleTaskDescriptor> tasksToSchedule = groupsToSchedule.get(i).tasks;
+                    NodeSet nodeSet = nodeSets.get(i);
+                    if (activeObjectCreationRetryTimeNumber == 0) {
+                        // give back the nodes obtained for the groups which will not be started
+                        releaseUnusedNodes(jobMap, tasksToSchedule, nodeSet);
+                        continue;
+                    }
 
-                        if (currentPolicy.isTaskExecutable(nodeSet, taskDescriptor)) {
-                            //create launcher and try to start the task
-                            node = nodeSet.get(0);
+                    if (nodeSet != null) {
+                        freeResources.removeAll(nodeSet.getAllNodesUrls());
+                    }
 
-                            schedulingMainLoopTimingLogger.start("createExecution");
+                    //start selected tasks
+                    Node node = null;
+                    InternalJob currentJob = null;
+                    try {
+                        while (nodeSet != null && !nodeSet.isEmpty()) {
+                            EligibleTaskDescriptor taskDescriptor = tasksToSchedule.removeFirst();
+                            currentJob = ((JobDescriptorImpl) jobMap.get(taskDescriptor.getJobId())).getInternal();
+                            InternalTask internalTask = ((EligibleTaskDescriptorImpl) taskDescriptor).getInternal();
+
+                            if (currentPolicy.isTaskExecutable(nodeSet, taskDescriptor)) {
+                                //create launcher and try to start the task
+                                node = nodeSet.get(0);
+
+                                if (launchPipeline != null) {
+                                    schedulingMainLoopTimingLogger.start(SchedulingMetrics.RESERVE_EXECUTION_STAGE);
+                                    if (reserveExecution(nodeSet, currentJob, internalTask, taskDescriptor)) {
+                                        rest.remove(taskDescriptor);
+                                        numberOfTaskStarted++;
+                                    }
+                                    schedulingMainLoopTimingLogger.end(SchedulingMetrics.RESERVE_EXECUTION_STAGE);
+                                } else {
+                                    schedulingMainLoopTimingLogger.start(SchedulingMetrics.CREATE_EXECUTION_STAGE);
+
+                                    if (createExecution(nodeSet, node, currentJob, internalTask, taskDescriptor)) {
+                                        rest.remove(taskDescriptor);
+                                        numberOfTaskStarted++;
+                                    }
+                                    schedulingMainLoopTimingLogger.end(SchedulingMetrics.CREATE_EXECUTION_STAGE);
+                                }
 
-                            if (createExecution(nodeSet, node, currentJob, internalTask, taskDescriptor)) {
-                                rest.remove(taskDescriptor);
-                                numberOfTaskStarted++;
                             }
-                            schedulingMainLoopTimingLogger.end("createExecution");
 
-                        }
-
-                        //if every task that should be launched have been removed
-                        if (tasksToSchedule.isEmpty()) {
-                            //get back unused nodes to the RManager
-                            if (!nodeSet.isEmpty()) {
-                                schedulingMainLoopTimingLogger.start("releaseNodes");
-                                releaseNodes(currentJob, nodeSet);
-                                freeResources.addAll(nodeSet.getAllNodesUrls());
-                                schedulingMainLoopTimingLogger.end("releaseNodes");
+                            //if every task that should be launched have been removed
+                            if (tasksToSchedule.isEmpty()) {
+                                //get back unused nodes to the RManager
+                                if (!nodeSet.isEmpty()) {
+                                    schedulingMainLoopTimingLogger.start(SchedulingMetrics.RELEASE_NODES_STAGE);
+                                    releaseNodes(currentJob, nodeSet);
+                                    freeResources.addAll(nodeSet.getAllNodesUrls());
+                                    schedulingMainLoopTimingLogger.end(SchedulingMetrics.RELEASE_NODES_STAGE);
+                                }
+                                //and leave the loop
+                                break;
                             }
-                            //and leave the loop
-                            break;
+                        }
+                    } catch (ActiveObjectCreationException e1) {
+                        //Something goes wrong with the active object creation (createLauncher)
+                        logger.warn("An exception occured while creating the task launcher.", e1);
+                        //so try to get back every remaining nodes to the resource manager
+                        try {
+                            releaseNodes(currentJob, nodeSet);
+                            freeResources.addAll(nodeSet.getAllNodesUrls());
+                        } catch (Exception e2) {
+                            logger.info("Unable to get back the nodeSet to the RM", e2);
+                        }
+                        --activeObjectCreationRetryTimeNumber;
+                    } catch (Exception e1) {
+                        //if we are here, it is that something append while launching the current task.
+                        logger.warn("An exception occured while starting task.", e1);
+                        //so try to get back every remaining nodes to the resource manager
+                        try {
+                            releaseNodes(currentJob, nodeSet);
+                            freeResources.addAll(nodeSet.getAllNodesUrls());
+                        } catch (Exception e2) {
+                            logger.info("Unable to get back the nodeSet to the RM", e2);
                         }
                     }
-                } catch (ActiveObjectCreationException e1) {
-                    //Something goes wrong with the active object creation (createLauncher)
-                    logger.warn("An exception occured while creating the task launcher.", e1);
-                    //so try to get back every remaining nodes to the resource manager
-                    try {
-                        releaseNodes(currentJob, nodeSet);
-                        freeResources.addAll(nodeSet.getAllNodesUrls());
-                    } catch (Exception e2) {
-                        logger.info("Unable to get back the nodeSet to the RM", e2);
-                    }
-                    if (--activeObjectCreationRetryTimeNumber == 0) {
-                        break;
-                    }
-                } catch (Exception e1) {
-                    //if we are here, it is that something append while launching the current task.
-                    logger.warn("An exception occured while starting task.", e1);
-                    //so try to get back every remaining nodes to the resource manager
-                    try {
-                        releaseNodes(currentJob, nodeSet);
-                        freeResources.addAll(nodeSet.getAllNodesUrls());
-                    } catch (Exception e2) {
-                        logger.info("Unable to get back the nodeSet to the RM", e2);
-                    }
+                }
+                if (activeObjectCreationRetryTimeNumber == 0) {
+                    break;
                 }
             }
             if (freeResources.isEmpty()) {
@@ -453,23 +608,92 @@ public final class SchedulingMethodImpl implements SchedulingMethod {
             if (activeObjectCreationRetryTimeNumber == 0) {
                 break;
             }
+            nextTasks = orderedTasks.nextBatch(freeResources.size());
+        }
+
+        // the containers of the tasks which are not started go back to the cache
+        for (EligibleTaskDescriptor taskDescriptor : rest) {
+            InternalTask internalTask = ((EligibleTaskDescriptorImpl) taskDescriptor).getInternal();
+            if (loadedTasks.contains(TaskIdWrapper.wrap(internalTask.getId()))) {
+                getDBManager().releaseExecutableContainer(internalTask);
+            }
         }
 
-        // number of nodes needed to start all pending tasks
-        updateNeededNodes(rest);
+        // number of nodes needed to start all pending tasks, the tasks not reached by this scheduling loop included
+        updateNeededNodes(eligibleNeededNodes - retrievedNeededNodes + getNeededNodesOfTasks(rest));
+        schedulingMetrics.addTasksSkipped(rest.size());
 
         return numberOfTaskStarted;
     }
 
-    private void loggingEligibleTasksDetails(LinkedList<EligibleTaskDescriptor> fullListOfTaskRetrievedFromPolicy,
+    private void loggingEligibleTasksDetails(int numberOfTasksRetrievedFromPolicy,
             LinkedList<EligibleTaskDescriptor> taskRetrievedFromPolicy) {
-        logger.debug("full list of eligible tasks: " +
-                     (fullListOfTaskRetrievedFromPolicy.size() < 5 ? fullListOfTaskRetrievedFromPolicy
-                                                                   : fullListOfTaskRetrievedFromPolicy.size()));
+        logger.debug("number of eligible tasks retrieved from policy: " + numberOfTasksRetrievedFromPolicy);
         logger.debug("working list of eligible tasks: " +
                      (taskRetrievedFromPolicy.size() < 5 ? taskRetrievedFromPolicy : taskRetrievedFromPolicy.size()));
     }
 
+    /**
+     * Extract successive groups of compatible tasks from the given list, until the given number of resources
+     * is reached or no more compatible tasks can be found.
+     *
+     * @see #getNextcompatibleTasks(Map, LinkedList, int, LinkedList)
+     */
+    private List<CompatibleTasks> getNextCompatibleTasksGroups(Map<JobId, JobDescriptor> jobMap,
+            LinkedList<EligibleTaskDescriptor> bagOfTasks, int maxResource) {
+        List<CompatibleTasks> groups = new ArrayList<>();
+        int remainingResources = maxResource;
+        while (!bagOfTasks.isEmpty() && remainingResources > 0) {
+            LinkedList<EligibleTaskDescriptor> tasksToSchedule = new LinkedList<>();
+            int neededResourcesNumber = 0;
+            while (!bagOfTasks.isEmpty() && neededResourcesNumber == 0) {
+                //the loop will search for next compatible task until it find something
+                neededResourcesNumber = getNextcompatibleTasks(jobMap,
+                                                               bagOfTasks,
+                                                               remainingResources,
+                                                               tasksToSchedule);
+            }
+
+            if (logger.isDebugEnabled()) {
+                logger.debug("tasksToSchedule : " + tasksToSchedule);
+            }
+
+            logger.debug("required number of nodes : " + neededResourcesNumber);
+            if (neededResourcesNumber == 0 || tasksToSchedule.isEmpty()) {
+                break;
+            }
+            groups.add(new CompatibleTasks(tasksToSchedule, neededResourcesNumber));
+            remainingResources -= neededResourcesNumber;
+        }
+        return groups;
+    }
+
+    private void releaseUnusedNodes(Map<JobId, JobDescriptor> jobMap, LinkedList<EligibleTaskDescriptor> tasks,
+            NodeSet nodeSet) {
+        if (nodeSet != null && !nodeSet.isEmpty()) {
+            try {
+                releaseNodes(((JobDescriptorImpl) jobMap.get(tasks.getFirst().getJobId())).getInternal(), nodeSet);
+            } catch (Exception e) {
+                logger.info("Unable to get back the nodeSet to the RM", e);
+            }
+        }
+    }
+
+    /**
+     * Group of compatible tasks, which can be started on nodes obtained with the same criteria
+     */
+    static final class CompatibleTasks {
+
+        final LinkedList<EligibleTaskDescriptor> tasks;
+
+        final int neededResourcesNumber;
+
+        CompatibleTasks(LinkedList<EligibleTaskDescriptor> tasks, int neededResourcesNumber) {
+            this.tasks = tasks;
+            this.neededResourcesNumber = neededResourcesNumber;
+        }
+    }
+
     /**
      * Extract the n first compatible tasks from the first argument list,
      * and return them according that the extraction is stopped when the maxResource number is reached.<br>
@@ -547,6 +771,76 @@ public final class SchedulingMethodImpl implements SchedulingMethod {
         return neededResource;
     }
 
+    /**
+     * Ask to the RM the nodes needed by several groups of compatible tasks.<br>
+     * The criteria of the groups whose nodes are requested through the same user RM proxy are sent to the RM
+     * in a single request, and evaluated by the RM against the same set of free nodes. Groups requiring a
+     * topology are requested one by one.
+     *
+     * @param groups the groups of compatible tasks to be scheduled
+     * @return one nodeSet per group, in the same order, see {@link #getRMNodes(Map, int, LinkedList, Set)}
+     */
+    protected List<NodeSet> getRMNodes(Map<JobId, JobDescriptor> jobMap, List<CompatibleTasks> groups,
+            Set<String> freeResources) {
+        NodeSet[] nodeSets = new NodeSet[groups.size()];
+        if (groups.size() == 1) {
+            nodeSets[0] = getRMNodes(jobMap, groups.get(0).neededResourcesNumber, groups.get(0).tasks, freeResources);
+            return Arrays.asList(nodeSets);
+        }
+
+        Map<RMProxy, List<Integer>> groupsByProxy = new LinkedHashMap<>();
+        Map<RMProxy, List<Criteria>> criteriaByProxy = new HashMap<>();
+        for (int i = 0; i < groups.size(); i++) {
+            CompatibleTasks group = groups.get(i);
+            EligibleTaskDescriptor etd = group.tasks.getFirst();
+            InternalJob currentJob = ((JobDescriptorImpl) jobMap.get(etd.getJobId())).getInternal();
+            InternalTask internalTask0 = currentJob.getIHMTasks().get(etd.getTaskId());
+            if (getTopologyDescriptor(internalTask0).isTopologyBased()) {
+                nodeSets[i] = getRMNodes(jobMap, group.neededResourcesNumber, group.tasks, freeResources);
+                continue;
+            }
+            try {
+                Criteria criteria = createCriteria(jobMap,
+                                                   currentJob,
+                                                   internalTask0,
+                                                   group.neededResourcesNumber,
+                                                   group.tasks,
+                                                   freeResources);
+                RMProxy rmProxy = getRMProxiesManager().getUserRMProxy(currentJob.getOwner(),
+                                                                       currentJob.getCredentials());
+                groupsByProxy.computeIfAbsent(rmProxy, proxy -> new ArrayList<>()).add(i);
+                criteriaByProxy.computeIfAbsent(rmProxy, proxy -> new ArrayList<>()).add(criteria);
+            } catch (IOException | ClassNotFoundException | RMProxyCreationException e) {
+                handleNodesRequestFailure(e, currentJob, internalTask0, group.tasks);
+            }
+        }
+
+        for (Map.Entry<RMProxy, List<Integer>> entry : groupsByProxy.entrySet()) {
+            List<Criteria> criteriaList = criteriaByProxy.get(entry.getKey());
+            List<NodeSet> proxyNodeSets = null;
+            schedulingMainLoopTimingLogger.start(SchedulingMetrics.GET_NODE_SETS_WITH_CRITERIA_STAGE);
+            try {
+                proxyNodeSets = entry.getKey().getNodes(criteriaList);
+            } catch (RuntimeException e) {
+                // handled as a failure of a single criteria request, the nodes of the other groups are given back
+                for (int i = 0; i < nodeSets.length; i++) {
+                    releaseUnusedNodes(jobMap, groups.get(i).tasks, nodeSets[i]);
+                }
+                throw e;
+            }
+            schedulingMainLoopTimingLogger.end(SchedulingMetrics.GET_NODE_SETS_WITH_CRITERIA_STAGE);
+            List<Integer> groupIndexes = entry.getValue();
+            for (int i = 0; i < groupIndexes.size(); i++) {
+                // a null result means the client has been disconnected from the RM
+                nodeSets[groupIndexes.get(i)] = proxyNodeSets == null ? null : proxyNodeSets.get(i);
+            }
+            if (logger.isDebugEnabled()) {
+                logger.debug("provided node sets " + proxyNodeSets + " for " + criteriaList.size() + " criteria");
+            }
+        }
+        return Arrays.asList(nodeSets);
+    }
+
     /**
      * Ask to the RM the given number of node resources.<br>
      * If there is a problem with these task selection (such as bad selectionScript) this method
@@ -562,71 +856,22 @@ public final class SchedulingMethodImpl implements SchedulingMethod {
     protected NodeSet getRMNodes(Map<JobId, JobDescriptor> jobMap, int neededResourcesNumber,
             LinkedList<EligibleTaskDescriptor> tasksToSchedule, Set<String> freeResources) {
         NodeSet nodeSet;
-        if (neededResourcesNumber <= 0) {
-            throw new IllegalArgumentException("'neededResourcesNumber' must be greater than 0");
-        }
-
         EligibleTaskDescriptor etd = tasksToSchedule.getFirst();
         InternalJob currentJob = ((JobDescriptorImpl) jobMap.get(etd.getJobId())).getInternal();
         InternalTask internalTask0 = currentJob.getIHMTasks().get(etd.getTaskId());
         try {
-
-            TopologyDescriptor descriptor = null;
-            boolean bestEffort = true;
-
-            List<Map<String, String>> listUsageInfo = new LinkedList<>();
-            if (internalTask0.isParallel()) {
-                listUsageInfo.add(getUsageInfo(internalTask0));
-                descriptor = internalTask0.getParallelEnvironment().getTopologyDescriptor();
-                bestEffort = false;
-                if (descriptor == null) {
-                    logger.debug("Topology is not defined for the task " + internalTask0.getName());
-                }
-            } else {
-                for (int i = 0; i < neededResourcesNumber; ++i) {
-                    EligibleTaskDescriptor eligibleTaskDescriptor = tasksToSchedule.get(i);
-                    InternalJob internalJob = ((JobDescriptorImpl) jobMap.get(eligibleTaskDescriptor.getJobId())).getInternal();
-                    InternalTask internalTask = internalJob.getIHMTasks().get(eligibleTaskDescriptor.getTaskId());
-                    listUsageInfo.add(getUsageInfo(internalTask));
-                }
-            }
-
-            if (descriptor == null) {
-                // descriptor is not defined, use default
-                descriptor = TopologyDescriptor.ARBITRARY;
-            }
-
             try {
-                schedulingMainLoopTimingLogger.start("setCriteria");
-                Criteria criteria = new Criteria(neededResourcesNumber);
-                criteria.setListUsageInfo(listUsageInfo);
-                criteria.setTopology(descriptor);
-                // resolve script variables (if any) in the list of selection
-                // scripts and then set it as the selection criteria.
-                criteria.setScripts(resolveScriptVariables(internalTask0.getSelectionScripts(),
-                                                           internalTask0.getRuntimeVariables()));
-                criteria.setBlackList(internalTask0.getNodeExclusion());
-                criteria.setBestEffort(bestEffort);
-                criteria.setAcceptableNodesUrls(freeResources);
-                criteria.setBindings(createBindingsForSelectionScripts(currentJob, internalTask0, schedulingService));
-                if (internalTask0.getRuntimeGenericInformation().containsKey(SchedulerConstants.NODE_ACCESS_TOKEN)) {
-                    criteria.setNodeAccessToken(internalTask0.getRuntimeGenericInformation()
-                                                             .get(SchedulerConstants.NODE_ACCESS_TOKEN));
-                }
-
-                Collection<String> computationDescriptors = new ArrayList<>(tasksToSchedule.size());
-                for (EligibleTaskDescriptor task : tasksToSchedule) {
-                    computationDescriptors.add(TaskLogger.getTaskLogRelativePath(task.getTaskId()));
-                }
-
-                criteria.setComputationDescriptors(computationDescriptors);
-
-                schedulingMainLoopTimingLogger.end("setCriteria");
-
-                schedulingMainLoopTimingLogger.start("getNodeSetWithCriteria");
+                Criteria criteria = createCriteria(jobMap,
+                                                   currentJob,
+                                                   internalTask0,
+                                                   neededResourcesNumber,
+                                                   tasksToSchedule,
+                                                   freeResources);
+
+                schedulingMainLoopTimingLogger.start(SchedulingMetrics.GET_NODE_SET_WITH_CRITERIA_STAGE);
                 nodeSet = getRMProxiesManager().getUserRMProxy(currentJob.getOwner(), currentJob.getCredentials())
                                                .getNodes(criteria);
-                schedulingMainLoopTimingLogger.end("getNodeSetWithCriteria");
+                schedulingMainLoopTimingLogger.end(SchedulingMetrics.GET_NODE_SET_WITH_CRITERIA_STAGE);
             } catch (TopologyDisabledException tde) {
                 jlogger.warn(currentJob.getId(), "will be canceled as the topology is disabled");
                 schedulingService.simulateJobStartAndCancelIt(tasksToSchedule, "Topology is disabled");
@@ -634,29 +879,102 @@ public final class SchedulingMethodImpl implements SchedulingMethod {
             }
             //the following line is used to unwrap the future, warning when moving or removing
             //it may also throw a ScriptException which is a RuntimeException
-            schedulingMainLoopTimingLogger.start("waitForNodeSetWithCriteria");
+            schedulingMainLoopTimingLogger.start(SchedulingMetrics.WAIT_FOR_NODE_SET_WITH_CRITERIA_STAGE);
 
             PAFuture.waitFor(nodeSet, true);
-            schedulingMainLoopTimingLogger.end("waitForNodeSetWithCriteria");
+            schedulingMainLoopTimingLogger.end(SchedulingMetrics.WAIT_FOR_NODE_SET_WITH_CRITERIA_STAGE);
 
             logger.debug("provided nodes " + nodeSet.size());
             return nodeSet;
 
-        } catch (IOException | ClassNotFoundException e) {
-            logger.warn("Failed to deserialize previous task variables before selection for task " +
-                        internalTask0.getId().toString(), e);
-            schedulingService.simulateJobStartAndCancelIt(tasksToSchedule,
-                                                          "Failed to deserialize previous task variables before selection for task " +
-                                                                           internalTask0.getId().toString());
+        } catch (IOException | ClassNotFoundException | RMProxyCreationException e) {
+            handleNodesRequestFailure(e, currentJob, internalTask0, tasksToSchedule);
             return null;
-        } catch (RMProxyCreationException e) {
+        }
+    }
+
+    private TopologyDescriptor getTopologyDescriptor(InternalTask internalTask0) {
+        TopologyDescriptor descriptor = null;
+        if (internalTask0.isParallel()) {
+            descriptor = internalTask0.getParallelEnvironment().getTopologyDescriptor();
+            if (descriptor == null) {
+                logger.debug("Topology is not defined for the task " + internalTask0.getName());
+            }
+        }
+        if (descriptor == null) {
+            // descriptor is not defined, use default
+            descriptor = TopologyDescriptor.ARBITRARY;
+        }
+        return descriptor;
+    }
+
+    /**
+     * Create the criteria used to ask the RM the nodes of the given compatible tasks
+     */
+    private Criteria createCriteria(Map<JobId, JobDescriptor> jobMap, InternalJob currentJob,
+            InternalTask internalTask0, int neededResourcesNumber, LinkedList<EligibleTaskDescriptor> tasksToSchedule,
+            Set<String> freeResources) throws IOException, ClassNotFoundException {
+        if (neededResourcesNumber <= 0) {
+            throw new IllegalArgumentException("'neededResourcesNumber' must be greater than 0");
+        }
+
+        boolean bestEffort = true;
+
+        List<Map<String, String>> listUsageInfo = new LinkedList<>();
+        if (internalTask0.isParallel()) {
+            listUsageInfo.add(getUsageInfo(internalTask0));
+            bestEffort = false;
+        } else {
+            for (int i = 0; i < neededResourcesNumber; ++i) {
+                EligibleTaskDescriptor eligibleTaskDescriptor = tasksToSchedule.get(i);
+                InternalJob internalJob = ((JobDescriptorImpl) jobMap.get(eligibleTaskDescriptor.getJobId())).getInternal();
+                InternalTask internalTask = internalJob.getIHMTasks().get(eligibleTaskDescriptor.getTaskId());
+                listUsageInfo.add(getUsageInfo(internalTask));
+            }
+        }
+
+        schedulingMainLoopTimingLogger.start(SchedulingMetrics.SET_CRITERIA_STAGE);
+        Criteria criteria = new Criteria(neededResourcesNumber);
+        criteria.setListUsageInfo(listUsageInfo);
+        criteria.setTopology(getTopologyDescriptor(internalTask0));
+        // resolve script variables (if any) in the list of selection
+        // scripts and then set it as the selection criteria.
+        criteria.setScripts(resolveScriptVariables(internalTask0.getSelectionScripts(),
+                                                   internalTask0.getRuntimeVariables()));
+        criteria.setBlackList(internalTask0.getNodeExclusion());
+        criteria.setBestEffort(bestEffort);
+        criteria.setAcceptableNodesUrls(freeResources);
+        criteria.setBindings(createBindingsForSelectionScripts(currentJob, internalTask0, schedulingService));
+        if (internalTask0.getRuntimeGenericInformation().containsKey(SchedulerConstants.NODE_ACCESS_TOKEN)) {
+            criteria.setNodeAccessToken(internalTask0.getRuntimeGenericInformation()
+                                                     .get(SchedulerConstants.NODE_ACCESS_TOKEN));
+        }
+
+        Collection<String> computationDescriptors = new ArrayList<>(tasksToSchedule.size());
+        for (EligibleTaskDescriptor task : tasksToSchedule) {
+            computationDescriptors.add(TaskLogger.getTaskLogRelativePath(task.getTaskId()));
+        }
+
+        criteria.setComputationDescriptors(computationDescriptors);
+
+        schedulingMainLoopTimingLogger.end(SchedulingMetrics.SET_CRITERIA_STAGE);
+        return criteria;
+    }
+
+    private void handleNodesRequestFailure(Exception e, InternalJob currentJob, InternalTask internalTask0,
+            LinkedList<EligibleTaskDescriptor> tasksToSchedule) {
+        if (e instanceof RMProxyCreationException) {
             logger.warn("Failed to create User RM Proxy", e);
             //simulate jobs starts and cancel it
             schedulingService.simulateJobStartAndCancelIt(tasksToSchedule,
                                                           "Failed to create User RM Proxy : Authentication Failed to Resource Manager for user '" +
                                                                            currentJob.getOwner() + "'");
-            //leave the method by ss failure
-            return null;
+        } else {
+            logger.warn("Failed to deserialize previous task variables before selection for task " +
+                        internalTask0.getId().toString(), e);
+            schedulingService.simulateJobStartAndCancelIt(tasksToSchedule,
+                                                          "Failed to deserialize previous task variables before selection for task " +
+                                                                           internalTask0.getId().toString());
         }
     }
 
@@ -743,14 +1061,63 @@ public final class SchedulingMethodImpl implements SchedulingMethod {
      * @param task the task to be initialized
      */
     protected void loadAndInit(InternalTask task) {
-        if ((task.getExecutableContainer() == null) ||
-            ((ScriptExecutableContainer) task.getExecutableContainer()).getScript() == null) {
+        if (needsExecutableContainer(task)) {
             tlogger.debug(task.getId(), "initializing the executable container");
             ExecutableContainer container = getDBManager().loadExecutableContainer(task);
             task.setExecutableContainer(container);
         }
     }
 
+    /**
+     * Load and initialize the given tasks to be started. The executable containers of the tasks are loaded
+     * at once, the tasks which cannot be loaded are removed from the list and killed.
+     *
+     * @param tasks the tasks to be initialized
+     * @param loadedTasks filled with the tasks whose executable container has been loaded
+     */
+    private void loadAndInit(LinkedList<EligibleTaskDescriptor> tasks, Set<TaskIdWrapper> loadedTasks) {
+        List<InternalTask> tasksToLoad = tasks.stream()
+                                              .map(task -> ((EligibleTaskDescriptorImpl) task).getInternal())
+                                              .filter(this::needsExecutableContainer)
+                                              .collect(Collectors.toList());
+        if (tasksToLoad.isEmpty()) {
+            return;
+        }
+
+        Map<TaskIdWrapper, ExecutableContainer> containers;
+        try {
+            containers = getDBManager().loadExecutableContainers(tasksToLoad);
+        } catch (Exception e) {
+            // the tasks will be loaded one by one
+            logger.warn("Error when loading the definition of " + tasksToLoad.size() + " tasks from the database", e);
+            containers = Collections.emptyMap();
+        }
+
+        for (Iterator<EligibleTaskDescriptor> iterator = tasks.iterator(); iterator.hasNext();) {
+            InternalTask internalTask = ((EligibleTaskDescriptorImpl) iterator.next()).getInternal();
+            if (!needsExecutableContainer(internalTask)) {
+                continue;
+            }
+            ExecutableContainer container = containers.get(TaskIdWrapper.wrap(internalTask.getId()));
+            try {
+                if (container != null) {
+                    tlogger.debug(internalTask.getId(), "initializing the executable container");
+                    internalTask.setExecutableContainer(container);
+                } else {
+                    loadAndInit(internalTask);
+                }
+                loadedTasks.add(TaskIdWrapper.wrap(internalTask.getId()));
+            } catch (Exception e) {
+                handleLoadExecutableContainerError(internalTask, iterator, e);
+            }
+        }
+    }
+
+    private boolean needsExecutableContainer(InternalTask task) {
+        return (task.getExecutableContainer() == null) ||
+               ((ScriptExecutableContainer) task.getExecutableContainer()).getScript() == null;
+    }
+
     private void handleLoadExecutableContainerError(InternalTask task, Iterator<EligibleTaskDescriptor> etd,
             Exception e) {
         String message = "Error when loading task " + task.toString() +
@@ -780,29 +1147,29 @@ public final class SchedulingMethodImpl implements SchedulingMethod {
         TaskLauncher launcher = null;
         LiveJobs.JobData jobData = null;
         try {
-            schedulingMainLoopTimingLogger.start("jobLockAcquisition");
+            schedulingMainLoopTimingLogger.start(SchedulingMetrics.JOB_LOCK_ACQUISITION_STAGE);
             jobData = schedulingService.lockJob(job.getId());
-            schedulingMainLoopTimingLogger.end("jobLockAcquisition");
+            schedulingMainLoopTimingLogger.end(SchedulingMetrics.JOB_LOCK_ACQUISITION_STAGE);
             //enough nodes to be launched at same time for a communicating task
             // task is not paused
             if (nodeSet.size() >= task.getNumberOfNodesNeeded() && (task.getStatus() != TaskStatus.PAUSED) &&
                 (jobData != null)) {
 
-                schedulingMainLoopTimingLogger.start("startDataspaceApp");
+                schedulingMainLoopTimingLogger.start(SchedulingMetrics.START_DATASPACE_APP_STAGE);
                 //start dataspace app for this job
                 DataSpaceServiceStarter dsStarter = schedulingService.getInfrastructure().getDataSpaceServiceStarter();
                 job.startDataSpaceApplication(dsStarter.getNamingService(), ImmutableList.of(task));
                 job.setSynchronizationAPI(schedulingService.getSynchronizationAPI());
-                schedulingMainLoopTimingLogger.end("startDataspaceApp");
+                schedulingMainLoopTimingLogger.end(SchedulingMetrics.START_DATASPACE_APP_STAGE);
                 NodeSet nodes = new NodeSet();
                 try {
 
                     // create launcher
-                    schedulingMainLoopTimingLogger.start("createLauncher");
+                    schedulingMainLoopTimingLogger.start(SchedulingMetrics.CREATE_LAUNCHER_STAGE);
 
                     launcher = task.createLauncher(node);
 
-                    schedulingMainLoopTimingLogger.end("createLauncher");
+                    schedulingMainLoopTimingLogger.end(SchedulingMetrics.CREATE_LAUNCHER_STAGE);
 
                     activeObjectCreationRetryTimeNumber = ACTIVEOBJECT_CREATION_RETRY_TIME_NUMBER;
 
@@ -816,65 +1183,7 @@ public final class SchedulingMethodImpl implements SchedulingMethod {
                         nodeSet.clear();
                     }
 
-                    //set nodes in the executable container
-                    task.getExecutableContainer().setNodes(nodes);
-
-                    tlogger.debug(task.getId(), "deploying");
-
-                    // Dynamically adjust the start-task-timeout according to the number dependency tasks in a merge.
-                    // above 500 parent tasks, it is worth adjusting.
-                    if (taskDescriptor.getParents().size() > 500) {
-                        dotaskActionTimeout = (int) (taskDescriptor.getParents().size() / 500.0 *
-                                                     PASchedulerProperties.SCHEDULER_STARTTASK_TIMEOUT.getValueAsInt());
-                    } else {
-                        // reset the dotaskActionTimeout to its default value otherwise.
-                        dotaskActionTimeout = PASchedulerProperties.SCHEDULER_STARTTASK_TIMEOUT.getValueAsInt();
-                    }
-
-                    schedulingMainLoopTimingLogger.start("areNodesRecoverable");
-                    boolean taskRecoverable = getRMProxiesManager().getRmProxy().areNodesRecoverable(nodes);
-                    schedulingMainLoopTimingLogger.end("areNodesRecoverable");
-
-                    schedulingMainLoopTimingLogger.start("terminateNotificationNodeURL");
-                    String terminateNotificationNodeURL = PAActiveObject.getActiveObjectNode(terminateNotification)
-                                                                        .getNodeInformation()
-                                                                        .getURL();
-                    TaskRecoveryData taskRecoveryData = new TaskRecoveryData(terminateNotificationNodeURL,
-                                                                             taskRecoverable);
-                    schedulingMainLoopTimingLogger.end("terminateNotificationNodeURL");
-
-                    schedulingMainLoopTimingLogger.start("submitWithTimeout");
-
-                    threadPool.submitWithTimeout(new TimedDoTaskAction(job,
-                                                                       taskDescriptor,
-                                                                       launcher,
-                                                                       schedulingService,
-                                                                       terminateNotification,
-                                                                       corePrivateKey,
-                                                                       taskRecoveryData),
-
-                                                 dotaskActionTimeout,
-                                                 TimeUnit.MILLISECONDS);
-
-                    schedulingMainLoopTimingLogger.end("submitWithTimeout");
-
-                    // we advertise here that the task is started, however
-                    // this is not entirely true: the only thing we are sure
-                    // about at this point is that we submitted to the thread
-                    // pool the action that will call the "doTask" of the task
-                    // launcher. There is thus a small gap here where the task
-                    // is seen as started whereas it is not yet started. We
-                    // cannot easily move the task started notification because
-                    // 1) it makes the job lock acquisition less predictable
-                    // (because the TimeDoTaskAction will have to compete with
-                    // the SchedulingMethodImpl)
-                    // and more importantly 2) the
-                    // SchedulingMethodImpl#createExecution may happen to be
-                    // called a second time for the task that is currently being
-                    // started by the TimedDoTaskAction.
-                    schedulingMainLoopTimingLogger.start("finalizeStarting");
-                    finalizeStarting(job, task, node, launcher);
-                    schedulingMainLoopTimingLogger.end("finalizeStarting");
+                    deployTask(job, task, taskDescriptor, node, nodes, launcher, schedulingMainLoopTimingLogger);
                     return true;
                 } catch (Exception t) {
                     try {
@@ -898,6 +1207,178 @@ public final class SchedulingMethodImpl implements SchedulingMethod {
 
     }
 
+    /**
+     * Deploy the task on its launcher and mark it as started.
+     *
+     * @param node the node on which the launcher has been created
+     * @param nodes the additional nodes of a multi-nodes task
+     * @param launcher the launcher of the task
+     * @param timingLogger the timing logger of the calling thread
+     */
+    private void deployTask(InternalJob job, InternalTask task, TaskDescriptor taskDescriptor, Node node,
+            NodeSet nodes, TaskLauncher launcher, SchedulingMainLoopTimingLogger timingLogger) throws Exception {
+        //set nodes in the executable container
+        task.getExecutableContainer().setNodes(nodes);
+
+        tlogger.debug(task.getId(), "deploying");
+
+        int dotaskActionTimeout;
+        // Dynamically adjust the start-task-timeout according to the number dependency tasks in a merge.
+        // above 500 parent tasks, it is worth adjusting, unless the results are sent by reference.
+        if (taskDescriptor.getParents().size() > 500 && taskResultsProvider == null) {
+            dotaskActionTimeout = (int) (taskDescriptor.getParents().size() / 500.0 *
+                                         PASchedulerProperties.SCHEDULER_STARTTASK_TIMEOUT.getValueAsInt());
+        } else {
+            dotaskActionTimeout = PASchedulerProperties.SCHEDULER_STARTTASK_TIMEOUT.getValueAsInt();
+        }
+
+        timingLogger.start(SchedulingMetrics.ARE_NODES_RECOVERABLE_STAGE);
+        boolean taskRecoverable = getRMProxiesManager().getRmProxy().areNodesRecoverable(nodes);
+        timingLogger.end(SchedulingMetrics.ARE_NODES_RECOVERABLE_STAGE);
+
+        timingLogger.start(SchedulingMetrics.TERMINATE_NOTIFICATION_NODE_URL_STAGE);
+        String terminateNotificationNodeURL = PAActiveObject.getActiveObjectNode(terminateNotification)
+                                                            .getNodeInformation()
+                                                            .getURL();
+        TaskRecoveryData taskRecoveryData = new TaskRecoveryData(terminateNotificationNodeURL, taskRecoverable);
+        timingLogger.end(SchedulingMetrics.TERMINATE_NOTIFICATION_NODE_URL_STAGE);
+
+        timingLogger.start(SchedulingMetrics.SUBMIT_WITH_TIMEOUT_STAGE);
+
+        threadPool.submitWithTimeout(new TimedDoTaskAction(job,
+                                                           taskDescriptor,
+                                                           launcher,
+                                                           schedulingService,
+                                                           terminateNotification,
+                                                           taskResultsProvider,
+                                                           taskResultsGrants,
+                                                           corePrivateKey,
+                                                           taskRecoveryData),
+
+                                     dotaskActionTimeout,
+                                     TimeUnit.MILLISECONDS);
+
+        timingLogger.end(SchedulingMetrics.SUBMIT_WITH_TIMEOUT_STAGE);
+
+        // we advertise here that the task is started, however
+        // this is not entirely true: the only thing we are sure
+        // about at this point is that we submitted to the thread
+        // pool the action that will call the "doTask" of the task
+        // launcher. There is thus a small gap here where the task
+        // is seen as started whereas it is not yet started. We
+        // cannot easily move the task started notification because
+        // 1) it makes the job lock acquisition less predictable
+        // (because the TimeDoTaskAction will have to compete with
+        // the SchedulingMethodImpl)
+        // and more importantly 2) the
+        // SchedulingMethodImpl#createExecution may happen to be
+        // called a second time for the task that is currently being
+        // started by the TimedDoTaskAction.
+        timingLogger.start(SchedulingMetrics.FINALIZE_STARTING_STAGE);
+        finalizeStarting(job, task, node, launcher);
+        timingLogger.end(SchedulingMetrics.FINALIZE_STARTING_STAGE);
+    }
+
+    /**
+     * Reserve the first nodes of the given node set for the task and submit its launch to the launch pipeline.
+     * Unlike {@link #createExecution(NodeSet, Node, InternalJob, InternalTask, TaskDescriptor)}, the job lock is not
+     * acquired here, the task state is checked again when the launch is processed.
+     *
+     * @return true if the launch of the task has been submitted
+     */
+    private boolean reserveExecution(NodeSet nodeSet, InternalJob job, InternalTask task,
+            TaskDescriptor taskDescriptor) {
+        if (nodeSet.size() < task.getNumberOfNodesNeeded() || task.getStatus() == TaskStatus.PAUSED) {
+            return false;
+        }
+        Node node = nodeSet.remove(0);
+        NodeSet nodes = new NodeSet();
+        //give every nodes to the multi-nodes task
+        if (task.isParallel()) {
+            nodes = new NodeSet(nodeSet);
+            nodeSet.clear();
+        }
+        TaskLaunchPipeline.LaunchRequest request = new TaskLaunchPipeline.LaunchRequest(job,
+                                                                                        task,
+                                                                                        taskDescriptor,
+                                                                                        node,
+                                                                                        nodes);
+        if (launchPipeline.submit(request)) {
+            return true;
+        } else {
+            nodeSet.addAll(request.getAllNodes());
+            return false;
+        }
+    }
+
+    /**
+     * Processes the launch requests of the launch pipeline: does, on a thread of the pipeline, what
+     * {@link #createExecution(NodeSet, Node, InternalJob, InternalTask, TaskDescriptor)} does on the scheduling thread.
+     */
+    private class ReservedTaskLauncher implements TaskLaunchPipeline.LaunchHandler {
+
+        @Override
+        public boolean launch(TaskLaunchPipeline.LaunchRequest request) throws Exception {
+            InternalJob job = request.getJob();
+            InternalTask task = request.getTask();
+            LiveJobs.JobData jobData = schedulingService.lockJob(job.getId());
+            if (jobData == null) {
+                return false;
+            }
+            try {
+                // the task may have been paused or killed since its nodes were reserved
+                if (task.getStatus() != TaskStatus.PENDING) {
+                    return false;
+                }
+                SchedulingMainLoopTimingLogger timingLogger = new SchedulingMainLoopTimingLogger(logger);
+
+                timingLogger.start(SchedulingMetrics.START_DATASPACE_APP_STAGE);
+                DataSpaceServiceStarter dsStarter = schedulingService.getInfrastructure().getDataSpaceServiceStarter();
+                job.startDataSpaceApplication(dsStarter.getNamingService(), ImmutableList.of(task));
+                job.setSynchronizationAPI(schedulingService.getSynchronizationAPI());
+                timingLogger.end(SchedulingMetrics.START_DATASPACE_APP_STAGE);
+
+                timingLogger.start(SchedulingMetrics.CREATE_LAUNCHER_STAGE);
+                TaskLauncher launcher = task.createLauncher(request.getNode());
+                timingLogger.end(SchedulingMetrics.CREATE_LAUNCHER_STAGE);
+
+                if (task.isParallel()) {
+                    task.getExecuterInformation().addNodes(request.getNodes());
+                }
+
+                deployTask(job,
+                           task,
+                           request.getTaskDescriptor(),
+                           request.getNode(),
+                           request.getNodes(),
+                           launcher,
+                           timingLogger);
+
+                if (logger.isDebugEnabled()) {
+                    logger.debug("Launch timings of task " + task.getId());
+                    timingLogger.printTimingsINFOLevel();
+                }
+                return true;
+            } finally {
+                jobData.unlock();
+            }
+        }
+
+        @Override
+        public void launchFailed(TaskLaunchPipeline.LaunchRequest request, Exception cause) {
+            if (cause != null) {
+                logger.warn("An exception occured while launching task " + request.getTask().getId(), cause);
+            }
+            try {
+                releaseNodes(request.getJob(), request.getAllNodes());
+            } catch (Exception e) {
+                logger.info("Unable to get back the nodeSet to the RM", e);
+            }
+            // the task is still pending, let the next scheduling loop consider it again
+            schedulingService.wakeUpSchedulingThread();
+        }
+    }
+
     /**
      * Finalize the start of the task by mark it as started. Also mark the job if it is not already started.
      *
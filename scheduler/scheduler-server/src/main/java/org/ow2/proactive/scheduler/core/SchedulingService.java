@@ -70,6 +70,7 @@ import org.ow2.proactive.scheduler.task.TaskLauncher;
 import org.ow2.proactive.scheduler.task.TaskResultImpl;
 import org.ow2.proactive.scheduler.task.internal.InternalTask;
 import org.ow2.proactive.scheduler.util.JobLogger;
+import org.ow2.proactive.scheduler.util.SchedulingMetrics;
 import org.ow2.proactive.scheduler.util.ServerJobAndTaskLogs;
 import org.ow2.proactive.scheduler.util.TaskLogger;
 import org.ow2.proactive.utils.NodeSet;
@@ -103,6 +104,12 @@ public class SchedulingService {
 
     private final ListenJobLogsSupport listenJobLogsSupport;
 
+    private final JobCredentialsCache jobCredentialsCache;
+
+    private final NodeSessionKeys nodeSessionKeys;
+
+    private final boolean taskResultsByReference;
+
     volatile SchedulerStatus status = SchedulerStatus.STOPPED;
 
     private volatile Policy policy;
@@ -128,6 +135,10 @@ public class SchedulingService {
         this.infrastructure = infrastructure;
         this.listener = listener;
         this.jobs = new LiveJobs(infrastructure.getDBManager(), listener);
+        this.jobCredentialsCache = new JobCredentialsCache(PASchedulerProperties.SCHEDULER_STARTTASK_CREDENTIALS_CACHE_SIZE.getValueAsInt(),
+                                                           PASchedulerProperties.SCHEDULER_STARTTASK_CREDENTIALS_CACHE_TIMEOUT.getValueAsInt());
+        this.nodeSessionKeys = new NodeSessionKeys(PASchedulerProperties.SCHEDULER_STARTTASK_CREDENTIALS_CACHE_TIMEOUT.getValueAsInt());
+        this.taskResultsByReference = PASchedulerProperties.TASK_RESULTS_BY_REFERENCE.getValueAsBoolean();
         if (recoveredState != null) {
             recover(recoveredState);
         }
@@ -379,6 +390,14 @@ public class SchedulingService {
         return listenJobLogsSupport;
     }
 
+    JobCredentialsCache getJobCredentialsCache() {
+        return jobCredentialsCache;
+    }
+
+    NodeSessionKeys getNodeSessionKeys() {
+        return nodeSessionKeys;
+    }
+
     public boolean reloadPolicyConfiguration() {
         if (status.isShuttingDown()) {
             logger.warn("Policy configuration can only be reloaded when Scheduler is up, current state : " + status);
@@ -438,6 +457,14 @@ public class SchedulingService {
         return infrastructure;
     }
 
+    /**
+     * @return true if the results of the parent tasks are sent to the nodes by reference
+     * @see PASchedulerProperties#TASK_RESULTS_BY_REFERENCE
+     */
+    public boolean isTaskResultsByReference() {
+        return taskResultsByReference;
+    }
+
     /*
      * Should be called only by scheduling method impl when job scheduling starts
      */
@@ -445,6 +472,29 @@ public class SchedulingService {
         return jobs.lockJobsToSchedule(isPausedOrStopped());
     }
 
+    /*
+     * Should be called only by scheduling method impl when job scheduling starts in incremental mode,
+     * only the jobs of the ready-queue are considered
+     */
+    public Map<JobId, JobDescriptor> lockReadyJobsToSchedule() {
+        return jobs.lockJobsToSchedule(isPausedOrStopped(), true);
+    }
+
+    /*
+     * Should be called only by scheduling method impl to read more tasks of the jobs it unlocked
+     */
+    public boolean tryLockJobsToSchedule(Collection<JobDescriptor> jobDescriptors) {
+        return jobs.tryLockJobsToSchedule(jobDescriptors);
+    }
+
+    /**
+     * Version of the scheduling state, incremented each time an event may change a scheduling decision.
+     * Used by the incremental scheduling mode to skip the cycles where nothing changed.
+     */
+    public long getSchedulingStateVersion() {
+        return jobs.getReadyJobsQueueVersion();
+    }
+
     /*
      * Should be called only by scheduling method impl when job scheduling starts
      */
@@ -582,6 +632,7 @@ public class SchedulingService {
         if (status.isUnusable()) {
             return;
         }
+        SchedulingMetrics.getInstance().incrementTasksRetried();
         infrastructure.getInternalOperationsThreadPool().submit(() -> {
             TerminationData terminationData = jobs.restartTaskOnNodeFailure(task);
             try {
@@ -952,6 +1003,7 @@ public class SchedulingService {
     void terminateJobHandling(final JobId jobId) {
         try {
             listenJobLogsSupport.cleanLoggers(jobId);
+            jobCredentialsCache.remove(jobId);
             jlogger.close(jobId);
 
             // auto remove
@@ -1111,6 +1163,7 @@ public class SchedulingService {
     }
 
     protected void wakeUpSchedulingThread() {
+        jobs.schedulingStateChanged();
         schedulingThread.wakeUpSchedulingThread();
     }
 
@@ -0,0 +1,318 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive.scheduler.core;
+
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.log4j.Logger;
+import org.objectweb.proactive.core.node.Node;
+import org.objectweb.proactive.utils.NamedThreadFactory;
+import org.ow2.proactive.scheduler.common.TaskDescriptor;
+import org.ow2.proactive.scheduler.common.task.TaskId;
+import org.ow2.proactive.scheduler.job.InternalJob;
+import org.ow2.proactive.scheduler.task.internal.InternalTask;
+import org.ow2.proactive.utils.NodeSet;
+import org.ow2.proactive.utils.TaskIdWrapper;
+
+
+/**
+ * Launch stage of the scheduling loop.
+ * <p>
+ * The scheduling loop only reserves a node for a task and submits a {@link LaunchRequest}, the task launcher
+ * creation and the task deployment are then done by a bounded pool of threads, so that the remote calls made
+ * for each task do not delay the start of the following ones.
+ * <p>
+ * The queue of the requests is bounded: when it is full, the scheduling loop launches the task itself, which
+ * slows it down until the pipeline catches up.
+ * <p>
+ * A task stays marked as launching until its request is processed, the scheduling loop must ignore such tasks.
+ * When a request cannot be processed, the {@link LaunchHandler} is notified so that the reserved nodes are
+ * given back; the task is then still pending and will be considered again by the next scheduling loop.
+ */
+class TaskLaunchPipeline {
+
+    private static final Logger logger = Logger.getLogger(TaskLaunchPipeline.class);
+
+    private static final long SHUTDOWN_TIMEOUT_SECONDS = 10;
+
+    /**
+     * Back-pressure: a request which does not fit in the queue is processed by the submitting thread, and
+     * rejected once the pipeline is shut down so that its nodes are given back
+     */
+    private static final RejectedExecutionHandler CALLER_RUNS_UNLESS_SHUTDOWN = (runnable, executor) -> {
+        if (executor.isShutdown()) {
+            throw new RejectedExecutionException("Task launch pipeline is shut down");
+        }
+        runnable.run();
+    };
+
+    /**
+     * Performs the launch of a reserved task, called by the threads of the pipeline.
+     */
+    interface LaunchHandler {
+
+        /**
+         * Start the task of the given request on its reserved nodes.
+         *
+         * @return true if the task has been started, false if it cannot be started anymore
+         * @throws Exception if an error occurred while starting the task
+         */
+        boolean launch(LaunchRequest request) throws Exception;
+
+        /**
+         * Called when the task of the given request has not been started.
+         *
+         * @param cause the error which occurred, null if the task simply could not be started anymore
+         */
+        void launchFailed(LaunchRequest request, Exception cause);
+    }
+
+    /**
+     * A task and the nodes reserved for it by the scheduling loop.
+     */
+    static final class LaunchRequest {
+
+        private final InternalJob job;
+
+        private final InternalTask task;
+
+        private final TaskDescriptor taskDescriptor;
+
+        private final Node node;
+
+        private final NodeSet nodes;
+
+        private final long submissionTime;
+
+        /**
+         * @param node the node on which the task launcher will be created
+         * @param nodes the additional nodes of a multi-nodes task
+         */
+        LaunchRequest(InternalJob job, InternalTask task, TaskDescriptor taskDescriptor, Node node, NodeSet nodes) {
+            this.job = job;
+            this.task = task;
+            this.taskDescriptor = taskDescriptor;
+            this.node = node;
+            this.nodes = nodes;
+            this.submissionTime = System.currentTimeMillis();
+        }
+
+        InternalJob getJob() {
+            return job;
+        }
+
+        InternalTask getTask() {
+            return task;
+        }
+
+        TaskDescriptor getTaskDescriptor() {
+            return taskDescriptor;
+        }
+
+        Node getNode() {
+            return node;
+        }
+
+        NodeSet getNodes() {
+            return nodes;
+        }
+
+        /**
+         * @return every node reserved for the task
+         */
+        NodeSet getAllNodes() {
+            NodeSet allNodes = new NodeSet(nodes);
+            allNodes.add(0, node);
+            return allNodes;
+        }
+    }
+
+    private final ExecutorService executor;
+
+    private final LaunchHandler handler;
+
+    private final Set<TaskIdWrapper> launchingTasks = ConcurrentHashMap.newKeySet();
+
+    private final AtomicInteger queuedRequests = new AtomicInteger();
+
+    private final AtomicLong launchedTasks = new AtomicLong();
+
+    private final AtomicLong failedLaunches = new AtomicLong();
+
+    private final AtomicLong totalLaunchLatency = new AtomicLong();
+
+    private final AtomicLong maxLaunchLatency = new AtomicLong();
+
+    /**
+     * @param threadNumber number of threads launching the tasks
+     * @param queueSize maximum number of requests waiting for a thread
+     */
+    TaskLaunchPipeline(int threadNumber, int queueSize, LaunchHandler handler) {
+        this(new ThreadPoolExecutor(threadNumber,
+                                    threadNumber,
+                                    0L,
+                                    TimeUnit.MILLISECONDS,
+                                    new ArrayBlockingQueue<Runnable>(queueSize),
+                                    new NamedThreadFactory("TaskLaunch"),
+                                    CALLER_RUNS_UNLESS_SHUTDOWN),
+             handler);
+    }
+
+    TaskLaunchPipeline(ExecutorService executor, LaunchHandler handler) {
+        this.executor = executor;
+        this.handler = handler;
+    }
+
+    /**
+     * Submit the launch of a task on its reserved nodes.
+     *
+     * @return false if the task is already being launched, the nodes of the request are then not used
+     */
+    boolean submit(LaunchRequest request) {
+        TaskIdWrapper taskId = TaskIdWrapper.wrap(request.getTask().getId());
+        if (!launchingTasks.add(taskId)) {
+            return false;
+        }
+        queuedRequests.incrementAndGet();
+        try {
+            executor.execute(() -> process(request));
+        } catch (RejectedExecutionException e) {
+            queuedRequests.decrementAndGet();
+            failed(request, e);
+        }
+        return true;
+    }
+
+    private void process(LaunchRequest request) {
+        queuedRequests.decrementAndGet();
+        try {
+            if (handler.launch(request)) {
+                long latency = System.currentTimeMillis() - request.submissionTime;
+                launchedTasks.incrementAndGet();
+                totalLaunchLatency.addAndGet(latency);
+                maxLaunchLatency.accumulateAndGet(latency, Math::max);
+                launchingTasks.remove(TaskIdWrapper.wrap(request.getTask().getId()));
+            } else {
+                failed(request, null);
+            }
+        } catch (Exception e) {
+            failed(request, e);
+        }
+    }
+
+    private void failed(LaunchRequest request, Exception cause) {
+        failedLaunches.incrementAndGet();
+        try {
+            handler.launchFailed(request, cause);
+        } catch (Exception e) {
+            logger.warn("Error while handling the failed launch of task " + request.getTask().getId(), e);
+        } finally {
+            // only now, so that the task cannot be scheduled again before its nodes are given back
+            launchingTasks.remove(TaskIdWrapper.wrap(request.getTask().getId()));
+        }
+    }
+
+    /**
+     * Stop the pipeline: the requests already submitted are processed, the new ones are rejected.
+     */
+    void shutdown() {
+        executor.shutdown();
+        // the scheduling thread is interrupted when the scheduler is killed, let the pending launches end anyway
+        boolean interrupted = Thread.interrupted();
+        try {
+            if (!executor.awaitTermination(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                logger.warn("Task launch pipeline did not terminate after " + SHUTDOWN_TIMEOUT_SECONDS + " seconds");
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            interrupted = true;
+        } finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * @return true if the given task has been submitted to the pipeline and is not processed yet
+     */
+    boolean isLaunching(TaskId taskId) {
+        return launchingTasks.contains(TaskIdWrapper.wrap(taskId));
+    }
+
+    /**
+     * @return the number of requests waiting for a thread of the pipeline
+     */
+    int getQueueDepth() {
+        return queuedRequests.get();
+    }
+
+    /**
+     * @return the number of submitted requests which are not processed yet
+     */
+    int getLaunchingTasksNumber() {
+        return launchingTasks.size();
+    }
+
+    long getLaunchedTasksNumber() {
+        return launchedTasks.get();
+    }
+
+    long getFailedLaunchesNumber() {
+        return failedLaunches.get();
+    }
+
+    /**
+     * @return the average time between the submission of a request and the start of its task, in milliseconds
+     */
+    long getAverageLaunchLatency() {
+        long launched = launchedTasks.get();
+        return launched > 0 ? totalLaunchLatency.get() / launched : 0;
+    }
+
+    /**
+     * @return the maximum time between the submission of a request and the start of its task, in milliseconds
+     */
+    long getMaxLaunchLatency() {
+        return maxLaunchLatency.get();
+    }
+
+    String getMetricsSummary() {
+        return "queueDepth:" + getQueueDepth() + ";launching:" + getLaunchingTasksNumber() + ";launched:" +
+               getLaunchedTasksNumber() + ";failed:" + getFailedLaunchesNumber() + ";averageLatency:" +
+               getAverageLaunchLatency() + "ms;maxLatency:" + getMaxLaunchLatency() + "ms";
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive.scheduler.core;
+
+import java.nio.ByteBuffer;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import org.ow2.proactive.scheduler.common.TaskResultsGrant;
+import org.ow2.proactive.scheduler.common.job.JobId;
+import org.ow2.proactive.scheduler.common.task.TaskId;
+
+
+/**
+ * Issues and checks the {@link TaskResultsGrant}s sent with the results by reference. A grant is signed with a
+ * key generated when the scheduler starts, so the nodes can only get the results they were given references to.
+ */
+public class TaskResultsGrants {
+
+    private static final String ALGORITHM = "HmacSHA256";
+
+    private final SecretKeySpec key;
+
+    public TaskResultsGrants() {
+        byte[] keyBytes = new byte[32];
+        new SecureRandom().nextBytes(keyBytes);
+        this.key = new SecretKeySpec(keyBytes, ALGORITHM);
+    }
+
+    /**
+     * @return a grant to get the results of the given tasks of the job.
+     */
+    public TaskResultsGrant grant(JobId jobId, Collection<TaskId> taskIds) {
+        Set<TaskId> grantedTaskIds = new LinkedHashSet<>(taskIds);
+        return new TaskResultsGrant(jobId, grantedTaskIds, sign(jobId, grantedTaskIds));
+    }
+
+    /**
+     * @return true if the grant was issued by this scheduler and allows to get the results of all the given tasks.
+     */
+    public boolean allows(TaskResultsGrant grant, Collection<TaskId> taskIds) {
+        if (grant == null || grant.getJobId() == null || grant.getTaskIds() == null || grant.getSignature() == null ||
+            !MessageDigest.isEqual(sign(grant.getJobId(), grant.getTaskIds()), grant.getSignature())) {
+            return false;
+        }
+        Set<Long> grantedTaskIds = grant.getTaskIds().stream().map(TaskId::longValue).collect(Collectors.toSet());
+        for (TaskId taskId : taskIds) {
+            if (taskId.getJobId().longValue() != grant.getJobId().longValue() ||
+                !grantedTaskIds.contains(taskId.longValue())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private byte[] sign(JobId jobId, Collection<TaskId> taskIds) {
+        long[] sortedTaskIds = taskIds.stream().mapToLong(TaskId::longValue).sorted().toArray();
+        ByteBuffer content = ByteBuffer.allocate(Long.BYTES * (sortedTaskIds.length + 1));
+        content.putLong(jobId.longValue());
+        for (long taskId : sortedTaskIds) {
+            content.putLong(taskId);
+        }
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(key);
+            return mac.doFinal(content.array());
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Cannot sign the task results grant", e);
+        }
+    }
+
+}
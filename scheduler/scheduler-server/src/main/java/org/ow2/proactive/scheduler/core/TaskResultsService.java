@@ -0,0 +1,83 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive.scheduler.core;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.collections4.ListUtils;
+import org.objectweb.proactive.annotation.ImmediateService;
+import org.objectweb.proactive.extensions.annotation.ActiveObject;
+import org.ow2.proactive.scheduler.common.TaskResultsGrant;
+import org.ow2.proactive.scheduler.common.TaskResultsProvider;
+import org.ow2.proactive.scheduler.common.exception.PermissionException;
+import org.ow2.proactive.scheduler.common.task.TaskId;
+import org.ow2.proactive.scheduler.common.task.TaskResult;
+import org.ow2.proactive.scheduler.core.properties.PASchedulerProperties;
+
+
+/**
+ * Active object loading from the database the results requested by the nodes which received
+ * results by reference. The requests are served in parallel. A node only gets the results allowed by the
+ * grant it received with the references.
+ *
+ * @see PASchedulerProperties#TASK_RESULTS_BY_REFERENCE
+ */
+@ActiveObject
+public class TaskResultsService implements TaskResultsProvider {
+
+    private SchedulingService schedulingService;
+
+    private TaskResultsGrants grants;
+
+    public TaskResultsService() {
+    }
+
+    public TaskResultsService(SchedulingService schedulingService, TaskResultsGrants grants) {
+        this.schedulingService = schedulingService;
+        this.grants = grants;
+    }
+
+    @Override
+    @ImmediateService
+    public Map<TaskId, TaskResult> getTaskResults(TaskResultsGrant grant, List<TaskId> taskIds)
+            throws PermissionException {
+        if (!grants.allows(grant, taskIds)) {
+            throw new PermissionException("Not allowed to get the results of the tasks " + taskIds);
+        }
+        Map<TaskId, TaskResult> results = new HashMap<>(taskIds.size());
+        for (List<TaskId> taskIdsSubList : ListUtils.partition(new ArrayList<>(taskIds),
+                                                               PASchedulerProperties.SCHEDULER_DB_FETCH_TASK_RESULTS_BATCH_SIZE.getValueAsInt())) {
+            results.putAll(schedulingService.getInfrastructure()
+                                            .getDBManager()
+                                            .loadTasksResults(grant.getJobId(), taskIdsSubList));
+        }
+        return results;
+    }
+
+}
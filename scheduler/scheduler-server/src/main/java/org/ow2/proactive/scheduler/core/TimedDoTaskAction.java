@@ -38,6 +38,8 @@ import org.ow2.proactive.authentication.crypto.Credentials;
 import org.ow2.proactive.authentication.crypto.HybridEncryptionUtil;
 import org.ow2.proactive.authentication.crypto.HybridEncryptionUtil.HybridEncryptedData;
 import org.ow2.proactive.scheduler.common.TaskDescriptor;
+import org.ow2.proactive.scheduler.common.TaskResultsGrant;
+import org.ow2.proactive.scheduler.common.TaskResultsProvider;
 import org.ow2.proactive.scheduler.common.TaskTerminateNotification;
 import org.ow2.proactive.scheduler.common.job.JobType;
 import org.ow2.proactive.scheduler.common.task.TaskId;
@@ -46,6 +48,7 @@ import org.ow2.proactive.scheduler.core.properties.PASchedulerProperties;
 import org.ow2.proactive.scheduler.descriptor.EligibleTaskDescriptorImpl;
 import org.ow2.proactive.scheduler.job.InternalJob;
 import org.ow2.proactive.scheduler.task.TaskLauncher;
+import org.ow2.proactive.scheduler.task.TaskResultReference;
 import org.ow2.proactive.scheduler.task.internal.InternalTask;
 import org.ow2.proactive.scheduler.task.internal.InternalTaskParentFinder;
 import org.ow2.proactive.scheduler.task.internal.TaskRecoveryData;
@@ -75,6 +78,10 @@ public class TimedDoTaskAction implements CallableWithTimeoutAction<Void> {
 
     private final TaskTerminateNotification terminateNotification;
 
+    private final TaskResultsProvider taskResultsProvider;
+
+    private final TaskResultsGrants taskResultsGrants;
+
     private final PrivateKey corePrivateKey;
 
     private final TaskRecoveryData taskRecoveryData;
@@ -87,17 +94,22 @@ public class TimedDoTaskAction implements CallableWithTimeoutAction<Void> {
      * Create a new instance of TimedDoTaskAction
      *
      * @param launcher the launcher of the task
+     * @param taskResultsProvider provider of the parent task results sent by reference, null to send the results
+     * @param taskResultsGrants issues the permissions to get the parent task results sent by reference
      * @param taskRecoveryData data used for task recovery
      */
     public TimedDoTaskAction(InternalJob job, TaskDescriptor taskDescriptor, TaskLauncher launcher,
             SchedulingService schedulingService, TaskTerminateNotification terminateNotification,
-            PrivateKey corePrivateKey, TaskRecoveryData taskRecoveryData) {
+            TaskResultsProvider taskResultsProvider, TaskResultsGrants taskResultsGrants, PrivateKey corePrivateKey,
+            TaskRecoveryData taskRecoveryData) {
         this.job = job;
         this.taskDescriptor = taskDescriptor;
         this.task = ((EligibleTaskDescriptorImpl) taskDescriptor).getInternal();
         this.launcher = launcher;
         this.schedulingService = schedulingService;
         this.terminateNotification = terminateNotification;
+        this.taskResultsProvider = taskResultsProvider;
+        this.taskResultsGrants = taskResultsGrants;
         this.corePrivateKey = corePrivateKey;
         this.internalTaskParentFinder = InternalTaskParentFinder.getInstance();
         this.taskRecoveryData = taskRecoveryData;
@@ -125,10 +137,18 @@ public class TimedDoTaskAction implements CallableWithTimeoutAction<Void> {
                 }
 
                 params = new TaskResult[parentIds.size()];
+                // the node can only fetch the results of the parents of this task
+                TaskResultsGrant grant = taskResultsProvider != null ? taskResultsGrants.grant(job.getId(), parentIds)
+                                                                     : null;
 
                 int i = 0;
                 for (TaskId taskId : parentIds) {
-                    params[i] = task.getParentTasksResults().get(taskId);
+                    TaskResult parentResult = task.getParentTasksResults().get(taskId);
+                    if (taskResultsProvider != null && parentResult != null) {
+                        // the node fetches the value, only the metadata and propagated variables are sent
+                        parentResult = new TaskResultReference(parentResult, taskResultsProvider, grant);
+                    }
+                    params[i] = parentResult;
                     i++;
                 }
 
@@ -161,6 +181,27 @@ public class TimedDoTaskAction implements CallableWithTimeoutAction<Void> {
     }
 
     private void createAndSetCredentials() throws KeyException, NoSuchAlgorithmException {
+        CredData decryptedUserCredentials = schedulingService.getJobCredentialsCache()
+                                                             .get(job.getId(),
+                                                                  job.getJobInfo().getJobOwner(),
+                                                                  this::decryptUserCredentials);
+
+        Credentials nodeEncryptedUserCredentials;
+        if (PASchedulerProperties.SCHEDULER_STARTTASK_CREDENTIALS_SESSION_KEY.getValueAsBoolean()) {
+            // only the first task started on a node encrypts the session key with the public key of the node
+            PublicKey nodeSessionPublicKey = launcher.generateSessionPublicKey();
+            nodeEncryptedUserCredentials = Credentials.createCredentials(decryptedUserCredentials,
+                                                                         schedulingService.getNodeSessionKeys()
+                                                                                          .get(nodeSessionPublicKey));
+        } else {
+            PublicKey nodePublicKey = launcher.generatePublicKey();
+            nodeEncryptedUserCredentials = Credentials.createCredentials(decryptedUserCredentials, nodePublicKey);
+        }
+
+        task.getExecutableContainer().setCredentials(nodeEncryptedUserCredentials);
+    }
+
+    private CredData decryptUserCredentials() throws KeyException {
         CredData decryptedUserCredentials = job.getCredentials().decrypt(corePrivateKey);
 
         if (PASchedulerProperties.SCHEDULER_AUTH_GLOBAL_DOMAIN.isSet() &&
@@ -169,12 +210,7 @@ public class TimedDoTaskAction implements CallableWithTimeoutAction<Void> {
         }
 
         enrichWithThirdPartyCredentials(decryptedUserCredentials);
-
-        PublicKey nodePublicKey = launcher.generatePublicKey();
-        Credentials nodeEncryptedUserCredentials = Credentials.createCredentials(decryptedUserCredentials,
-                                                                                 nodePublicKey);
-
-        task.getExecutableContainer().setCredentials(nodeEncryptedUserCredentials);
+        return decryptedUserCredentials;
     }
 
     protected boolean areThirdPartyCredentialsDefined() {
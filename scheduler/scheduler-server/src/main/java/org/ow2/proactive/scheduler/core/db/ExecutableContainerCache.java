@@ -0,0 +1,198 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive.scheduler.core.db;
+
+import java.io.Serializable;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.apache.log4j.Logger;
+import org.ow2.proactive.scheduler.common.job.JobId;
+import org.ow2.proactive.scheduler.common.task.TaskId;
+import org.ow2.proactive.scheduler.task.containers.ExecutableContainer;
+import org.ow2.proactive.scheduler.task.containers.ScriptExecutableContainer;
+import org.ow2.proactive.scripting.Script;
+import org.ow2.proactive.utils.TaskIdWrapper;
+
+
+/**
+ * Bounded cache of the executable containers loaded from the database for the pending tasks.
+ * <p>
+ * The containers loaded by the scheduling loop for tasks which could not be started are kept here
+ * instead of staying attached to their task, so that the next scheduling loops do not have to query
+ * them again while the memory they use stays bounded. The size of a container is estimated from
+ * its script, the least recently used containers are evicted when the maximum size is exceeded.
+ * <p>
+ * A maximum size of 0 disables the cache.
+ */
+public class ExecutableContainerCache {
+
+    private static final Logger logger = Logger.getLogger(ExecutableContainerCache.class);
+
+    /** Estimated size of a container without its script, in bytes */
+    static final int CONTAINER_BASE_SIZE = 512;
+
+    private final long maxSize;
+
+    private final LinkedHashMap<TaskIdWrapper, CachedContainer> containers = new LinkedHashMap<>(16, 0.75f, true);
+
+    private long size = 0;
+
+    private long hits = 0;
+
+    private long misses = 0;
+
+    /**
+     * @param maxSize maximum estimated size of the cached containers, in bytes
+     */
+    public ExecutableContainerCache(long maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    public boolean isEnabled() {
+        return maxSize > 0;
+    }
+
+    /**
+     * Remove the container of the given task from the cache.
+     *
+     * @return the cached container, null if it is not cached
+     */
+    public synchronized ExecutableContainer take(TaskId taskId) {
+        CachedContainer cached = containers.remove(TaskIdWrapper.wrap(taskId));
+        if (cached == null) {
+            misses++;
+            return null;
+        }
+        hits++;
+        size -= cached.size;
+        return cached.container;
+    }
+
+    /**
+     * Cache the container of the given task, evicting the least recently used ones if needed.
+     */
+    public synchronized void put(TaskId taskId, ExecutableContainer container) {
+        if (!isEnabled()) {
+            return;
+        }
+        long containerSize = estimateSize(container);
+        if (containerSize > maxSize) {
+            return;
+        }
+        CachedContainer previous = containers.put(TaskIdWrapper.wrap(taskId),
+                                                  new CachedContainer(container, containerSize));
+        if (previous != null) {
+            size -= previous.size;
+        }
+        size += containerSize;
+        shrinkTo(maxSize);
+    }
+
+    public synchronized void invalidate(TaskId taskId) {
+        CachedContainer cached = containers.remove(TaskIdWrapper.wrap(taskId));
+        if (cached != null) {
+            size -= cached.size;
+        }
+    }
+
+    /**
+     * Remove the containers of all the tasks of the given job.
+     */
+    public synchronized void invalidateJob(JobId jobId) {
+        Iterator<Map.Entry<TaskIdWrapper, CachedContainer>> iterator = containers.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<TaskIdWrapper, CachedContainer> entry = iterator.next();
+            if (entry.getKey().getTaskId().getJobId().equals(jobId)) {
+                size -= entry.getValue().size;
+                iterator.remove();
+            }
+        }
+    }
+
+    /**
+     * Called when the memory of the scheduler is running low: evict the least recently used half of the cache.
+     */
+    public synchronized void onMemoryPressure() {
+        if (!containers.isEmpty()) {
+            logger.info("Memory is running low, evicting executable containers from the cache (" + containers.size() +
+                        " containers, " + size + " bytes)");
+            shrinkTo(size / 2);
+        }
+    }
+
+    private void shrinkTo(long targetSize) {
+        Iterator<CachedContainer> iterator = containers.values().iterator();
+        while (size > targetSize && iterator.hasNext()) {
+            size -= iterator.next().size;
+            iterator.remove();
+        }
+    }
+
+    public synchronized int getNumberOfContainers() {
+        return containers.size();
+    }
+
+    /**
+     * @return the estimated size of the cached containers, in bytes
+     */
+    public synchronized long getSize() {
+        return size;
+    }
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    static long estimateSize(ExecutableContainer container) {
+        long estimatedSize = CONTAINER_BASE_SIZE;
+        if (container instanceof ScriptExecutableContainer) {
+            Script<Serializable> script = ((ScriptExecutableContainer) container).getScript();
+            if (script != null && script.getScript() != null) {
+                // two bytes per char
+                estimatedSize += 2L * script.getScript().length();
+            }
+        }
+        return estimatedSize;
+    }
+
+    private static final class CachedContainer {
+
+        private final ExecutableContainer container;
+
+        private final long size;
+
+        private CachedContainer(ExecutableContainer container, long size) {
+            this.container = container;
+            this.size = size;
+        }
+    }
+}
@@ -104,6 +104,7 @@ import org.ow2.proactive.scheduler.task.internal.InternalTask;
 import org.ow2.proactive.scripting.InvalidScriptException;
 import org.ow2.proactive.utils.FileToBytesConverter;
 import org.ow2.proactive.utils.ObjectByteConverter;
+import org.ow2.proactive.utils.TaskIdWrapper;
 
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Iterables;
@@ -139,6 +140,11 @@ public class SchedulerDBManager {
 
     private final TransactionHelper transactionHelper;
 
+    private final TaskStatusJournal taskStatusJournal;
+
+    private final ExecutableContainerCache executableContainerCache = new ExecutableContainerCache(PASchedulerProperties.SCHEDULER_DB_EXECUTABLE_CONTAINER_CACHE_SIZE.getValueAsInt() *
+                                                                                                   1024L);
+
     public static SchedulerDBManager createUsingProperties() {
         if (System.getProperty(JAVA_PROPERTYNAME_NODB) != null) {
             return createInMemorySchedulerDBManager();
@@ -192,10 +198,20 @@ public class SchedulerDBManager {
             configuration.setProperty("hibernate.jdbc.use_streams_for_binary", "true");
             configuration.setProperty("hibernate.connection.isolation", "2");
 
+            // send the inserts and updates by JDBC batches, a configuration file can still override these settings
+            setPropertyIfAbsent(configuration,
+                                "hibernate.jdbc.batch_size",
+                                PASchedulerProperties.SCHEDULER_DB_JDBC_BATCH_SIZE.getValueAsString());
+            setPropertyIfAbsent(configuration, "hibernate.order_inserts", "true");
+            setPropertyIfAbsent(configuration, "hibernate.order_updates", "true");
+            setPropertyIfAbsent(configuration, "hibernate.jdbc.batch_versioned_data", "true");
+
             ServiceRegistry serviceRegistry = new StandardServiceRegistryBuilder().applySettings(configuration.getProperties())
                                                                                   .build();
             sessionFactory = configuration.buildSessionFactory(serviceRegistry);
             transactionHelper = new TransactionHelper(sessionFactory);
+            taskStatusJournal = new TaskStatusJournal(transactionHelper,
+                                                      PASchedulerProperties.SCHEDULER_DB_TASK_STATUS_JOURNAL_PERIOD.getValueAsInt());
 
         } catch (Throwable ex) {
             logger.error("Initial SessionFactory creation failed", ex);
@@ -203,6 +219,12 @@ public class SchedulerDBManager {
         }
     }
 
+    private static void setPropertyIfAbsent(Configuration configuration, String name, String value) {
+        if (configuration.getProperty(name) == null) {
+            configuration.setProperty(name, value);
+        }
+    }
+
     public Page<JobInfo> getJobs(final int offset, final int limit, final String user, final boolean pending,
             final boolean running, final boolean finished, final List<SortParameter<JobSortParameter>> sortParameters) {
 
@@ -380,6 +402,9 @@ public class SchedulerDBManager {
 
     public void close() {
         try {
+            if (taskStatusJournal != null) {
+                taskStatusJournal.close();
+            }
             if (sessionFactory != null) {
                 logger.info("Closing session factory");
                 sessionFactory.close();
@@ -994,6 +1019,7 @@ public class SchedulerDBManager {
     }
 
     public void jobTaskStarted(final InternalJob job, final InternalTask task, final boolean taskStatusToPending) {
+        executableContainerCache.invalidate(task.getId());
         executeReadWriteTransaction((SessionWork<Void>) session -> {
             long jobId = jobId(job);
 
@@ -1147,6 +1173,7 @@ public class SchedulerDBManager {
     }
 
     public void killJob(InternalJob job) {
+        executableContainerCache.invalidateJob(job.getId());
         executeReadWriteTransaction((SessionWork<Void>) session -> {
             long jobId = jobId(job);
 
@@ -1228,6 +1255,7 @@ public class SchedulerDBManager {
     }
 
     public void killJobs(List<InternalJob> jobs) {
+        jobs.forEach(job -> executableContainerCache.invalidateJob(job.getId()));
         executeReadWriteTransaction((SessionWork<Void>) session -> {
             List<Long> jobIds = jobs.stream().map(SchedulerDBManager::jobId).collect(Collectors.toList());
 
@@ -1412,6 +1440,10 @@ public class SchedulerDBManager {
 
     public void updateTaskStatusAndScheduledTime(final EligibleTaskDescriptorImpl task, final TaskStatus newStatus,
             final long scheduledTime) {
+        if (taskStatusJournal.isEnabled()) {
+            taskStatusJournal.record(task.getInternal().getId(), newStatus, scheduledTime);
+            return;
+        }
         executeReadWriteTransaction((SessionWork<Void>) session -> {
 
             final DBTaskId dbTaskId = taskId(task.getInternal());
@@ -1503,6 +1535,11 @@ public class SchedulerDBManager {
 
     private void updateAfterTaskFinished(final InternalJob job, final InternalTask finishedTask,
             final TaskResultImpl result, final Set<TaskId> tasksToUpdate) {
+        if (FINISHED_JOB_STATUSES.contains(job.getStatus())) {
+            executableContainerCache.invalidateJob(job.getId());
+        } else {
+            tasksToUpdate.forEach(executableContainerCache::invalidate);
+        }
         executeReadWriteTransaction((SessionWork<Void>) session -> {
             long jobId = jobId(job);
 
@@ -1632,6 +1669,50 @@ public class SchedulerDBManager {
 
     }
 
+    /**
+     * Loads the last results of the given tasks without their values and logs: they only hold the exception,
+     * the metadata and the propagated variables of the results.
+     */
+    public Map<TaskId, TaskResult> loadTasksResultsMetadata(final JobId jobId, final List<TaskId> taskIds) {
+        if (taskIds.isEmpty()) {
+            throw new IllegalArgumentException("TaskIds list is empty");
+        }
+
+        return executeReadOnlyTransaction(session -> {
+            List<DBTaskId> dbTaskIds = taskIds.stream().map(SchedulerDBManager::taskId).collect(Collectors.toList());
+
+            List<Object[]> resultList = (List<Object[]>) session.getNamedQuery("loadTasksResultsMetadata")
+                                                                .setParameterList("tasksIds", dbTaskIds)
+                                                                .list();
+
+            Map<TaskId, TaskResult> resultsMap = new HashMap<>(taskIds.size());
+            DBTaskId currentTaskId = null;
+            for (Object[] result : resultList) {
+                DBTaskId dbTaskId = (DBTaskId) result[0];
+                // results are sorted by descending time, the first one of each task is the last result
+                if (!dbTaskId.equals(currentTaskId)) {
+                    TaskId taskId = TaskIdImpl.createTaskId(jobId, (String) result[1], dbTaskId.getTaskId());
+                    resultsMap.put(taskId,
+                                   new TaskResultImpl(taskId,
+                                                      null,
+                                                      (byte[]) result[2],
+                                                      null,
+                                                      (Map<String, String>) result[3],
+                                                      (Map<String, byte[]>) result[4],
+                                                      false));
+                    currentTaskId = dbTaskId;
+                }
+            }
+
+            if (resultsMap.size() != taskIds.size()) {
+                throw new DatabaseManagerException("Failed to load result metadata for tasks " + taskIds + " (job: " +
+                                                   jobId + ")");
+            }
+
+            return resultsMap;
+        });
+    }
+
     public JobResult loadJobResult(final JobId jobId) {
         return executeReadOnlyTransaction((SessionWork<JobResult>) session -> {
             long id = jobId(jobId);
@@ -1811,11 +1892,27 @@ public class SchedulerDBManager {
             }
 
             List<InternalTask> tasks = job.getITasks();
-            List<TaskData> taskRuntimeDataList = new ArrayList<>(tasks.size());
+            List<InternalTask> tasksWithIfBranch = new ArrayList<>();
+            int batchSize = PASchedulerProperties.SCHEDULER_DB_JDBC_BATCH_SIZE.getValueAsInt();
+            int counter = 0;
             for (InternalTask task : tasks) {
-                taskRuntimeDataList.add(saveNewTask(session, jobRuntimeData, task));
+                TaskData taskRuntimeData = saveNewTask(session, jobRuntimeData, task);
+                // dependencies are only identifiers, they can be saved before the tasks they refer to
+                saveTaskDependenciesIds(task, taskRuntimeData);
+                if (task.getIfBranch() != null) {
+                    tasksWithIfBranch.add(task);
+                }
+                if (batchSize > 0 && ++counter % batchSize == 0) {
+                    // send the pending inserts as JDBC batches and keep the session small
+                    session.flush();
+                    session.clear();
+                }
+            }
+
+            // an if branch references another task, which must be saved first
+            for (InternalTask task : tasksWithIfBranch) {
+                getTaskReference(session, task).setIfBranch(getTaskReference(session, task.getIfBranch()));
             }
-            saveTaskDependencies(session, tasks, taskRuntimeDataList);
 
             return jobRuntimeData;
         });
@@ -1825,15 +1922,17 @@ public class SchedulerDBManager {
         return session.get(TaskData.class, taskId(task));
     }
 
-    private void saveTaskDependencies(Session session, List<InternalTask> tasks, List<TaskData> taskRuntimeDataList) {
-        for (int i = 0; i < tasks.size(); i++) {
-            InternalTask task = tasks.get(i);
-            TaskData taskRuntimeData = taskRuntimeDataList.get(i);
-            saveSingleTaskDependencies(session, task, taskRuntimeData);
+    private void saveSingleTaskDependencies(Session session, InternalTask task, TaskData taskRuntimeData) {
+        saveTaskDependenciesIds(task, taskRuntimeData);
+
+        if (task.getIfBranch() != null) {
+            taskRuntimeData.setIfBranch(getTaskReference(session, task.getIfBranch()));
+        } else {
+            taskRuntimeData.setIfBranch(null);
         }
     }
 
-    private void saveSingleTaskDependencies(Session session, InternalTask task, TaskData taskRuntimeData) {
+    private void saveTaskDependenciesIds(InternalTask task, TaskData taskRuntimeData) {
         if (task.hasDependences()) {
             List<DBTaskId> dependencies = task.getDependences()
                                               .stream()
@@ -1845,12 +1944,6 @@ public class SchedulerDBManager {
             taskRuntimeData.setDependentTasks(Collections.emptyList());
         }
 
-        if (task.getIfBranch() != null) {
-            taskRuntimeData.setIfBranch(getTaskReference(session, task.getIfBranch()));
-        } else {
-            taskRuntimeData.setIfBranch(null);
-        }
-
         if (task.getJoinedBranches() != null && !task.getJoinedBranches().isEmpty()) {
             List<DBTaskId> joinedBranches = task.getJoinedBranches()
                                                 .stream()
@@ -1910,6 +2003,60 @@ public class SchedulerDBManager {
         return executeReadOnlyTransaction(session -> loadExecutableContainer(session, task));
     }
 
+    /**
+     * Load the executable containers of the given tasks, taking them from the cache when possible
+     * and querying the others at once.
+     *
+     * @return the loaded containers, the tasks whose container cannot be found are missing
+     */
+    public Map<TaskIdWrapper, ExecutableContainer> loadExecutableContainers(final List<InternalTask> tasks) {
+        Map<TaskIdWrapper, ExecutableContainer> containers = new HashMap<>(tasks.size());
+        Map<DBTaskId, InternalTask> tasksToLoad = new HashMap<>();
+        for (InternalTask task : tasks) {
+            ExecutableContainer container = executableContainerCache.isEnabled() ? executableContainerCache.take(task.getId())
+                                                                                 : null;
+            if (container != null) {
+                containers.put(TaskIdWrapper.wrap(task.getId()), container);
+            } else if (isScriptTask(task)) {
+                tasksToLoad.put(taskId(task), task);
+            } else {
+                throw new IllegalArgumentException("Unexpected task class: " + task.getClass());
+            }
+        }
+        if (tasksToLoad.isEmpty()) {
+            return containers;
+        }
+        return executeReadOnlyTransaction(session -> {
+            List<TaskData> tasksData = session.getNamedQuery("findTaskData")
+                                              .setParameterList("ids", tasksToLoad.keySet())
+                                              .list();
+            for (TaskData taskData : tasksData) {
+                InternalTask task = tasksToLoad.get(taskData.getId());
+                try {
+                    containers.put(TaskIdWrapper.wrap(task.getId()), taskData.createExecutableContainer());
+                } catch (InvalidScriptException e) {
+                    logger.warn("Failed to create the executable container of task " + task.getId(), e);
+                }
+            }
+            return containers;
+        });
+    }
+
+    /**
+     * Detach the executable container from the given task, which is not going to be started, and keep it
+     * in the cache. Does nothing if the cache is disabled.
+     */
+    public void releaseExecutableContainer(InternalTask task) {
+        if (executableContainerCache.isEnabled() && task.getExecutableContainer() != null) {
+            executableContainerCache.put(task.getId(), task.getExecutableContainer());
+            task.setExecutableContainer(null);
+        }
+    }
+
+    public ExecutableContainerCache getExecutableContainerCache() {
+        return executableContainerCache;
+    }
+
     public List<SchedulerUserInfo> loadUsersWithJobs() {
         return executeReadOnlyTransaction(session -> {
             Query query = session.getNamedQuery("findUsersWithJobs");
@@ -1927,10 +2074,13 @@ public class SchedulerDBManager {
     }
 
     public <T> T executeReadWriteTransaction(SessionWork<T> sessionWork) {
+        // journaled updates must not be applied after this transaction
+        taskStatusJournal.flush();
         return transactionHelper.executeReadWriteTransaction(sessionWork);
     }
 
     private <T> T executeReadWriteTransaction(SessionWork<T> sessionWork, boolean readOnlyEntities) {
+        taskStatusJournal.flush();
         return transactionHelper.executeReadWriteTransaction(sessionWork, readOnlyEntities);
     }
 
@@ -2076,6 +2226,10 @@ public class SchedulerDBManager {
         return transactionHelper;
     }
 
+    public TaskStatusJournal getTaskStatusJournal() {
+        return taskStatusJournal;
+    }
+
     public Map<Long, Map<String, Serializable>> getJobResultMaps(List<String> jobsId) {
         if (jobsId.isEmpty()) {
             return Collections.emptyMap();
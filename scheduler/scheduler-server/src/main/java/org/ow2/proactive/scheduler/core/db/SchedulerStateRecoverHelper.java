@@ -211,6 +211,7 @@ public class SchedulerStateRecoverHelper {
     private void recoverTaskOtherThanRunning(TaskStatusCounter counter, InternalTask task) {
         // recount existing pending tasks. We base this number on the
         // definition provided in SchedulerDBManager#PENDING_TASKS
+        // a task whose pending status was still in the TaskStatusJournal is recovered as submitted
         if (task.getStatus().equals(TaskStatus.PENDING) || task.getStatus().equals(TaskStatus.SUBMITTED) ||
             task.getStatus().equals(TaskStatus.NOT_STARTED)) {
             counter.incrementPendingTasks();
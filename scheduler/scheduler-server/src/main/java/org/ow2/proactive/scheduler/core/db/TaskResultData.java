@@ -49,6 +49,8 @@ import org.ow2.proactive.scheduler.task.TaskResultImpl;
                 @NamedQuery(name = "loadTasksResultByTaskAsc", query = "from TaskResultData result where result.taskRuntimeData = :task order by result.resultTime"),
                 @NamedQuery(name = "loadTasksResults", query = "select taskResult, " + "task.id, " + "task.taskName, " +
                                                                "task.preciousResult from TaskResultData as taskResult join taskResult.taskRuntimeData as task " + "where task.id in (:tasksIds) order by task.id, taskResult.resultTime desc"),
+                @NamedQuery(name = "loadTasksResultsMetadata", query = "select task.id, task.taskName, taskResult.serializedException, " +
+                                                                       "taskResult.metadata, taskResult.propagatedVariables from TaskResultData as taskResult join taskResult.taskRuntimeData as task " + "where task.id in (:tasksIds) order by task.id, taskResult.resultTime desc"),
                 @NamedQuery(name = "countTaskResultData", query = "select count (*) from TaskResultData") })
 @Table(name = "TASK_RESULT_DATA", indexes = { @Index(name = "TASK_RESULT_DATA_RUNTIME_DATA", columnList = "JOB_ID,TASK_ID") })
 public class TaskResultData {
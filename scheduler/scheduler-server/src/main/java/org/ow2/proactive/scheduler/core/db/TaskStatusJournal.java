@@ -0,0 +1,197 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive.scheduler.core.db;
+
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.log4j.Logger;
+import org.objectweb.proactive.utils.NamedThreadFactory;
+import org.ow2.proactive.db.TransactionHelper;
+import org.ow2.proactive.scheduler.common.task.TaskId;
+import org.ow2.proactive.scheduler.common.task.TaskStatus;
+import org.ow2.proactive.utils.TaskIdWrapper;
+
+
+/**
+ * Write-behind journal of the task status transitions done by the scheduling loop.
+ * <p>
+ * Instead of one transaction per task, the recorded status and scheduled time updates are coalesced
+ * per task (only the latest one is kept) and periodically written in a single transaction, using a
+ * JDBC batch. The journal is also flushed before any other read/write transaction of the
+ * {@link SchedulerDBManager}, so that the journaled updates are never applied after a more recent
+ * synchronous update of the same tasks.
+ * <p>
+ * Only transitions whose loss is harmless must be journaled: a pending task whose update is lost
+ * when the scheduler stops is recovered by the {@link SchedulerStateRecoverHelper} with its previous
+ * status (i.e. SUBMITTED), which is handled as a pending task as well.
+ * <p>
+ * A period of 0 disables the journal, the updates must then be written synchronously.
+ */
+public class TaskStatusJournal {
+
+    private static final Logger logger = Logger.getLogger(TaskStatusJournal.class);
+
+    /** Number of journaled updates above which the journal is flushed without waiting for the period */
+    static final int MAXIMUM_JOURNALED_UPDATES = 1000;
+
+    /** The task status is mapped by ordinal, see {@link TaskData#getTaskStatus()} */
+    private static final String UPDATE_TASK_STATUS_SQL = "UPDATE TASK_DATA SET STATUS = ?, SCHEDULED_TIME = ? " +
+                                                         "WHERE TASK_ID_JOB = ? AND TASK_ID_TASK = ?";
+
+    private final TransactionHelper transactionHelper;
+
+    private final long period;
+
+    private final Map<TaskIdWrapper, TaskStatusUpdate> journaledUpdates = new LinkedHashMap<>();
+
+    /** Serializes the flushes so that the updates are written in order */
+    private final Object flushLock = new Object();
+
+    private ScheduledExecutorService flushExecutor;
+
+    /**
+     * @param period the period of the flushes, in milliseconds
+     */
+    public TaskStatusJournal(TransactionHelper transactionHelper, long period) {
+        this.transactionHelper = transactionHelper;
+        this.period = period;
+        if (isEnabled()) {
+            flushExecutor = Executors.newSingleThreadScheduledExecutor(new NamedThreadFactory("TaskStatusJournal"));
+            flushExecutor.scheduleWithFixedDelay(this::flushQuietly, period, period, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    public boolean isEnabled() {
+        return period > 0;
+    }
+
+    /**
+     * Record the new status and scheduled time of the given task, replacing its previous journaled update.
+     */
+    public void record(TaskId taskId, TaskStatus status, long scheduledTime) {
+        boolean flushNeeded;
+        synchronized (this) {
+            TaskIdWrapper key = TaskIdWrapper.wrap(taskId);
+            // keep the journal ordered by last update
+            journaledUpdates.remove(key);
+            journaledUpdates.put(key, new TaskStatusUpdate(taskId, status, scheduledTime));
+            flushNeeded = journaledUpdates.size() >= MAXIMUM_JOURNALED_UPDATES;
+        }
+        if (flushNeeded) {
+            flush();
+        }
+    }
+
+    /**
+     * Write all the journaled updates to the database. If the transaction fails, the updates are kept
+     * in the journal, unless they have been replaced in the meantime.
+     */
+    public void flush() {
+        synchronized (flushLock) {
+            List<TaskStatusUpdate> updates;
+            synchronized (this) {
+                if (journaledUpdates.isEmpty()) {
+                    return;
+                }
+                updates = new ArrayList<>(journaledUpdates.values());
+                journaledUpdates.clear();
+            }
+            try {
+                write(updates);
+            } catch (RuntimeException e) {
+                synchronized (this) {
+                    for (TaskStatusUpdate update : updates) {
+                        journaledUpdates.putIfAbsent(TaskIdWrapper.wrap(update.taskId), update);
+                    }
+                }
+                throw e;
+            }
+        }
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (Exception e) {
+            logger.warn("Failed to write the journaled task status updates, they will be retried", e);
+        }
+    }
+
+    private void write(List<TaskStatusUpdate> updates) {
+        logger.debug("Write " + updates.size() + " journaled task status updates");
+        transactionHelper.executeReadWriteTransaction(session -> {
+            session.doWork(connection -> {
+                try (PreparedStatement statement = connection.prepareStatement(UPDATE_TASK_STATUS_SQL)) {
+                    for (TaskStatusUpdate update : updates) {
+                        statement.setInt(1, update.status.ordinal());
+                        statement.setLong(2, update.scheduledTime);
+                        statement.setLong(3, update.taskId.getJobId().longValue());
+                        statement.setLong(4, update.taskId.longValue());
+                        statement.addBatch();
+                    }
+                    statement.executeBatch();
+                }
+            });
+            return null;
+        });
+    }
+
+    public synchronized int getJournaledUpdatesNumber() {
+        return journaledUpdates.size();
+    }
+
+    /**
+     * Stop the periodic flushes and write the remaining updates.
+     */
+    public void close() {
+        if (flushExecutor != null) {
+            flushExecutor.shutdown();
+        }
+        flushQuietly();
+    }
+
+    private static final class TaskStatusUpdate {
+
+        private final TaskId taskId;
+
+        private final TaskStatus status;
+
+        private final long scheduledTime;
+
+        private TaskStatusUpdate(TaskId taskId, TaskStatus status, long scheduledTime) {
+            this.taskId = taskId;
+            this.status = status;
+            this.scheduledTime = scheduledTime;
+        }
+    }
+}
@@ -28,10 +28,12 @@ package org.ow2.proactive.scheduler.core.helpers;
 import org.apache.log4j.Logger;
 import org.hibernate.stat.Statistics;
 import org.ow2.proactive.scheduler.common.SchedulerState;
+import org.ow2.proactive.scheduler.core.db.ExecutableContainerCache;
 
 
 /**
  * JobsMemoryMonitorRunner will ask Hibernate for the statistics metrics.
+ * It also checks the heap usage and shrinks the executable containers cache when the memory is running low.
  *
  * @author ActiveEon Team
  * @since 14/02/17
@@ -42,12 +44,19 @@ public class JobsMemoryMonitorRunner implements Runnable {
 
     private SchedulerState schedulerState;
 
+    private ExecutableContainerCache executableContainerCache;
+
+    /** Ratio of the maximum heap size above which the memory is considered as running low */
+    static final double MEMORY_PRESSURE_THRESHOLD = 0.85;
+
     private static final Logger logger = Logger.getLogger(JobsMemoryMonitorRunner.class);
 
-    public JobsMemoryMonitorRunner(Statistics statistics, SchedulerState schedulerState) {
+    public JobsMemoryMonitorRunner(Statistics statistics, SchedulerState schedulerState,
+            ExecutableContainerCache executableContainerCache) {
         statistics.setStatisticsEnabled(true);
         this.stats = statistics;
         this.schedulerState = schedulerState;
+        this.executableContainerCache = executableContainerCache;
     }
 
     private void printHibernateStats() {
@@ -73,9 +82,21 @@ public class JobsMemoryMonitorRunner implements Runnable {
                      allJobsComputed);
     }
 
+    private void checkMemoryPressure() {
+        Runtime runtime = Runtime.getRuntime();
+        long usedMemory = runtime.totalMemory() - runtime.freeMemory();
+        logger.debug("[Memory] usedMemory: " + usedMemory + ", maxMemory: " + runtime.maxMemory() +
+                     ", executableContainersCache: " + executableContainerCache.getNumberOfContainers() +
+                     " containers, " + executableContainerCache.getSize() + " bytes");
+        if (usedMemory > MEMORY_PRESSURE_THRESHOLD * runtime.maxMemory()) {
+            executableContainerCache.onMemoryPressure();
+        }
+    }
+
     @Override
     public void run() {
         printHibernateStats();
         printSchedulerState();
+        checkMemoryPressure();
     }
 }
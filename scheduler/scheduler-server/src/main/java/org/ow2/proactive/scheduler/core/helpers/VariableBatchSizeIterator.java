@@ -25,20 +25,39 @@
  */
 package org.ow2.proactive.scheduler.core.helpers;
 
+import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
 
 
 public class VariableBatchSizeIterator<T> {
     final private List<T> rawList;
 
+    /** Source of the elements when they are produced lazily, null when iterating over a list */
+    final private Iterator<T> source;
+
     private int offset;
 
     public VariableBatchSizeIterator(List<T> list) {
         this.rawList = list;
+        this.source = null;
+        this.offset = 0;
+    }
+
+    /**
+     * Iterate over elements produced lazily by the given iterator, elements are only pulled from
+     * the iterator when a batch containing them is requested
+     */
+    public VariableBatchSizeIterator(Iterator<T> iterator) {
+        this.rawList = null;
+        this.source = iterator;
         this.offset = 0;
     }
 
     public boolean hasMoreElements() {
+        if (source != null) {
+            return source.hasNext();
+        }
         return offset < rawList.size();
     }
 
@@ -51,6 +70,14 @@ public class VariableBatchSizeIterator<T> {
         if (limit < 0) {
             throw new IllegalArgumentException("limit cannot be negative. Given: " + limit);
         }
+        if (source != null) {
+            List<T> batch = new ArrayList<>(Math.min(limit, 64));
+            while (batch.size() < limit && source.hasNext()) {
+                batch.add(source.next());
+            }
+            offset += batch.size();
+            return batch;
+        }
         int upperIndexExclusive = Math.min(rawList.size(), offset + limit);
         List<T> subList = rawList.subList(offset, upperIndexExclusive);
         offset = upperIndexExclusive;
@@ -35,13 +35,17 @@ import org.apache.commons.io.FileUtils;
 import org.apache.log4j.Logger;
 import org.ow2.proactive.jmx.AbstractJMXHelper;
 import org.ow2.proactive.jmx.RRDDataStore;
+import org.ow2.proactive.scheduler.common.job.factories.JobCreationMetrics;
 import org.ow2.proactive.scheduler.core.account.SchedulerAccountsManager;
 import org.ow2.proactive.scheduler.core.db.SchedulerDBManager;
 import org.ow2.proactive.scheduler.core.jmx.mbean.AllAccountsMBeanImpl;
+import org.ow2.proactive.scheduler.core.jmx.mbean.JobCreationMetricsMBeanImpl;
 import org.ow2.proactive.scheduler.core.jmx.mbean.ManagementMBeanImpl;
 import org.ow2.proactive.scheduler.core.jmx.mbean.MyAccountMBeanImpl;
 import org.ow2.proactive.scheduler.core.jmx.mbean.RuntimeDataMBeanImpl;
+import org.ow2.proactive.scheduler.core.jmx.mbean.SchedulingMetricsMBeanImpl;
 import org.ow2.proactive.scheduler.core.properties.PASchedulerProperties;
+import org.ow2.proactive.scheduler.util.SchedulingMetrics;
 
 
 /**
@@ -62,6 +66,10 @@ public class SchedulerJMXHelper extends AbstractJMXHelper {
 
     public static final String MANAGEMENT_MBEAN_NAME = "ProActiveScheduler:name=Management";
 
+    public static final String SCHEDULING_METRICS_MBEAN_NAME = "ProActiveScheduler:name=SchedulingMetrics";
+
+    public static final String JOB_CREATION_METRICS_MBEAN_NAME = "ProActiveScheduler:name=JobCreationMetrics";
+
     /** The single instance of this class */
     private static SchedulerJMXHelper instance;
 
@@ -155,6 +163,24 @@ public class SchedulerJMXHelper extends AbstractJMXHelper {
         } catch (Exception e) {
             LOGGER.error("Unable to register the ManagementMBean", e);
         }
+
+        // Register the SchedulingMetrics MBean into the MBean server
+        try {
+            final SchedulingMetricsMBeanImpl schedulingMetricsMBean = new SchedulingMetricsMBeanImpl(SchedulingMetrics.getInstance());
+            final ObjectName name = new ObjectName(SCHEDULING_METRICS_MBEAN_NAME);
+            mbs.registerMBean(schedulingMetricsMBean, name);
+        } catch (Exception e) {
+            LOGGER.error("Unable to register the SchedulingMetricsMBean", e);
+        }
+
+        // Register the JobCreationMetrics MBean into the MBean server
+        try {
+            final JobCreationMetricsMBeanImpl jobCreationMetricsMBean = new JobCreationMetricsMBeanImpl(JobCreationMetrics.getInstance());
+            final ObjectName name = new ObjectName(JOB_CREATION_METRICS_MBEAN_NAME);
+            mbs.registerMBean(jobCreationMetricsMBean, name);
+        } catch (Exception e) {
+            LOGGER.error("Unable to register the JobCreationMetricsMBean", e);
+        }
     }
 
     /**
@@ -0,0 +1,60 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive.scheduler.core.jmx.mbean;
+
+/**
+ * MBean interface exposing the durations of the stages of the creation of jobs from workflows, cumulated over all
+ * the jobs created by the scheduler JVM (see {@link org.ow2.proactive.scheduler.common.job.factories.JobCreationMetrics}).
+ * The durations are in milliseconds.
+ */
+public interface JobCreationMetricsMBean {
+
+    /**
+     * @return the number of jobs created from workflows
+     */
+    long getCreatedJobsCount();
+
+    double getReadAverageMs();
+
+    long getReadMaxMs();
+
+    double getXmlValidationAverageMs();
+
+    long getXmlValidationMaxMs();
+
+    double getParsingAverageMs();
+
+    long getParsingMaxMs();
+
+    double getDependenciesAverageMs();
+
+    long getDependenciesMaxMs();
+
+    double getJobValidationAverageMs();
+
+    long getJobValidationMaxMs();
+
+}
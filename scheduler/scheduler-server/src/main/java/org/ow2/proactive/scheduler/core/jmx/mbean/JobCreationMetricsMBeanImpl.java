@@ -0,0 +1,96 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive.scheduler.core.jmx.mbean;
+
+import static org.ow2.proactive.scheduler.common.job.factories.JobCreationMetrics.Stage.DEPENDENCIES;
+import static org.ow2.proactive.scheduler.common.job.factories.JobCreationMetrics.Stage.JOB_VALIDATION;
+import static org.ow2.proactive.scheduler.common.job.factories.JobCreationMetrics.Stage.PARSING;
+import static org.ow2.proactive.scheduler.common.job.factories.JobCreationMetrics.Stage.READ;
+import static org.ow2.proactive.scheduler.common.job.factories.JobCreationMetrics.Stage.XML_VALIDATION;
+
+import javax.management.NotCompliantMBeanException;
+import javax.management.StandardMBean;
+
+import org.ow2.proactive.scheduler.common.job.factories.JobCreationMetrics;
+
+
+/**
+ * Implementation of the JobCreationMetricsMBean interface.
+ */
+public final class JobCreationMetricsMBeanImpl extends StandardMBean implements JobCreationMetricsMBean {
+
+    private final JobCreationMetrics metrics;
+
+    public JobCreationMetricsMBeanImpl(JobCreationMetrics metrics) throws NotCompliantMBeanException {
+        super(JobCreationMetricsMBean.class);
+        this.metrics = metrics;
+    }
+
+    public long getCreatedJobsCount() {
+        return metrics.getNumberOfCreatedJobs();
+    }
+
+    public double getReadAverageMs() {
+        return metrics.getAverageDuration(READ);
+    }
+
+    public long getReadMaxMs() {
+        return metrics.getMaxDuration(READ);
+    }
+
+    public double getXmlValidationAverageMs() {
+        return metrics.getAverageDuration(XML_VALIDATION);
+    }
+
+    public long getXmlValidationMaxMs() {
+        return metrics.getMaxDuration(XML_VALIDATION);
+    }
+
+    public double getParsingAverageMs() {
+        return metrics.getAverageDuration(PARSING);
+    }
+
+    public long getParsingMaxMs() {
+        return metrics.getMaxDuration(PARSING);
+    }
+
+    public double getDependenciesAverageMs() {
+        return metrics.getAverageDuration(DEPENDENCIES);
+    }
+
+    public long getDependenciesMaxMs() {
+        return metrics.getMaxDuration(DEPENDENCIES);
+    }
+
+    public double getJobValidationAverageMs() {
+        return metrics.getAverageDuration(JOB_VALIDATION);
+    }
+
+    public long getJobValidationMaxMs() {
+        return metrics.getMaxDuration(JOB_VALIDATION);
+    }
+
+}
@@ -0,0 +1,185 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive.scheduler.core.jmx.mbean;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import javax.management.Attribute;
+import javax.management.AttributeList;
+import javax.management.AttributeNotFoundException;
+import javax.management.DynamicMBean;
+import javax.management.MBeanAttributeInfo;
+import javax.management.MBeanInfo;
+import javax.management.MBeanOperationInfo;
+import javax.management.ReflectionException;
+
+import org.ow2.proactive.scheduler.util.LatencyHistogram;
+import org.ow2.proactive.scheduler.util.SchedulingMetrics;
+
+
+/**
+ * MBean exposing the {@link SchedulingMetrics} of the scheduling loop.
+ * <p>
+ * Every metric is a read-only {@code long} attribute: the counters, one attribute per gauge of
+ * {@link SchedulingMetrics#GAUGES}, and for each stage of {@link SchedulingMetrics#STAGES} its count, mean, 50th,
+ * 90th and 99th percentiles and maximum latency in microseconds (i.e. {@code getRMNodes_P99Us}). The set of
+ * attributes is fixed, as JMX clients read the attribute names once. The {@code reset} operation clears the counters
+ * and the histograms.
+ */
+public final class SchedulingMetricsMBeanImpl implements DynamicMBean {
+
+    private static final String RESET_OPERATION = "reset";
+
+    private static final List<String> COUNTERS = Arrays.asList("SchedulingLoops",
+                                                               "TasksStarted",
+                                                               "TasksSkipped",
+                                                               "TasksRetried");
+
+    private static final List<String> STAGE_METRICS = Arrays.asList("_Count",
+                                                                    "_MeanUs",
+                                                                    "_P50Us",
+                                                                    "_P90Us",
+                                                                    "_P99Us",
+                                                                    "_MaxUs");
+
+    private static final MBeanInfo MBEAN_INFO = createMBeanInfo();
+
+    private final SchedulingMetrics metrics;
+
+    public SchedulingMetricsMBeanImpl(SchedulingMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    /**
+     * @return the names of the attributes, in the order of {@link #getMetricValues()}
+     */
+    static List<String> getAttributeNames() {
+        List<String> names = new ArrayList<>(COUNTERS);
+        names.addAll(SchedulingMetrics.GAUGES);
+        for (String stage : SchedulingMetrics.STAGES) {
+            for (String stageMetric : STAGE_METRICS) {
+                names.add(stage + stageMetric);
+            }
+        }
+        return names;
+    }
+
+    /**
+     * @return the current value of every metric, in the order of the attributes
+     */
+    Map<String, Long> getMetricValues() {
+        Map<String, Long> values = new LinkedHashMap<>();
+        values.put("SchedulingLoops", metrics.getSchedulingLoops());
+        values.put("TasksStarted", metrics.getTasksStarted());
+        values.put("TasksSkipped", metrics.getTasksSkipped());
+        values.put("TasksRetried", metrics.getTasksRetried());
+        for (String gauge : SchedulingMetrics.GAUGES) {
+            values.put(gauge, metrics.getGaugeValue(gauge));
+        }
+        for (String stage : SchedulingMetrics.STAGES) {
+            LatencyHistogram histogram = metrics.getStageLatency(stage);
+            values.put(stage + "_Count", histogram.getCount());
+            values.put(stage + "_MeanUs", histogram.getMean(TimeUnit.MICROSECONDS));
+            values.put(stage + "_P50Us", histogram.getValueAtPercentile(50, TimeUnit.MICROSECONDS));
+            values.put(stage + "_P90Us", histogram.getValueAtPercentile(90, TimeUnit.MICROSECONDS));
+            values.put(stage + "_P99Us", histogram.getValueAtPercentile(99, TimeUnit.MICROSECONDS));
+            values.put(stage + "_MaxUs", histogram.getMax(TimeUnit.MICROSECONDS));
+        }
+        return values;
+    }
+
+    @Override
+    public Object getAttribute(String attribute) throws AttributeNotFoundException {
+        Long value = getMetricValues().get(attribute);
+        if (value == null) {
+            throw new AttributeNotFoundException("Unknown scheduling metric: " + attribute);
+        }
+        return value;
+    }
+
+    @Override
+    public AttributeList getAttributes(String[] attributes) {
+        // the metrics are read once for all the requested attributes
+        Map<String, Long> values = getMetricValues();
+        AttributeList list = new AttributeList();
+        for (String attribute : attributes) {
+            Long value = values.get(attribute);
+            if (value != null) {
+                list.add(new Attribute(attribute, value));
+            }
+        }
+        return list;
+    }
+
+    @Override
+    public void setAttribute(Attribute attribute) throws AttributeNotFoundException {
+        throw new AttributeNotFoundException("Scheduling metrics are read-only: " + attribute.getName());
+    }
+
+    @Override
+    public AttributeList setAttributes(AttributeList attributes) {
+        // scheduling metrics are read-only
+        return new AttributeList();
+    }
+
+    @Override
+    public Object invoke(String actionName, Object[] params, String[] signature) throws ReflectionException {
+        if (RESET_OPERATION.equals(actionName)) {
+            metrics.reset();
+            return null;
+        }
+        throw new ReflectionException(new NoSuchMethodException(actionName), "Unknown operation: " + actionName);
+    }
+
+    @Override
+    public MBeanInfo getMBeanInfo() {
+        return MBEAN_INFO;
+    }
+
+    private static MBeanInfo createMBeanInfo() {
+        List<MBeanAttributeInfo> attributes = new ArrayList<>();
+        for (String name : getAttributeNames()) {
+            attributes.add(new MBeanAttributeInfo(name, "long", name, true, false, false));
+        }
+        MBeanOperationInfo reset = new MBeanOperationInfo(RESET_OPERATION,
+                                                          "Clear the counters and the latency histograms",
+                                                          null,
+                                                          "void",
+                                                          MBeanOperationInfo.ACTION);
+        return new MBeanInfo(SchedulingMetricsMBeanImpl.class.getName(),
+                             "Metrics of the scheduling loop",
+                             attributes.toArray(new MBeanAttributeInfo[attributes.size()]),
+                             null,
+                             new MBeanOperationInfo[] { reset },
+                             null);
+    }
+
+}
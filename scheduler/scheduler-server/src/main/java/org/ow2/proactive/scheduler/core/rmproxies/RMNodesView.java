@@ -0,0 +1,215 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive.scheduler.core.rmproxies;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.apache.log4j.Logger;
+import org.ow2.proactive.resourcemanager.common.NodeState;
+import org.ow2.proactive.resourcemanager.common.RMState;
+import org.ow2.proactive.resourcemanager.common.RMStateNodeUrls;
+import org.ow2.proactive.resourcemanager.common.event.RMEventType;
+import org.ow2.proactive.resourcemanager.common.event.RMNodeEvent;
+
+
+/**
+ * Local view of the nodes of the resource manager, maintained from the node events sent by the resource manager.
+ * <p>
+ * The view is reconciled with the state of the resource manager when it is created, periodically, and when
+ * a gap is detected in the counters of the received events (events are numbered consecutively for each
+ * listener by the resource manager). Events received while the state of the resource manager is being
+ * retrieved are applied again on top of it, so that they are not overwritten by an older state.
+ * <p>
+ * Each modification of the view increments its version, which allows clients to fetch the nodes
+ * only when they changed.
+ */
+class RMNodesView {
+
+    private static final Logger logger = Logger.getLogger(RMNodesView.class);
+
+    private final long reconciliationPeriod;
+
+    private final Set<String> freeNodes = new HashSet<>();
+
+    private final Set<String> aliveNodes = new HashSet<>();
+
+    private final Set<String> allNodes = new HashSet<>();
+
+    private Long maxNumberOfNodes;
+
+    private long version = 0;
+
+    /** counter of the next expected event, -1 if unknown */
+    private long expectedCounter = -1;
+
+    private boolean outOfSync = true;
+
+    private long lastReconciliationTime = 0;
+
+    /** events received during a reconciliation, null if no reconciliation is in progress */
+    private List<NodeChange> eventsDuringReconciliation;
+
+    /**
+     * @param reconciliationPeriod period between two reconciliations with the resource manager state (in ms)
+     */
+    RMNodesView(long reconciliationPeriod) {
+        this.reconciliationPeriod = reconciliationPeriod;
+    }
+
+    /**
+     * Set the counter of the last event included in the initial state returned to the listener
+     */
+    synchronized void setLatestCounter(long latestCounter) {
+        if (expectedCounter < 0) {
+            expectedCounter = latestCounter + 1;
+        }
+    }
+
+    synchronized void nodeEvent(RMNodeEvent event) {
+        nodeEvent(event.getCounter(),
+                  new NodeChange(event.getNodeUrl(), event.getEventType(), event.getNodeState(), event.isLocked()));
+    }
+
+    synchronized void nodeEvent(long counter, NodeChange change) {
+        if (eventsDuringReconciliation != null) {
+            eventsDuringReconciliation.add(change);
+        }
+        if (expectedCounter >= 0 && counter != expectedCounter) {
+            logger.debug("Missed node events, expected counter " + expectedCounter + " but received " + counter);
+            outOfSync = true;
+        }
+        expectedCounter = counter + 1;
+        apply(change);
+        version++;
+    }
+
+    private void apply(NodeChange change) {
+        String nodeUrl = change.nodeUrl;
+        if (change.eventType == RMEventType.NODE_REMOVED || change.state == NodeState.DEPLOYING ||
+            change.state == NodeState.LOST) {
+            // deploying and lost nodes are not registered in the resource manager yet
+            freeNodes.remove(nodeUrl);
+            aliveNodes.remove(nodeUrl);
+            allNodes.remove(nodeUrl);
+            return;
+        }
+        allNodes.add(nodeUrl);
+        if (change.state == NodeState.DOWN) {
+            aliveNodes.remove(nodeUrl);
+        } else {
+            aliveNodes.add(nodeUrl);
+        }
+        if (change.state == NodeState.FREE && !change.locked) {
+            freeNodes.add(nodeUrl);
+        } else {
+            freeNodes.remove(nodeUrl);
+        }
+    }
+
+    /**
+     * Tell if the view must be reconciled with the state of the resource manager
+     */
+    synchronized boolean needsReconciliation() {
+        return outOfSync || System.currentTimeMillis() - lastReconciliationTime >= reconciliationPeriod;
+    }
+
+    /**
+     * Must be called before retrieving the state of the resource manager used by {@link #endReconciliation(RMState)}
+     */
+    synchronized void beginReconciliation() {
+        if (eventsDuringReconciliation == null) {
+            eventsDuringReconciliation = new ArrayList<>();
+        }
+    }
+
+    /**
+     * Replace the content of the view by the given resource manager state
+     */
+    synchronized void endReconciliation(RMState state) {
+        freeNodes.clear();
+        freeNodes.addAll(state.getFreeNodes());
+        aliveNodes.clear();
+        aliveNodes.addAll(state.getAliveNodes());
+        allNodes.clear();
+        allNodes.addAll(state.getAllNodes());
+        maxNumberOfNodes = state.getMaxNumberOfNodes();
+        if (eventsDuringReconciliation != null) {
+            eventsDuringReconciliation.forEach(this::apply);
+            eventsDuringReconciliation = null;
+        }
+        outOfSync = false;
+        lastReconciliationTime = System.currentTimeMillis();
+        version++;
+    }
+
+    /**
+     * Abort a reconciliation started by {@link #beginReconciliation()}, the view stays out of sync
+     */
+    synchronized void abortReconciliation() {
+        eventsDuringReconciliation = null;
+        outOfSync = true;
+    }
+
+    synchronized long getVersion() {
+        return version;
+    }
+
+    synchronized boolean isOutOfSync() {
+        return outOfSync;
+    }
+
+    /**
+     * Return the resource manager state corresponding to this view, the returned sets are copies
+     */
+    synchronized RMState getState() {
+        return new RMState(new RMStateNodeUrls(new HashSet<>(freeNodes),
+                                               new HashSet<>(aliveNodes),
+                                               new HashSet<>(allNodes)),
+                           maxNumberOfNodes);
+    }
+
+    static final class NodeChange {
+
+        private final String nodeUrl;
+
+        private final RMEventType eventType;
+
+        private final NodeState state;
+
+        private final boolean locked;
+
+        NodeChange(String nodeUrl, RMEventType eventType, NodeState state, boolean locked) {
+            this.nodeUrl = nodeUrl;
+            this.eventType = eventType;
+            this.state = state;
+            this.locked = locked;
+        }
+    }
+
+}
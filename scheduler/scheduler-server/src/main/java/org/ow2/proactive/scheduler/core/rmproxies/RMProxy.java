@@ -26,6 +26,7 @@
 package org.ow2.proactive.scheduler.core.rmproxies;
 
 import java.net.URI;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 
@@ -35,9 +36,11 @@ import org.objectweb.proactive.core.util.wrapper.BooleanWrapper;
 import org.ow2.proactive.authentication.crypto.Credentials;
 import org.ow2.proactive.resourcemanager.authentication.RMAuthentication;
 import org.ow2.proactive.resourcemanager.common.RMState;
+import org.ow2.proactive.resourcemanager.common.RMStateNodeUrls;
 import org.ow2.proactive.resourcemanager.exception.RMException;
 import org.ow2.proactive.resourcemanager.frontend.RMConnection;
 import org.ow2.proactive.scheduler.common.task.TaskId;
+import org.ow2.proactive.scheduler.core.properties.PASchedulerProperties;
 import org.ow2.proactive.scheduler.synchronization.Synchronization;
 import org.ow2.proactive.scheduler.task.utils.VariablesMap;
 import org.ow2.proactive.scripting.Script;
@@ -63,6 +66,10 @@ public class RMProxy {
 
     private Credentials creds;
 
+    private RMState nodesViewState;
+
+    private long nodesViewVersion;
+
     RMProxy(URI rmURL, Credentials creds) throws RMException, RMProxyCreationException {
         this.rmURL = rmURL;
         this.creds = creds;
@@ -72,6 +79,7 @@ public class RMProxy {
     public synchronized void init() throws RMException, RMProxyCreationException {
         RMAuthentication auth = RMConnection.join(rmURL.toString());
         proxyActiveObject = RMProxyActiveObject.createAOProxy(auth, creds);
+        nodesViewState = null;
         currentRMConnection = new RMProxiesManager.Connection(rmURL, auth);
     }
 
@@ -98,9 +106,30 @@ public class RMProxy {
         if (proxyActiveObject == null) {
             throw new RuntimeException("Proxy is not initialized");
         }
+        if (PASchedulerProperties.RESOURCE_MANAGER_NODES_VIEW.getValueAsBoolean()) {
+            long version = proxyActiveObject.getNodesViewVersion();
+            if (version >= 0) {
+                return getNodesViewState(version);
+            }
+        }
         return PAFuture.getFutureValue(proxyActiveObject.getState());
     }
 
+    /**
+     * Return the state built from the nodes view of the proxy active object, which is only transferred when
+     * its version changed. The set of free nodes is copied as it is modified by the scheduling loop.
+     */
+    private synchronized RMState getNodesViewState(long version) {
+        if (nodesViewState == null || version != nodesViewVersion) {
+            nodesViewState = PAFuture.getFutureValue(proxyActiveObject.getNodesViewState());
+            nodesViewVersion = version;
+        }
+        return new RMState(new RMStateNodeUrls(new HashSet<>(nodesViewState.getFreeNodes()),
+                                               nodesViewState.getAliveNodes(),
+                                               nodesViewState.getAllNodes()),
+                           nodesViewState.getMaxNumberOfNodes());
+    }
+
     public void rebind(URI rmURI) throws RMException, RMProxyCreationException {
 
         if (rmURI.equals(this.rmURL) && proxyActiveObject != null && proxyActiveObject.isActive().getBooleanValue()) {
@@ -122,6 +151,15 @@ public class RMProxy {
         return PAFuture.getFutureValue(proxyActiveObject.getNodes(criteria));
     }
 
+    /**
+     * Get nodes for several criteria in one request to the resource manager.
+     *
+     * @return one node set per criteria, in the same order
+     */
+    public List<NodeSet> getNodes(List<Criteria> criteriaList) {
+        return PAFuture.getFutureValue(proxyActiveObject.getNodes(criteriaList));
+    }
+
     public void releaseNodes(NodeSet nodeSet) {
         releaseNodes(nodeSet, null, null, null, null, null, null);
     }
@@ -47,6 +47,12 @@ import org.ow2.proactive.authentication.crypto.Credentials;
 import org.ow2.proactive.resourcemanager.authentication.RMAuthentication;
 import org.ow2.proactive.resourcemanager.common.RMConstants;
 import org.ow2.proactive.resourcemanager.common.RMState;
+import org.ow2.proactive.resourcemanager.common.event.RMEvent;
+import org.ow2.proactive.resourcemanager.common.event.RMEventType;
+import org.ow2.proactive.resourcemanager.common.event.RMInitialState;
+import org.ow2.proactive.resourcemanager.common.event.RMNodeEvent;
+import org.ow2.proactive.resourcemanager.common.event.RMNodeSourceEvent;
+import org.ow2.proactive.resourcemanager.frontend.RMEventListener;
 import org.ow2.proactive.resourcemanager.frontend.ResourceManager;
 import org.ow2.proactive.resourcemanager.task.client.RMNodeClient;
 import org.ow2.proactive.scheduler.common.SchedulerConstants;
@@ -72,7 +78,7 @@ import org.ow2.proactive.utils.NodeSet;
 
 
 @ActiveObject
-public class RMProxyActiveObject {
+public class RMProxyActiveObject implements RMEventListener {
 
     protected static final Logger logger = Logger.getLogger(RMProxyActiveObject.class);
 
@@ -80,6 +86,11 @@ public class RMProxyActiveObject {
 
     private Map<NodeSet, TaskId> nodesTaskId = new ConcurrentHashMap<>();
 
+    /** local view of the resource manager nodes, created at the first request */
+    private volatile RMNodesView nodesView;
+
+    private volatile boolean nodesViewUnavailable = false;
+
     public RMProxyActiveObject() {
     }
 
@@ -125,11 +136,91 @@ public class RMProxyActiveObject {
         return rm.getState();
     }
 
+    /**
+     * Return the version of the local view of the resource manager nodes.
+     * At the first call, this proxy subscribes to the node events of the resource manager. The view is
+     * reconciled with the resource manager state if it is out of sync or if the reconciliation period elapsed.
+     *
+     * @return the version of the view, or -1 if the view cannot be used
+     */
+    @ImmediateService
+    public long getNodesViewVersion() {
+        if (nodesViewUnavailable) {
+            return -1;
+        }
+        try {
+            if (nodesView == null) {
+                RMNodesView view = new RMNodesView(PASchedulerProperties.RESOURCE_MANAGER_NODES_VIEW_RECONCILIATION_PERIOD.getValueAsInt());
+                // events received before the first reconciliation are applied on top of it
+                view.beginReconciliation();
+                nodesView = view;
+                RMInitialState initialState = rm.getMonitoring()
+                                                .addRMEventListener((RMEventListener) PAActiveObject.getStubOnThis(),
+                                                                    RMEventType.NODE_ADDED,
+                                                                    RMEventType.NODE_REMOVED,
+                                                                    RMEventType.NODE_STATE_CHANGED);
+                view.setLatestCounter(initialState.getLatestCounter());
+            }
+            if (nodesView.needsReconciliation()) {
+                reconcileNodesView();
+            }
+            return nodesView.getVersion();
+        } catch (Exception e) {
+            logger.warn("Cannot maintain the view of the resource manager nodes, the resource manager state will be requested at each scheduling loop",
+                        e);
+            nodesViewUnavailable = true;
+            return -1;
+        }
+    }
+
+    /**
+     * Return the resource manager state built from the local view of the nodes.
+     *
+     * @see #getNodesViewVersion()
+     */
+    @ImmediateService
+    public RMState getNodesViewState() {
+        return nodesView.getState();
+    }
+
+    private void reconcileNodesView() {
+        nodesView.beginReconciliation();
+        try {
+            nodesView.endReconciliation(rm.getState());
+        } catch (RuntimeException e) {
+            nodesView.abortReconciliation();
+            throw e;
+        }
+    }
+
+    @Override
+    public void nodeEvent(RMNodeEvent event) {
+        RMNodesView view = nodesView;
+        if (view != null) {
+            view.nodeEvent(event);
+        }
+    }
+
+    @Override
+    public void rmEvent(RMEvent event) {
+        // only node events are listened
+    }
+
+    @Override
+    public void nodeSourceEvent(RMNodeSourceEvent event) {
+        // only node events are listened
+    }
+
     @ImmediateService
     public NodeSet getNodes(Criteria criteria) {
         return rm.getNodes(criteria);
     }
 
+    @ImmediateService
+    public List<NodeSet> getNodes(List<Criteria> criteriaList) {
+        return rm.getNodes(criteriaList);
+    }
+
     @ImmediateService
     public BooleanWrapper releaseNode(Node node) {
         return rm.releaseNode(node);
@@ -749,6 +749,15 @@ public class JobDescriptorImpl implements JobDescriptor {
         return new Vector<TaskDescriptor>(eligibleTasks.values());
     }
 
+    /**
+     * Check whether this job has tasks ready to be scheduled, without copying them.
+     *
+     * @return true if at least one task is eligible.
+     */
+    public boolean hasEligibleTasks() {
+        return !eligibleTasks.isEmpty();
+    }
+
     /**
      * {@inheritDoc}
      */
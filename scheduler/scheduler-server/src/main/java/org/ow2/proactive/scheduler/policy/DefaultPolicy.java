@@ -28,6 +28,7 @@ package org.ow2.proactive.scheduler.policy;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
 
@@ -50,6 +51,10 @@ import org.ow2.proactive.scheduler.descriptor.JobDescriptorImpl;
  */
 public class DefaultPolicy extends Policy {
 
+    private transient PriorityJobsIndex jobsIndex;
+
+    private transient Boolean overridesGetOrderedTasks;
+
     /**
      * {@inheritDoc}
      * Override reload to avoid reading config file
@@ -69,19 +74,75 @@ public class DefaultPolicy extends Policy {
     public LinkedList<EligibleTaskDescriptor> getOrderedTasks(List<JobDescriptor> jobs) {
         LinkedList<EligibleTaskDescriptor> toReturn = new LinkedList<>();
 
-        Collections.sort(jobs, FIFO_BY_PRIORITY_COMPARATOR);
+        Collections.sort(jobs, getJobsComparator());
 
         //add all sorted tasks to list of tasks
         for (JobDescriptor jd : jobs) {
             Collection<TaskDescriptor> tasks = jd.getEligibleTasks();
             Collection<EligibleTaskDescriptor> eligibleTasks = (Collection) tasks;
-            toReturn.addAll(eligibleTasks);
+            for (EligibleTaskDescriptor task : eligibleTasks) {
+                if (isTaskSchedulable(jd, task)) {
+                    toReturn.add(task);
+                }
+            }
         }
 
         //return sorted list of tasks
         return toReturn;
     }
 
+    /**
+     * Return the tasks in the same order as {@link #getOrderedTasks(List)}, but the jobs are kept in a priority
+     * index between two scheduling loops and the eligible tasks of a job are only listed when the scheduling
+     * loop reaches it.
+     * <p>
+     * If a subclass overrides {@link #getOrderedTasks(List)}, its ordering is used instead of the index.
+     */
+    @Override
+    public synchronized Iterator<EligibleTaskDescriptor> getOrderedTasksIterator(List<JobDescriptor> jobs) {
+        if (overridesGetOrderedTasks()) {
+            return getOrderedTasks(jobs).iterator();
+        }
+        if (jobsIndex == null) {
+            jobsIndex = new PriorityJobsIndex(getJobsComparator());
+        }
+        jobsIndex.update(jobs);
+        return jobsIndex.orderedTasks(this::isTaskSchedulable);
+    }
+
+    /**
+     * Return the comparator used to order the jobs, the highest priority jobs must come first.
+     * The order of two jobs must not change as long as their priority does not change.
+     *
+     * @return the comparator used to order the jobs
+     */
+    protected Comparator<JobDescriptor> getJobsComparator() {
+        return FIFO_BY_PRIORITY_COMPARATOR;
+    }
+
+    /**
+     * Tell if the given eligible task can be scheduled during the current scheduling loop.
+     *
+     * @param job the job of the task
+     * @param task an eligible task of the job
+     * @return true if the task can be returned to the scheduling loop
+     */
+    protected boolean isTaskSchedulable(JobDescriptor job, EligibleTaskDescriptor task) {
+        return true;
+    }
+
+    private boolean overridesGetOrderedTasks() {
+        if (overridesGetOrderedTasks == null) {
+            try {
+                overridesGetOrderedTasks = getClass().getMethod("getOrderedTasks", List.class)
+                                                     .getDeclaringClass() != DefaultPolicy.class;
+            } catch (NoSuchMethodException e) {
+                overridesGetOrderedTasks = true;
+            }
+        }
+        return overridesGetOrderedTasks;
+    }
+
     public static final Comparator<JobDescriptor> FIFO_BY_PRIORITY_COMPARATOR = new Comparator<JobDescriptor>() {
         @Override
         public int compare(JobDescriptor job1, JobDescriptor job2) {
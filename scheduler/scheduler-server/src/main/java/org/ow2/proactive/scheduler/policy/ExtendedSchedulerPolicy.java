@@ -25,15 +25,10 @@
  */
 package org.ow2.proactive.scheduler.policy;
 
-import java.util.Collection;
-import java.util.Collections;
 import java.util.Date;
-import java.util.LinkedList;
-import java.util.List;
 
 import org.apache.log4j.Logger;
 import org.ow2.proactive.scheduler.common.JobDescriptor;
-import org.ow2.proactive.scheduler.common.TaskDescriptor;
 import org.ow2.proactive.scheduler.common.util.ISO8601DateUtil;
 import org.ow2.proactive.scheduler.descriptor.EligibleTaskDescriptor;
 import org.ow2.proactive.scheduler.descriptor.EligibleTaskDescriptorImpl;
@@ -64,46 +59,34 @@ public class ExtendedSchedulerPolicy extends DefaultPolicy {
      * execution cycle.
      */
     @Override
-    public LinkedList<EligibleTaskDescriptor> getOrderedTasks(List<JobDescriptor> jobDescList) {
+    protected boolean isTaskSchedulable(JobDescriptor jobDesc, EligibleTaskDescriptor candidate) {
+        String startAt = getStartAtValue(jobDesc, candidate);
+        if (startAt == null) {
+            return true;
+        }
         Date now = new Date();
-        LinkedList<EligibleTaskDescriptor> executionCycleTasks = new LinkedList<>();
-        Collections.sort(jobDescList, FIFO_BY_PRIORITY_COMPARATOR);
-
-        for (JobDescriptor jobDesc : jobDescList) {
-            Collection<TaskDescriptor> tasks = jobDesc.getEligibleTasks();
-            Collection<EligibleTaskDescriptor> eligibleTasks = (Collection) tasks;
-            for (EligibleTaskDescriptor candidate : eligibleTasks) {
-                String startAt = getStartAtValue(jobDesc, candidate);
-                if (startAt == null) {
-                    executionCycleTasks.add(candidate);
-                } else {
-                    try {
-                        if (now.after(ISO8601DateUtil.toDate(startAt))) {
-                            executionCycleTasks.add(candidate);
-
-                        } else {
-                            if (logger.isTraceEnabled()) {
-                                logger.trace(String.format("Task [jobId:\"%s\", taskId:\"%s\"] is scheduled to be executed at %s." +
-                                                           " It will not be scheduled for this execution cycle at %s.",
-                                                           jobDesc.getJobId(),
-                                                           candidate.getTaskId(),
-                                                           startAt,
-                                                           ISO8601DateUtil.parse(now)));
-                            }
-                        }
-                    } catch (IllegalArgumentException e) {
-                        logger.error(String.format("An error occurred while processing 'startAt' generic info.%n" +
-                                                   "Task ([job-id:\"%s\", task-id:\"%s\"]) will be scheduled immediately for execution.",
-                                                   jobDesc.getJobId().toString(),
-                                                   candidate.getTaskId().toString()),
-                                     e);
-                        executionCycleTasks.add(candidate);
-                    }
-
+        try {
+            if (now.after(ISO8601DateUtil.toDate(startAt))) {
+                return true;
+            } else {
+                if (logger.isTraceEnabled()) {
+                    logger.trace(String.format("Task [jobId:\"%s\", taskId:\"%s\"] is scheduled to be executed at %s." +
+                                               " It will not be scheduled for this execution cycle at %s.",
+                                               jobDesc.getJobId(),
+                                               candidate.getTaskId(),
+                                               startAt,
+                                               ISO8601DateUtil.parse(now)));
                 }
+                return false;
             }
+        } catch (IllegalArgumentException e) {
+            logger.error(String.format("An error occurred while processing 'startAt' generic info.%n" +
+                                       "Task ([job-id:\"%s\", task-id:\"%s\"]) will be scheduled immediately for execution.",
+                                       jobDesc.getJobId().toString(),
+                                       candidate.getTaskId().toString()),
+                         e);
+            return true;
         }
-        return executionCycleTasks;
     }
 
     /*
@@ -29,6 +29,7 @@ import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.Serializable;
+import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Properties;
@@ -93,6 +94,21 @@ public abstract class Policy implements Serializable {
      */
     public abstract LinkedList<EligibleTaskDescriptor> getOrderedTasks(List<JobDescriptor> jobs);
 
+    /**
+     * Return the tasks that have to be scheduled, in the desired scheduling order, as an iterator.
+     * This method is called by the scheduling loop, which reads the iterator batch by batch while the jobs are
+     * locked and stops consuming it as soon as no more resources are available. The iterator is not read anymore
+     * after the next call.
+     * <p>
+     * Default implementation returns an iterator over {@link #getOrderedTasks(List)}.
+     *
+     * @param jobs the list of pending or running job descriptors.
+     * @return an iterator over every tasks that are ready to be scheduled.
+     */
+    public Iterator<EligibleTaskDescriptor> getOrderedTasksIterator(List<JobDescriptor> jobs) {
+        return getOrderedTasks(jobs).iterator();
+    }
+
     /**
      * After the selection process, overriding this method allows to do some filtering on the task scheduled
      * This is useful, for example, when stateless selection scripts cannot completely determine if a node is eligible for execution.
@@ -0,0 +1,217 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive.scheduler.policy;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.function.BiPredicate;
+
+import org.ow2.proactive.scheduler.common.JobDescriptor;
+import org.ow2.proactive.scheduler.common.TaskDescriptor;
+import org.ow2.proactive.scheduler.common.job.JobId;
+import org.ow2.proactive.scheduler.common.job.JobPriority;
+import org.ow2.proactive.scheduler.descriptor.EligibleTaskDescriptor;
+import org.ow2.proactive.scheduler.descriptor.JobDescriptorImpl;
+
+
+/**
+ * Persistent index of the jobs to schedule, kept from one scheduling loop to the next one.
+ * <p>
+ * Jobs are stored in one bucket per priority, each bucket being sorted with the comparator given by the
+ * policy (job id for FIFO, deadline for EDF, ...). Updating the index only re-inserts the jobs which are new or
+ * whose priority changed, and the eligible tasks are produced lazily by walking the buckets from the highest
+ * priority, so the cost of the ordering is proportional to the number of tasks actually pulled by the
+ * scheduling loop instead of the number of pending tasks.
+ * <p>
+ * This class is not thread-safe, it is meant to be used by the scheduling loop only.
+ */
+class PriorityJobsIndex {
+
+    private final Comparator<JobDescriptor> bucketComparator;
+
+    private final TreeMap<JobPriority, TreeSet<JobDescriptor>> buckets = new TreeMap<>(Collections.reverseOrder());
+
+    private final Map<JobId, IndexedJob> indexedJobs = new HashMap<>();
+
+    private long generation = 0;
+
+    /**
+     * @param jobsComparator order of the jobs having the same priority
+     */
+    PriorityJobsIndex(Comparator<JobDescriptor> jobsComparator) {
+        // the job id breaks the ties, jobs considered equal by the policy must not be merged by the tree set
+        this.bucketComparator = jobsComparator.thenComparing(JobDescriptor::getJobId);
+    }
+
+    /**
+     * Synchronize the index with the given jobs: new jobs are inserted, jobs whose priority changed are moved,
+     * and jobs which are not given anymore are removed.
+     * <p>
+     * The bucket comparator reads the current priority of the jobs, so the jobs whose priority changed are
+     * removed from their old bucket before any job is inserted, for the buckets to stay consistent.
+     */
+    void update(List<JobDescriptor> jobs) {
+        generation++;
+        List<JobDescriptor> toInsert = new ArrayList<>();
+        int matched = 0;
+        for (JobDescriptor job : jobs) {
+            IndexedJob indexed = indexedJobs.get(job.getJobId());
+            if (indexed == null || indexed.descriptor != job || indexed.priority != getPriority(job)) {
+                if (indexed != null) {
+                    removeFromBucket(indexed);
+                    indexedJobs.remove(job.getJobId());
+                }
+                toInsert.add(job);
+            } else if (indexed.generation != generation) {
+                indexed.generation = generation;
+                matched++;
+            }
+        }
+        if (indexedJobs.size() > matched) {
+            Iterator<IndexedJob> iterator = indexedJobs.values().iterator();
+            while (iterator.hasNext()) {
+                IndexedJob indexed = iterator.next();
+                if (indexed.generation != generation) {
+                    removeFromBucket(indexed);
+                    iterator.remove();
+                }
+            }
+        }
+        for (JobDescriptor job : toInsert) {
+            if (indexedJobs.containsKey(job.getJobId())) {
+                // the same job given twice
+                continue;
+            }
+            JobPriority priority = getPriority(job);
+            IndexedJob indexed = new IndexedJob(job, priority);
+            indexed.generation = generation;
+            indexedJobs.put(job.getJobId(), indexed);
+            buckets.computeIfAbsent(priority, p -> new TreeSet<>(bucketComparator)).add(job);
+        }
+    }
+
+    int size() {
+        return indexedJobs.size();
+    }
+
+    /**
+     * Lazily iterate over the eligible tasks of the indexed jobs, from the highest priority job to the lowest one.
+     *
+     * @param filter only the tasks accepted by this filter are returned
+     */
+    Iterator<EligibleTaskDescriptor> orderedTasks(BiPredicate<JobDescriptor, EligibleTaskDescriptor> filter) {
+        return new OrderedTasksIterator(filter);
+    }
+
+    private void removeFromBucket(IndexedJob indexed) {
+        TreeSet<JobDescriptor> bucket = buckets.get(indexed.priority);
+        if (bucket != null) {
+            if (!bucket.remove(indexed.descriptor)) {
+                // the priority of the job changed, the comparator cannot find it anymore
+                bucket.removeIf(job -> job == indexed.descriptor);
+            }
+            if (bucket.isEmpty()) {
+                buckets.remove(indexed.priority);
+            }
+        }
+    }
+
+    private static JobPriority getPriority(JobDescriptor job) {
+        return ((JobDescriptorImpl) job).getInternal().getPriority();
+    }
+
+    private static final class IndexedJob {
+
+        private final JobDescriptor descriptor;
+
+        private final JobPriority priority;
+
+        private long generation = -1;
+
+        private IndexedJob(JobDescriptor descriptor, JobPriority priority) {
+            this.descriptor = descriptor;
+            this.priority = priority;
+        }
+    }
+
+    private final class OrderedTasksIterator implements Iterator<EligibleTaskDescriptor> {
+
+        private final BiPredicate<JobDescriptor, EligibleTaskDescriptor> filter;
+
+        private final Iterator<TreeSet<JobDescriptor>> bucketsIterator = buckets.values().iterator();
+
+        private Iterator<JobDescriptor> jobsIterator = Collections.emptyIterator();
+
+        private Iterator<TaskDescriptor> tasksIterator = Collections.emptyIterator();
+
+        private JobDescriptor currentJob;
+
+        private EligibleTaskDescriptor next;
+
+        private OrderedTasksIterator(BiPredicate<JobDescriptor, EligibleTaskDescriptor> filter) {
+            this.filter = filter;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (next == null) {
+                if (tasksIterator.hasNext()) {
+                    EligibleTaskDescriptor candidate = (EligibleTaskDescriptor) tasksIterator.next();
+                    if (filter.test(currentJob, candidate)) {
+                        next = candidate;
+                    }
+                } else if (jobsIterator.hasNext()) {
+                    currentJob = jobsIterator.next();
+                    tasksIterator = currentJob.getEligibleTasks().iterator();
+                } else if (bucketsIterator.hasNext()) {
+                    jobsIterator = bucketsIterator.next().iterator();
+                } else {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public EligibleTaskDescriptor next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            EligibleTaskDescriptor result = next;
+            next = null;
+            return result;
+        }
+    }
+
+}
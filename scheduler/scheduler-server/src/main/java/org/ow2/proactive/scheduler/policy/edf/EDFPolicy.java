@@ -27,9 +27,6 @@ package org.ow2.proactive.scheduler.policy.edf;
 
 import java.util.Comparator;
 import java.util.Date;
-import java.util.LinkedList;
-import java.util.List;
-import java.util.stream.Collectors;
 
 import org.ow2.proactive.scheduler.common.JobDescriptor;
 import org.ow2.proactive.scheduler.common.job.JobPriority;
@@ -54,12 +51,16 @@ public class EDFPolicy extends ExtendedSchedulerPolicy {
     private static final Date MAXIMUM_DATE = new Date(Long.MAX_VALUE);
 
     @Override
-    public LinkedList<EligibleTaskDescriptor> getOrderedTasks(List<JobDescriptor> jobs) {
-        return jobs.stream()
-                   .sorted(FIFO_BY_PRIORITY_AND_DEADLINE_COMPARATOR)
-                   .flatMap(jobDescriptor -> jobDescriptor.getEligibleTasks().stream())
-                   .map(taskDescriptors -> (EligibleTaskDescriptor) taskDescriptors)
-                   .collect(Collectors.toCollection(LinkedList::new));
+    protected Comparator<JobDescriptor> getJobsComparator() {
+        return FIFO_BY_PRIORITY_AND_DEADLINE_COMPARATOR;
+    }
+
+    /*
+     * 'startAt' generic info is not taken into account by this policy
+     */
+    @Override
+    protected boolean isTaskSchedulable(JobDescriptor job, EligibleTaskDescriptor task) {
+        return true;
     }
 
     /**
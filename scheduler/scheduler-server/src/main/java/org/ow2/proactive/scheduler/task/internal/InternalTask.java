@@ -62,6 +62,7 @@ import org.ow2.proactive.scheduler.common.task.flow.FlowBlock;
 import org.ow2.proactive.scheduler.common.task.util.SerializationUtil;
 import org.ow2.proactive.scheduler.common.util.VariableSubstitutor;
 import org.ow2.proactive.scheduler.core.SchedulingService;
+import org.ow2.proactive.scheduler.core.db.SchedulerDBManager;
 import org.ow2.proactive.scheduler.core.properties.PASchedulerProperties;
 import org.ow2.proactive.scheduler.job.InternalJob;
 import org.ow2.proactive.scheduler.synchronization.SynchronizationWrapper;
@@ -1196,7 +1197,9 @@ public abstract class InternalTask extends TaskState {
     }
 
     /**
-     * Fetch the results of parent tasks from memory or from the database
+     * Fetch the results of parent tasks from memory or from the database. When the results are sent
+     * by reference ({@link SchedulingService#isTaskResultsByReference()}), the results loaded from the
+     * database do not hold their values.
      * @param schedulingService used to load results from the database
      */
     public synchronized void updateParentTasksResults(SchedulingService schedulingService) {
@@ -1217,13 +1220,17 @@ public abstract class InternalTask extends TaskState {
             }
 
             // Batch fetching in database of parent tasks results not accessible in memory
+            // the values are not needed when the nodes receive the results by reference
+            boolean resultsByReference = schedulingService.isTaskResultsByReference();
             if (parentIds.size() > 0) {
                 for (List<TaskId> parentsSubList : ListUtils.partition(new ArrayList<>(parentIds),
                                                                        PASchedulerProperties.SCHEDULER_DB_FETCH_TASK_RESULTS_BATCH_SIZE.getValueAsInt())) {
 
-                    parentTasksResults.putAll(schedulingService.getInfrastructure()
-                                                               .getDBManager()
-                                                               .loadTasksResults(internalJob.getId(), parentsSubList));
+                    SchedulerDBManager dbManager = schedulingService.getInfrastructure().getDBManager();
+                    parentTasksResults.putAll(resultsByReference ? dbManager.loadTasksResultsMetadata(internalJob.getId(),
+                                                                                                      parentsSubList)
+                                                                 : dbManager.loadTasksResults(internalJob.getId(),
+                                                                                              parentsSubList));
 
                 }
             }
@@ -27,6 +27,7 @@ package org.ow2.proactive.scheduler.util;
 
 import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 import org.apache.log4j.Logger;
@@ -34,24 +35,42 @@ import org.apache.log4j.Logger;
 import com.google.common.collect.Maps;
 
 
+/**
+ * Timings of the stages of a scheduling loop, which are logged at the end of the loop and recorded in the latency
+ * histograms of {@link SchedulingMetrics}.
+ */
 public class SchedulingMainLoopTimingLogger {
 
     private final LinkedHashMap<String, TimingModel> allTimings;
 
     private final Logger logger;
 
+    private final SchedulingMetrics metrics;
+
     public SchedulingMainLoopTimingLogger(Logger logger) {
+        this(logger, SchedulingMetrics.getInstance());
+    }
+
+    SchedulingMainLoopTimingLogger(Logger logger, SchedulingMetrics metrics) {
         this.logger = logger;
+        this.metrics = metrics;
         this.allTimings = Maps.newLinkedHashMap();
     }
 
     public void start(String nameOfTiming) {
-        allTimings.putIfAbsent(nameOfTiming, new TimingModel());
-        allTimings.get(nameOfTiming).start();
+        TimingModel timing = allTimings.get(nameOfTiming);
+        if (timing == null) {
+            timing = new TimingModel(metrics.getStageLatency(nameOfTiming));
+            allTimings.put(nameOfTiming, timing);
+        }
+        timing.start();
     }
 
     public void end(String nameOfTiming) {
-        allTimings.getOrDefault(nameOfTiming, new TimingModel()).end();
+        TimingModel timing = allTimings.get(nameOfTiming);
+        if (timing != null) {
+            timing.end();
+        }
     }
 
     public void printTimingsINFOLevel() {
@@ -69,6 +88,8 @@ public class SchedulingMainLoopTimingLogger {
 
 class TimingModel {
 
+    private final LatencyHistogram histogram;
+
     private long start;
 
     private long max;
@@ -77,13 +98,19 @@ class TimingModel {
 
     private long counter;
 
+    TimingModel(LatencyHistogram histogram) {
+        this.histogram = histogram;
+    }
+
     public void start() {
         counter++;
-        this.start = System.currentTimeMillis();
+        this.start = System.nanoTime();
     }
 
     public void end() {
-        add(System.currentTimeMillis() - start);
+        long duration = System.nanoTime() - start;
+        histogram.record(duration);
+        add(TimeUnit.NANOSECONDS.toMillis(duration));
     }
 
     public String getLoggingString(String methodName) {
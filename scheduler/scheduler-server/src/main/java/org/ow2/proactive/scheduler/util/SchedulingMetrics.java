@@ -0,0 +1,261 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive.scheduler.util;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+
+/**
+ * Metrics of the scheduling loop, cumulated since the start of the scheduler: latency histograms of the stages of
+ * the loop (as named by {@link SchedulingMainLoopTimingLogger}), counters of the started, skipped and retried tasks and
+ * gauges of the queues of the scheduler.
+ * <p>
+ * Recording a metric does not allocate once its stage exists. The metrics are exposed through the
+ * {@code ProActiveScheduler:name=SchedulingMetrics} MBean.
+ */
+public class SchedulingMetrics {
+
+    /** stage covering a whole scheduling loop */
+    public static final String SCHEDULING_LOOP_STAGE = "schedulingLoop";
+
+    public static final String ARE_NODES_RECOVERABLE_STAGE = "areNodesRecoverable";
+
+    public static final String CREATE_EXECUTION_STAGE = "createExecution";
+
+    public static final String CREATE_LAUNCHER_STAGE = "createLauncher";
+
+    public static final String FINALIZE_STARTING_STAGE = "finalizeStarting";
+
+    public static final String GET_FREE_RESOURCES_STAGE = "getFreeResources";
+
+    public static final String GET_NEXTCOMPATIBLE_TASKS_STAGE = "getNextcompatibleTasks";
+
+    public static final String GET_NODE_SET_WITH_CRITERIA_STAGE = "getNodeSetWithCriteria";
+
+    public static final String GET_NODE_SETS_WITH_CRITERIA_STAGE = "getNodeSetsWithCriteria";
+
+    public static final String GET_ORDERED_TASKS_STAGE = "getOrderedTasks";
+
+    public static final String GET_RMNODES_STAGE = "getRMNodes";
+
+    public static final String JOB_LOCK_ACQUISITION_STAGE = "jobLockAcquisition";
+
+    public static final String LOAD_AND_INIT_STAGE = "loadAndInit";
+
+    public static final String RELEASE_NODES_STAGE = "releaseNodes";
+
+    public static final String RESERVE_EXECUTION_STAGE = "reserveExecution";
+
+    public static final String SET_CRITERIA_STAGE = "setCriteria";
+
+    public static final String START_DATASPACE_APP_STAGE = "startDataspaceApp";
+
+    public static final String SUBMIT_WITH_TIMEOUT_STAGE = "submitWithTimeout";
+
+    public static final String TERMINATE_NOTIFICATION_NODE_URL_STAGE = "terminateNotificationNodeURL";
+
+    public static final String UNLOCK_RESOURCES_STAGE = "unlockResources";
+
+    public static final String UPDATE_VARIABLES_FOR_TASKS_TO_SCHEDULE_STAGE = "updateVariablesForTasksToSchedule";
+
+    public static final String WAIT_FOR_NODE_SET_WITH_CRITERIA_STAGE = "waitForNodeSetWithCriteria";
+
+    public static final String DO_TASK_ACTION_QUEUE_SIZE_GAUGE = "DoTaskActionQueueSize";
+
+    public static final String DO_TASK_ACTION_PENDING_TIMEOUTS_GAUGE = "DoTaskActionPendingTimeouts";
+
+    public static final String LAUNCH_PIPELINE_QUEUE_DEPTH_GAUGE = "LaunchPipelineQueueDepth";
+
+    public static final String LAUNCH_PIPELINE_LAUNCHING_TASKS_GAUGE = "LaunchPipelineLaunchingTasks";
+
+    /**
+     * Stages timed by the scheduling loop, the loop must only time the stages declared here. The metrics of these
+     * stages are always exposed, even before the stage is recorded, so that the MBean declares a fixed set of
+     * attributes.
+     */
+    public static final List<String> STAGES = Collections.unmodifiableList(Arrays.asList(SCHEDULING_LOOP_STAGE,
+                                                                                         ARE_NODES_RECOVERABLE_STAGE,
+                                                                                         CREATE_EXECUTION_STAGE,
+                                                                                         CREATE_LAUNCHER_STAGE,
+                                                                                         FINALIZE_STARTING_STAGE,
+                                                                                         GET_FREE_RESOURCES_STAGE,
+                                                                                         GET_NEXTCOMPATIBLE_TASKS_STAGE,
+                                                                                         GET_NODE_SET_WITH_CRITERIA_STAGE,
+                                                                                         GET_NODE_SETS_WITH_CRITERIA_STAGE,
+                                                                                         GET_ORDERED_TASKS_STAGE,
+                                                                                         GET_RMNODES_STAGE,
+                                                                                         JOB_LOCK_ACQUISITION_STAGE,
+                                                                                         LOAD_AND_INIT_STAGE,
+                                                                                         RELEASE_NODES_STAGE,
+                                                                                         RESERVE_EXECUTION_STAGE,
+                                                                                         SET_CRITERIA_STAGE,
+                                                                                         START_DATASPACE_APP_STAGE,
+                                                                                         SUBMIT_WITH_TIMEOUT_STAGE,
+                                                                                         TERMINATE_NOTIFICATION_NODE_URL_STAGE,
+                                                                                         UNLOCK_RESOURCES_STAGE,
+                                                                                         UPDATE_VARIABLES_FOR_TASKS_TO_SCHEDULE_STAGE,
+                                                                                         WAIT_FOR_NODE_SET_WITH_CRITERIA_STAGE));
+
+    /**
+     * Gauges registered by the scheduler, a gauge which is not registered reads 0
+     */
+    public static final List<String> GAUGES = Collections.unmodifiableList(Arrays.asList(DO_TASK_ACTION_QUEUE_SIZE_GAUGE,
+                                                                                         DO_TASK_ACTION_PENDING_TIMEOUTS_GAUGE,
+                                                                                         LAUNCH_PIPELINE_QUEUE_DEPTH_GAUGE,
+                                                                                         LAUNCH_PIPELINE_LAUNCHING_TASKS_GAUGE));
+
+    private static final SchedulingMetrics instance = new SchedulingMetrics();
+
+    private final Map<String, LatencyHistogram> stageLatencies = new ConcurrentHashMap<>();
+
+    private final Map<String, LongSupplier> gauges = new ConcurrentHashMap<>();
+
+    private final LongAdder schedulingLoops = new LongAdder();
+
+    private final LongAdder tasksStarted = new LongAdder();
+
+    private final LongAdder tasksSkipped = new LongAdder();
+
+    private final LongAdder tasksRetried = new LongAdder();
+
+    SchedulingMetrics() {
+    }
+
+    public static SchedulingMetrics getInstance() {
+        return instance;
+    }
+
+    /**
+     * @return the latency histogram of the given stage, created if needed
+     */
+    public LatencyHistogram getStageLatency(String stage) {
+        LatencyHistogram histogram = stageLatencies.get(stage);
+        if (histogram == null) {
+            histogram = stageLatencies.computeIfAbsent(stage, name -> new LatencyHistogram());
+        }
+        return histogram;
+    }
+
+    /**
+     * @return the latency histograms of the stages, sorted by stage name
+     */
+    public SortedMap<String, LatencyHistogram> getStageLatencies() {
+        return new TreeMap<>(stageLatencies);
+    }
+
+    /**
+     * Register a gauge, replacing the gauge of the same name if any.
+     *
+     * @param name name of the gauge
+     * @param gauge supplier of the current value, it is called when the metrics are read and must be cheap
+     */
+    public void registerGauge(String name, LongSupplier gauge) {
+        gauges.put(name, gauge);
+    }
+
+    public void unregisterGauge(String name) {
+        gauges.remove(name);
+    }
+
+    /**
+     * @return the current value of the given gauge, or 0 if the gauge is not registered
+     */
+    public long getGaugeValue(String name) {
+        LongSupplier gauge = gauges.get(name);
+        return gauge == null ? 0 : gauge.getAsLong();
+    }
+
+    /**
+     * @return the current values of the gauges, sorted by gauge name
+     */
+    public SortedMap<String, Long> getGaugeValues() {
+        SortedMap<String, Long> values = new TreeMap<>();
+        for (Map.Entry<String, LongSupplier> gauge : gauges.entrySet()) {
+            values.put(gauge.getKey(), gauge.getValue().getAsLong());
+        }
+        return values;
+    }
+
+    public void incrementSchedulingLoops() {
+        schedulingLoops.increment();
+    }
+
+    public void addTasksStarted(int tasks) {
+        tasksStarted.add(tasks);
+    }
+
+    /**
+     * @param tasks number of eligible tasks considered by a scheduling loop but not started
+     */
+    public void addTasksSkipped(int tasks) {
+        tasksSkipped.add(tasks);
+    }
+
+    /**
+     * Count a task restarted because its node failed or its launch timed out
+     */
+    public void incrementTasksRetried() {
+        tasksRetried.increment();
+    }
+
+    public long getSchedulingLoops() {
+        return schedulingLoops.sum();
+    }
+
+    public long getTasksStarted() {
+        return tasksStarted.sum();
+    }
+
+    public long getTasksSkipped() {
+        return tasksSkipped.sum();
+    }
+
+    public long getTasksRetried() {
+        return tasksRetried.sum();
+    }
+
+    /**
+     * Clear the counters and the histograms, the gauges are kept.
+     */
+    public void reset() {
+        for (LatencyHistogram histogram : stageLatencies.values()) {
+            histogram.reset();
+        }
+        schedulingLoops.reset();
+        tasksStarted.reset();
+        tasksSkipped.reset();
+        tasksRetried.reset();
+    }
+
+}
@@ -0,0 +1,75 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive.scheduler.util;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import org.apache.log4j.Layout;
+import org.apache.log4j.spi.ErrorCode;
+import org.apache.log4j.spi.LoggingEvent;
+import org.ow2.proactive.utils.appenders.FileAppender;
+
+
+/**
+ * Appends the job and task logs to a {@link SegmentedLogStore}. The key of each log is the
+ * relative path of its log file, set in the MDC by the {@link JobLogger} and the {@link TaskLogger}.
+ */
+public class SegmentedLogAppender extends FileAppender {
+
+    private final SegmentedLogStore store;
+
+    public SegmentedLogAppender(SegmentedLogStore store) {
+        super();
+        this.store = store;
+    }
+
+    @Override
+    public void append(String cacheKey, LoggingEvent event) {
+        StringBuilder line = new StringBuilder(getLayout().format(event));
+        if (getLayout().ignoresThrowable()) {
+            String[] stackTrace = event.getThrowableStrRep();
+            if (stackTrace != null) {
+                for (String stackTraceLine : stackTrace) {
+                    line.append(stackTraceLine).append(Layout.LINE_SEP);
+                }
+            }
+        }
+        try {
+            store.append(cacheKey, line.toString().getBytes(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            getErrorHandler().error("Could not append to the log " + cacheKey, e, ErrorCode.WRITE_FAILURE);
+        }
+    }
+
+    /**
+     * No file is held per job or task, closing the log of a job or a task has nothing to release.
+     */
+    @Override
+    public void close() {
+    }
+
+}
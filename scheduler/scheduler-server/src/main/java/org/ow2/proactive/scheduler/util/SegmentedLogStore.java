@@ -0,0 +1,461 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive.scheduler.util;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.log4j.Logger;
+
+
+/**
+ * Append-only store for the server logs of jobs and tasks.
+ * <p>
+ * The log lines of all jobs and tasks are appended to a few large segment files instead of
+ * one file per job or task. Each log is identified by a key, the relative path of the log
+ * file it replaces, and is indexed in memory by the extents (segment, offset, length) of its
+ * lines. Logs are read by transferring these extents from the segment files to the reader.
+ * <p>
+ * Each record of a segment carries its key, so the index is rebuilt by replaying the segments
+ * when the store is opened. Removing the logs of a job appends a removal record. A segment is
+ * deleted as a whole once none of its records is referenced any more. A segment containing
+ * removal records is only deleted after all the older segments, so that replaying the
+ * remaining segments never restores removed logs.
+ */
+public class SegmentedLogStore implements Closeable {
+
+    private static final Logger logger = Logger.getLogger(SegmentedLogStore.class);
+
+    static final String SEGMENT_PREFIX = "segment-";
+
+    static final String SEGMENT_SUFFIX = ".log";
+
+    private static final byte DATA_RECORD = 0;
+
+    private static final byte REMOVAL_RECORD = 1;
+
+    // record type (byte), key length (unsigned short) and data length (int)
+    private static final int RECORD_HEADER_SIZE = 7;
+
+    private final File directory;
+
+    private final long segmentSize;
+
+    private final long maxLogSize;
+
+    private final TreeMap<Integer, Segment> segments = new TreeMap<>();
+
+    private final Map<String, LogIndex> indexes = new HashMap<>();
+
+    // keys of the logs by directory, i.e. by job
+    private final Map<String, Set<String>> keysByDirectory = new HashMap<>();
+
+    private Segment activeSegment;
+
+    private FileChannel activeChannel;
+
+    /**
+     * Opens the store, replaying the existing segments.
+     *
+     * @param directory directory of the segment files
+     * @param segmentSize size in bytes above which a new segment is started
+     * @param maxLogSize size in bytes above which the oldest lines of a log are dropped, 0 for no limit
+     * @throws IOException if the segments cannot be read or the new segment cannot be created
+     */
+    public SegmentedLogStore(File directory, long segmentSize, long maxLogSize) throws IOException {
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.maxLogSize = maxLogSize;
+
+        FileUtils.forceMkdir(directory);
+        File[] files = directory.listFiles((dir, name) -> name.startsWith(SEGMENT_PREFIX) &&
+                                                          name.endsWith(SEGMENT_SUFFIX));
+        for (File file : files) {
+            try {
+                int id = Integer.parseInt(file.getName().substring(SEGMENT_PREFIX.length(),
+                                                                   file.getName().length() - SEGMENT_SUFFIX.length()));
+                segments.put(id, new Segment(id, file));
+            } catch (NumberFormatException e) {
+                logger.warn("Ignoring unexpected file in the job logs segments directory: " + file);
+            }
+        }
+        for (Segment segment : segments.values()) {
+            replay(segment);
+        }
+
+        // never append after a record which may have been partially written
+        startNewSegment(segments.isEmpty() ? 0 : segments.lastKey() + 1);
+        deleteUnreferencedSegments();
+    }
+
+    /**
+     * Appends data at the end of a log.
+     *
+     * @param key key of the log
+     * @param data data to append
+     * @throws IOException if the data cannot be written
+     */
+    public synchronized void append(String key, byte[] data) throws IOException {
+        long dataOffset = writeRecord(DATA_RECORD, key, data);
+        addLine(key, activeSegment, dataOffset, data.length);
+    }
+
+    /**
+     * Removes the logs of all the keys in a directory, i.e. all the logs of a job.
+     *
+     * @param directory the first element of the keys to remove
+     * @throws IOException if the removal cannot be recorded
+     */
+    public synchronized void remove(String directory) throws IOException {
+        if (keysByDirectory.containsKey(directory)) {
+            writeRecord(REMOVAL_RECORD, directory, new byte[0]);
+            activeSegment.hasRemovals = true;
+            removeDirectory(directory);
+            deleteUnreferencedSegments();
+        }
+    }
+
+    /**
+     * @param key key of the log
+     * @return true if the store contains a log for this key
+     */
+    public synchronized boolean contains(String key) {
+        return indexes.containsKey(key);
+    }
+
+    /**
+     * @return the number of segment files
+     */
+    public synchronized int getNumberOfSegments() {
+        return segments.size();
+    }
+
+    /**
+     * Transfers a log to the given channel, directly from the segment files.
+     *
+     * @param key key of the log
+     * @param target channel receiving the log
+     * @return false if the store contains no log for this key
+     * @throws IOException if the log cannot be read or written to the channel
+     */
+    public boolean transferTo(String key, WritableByteChannel target) throws IOException {
+        LogIndex lines;
+        synchronized (this) {
+            LogIndex index = indexes.get(key);
+            if (index == null) {
+                return false;
+            }
+            lines = index.copy();
+        }
+
+        FileChannel channel = null;
+        int channelSegment = -1;
+        try {
+            for (int i = lines.first; i < lines.count; i++) {
+                if (channel == null || channelSegment != lines.segments[i]) {
+                    if (channel != null) {
+                        channel.close();
+                    }
+                    channelSegment = lines.segments[i];
+                    channel = FileChannel.open(segmentFile(channelSegment).toPath(), StandardOpenOption.READ);
+                }
+                long position = lines.offsets[i];
+                long remaining = lines.lengths[i];
+                while (remaining > 0) {
+                    long transferred = channel.transferTo(position, remaining, target);
+                    if (transferred <= 0) {
+                        break;
+                    }
+                    position += transferred;
+                    remaining -= transferred;
+                }
+            }
+        } catch (NoSuchFileException e) {
+            // the log was removed while being read
+            logger.debug("Segment removed while reading the log " + key, e);
+        } finally {
+            if (channel != null) {
+                channel.close();
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (activeChannel != null) {
+            activeChannel.close();
+            activeChannel = null;
+        }
+    }
+
+    private long writeRecord(byte type, String key, byte[] data) throws IOException {
+        byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        if (keyBytes.length > 0xFFFF) {
+            throw new IllegalArgumentException("Log key is too long: " + key);
+        }
+        if (activeSegment.size >= segmentSize) {
+            startNewSegment(activeSegment.id + 1);
+            deleteUnreferencedSegments();
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(RECORD_HEADER_SIZE + keyBytes.length + data.length);
+        buffer.put(type).putShort((short) keyBytes.length).putInt(data.length).put(keyBytes).put(data);
+        buffer.flip();
+
+        long dataOffset = activeSegment.size + RECORD_HEADER_SIZE + keyBytes.length;
+        try {
+            while (buffer.hasRemaining()) {
+                activeChannel.write(buffer);
+            }
+        } catch (IOException e) {
+            // the segment may end with a partial record, move to a new one
+            startNewSegment(activeSegment.id + 1);
+            throw e;
+        }
+        activeSegment.size += buffer.limit();
+        return dataOffset;
+    }
+
+    private void replay(Segment segment) throws IOException {
+        long fileLength = segment.file.length();
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(new FileInputStream(segment.file)))) {
+            long position = 0;
+            while (position + RECORD_HEADER_SIZE <= fileLength) {
+                byte type = input.readByte();
+                int keyLength = input.readUnsignedShort();
+                int dataLength = input.readInt();
+                long dataOffset = position + RECORD_HEADER_SIZE + keyLength;
+                if (dataLength < 0 || dataOffset + dataLength > fileLength) {
+                    break;
+                }
+                byte[] keyBytes = new byte[keyLength];
+                input.readFully(keyBytes);
+                String key = new String(keyBytes, StandardCharsets.UTF_8);
+
+                if (type == DATA_RECORD) {
+                    addLine(key, segment, dataOffset, dataLength);
+                } else if (type == REMOVAL_RECORD) {
+                    segment.hasRemovals = true;
+                    removeDirectory(key);
+                }
+                if (input.skipBytes(dataLength) != dataLength) {
+                    break;
+                }
+                position = dataOffset + dataLength;
+            }
+            if (position < fileLength) {
+                logger.warn("Ignoring the end of the partially written job logs segment " + segment.file);
+            }
+        } catch (EOFException e) {
+            logger.warn("Ignoring the end of the partially written job logs segment " + segment.file);
+        }
+        segment.size = fileLength;
+    }
+
+    private void addLine(String key, Segment segment, long offset, int length) {
+        LogIndex index = indexes.get(key);
+        if (index == null) {
+            index = new LogIndex();
+            indexes.put(key, index);
+            keysByDirectory.computeIfAbsent(directoryOf(key), directory -> new HashSet<>()).add(key);
+        }
+        index.add(segment.id, offset, length);
+        segment.references++;
+
+        boolean released = false;
+        while (maxLogSize > 0 && index.length > maxLogSize && index.size() > 1) {
+            released |= release(index.removeOldest());
+        }
+        if (released) {
+            deleteUnreferencedSegments();
+        }
+    }
+
+    private void removeDirectory(String directory) {
+        Set<String> keys = keysByDirectory.remove(directory);
+        if (keys != null) {
+            for (String key : keys) {
+                LogIndex index = indexes.remove(key);
+                for (int i = index.first; i < index.count; i++) {
+                    release(index.segments[i]);
+                }
+            }
+        }
+    }
+
+    /**
+     * @return true if the segment is not referenced any more
+     */
+    private boolean release(int segmentId) {
+        Segment segment = segments.get(segmentId);
+        return segment != null && --segment.references == 0;
+    }
+
+    private void deleteUnreferencedSegments() {
+        // segments are only deleted once the store is open, the index is not complete during the replay
+        if (activeSegment == null) {
+            return;
+        }
+        boolean olderSegmentsDeleted = true;
+        for (Iterator<Segment> iterator = segments.values().iterator(); iterator.hasNext();) {
+            Segment segment = iterator.next();
+            if (segment != activeSegment && segment.references == 0 &&
+                (!segment.hasRemovals || olderSegmentsDeleted)) {
+                if (segment.file.delete() || !segment.file.exists()) {
+                    iterator.remove();
+                    continue;
+                }
+                logger.warn("Could not delete job logs segment " + segment.file);
+            }
+            olderSegmentsDeleted = false;
+        }
+    }
+
+    private void startNewSegment(int id) throws IOException {
+        if (activeChannel != null) {
+            activeChannel.close();
+        }
+        Segment segment = new Segment(id, segmentFile(id));
+        activeChannel = FileChannel.open(segment.file.toPath(),
+                                         StandardOpenOption.CREATE_NEW,
+                                         StandardOpenOption.WRITE,
+                                         StandardOpenOption.APPEND);
+        segments.put(id, segment);
+        activeSegment = segment;
+    }
+
+    private File segmentFile(int id) {
+        return new File(directory, SEGMENT_PREFIX + id + SEGMENT_SUFFIX);
+    }
+
+    private static String directoryOf(String key) {
+        int separator = key.indexOf('/');
+        return separator < 0 ? key : key.substring(0, separator);
+    }
+
+    private static class Segment {
+
+        private final int id;
+
+        private final File file;
+
+        private long size;
+
+        // number of lines of the logs stored in this segment
+        private int references;
+
+        private boolean hasRemovals;
+
+        Segment(int id, File file) {
+            this.id = id;
+            this.file = file;
+        }
+    }
+
+    /**
+     * Extents of the lines of a log, in parallel arrays. Lines from {@code first} to
+     * {@code count} (excluded) are in the log, the ones before were dropped to limit its size.
+     */
+    private static class LogIndex {
+
+        private int[] segments = new int[4];
+
+        private long[] offsets = new long[4];
+
+        private int[] lengths = new int[4];
+
+        private int first;
+
+        private int count;
+
+        // total length of the lines in the log
+        private long length;
+
+        void add(int segment, long offset, int length) {
+            if (count == segments.length) {
+                if (first > count / 2) {
+                    compact();
+                } else {
+                    segments = Arrays.copyOf(segments, count * 2);
+                    offsets = Arrays.copyOf(offsets, count * 2);
+                    lengths = Arrays.copyOf(lengths, count * 2);
+                }
+            }
+            segments[count] = segment;
+            offsets[count] = offset;
+            lengths[count] = length;
+            count++;
+            this.length += length;
+        }
+
+        int removeOldest() {
+            length -= lengths[first];
+            return segments[first++];
+        }
+
+        int size() {
+            return count - first;
+        }
+
+        LogIndex copy() {
+            LogIndex copy = new LogIndex();
+            copy.segments = Arrays.copyOfRange(segments, first, count);
+            copy.offsets = Arrays.copyOfRange(offsets, first, count);
+            copy.lengths = Arrays.copyOfRange(lengths, first, count);
+            copy.count = count - first;
+            copy.length = length;
+            return copy;
+        }
+
+        private void compact() {
+            System.arraycopy(segments, first, segments, 0, count - first);
+            System.arraycopy(offsets, first, offsets, 0, count - first);
+            System.arraycopy(lengths, first, lengths, 0, count - first);
+            count -= first;
+            first = 0;
+        }
+    }
+
+}
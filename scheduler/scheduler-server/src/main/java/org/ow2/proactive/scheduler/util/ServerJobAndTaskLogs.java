@@ -28,10 +28,16 @@ package org.ow2.proactive.scheduler.util;
 import static org.ow2.proactive.resourcemanager.core.properties.PAResourceManagerProperties.LOG4J_ASYNC_APPENDER_CACHE_ENABLED;
 import static org.ow2.proactive.resourcemanager.core.properties.PAResourceManagerProperties.LOG4J_ASYNC_APPENDER_ENABLED;
 import static org.ow2.proactive.scheduler.core.properties.PASchedulerProperties.SCHEDULER_JOB_LOGS_LOCATION;
+import static org.ow2.proactive.scheduler.core.properties.PASchedulerProperties.SCHEDULER_JOB_LOGS_MAX_SIZE;
+import static org.ow2.proactive.scheduler.core.properties.PASchedulerProperties.SCHEDULER_JOB_LOGS_SEGMENTED;
+import static org.ow2.proactive.scheduler.core.properties.PASchedulerProperties.SCHEDULER_JOB_LOGS_SEGMENT_SIZE;
 import static org.ow2.proactive.scheduler.core.properties.PASchedulerProperties.getAbsolutePath;
 
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
@@ -40,6 +46,7 @@ import java.util.Set;
 import org.apache.commons.lang3.Validate;
 import org.apache.log4j.Appender;
 import org.apache.log4j.Logger;
+import org.apache.log4j.helpers.OptionConverter;
 import org.objectweb.proactive.extensions.dataspaces.api.DataSpacesFileObject;
 import org.objectweb.proactive.extensions.dataspaces.exceptions.FileSystemException;
 import org.objectweb.proactive.extensions.dataspaces.vfs.selector.FileSelector;
@@ -64,8 +71,17 @@ public class ServerJobAndTaskLogs {
 
     private static final int MAX_REMOVAL_ATTEMPTS = 10;
 
+    static final String SEGMENTS_DIRECTORY = "segments";
+
+    private static final long DEFAULT_SEGMENT_SIZE = 64L * 1024 * 1024;
+
+    private static final long DEFAULT_MAX_LOG_SIZE = 10L * 1024 * 1024;
+
     private SchedulerSpacesSupport spacesSupport = null;
 
+    // store of the job and task logs when they are segmented, null otherwise
+    private volatile SegmentedLogStore segmentedLogStore = null;
+
     public static ServerJobAndTaskLogs getInstance() {
         return LazyHolder.INSTANCE;
     }
@@ -80,6 +96,10 @@ public class ServerJobAndTaskLogs {
             }
             removeAllFileAppendersToLogger(JobLogger.class);
             removeAllFileAppendersToLogger(TaskLogger.class);
+            closeSegmentedLogStore();
+            if (SCHEDULER_JOB_LOGS_SEGMENTED.getValueAsBoolean()) {
+                openSegmentedLogStore();
+            }
             addNewFileAppenderToLoggerFor(JobLogger.class);
             addNewFileAppenderToLoggerFor(TaskLogger.class);
         }
@@ -113,11 +133,23 @@ public class ServerJobAndTaskLogs {
 
     public void remove(JobId jobId, String jobOwner) {
         jlogger.close(jobId);
+        removeSegmentedLogs(jobId);
         removeFolderLog(jobId.value());
         removeVisualizationFile(jobId.value());
         removePreciousLogs(jobId, jobOwner);
     }
 
+    private void removeSegmentedLogs(JobId jobId) {
+        SegmentedLogStore store = segmentedLogStore;
+        if (store != null) {
+            try {
+                store.remove(jobId.value());
+            } catch (IOException e) {
+                logger.warn("Could not remove the logs of job " + jobId, e);
+            }
+        }
+    }
+
     private void removePreciousLogs(JobId jobId, String jobOwner) {
         if (spacesSupport == null) {
             logger.warn("DataSpaces not initialized, cannot remove precious logs for job " + jobId);
@@ -224,6 +256,10 @@ public class ServerJobAndTaskLogs {
     }
 
     private String readLog(String filename) {
+        SegmentedLogStore store = segmentedLogStore;
+        if (store != null && store.contains(filename)) {
+            return readSegmentedLog(store, filename);
+        }
         String result = null;
         for (String suffix : new String[] { ".1", "" }) {
             String contents = readFile(new File(getLogsLocation(), filename + suffix));
@@ -238,6 +274,18 @@ public class ServerJobAndTaskLogs {
         return result;
     }
 
+    private String readSegmentedLog(SegmentedLogStore store, String key) {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        try {
+            if (store.transferTo(key, Channels.newChannel(output))) {
+                return new String(output.toByteArray(), StandardCharsets.UTF_8);
+            }
+        } catch (IOException e) {
+            logger.warn(e);
+        }
+        return null;
+    }
+
     private String readFile(File file) {
         if (file.exists()) {
             try {
@@ -250,6 +298,7 @@ public class ServerJobAndTaskLogs {
     }
 
     void removeLogsDirectory() {
+        closeSegmentedLogStore();
         String logsLocation = getLogsLocation();
         logger.info("Removing logs " + logsLocation);
 
@@ -271,10 +320,37 @@ public class ServerJobAndTaskLogs {
 
     private void addNewFileAppenderToLoggerFor(Class<?> cls) {
         Logger jobLogger = Logger.getLogger(cls);
-        FileAppender appender = createFileAppender();
+        SegmentedLogStore store = segmentedLogStore;
+        FileAppender appender = store != null ? new SegmentedLogAppender(store) : createFileAppender();
         jobLogger.addAppender(appender);
     }
 
+    private void openSegmentedLogStore() {
+        File directory = new File(getLogsLocation(), SEGMENTS_DIRECTORY);
+        long segmentSize = OptionConverter.toFileSize(SCHEDULER_JOB_LOGS_SEGMENT_SIZE.getValueAsString(),
+                                                      DEFAULT_SEGMENT_SIZE);
+        long maxLogSize = OptionConverter.toFileSize(SCHEDULER_JOB_LOGS_MAX_SIZE.getValueAsString(),
+                                                     DEFAULT_MAX_LOG_SIZE);
+        try {
+            segmentedLogStore = new SegmentedLogStore(directory, segmentSize, maxLogSize);
+        } catch (IOException e) {
+            logger.error("Could not open the job logs segments in " + directory +
+                         ", using one log file per job and task instead", e);
+        }
+    }
+
+    private void closeSegmentedLogStore() {
+        SegmentedLogStore store = segmentedLogStore;
+        segmentedLogStore = null;
+        if (store != null) {
+            try {
+                store.close();
+            } catch (IOException e) {
+                logger.warn("Could not close the job logs segments", e);
+            }
+        }
+    }
+
     private void removeAllFileAppendersToLogger(Class<?> cls) {
         Logger classLogger = Logger.getLogger(cls);
         List<Appender> appendersToRemove = new ArrayList<>();
@@ -0,0 +1,331 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive.threading;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+
+import org.apache.log4j.Logger;
+
+
+/**
+ * Timer which schedules timeouts in a hashed timing wheel, to handle a large number of timeouts which are
+ * usually cancelled before they expire (i.e. the task launch timeouts).
+ * <p>
+ * The wheel is an array of buckets, each bucket holds the timeouts which expire at one of its ticks. A worker
+ * thread wakes up at each tick and expires the timeouts of the current bucket whose round is reached. Creating
+ * and cancelling a timeout is done in constant time: the new and cancelled timeouts are queued and the worker
+ * thread adds them to (or removes them from) their bucket at the next tick. A cancelled timeout is thus released
+ * after at most one tick instead of remaining until its expiration.
+ * <p>
+ * Timeouts expire with a precision of one tick, and their task is run by the worker thread so it must be short
+ * and non-blocking. The worker thread is started when the first timeout is scheduled.
+ */
+public class HashedWheelTimer {
+
+    private static final Logger logger = Logger.getLogger(HashedWheelTimer.class);
+
+    /** maximum number of new timeouts added to the wheel at each tick, so that a tick is not delayed too long */
+    private static final int MAXIMUM_TRANSFERRED_TIMEOUTS_PER_TICK = 100000;
+
+    private final long tickDuration;
+
+    private final Bucket[] wheel;
+
+    private final int mask;
+
+    private final Queue<Timeout> newTimeouts = new ConcurrentLinkedQueue<>();
+
+    private final Queue<Timeout> cancelledTimeouts = new ConcurrentLinkedQueue<>();
+
+    private final AtomicInteger pendingTimeouts = new AtomicInteger();
+
+    /** set when the worker thread is started, read after {@link #started} */
+    private long startTime;
+
+    private final Thread worker;
+
+    private volatile boolean started;
+
+    private volatile boolean stopped;
+
+    /** current tick, only used by the worker thread */
+    private long tick;
+
+    /**
+     * @param threadFactory factory of the worker thread
+     * @param tickDuration duration of a tick, which is the precision of the timeouts
+     * @param unit unit of the tick duration
+     * @param ticksPerWheel number of buckets of the wheel, rounded up to a power of 2
+     */
+    public HashedWheelTimer(ThreadFactory threadFactory, long tickDuration, TimeUnit unit, int ticksPerWheel) {
+        if (tickDuration <= 0) {
+            throw new IllegalArgumentException("tickDuration must be greater than 0: " + tickDuration);
+        }
+        if (ticksPerWheel <= 0 || ticksPerWheel > (1 << 30)) {
+            throw new IllegalArgumentException("ticksPerWheel must be between 1 and 2^30: " + ticksPerWheel);
+        }
+        this.tickDuration = unit.toNanos(tickDuration);
+        int wheelSize = Integer.highestOneBit(ticksPerWheel - 1) << 1;
+        this.wheel = new Bucket[Math.max(wheelSize, 1)];
+        for (int i = 0; i < wheel.length; i++) {
+            wheel[i] = new Bucket();
+        }
+        this.mask = wheel.length - 1;
+        this.worker = threadFactory.newThread(new Worker());
+    }
+
+    /**
+     * Schedule the given task to be run by the worker thread once the given delay is elapsed, unless the returned
+     * timeout is cancelled before.
+     */
+    public Timeout newTimeout(Runnable task, long delay, TimeUnit unit) {
+        if (stopped) {
+            throw new IllegalStateException("The timer has been stopped");
+        }
+        if (!started) {
+            start();
+        }
+        Timeout timeout = new Timeout(task, System.nanoTime() - startTime + unit.toNanos(delay));
+        pendingTimeouts.incrementAndGet();
+        newTimeouts.add(timeout);
+        return timeout;
+    }
+
+    /**
+     * @return the number of timeouts neither expired nor cancelled
+     */
+    public int getNumberOfPendingTimeouts() {
+        return pendingTimeouts.get();
+    }
+
+    /**
+     * Start the worker thread, a timer which never schedules a timeout does not hold a thread
+     */
+    private synchronized void start() {
+        if (!started && !stopped) {
+            startTime = System.nanoTime();
+            worker.start();
+            started = true;
+        }
+    }
+
+    /**
+     * Stop the worker thread, the pending timeouts will never expire.
+     */
+    public synchronized void stop() {
+        stopped = true;
+        worker.interrupt();
+    }
+
+    private class Worker implements Runnable {
+
+        @Override
+        public void run() {
+            while (!stopped) {
+                long deadline = waitForNextTick();
+                if (deadline < 0) {
+                    continue;
+                }
+                removeCancelledTimeouts();
+                transferNewTimeouts();
+                wheel[(int) (tick & mask)].expireTimeouts(deadline);
+                tick++;
+            }
+        }
+
+        /**
+         * @return the time of the tick relative to the start time, or -1 if the thread was interrupted
+         */
+        private long waitForNextTick() {
+            long deadline = tickDuration * (tick + 1);
+            long sleepTime = startTime + deadline - System.nanoTime();
+            if (sleepTime > 0) {
+                try {
+                    TimeUnit.NANOSECONDS.sleep(sleepTime);
+                } catch (InterruptedException e) {
+                    return -1;
+                }
+            }
+            return deadline;
+        }
+
+        private void removeCancelledTimeouts() {
+            Timeout timeout;
+            while ((timeout = cancelledTimeouts.poll()) != null) {
+                if (timeout.bucket != null) {
+                    timeout.bucket.remove(timeout);
+                }
+            }
+        }
+
+        private void transferNewTimeouts() {
+            for (int i = 0; i < MAXIMUM_TRANSFERRED_TIMEOUTS_PER_TICK; i++) {
+                Timeout timeout = newTimeouts.poll();
+                if (timeout == null) {
+                    break;
+                }
+                if (timeout.isCancelled()) {
+                    continue;
+                }
+                long expirationTick = timeout.deadline / tickDuration;
+                timeout.remainingRounds = (expirationTick - tick) / wheel.length;
+                // a timeout which should already have expired is expired at the current tick
+                wheel[(int) (Math.max(expirationTick, tick) & mask)].add(timeout);
+            }
+        }
+    }
+
+    /**
+     * A task scheduled in the wheel
+     */
+    public final class Timeout {
+
+        private static final int INIT = 0;
+
+        private static final int CANCELLED = 1;
+
+        private static final int EXPIRED = 2;
+
+        private final Runnable task;
+
+        /** time of the expiration relative to the start time of the timer */
+        private final long deadline;
+
+        /** not private so that it can be updated by STATE_UPDATER */
+        volatile int state = INIT;
+
+        // the following fields are only used by the worker thread
+
+        private long remainingRounds;
+
+        private Bucket bucket;
+
+        private Timeout next;
+
+        private Timeout previous;
+
+        private Timeout(Runnable task, long deadline) {
+            this.task = task;
+            this.deadline = deadline;
+        }
+
+        /**
+         * Cancel this timeout, its task will not be run.
+         *
+         * @return false if the timeout already expired or was already cancelled
+         */
+        public boolean cancel() {
+            if (!STATE_UPDATER.compareAndSet(this, INIT, CANCELLED)) {
+                return false;
+            }
+            pendingTimeouts.decrementAndGet();
+            cancelledTimeouts.add(this);
+            return true;
+        }
+
+        public boolean isCancelled() {
+            return state == CANCELLED;
+        }
+
+        public boolean isExpired() {
+            return state == EXPIRED;
+        }
+
+        private void expire() {
+            if (!STATE_UPDATER.compareAndSet(this, INIT, EXPIRED)) {
+                return;
+            }
+            pendingTimeouts.decrementAndGet();
+            try {
+                task.run();
+            } catch (Throwable t) {
+                logger.warn("Error while running the task of an expired timeout", t);
+            }
+        }
+    }
+
+    private static final AtomicIntegerFieldUpdater<Timeout> STATE_UPDATER = AtomicIntegerFieldUpdater.newUpdater(Timeout.class,
+                                                                                                                  "state");
+
+    /**
+     * Doubly linked list of the timeouts of a tick, only used by the worker thread
+     */
+    private static final class Bucket {
+
+        private Timeout head;
+
+        private Timeout tail;
+
+        void add(Timeout timeout) {
+            timeout.bucket = this;
+            if (head == null) {
+                head = tail = timeout;
+            } else {
+                tail.next = timeout;
+                timeout.previous = tail;
+                tail = timeout;
+            }
+        }
+
+        void remove(Timeout timeout) {
+            if (timeout.previous != null) {
+                timeout.previous.next = timeout.next;
+            } else {
+                head = timeout.next;
+            }
+            if (timeout.next != null) {
+                timeout.next.previous = timeout.previous;
+            } else {
+                tail = timeout.previous;
+            }
+            timeout.previous = null;
+            timeout.next = null;
+            timeout.bucket = null;
+        }
+
+        void expireTimeouts(long deadline) {
+            Timeout timeout = head;
+            while (timeout != null) {
+                Timeout next = timeout.next;
+                if (timeout.remainingRounds <= 0 && timeout.deadline <= deadline) {
+                    remove(timeout);
+                    timeout.expire();
+                } else if (timeout.isCancelled()) {
+                    remove(timeout);
+                } else if (timeout.remainingRounds > 0) {
+                    timeout.remainingRounds--;
+                }
+                timeout = next;
+            }
+        }
+    }
+
+}
@@ -27,18 +27,32 @@ package org.ow2.proactive.threading;
 
 import java.util.List;
 import java.util.concurrent.BlockingQueue;
-import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
 import java.util.concurrent.LinkedBlockingQueue;
-import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 
+import org.objectweb.proactive.utils.NamedThreadFactory;
 
+
+/**
+ * Thread pool whose tasks can be given a timeout. The timeouts are handled by a {@link HashedWheelTimer}
+ * and are cancelled as soon as their task completes, so that they do not accumulate until their expiration.
+ */
 public class TimeoutThreadPoolExecutor extends ThreadPoolExecutor {
 
-    private final ScheduledExecutorService timeoutExecutor = Executors.newSingleThreadScheduledExecutor();
+    /** precision of the timeouts */
+    private static final long TIMER_TICK_DURATION_MS = 100;
+
+    private static final int TIMER_TICKS_PER_WHEEL = 512;
+
+    private final HashedWheelTimer timer = new HashedWheelTimer(new NamedThreadFactory("TimeoutThreadPoolExecutor timer",
+                                                                                       true),
+                                                                TIMER_TICK_DURATION_MS,
+                                                                TimeUnit.MILLISECONDS,
+                                                                TIMER_TICKS_PER_WHEEL);
 
     public TimeoutThreadPoolExecutor(int corePoolSize, int maximumPoolSize, long keepAliveTime, TimeUnit unit,
             BlockingQueue<Runnable> workQueue, ThreadFactory threadFactory) {
@@ -55,27 +69,54 @@ public class TimeoutThreadPoolExecutor extends ThreadPoolExecutor {
     }
 
     public <T> Future<T> submitWithTimeout(final CallableWithTimeoutAction<T> callable, long timeout, TimeUnit unit) {
-        final Future<T> future = super.submit(callable);
-        timeoutExecutor.schedule(new Runnable() {
+        final TimedFutureTask<T> task = new TimedFutureTask<>(callable);
+        // the timeout action is run by the timer thread, it must be non-blocking
+        task.timeout = timer.newTimeout(new Runnable() {
             public void run() {
                 // don't call timeoutAction if future completed or cancelled
-                if (future.cancel(true)) {
+                if (task.cancel(true)) {
                     callable.timeoutAction();
                 }
             }
         }, timeout, unit);
-        return future;
+        execute(task);
+        return task;
+    }
+
+    /**
+     * @return the number of submitted tasks whose timeout is neither expired nor cancelled
+     */
+    public int getNumberOfPendingTimeouts() {
+        return timer.getNumberOfPendingTimeouts();
     }
 
     @Override
     public void shutdown() {
-        timeoutExecutor.shutdown();
+        timer.stop();
         super.shutdown();
     }
 
     @Override
     public List<Runnable> shutdownNow() {
-        timeoutExecutor.shutdownNow();
+        timer.stop();
         return super.shutdownNow();
     }
+
+    private static class TimedFutureTask<T> extends FutureTask<T> {
+
+        private volatile HashedWheelTimer.Timeout timeout;
+
+        TimedFutureTask(CallableWithTimeoutAction<T> callable) {
+            super(callable);
+        }
+
+        @Override
+        protected void done() {
+            // the timeout is set before the task is executed
+            HashedWheelTimer.Timeout taskTimeout = timeout;
+            if (taskTimeout != null) {
+                taskTimeout.cancel();
+            }
+        }
+    }
 }
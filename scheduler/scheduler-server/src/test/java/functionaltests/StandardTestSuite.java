@@ -59,11 +59,13 @@ import functionaltests.db.TransactionHelperTest;
 import functionaltests.db.schedulerdb.SchedulerDbManagerConcurrencyTest;
 import functionaltests.db.schedulerdb.SchedulerTasksStateRecoverIntegrationTest;
 import functionaltests.db.schedulerdb.TaskDBUtilsTest;
+import functionaltests.db.schedulerdb.TaskStatusJournalTest;
 import functionaltests.db.schedulerdb.TestDataspaceSelectorsData;
 import functionaltests.db.schedulerdb.TestInMemorySchedulerDB;
 import functionaltests.db.schedulerdb.TestJobAttributes;
 import functionaltests.db.schedulerdb.TestJobOperations;
 import functionaltests.db.schedulerdb.TestJobRuntimeData;
+import functionaltests.db.schedulerdb.TestJobSubmissionBatching;
 import functionaltests.db.schedulerdb.TestLoadJobPeriod;
 import functionaltests.db.schedulerdb.TestLoadJobResult;
 import functionaltests.db.schedulerdb.TestLoadJobsPagination;
@@ -76,6 +78,7 @@ import functionaltests.db.schedulerdb.TestSetJobToBeRemoved;
 import functionaltests.db.schedulerdb.TestTaskAttributes;
 import functionaltests.db.schedulerdb.TestTaskIdGeneration;
 import functionaltests.db.schedulerdb.TestTaskResultData;
+import functionaltests.db.schedulerdb.TestTaskResultsByReference;
 import functionaltests.db.schedulerdb.TestTaskRuntimeData;
 import functionaltests.db.schedulerdb.TestThirdPartyCredentials;
 import functionaltests.db.schedulerdb.TestUsageData;
@@ -174,13 +177,16 @@ import functionaltests.workflow.variables.Test_SCHEDULING_2034;
 
                       // Db tests
                       SchedulerDbManagerConcurrencyTest.class, SchedulerTasksStateRecoverIntegrationTest.class,
-                      TaskDBUtilsTest.class, TestDataspaceSelectorsData.class, TestInMemorySchedulerDB.class,
+                      TaskDBUtilsTest.class, TaskStatusJournalTest.class, TestDataspaceSelectorsData.class,
+                      TestInMemorySchedulerDB.class,
                       TestJobAttributes.class, TestJobOperations.class, TestJobRuntimeData.class,
+                      TestJobSubmissionBatching.class,
                       TestLoadJobPeriod.class, TestLoadJobResult.class, TestLoadJobsPagination.class,
                       TestLoadSchedulerClientState.class, TestReadSchedulerAccount.class, TestReportingQueries.class,
                       TestRestoreWorkflowJobs.class, TestRestoreWorkflowJobs2.class, TestSetJobToBeRemoved.class,
                       TestTaskAttributes.class, TestTaskIdGeneration.class, TestTaskResultData.class,
-                      TestTaskRuntimeData.class, TestThirdPartyCredentials.class, TestUsageData.class,
+                      TestTaskResultsByReference.class, TestTaskRuntimeData.class, TestThirdPartyCredentials.class,
+                      TestUsageData.class,
                       RecoveredSchedulerStateTest.class, SchedulerStateRecoverHelperTest.class, TaskDataTest.class,
                       TopologicalTaskSorterTest.class, TransactionHelperTest.class,
 
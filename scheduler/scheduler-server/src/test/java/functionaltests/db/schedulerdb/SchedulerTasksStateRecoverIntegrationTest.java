@@ -25,6 +25,10 @@
  */
 package functionaltests.db.schedulerdb;
 
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
 import org.junit.Assert;
 import org.junit.Test;
 import org.ow2.proactive.scheduler.common.TaskDescriptor;
@@ -37,6 +41,7 @@ import org.ow2.proactive.scheduler.core.db.SchedulerStateRecoverHelper;
 import org.ow2.proactive.scheduler.job.InternalJob;
 import org.ow2.proactive.scheduler.task.containers.ExecutableContainer;
 import org.ow2.proactive.scheduler.task.internal.InternalTask;
+import org.ow2.proactive.utils.TaskIdWrapper;
 
 
 public class SchedulerTasksStateRecoverIntegrationTest extends BaseSchedulerDBTest {
@@ -81,6 +86,25 @@ public class SchedulerTasksStateRecoverIntegrationTest extends BaseSchedulerDBTe
         Assert.assertNotNull(container);
     }
 
+    @Test
+    public void testLoadExecutableContainersOfRecoveredTasks() throws Exception {
+        TaskFlowJob jobDef = new TaskFlowJob();
+        jobDef.addTask(createDefaultTask("task1"));
+        jobDef.addTask(createDefaultTask("task2"));
+        defaultSubmitJobAndLoadInternal(true, jobDef);
+
+        SchedulerStateRecoverHelper recoverHelper = new SchedulerStateRecoverHelper(dbManager);
+        InternalJob job = recoverHelper.recover(-1).getPendingJobs().get(0);
+        List<InternalTask> tasks = Arrays.asList(job.getTask("task1"), job.getTask("task2"));
+
+        Map<TaskIdWrapper, ExecutableContainer> containers = dbManager.loadExecutableContainers(tasks);
+
+        Assert.assertEquals(2, containers.size());
+        for (InternalTask task : tasks) {
+            Assert.assertNotNull(containers.get(TaskIdWrapper.wrap(task.getId())));
+        }
+    }
+
     @Test
     public void testRecover() throws Exception {
         SchedulerStateRecoverHelper recoverHelper = new SchedulerStateRecoverHelper(dbManager);
@@ -0,0 +1,94 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package functionaltests.db.schedulerdb;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.ow2.proactive.scheduler.common.job.TaskFlowJob;
+import org.ow2.proactive.scheduler.common.task.TaskStatus;
+import org.ow2.proactive.scheduler.core.db.SchedulerStateRecoverHelper;
+import org.ow2.proactive.scheduler.core.db.TaskStatusJournal;
+import org.ow2.proactive.scheduler.job.InternalJob;
+import org.ow2.proactive.scheduler.task.internal.InternalTask;
+
+
+public class TaskStatusJournalTest extends BaseSchedulerDBTest {
+
+    private TaskStatusJournal journal;
+
+    @Before
+    public void createJournal() {
+        // long period: the journal is only written when explicitly flushed
+        journal = new TaskStatusJournal(dbManager.getTransactionHelper(), 3600000);
+    }
+
+    @After
+    public void closeJournal() {
+        journal.close();
+    }
+
+    @Test
+    public void testJournaledUpdatesAreCoalescedAndWrittenOnFlush() throws Exception {
+        InternalTask task = submitJobAndGetTask();
+
+        journal.record(task.getId(), TaskStatus.PENDING, 10);
+        journal.record(task.getId(), TaskStatus.PENDING, 20);
+
+        Assert.assertEquals(1, journal.getJournaledUpdatesNumber());
+        // not written yet, the task is recovered as submitted
+        Assert.assertEquals(TaskStatus.SUBMITTED, recoverTask().getStatus());
+
+        journal.flush();
+
+        Assert.assertEquals(0, journal.getJournaledUpdatesNumber());
+        InternalTask recoveredTask = recoverTask();
+        Assert.assertEquals(TaskStatus.PENDING, recoveredTask.getStatus());
+        Assert.assertEquals(20, recoveredTask.getScheduledTime());
+    }
+
+    @Test
+    public void testJournaledUpdatesAreWrittenOnClose() throws Exception {
+        InternalTask task = submitJobAndGetTask();
+
+        journal.record(task.getId(), TaskStatus.PENDING, 10);
+        journal.close();
+
+        Assert.assertEquals(TaskStatus.PENDING, recoverTask().getStatus());
+    }
+
+    private InternalTask submitJobAndGetTask() throws Exception {
+        TaskFlowJob jobDef = new TaskFlowJob();
+        jobDef.addTask(createDefaultTask("task1"));
+        return defaultSubmitJobAndLoadInternal(true, jobDef).getTask("task1");
+    }
+
+    private InternalTask recoverTask() {
+        InternalJob job = new SchedulerStateRecoverHelper(dbManager).recover(-1).getPendingJobs().get(0);
+        return job.getTask("task1");
+    }
+}
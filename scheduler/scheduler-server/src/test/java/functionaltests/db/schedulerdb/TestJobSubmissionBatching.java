@@ -0,0 +1,141 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package functionaltests.db.schedulerdb;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.hibernate.stat.Statistics;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+import org.ow2.proactive.scheduler.common.job.TaskFlowJob;
+import org.ow2.proactive.scheduler.common.task.JavaTask;
+import org.ow2.proactive.scheduler.common.task.TaskVariable;
+import org.ow2.proactive.scheduler.core.properties.PASchedulerProperties;
+import org.ow2.proactive.scheduler.job.InternalJob;
+import org.ow2.proactive.scheduler.job.InternalJobFactory;
+import org.ow2.proactive.scheduler.task.internal.InternalTask;
+
+
+/**
+ * Checks that the tasks of a submitted job are saved by JDBC batches, the session being flushed every
+ * {@link PASchedulerProperties#SCHEDULER_DB_JDBC_BATCH_SIZE} tasks, without losing the references between the tasks
+ * saved in different batches.
+ */
+public class TestJobSubmissionBatching extends BaseSchedulerDBTest {
+
+    private static final int TASKS_NUMBER = 7;
+
+    private static final int BATCH_SIZE = 2;
+
+    @After
+    public void resetBatchSize() {
+        PASchedulerProperties.SCHEDULER_DB_JDBC_BATCH_SIZE.unSet();
+    }
+
+    @Test
+    public void testJdbcBatchingIsConfigured() {
+        Assert.assertEquals(PASchedulerProperties.SCHEDULER_DB_JDBC_BATCH_SIZE.getValueAsInt(),
+                            dbManager.getSessionFactory().getSessionFactoryOptions().getJdbcBatchSize());
+        Assert.assertTrue(dbManager.getSessionFactory().getSessionFactoryOptions().isOrderInsertsEnabled());
+        Assert.assertTrue(dbManager.getSessionFactory().getSessionFactoryOptions().isOrderUpdatesEnabled());
+    }
+
+    @Test
+    public void testSessionIsFlushedEveryBatchOfTasks() throws Exception {
+        Statistics statistics = dbManager.getSessionFactory().getStatistics();
+        statistics.setStatisticsEnabled(true);
+
+        PASchedulerProperties.SCHEDULER_DB_JDBC_BATCH_SIZE.updateProperty("0");
+        statistics.clear();
+        submit(createJob());
+        long flushesWithoutBatches = statistics.getFlushCount();
+
+        PASchedulerProperties.SCHEDULER_DB_JDBC_BATCH_SIZE.updateProperty(Integer.toString(BATCH_SIZE));
+        statistics.clear();
+        submit(createJob());
+        long flushesWithBatches = statistics.getFlushCount();
+
+        // one more flush every complete batch of tasks
+        Assert.assertEquals(TASKS_NUMBER / BATCH_SIZE, flushesWithBatches - flushesWithoutBatches);
+    }
+
+    @Test
+    public void testTasksSavedInSeveralBatchesAreLoaded() throws Exception {
+        PASchedulerProperties.SCHEDULER_DB_JDBC_BATCH_SIZE.updateProperty(Integer.toString(BATCH_SIZE));
+
+        InternalJob job = submit(createJob());
+        InternalJob loadedJob = loadInternalJob(true, job.getId());
+
+        Assert.assertEquals(TASKS_NUMBER, loadedJob.getITasks().size());
+        for (int i = 0; i < TASKS_NUMBER; i++) {
+            InternalTask task = loadedJob.getTask("task" + i);
+            Assert.assertEquals("value" + i, task.getVariables().get("variable").getValue());
+            if (i == 0) {
+                Assert.assertNull(task.getDependences());
+            } else {
+                Assert.assertEquals(1, task.getDependences().size());
+                Assert.assertEquals("task" + (i - 1), task.getDependences().get(0).getName());
+            }
+        }
+        // if branches referencing a task saved in a later and in an earlier batch
+        Assert.assertEquals("task" + (TASKS_NUMBER - 1), loadedJob.getTask("task0").getIfBranch().getName());
+        Assert.assertEquals("task0", loadedJob.getTask("task" + (TASKS_NUMBER - 1)).getIfBranch().getName());
+        Assert.assertNull(loadedJob.getTask("task1").getIfBranch());
+    }
+
+    private TaskFlowJob createJob() throws Exception {
+        TaskFlowJob job = new TaskFlowJob();
+        JavaTask previous = null;
+        for (int i = 0; i < TASKS_NUMBER; i++) {
+            JavaTask task = createDefaultTask("task" + i);
+            Map<String, TaskVariable> variables = new HashMap<>();
+            variables.put("variable", new TaskVariable("variable", "value" + i));
+            variables.put("other", new TaskVariable("other", "other" + i));
+            task.setVariables(variables);
+            if (previous != null) {
+                task.addDependence(previous);
+            }
+            job.addTask(task);
+            previous = task;
+        }
+        return job;
+    }
+
+    private InternalJob submit(TaskFlowJob jobDefinition) throws Exception {
+        InternalJob job = InternalJobFactory.createJob(jobDefinition, getDefaultCredentials());
+        job.setOwner(DEFAULT_USER_NAME);
+        job.submitAction();
+        InternalTask first = job.getTask("task0");
+        InternalTask last = job.getTask("task" + (TASKS_NUMBER - 1));
+        first.setIfBranch(last);
+        last.setIfBranch(first);
+        dbManager.newJobSubmitted(job);
+        return job;
+    }
+
+}
@@ -0,0 +1,141 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package functionaltests.db.schedulerdb;
+
+import static org.mockito.Mockito.RETURNS_DEEP_STUBS;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.ow2.proactive.scheduler.common.TaskResultsGrant;
+import org.ow2.proactive.scheduler.common.exception.PermissionException;
+import org.ow2.proactive.scheduler.common.job.TaskFlowJob;
+import org.ow2.proactive.scheduler.common.task.TaskId;
+import org.ow2.proactive.scheduler.common.task.TaskResult;
+import org.ow2.proactive.scheduler.core.SchedulingService;
+import org.ow2.proactive.scheduler.core.TaskResultsGrants;
+import org.ow2.proactive.scheduler.core.TaskResultsService;
+import org.ow2.proactive.scheduler.job.InternalJob;
+import org.ow2.proactive.scheduler.task.TaskResultImpl;
+import org.ow2.proactive.scheduler.task.internal.InternalTask;
+
+import com.google.common.collect.ImmutableMap;
+
+
+public class TestTaskResultsByReference extends BaseSchedulerDBTest {
+
+    @Test
+    public void testLoadTasksResultsMetadata() throws Throwable {
+        TaskFlowJob jobDef = new TaskFlowJob();
+        jobDef.addTask(createDefaultTask("task1"));
+        jobDef.addTask(createDefaultTask("task2"));
+        InternalJob job = defaultSubmitJobAndLoadInternal(true, jobDef);
+        InternalTask task1 = job.getTask("task1");
+        InternalTask task2 = job.getTask("task2");
+
+        dbManager.updateAfterTaskFinished(job, task1, createResult("1_1", "1"));
+        dbManager.updateAfterTaskFinished(job, task1, createResult("1_2", "2"));
+        TaskResultImpl exceptionResult = new TaskResultImpl(null, new TestException("message", "data"), null, 0);
+        exceptionResult.setMetadata(ImmutableMap.of("attempt", "1"));
+        dbManager.updateAfterTaskFinished(job, task2, exceptionResult);
+
+        Map<TaskId, TaskResult> results = dbManager.loadTasksResultsMetadata(job.getId(),
+                                                                             Arrays.asList(task1.getId(),
+                                                                                           task2.getId()));
+        Assert.assertEquals(2, results.size());
+
+        // only the last result of a task is loaded, without its value and logs
+        TaskResultImpl result1 = (TaskResultImpl) results.get(task1.getId());
+        Assert.assertEquals(task1.getId(), result1.getTaskId());
+        Assert.assertFalse(result1.hadException());
+        Assert.assertNull(result1.getSerializedValue());
+        Assert.assertNull(result1.getOutput());
+        Assert.assertEquals(ImmutableMap.of("attempt", "2"), result1.getMetadata());
+        Assert.assertEquals(1, result1.getPropagatedVariables().size());
+        Assert.assertArrayEquals("2".getBytes(), result1.getPropagatedVariables().get("attempt"));
+
+        TaskResultImpl result2 = (TaskResultImpl) results.get(task2.getId());
+        Assert.assertTrue(result2.hadException());
+        Assert.assertNull(result2.getSerializedValue());
+        TestException exception = (TestException) result2.getException();
+        Assert.assertEquals("message", exception.getMessage());
+        Assert.assertEquals("data", exception.getData());
+        Assert.assertEquals(ImmutableMap.of("attempt", "1"), result2.getMetadata());
+    }
+
+    @Test
+    public void testTaskResultsServiceOnlyServesTheGrantedResults() throws Throwable {
+        TaskFlowJob jobDef = new TaskFlowJob();
+        jobDef.addTask(createDefaultTask("task1"));
+        jobDef.addTask(createDefaultTask("task2"));
+        InternalJob job = defaultSubmitJobAndLoadInternal(true, jobDef);
+        InternalTask task1 = job.getTask("task1");
+        InternalTask task2 = job.getTask("task2");
+        dbManager.updateAfterTaskFinished(job, task1, createResult("1", "1"));
+        dbManager.updateAfterTaskFinished(job, task2, createResult("2", "1"));
+
+        SchedulingService schedulingService = mock(SchedulingService.class, RETURNS_DEEP_STUBS);
+        when(schedulingService.getInfrastructure().getDBManager()).thenReturn(dbManager);
+        TaskResultsGrants grants = new TaskResultsGrants();
+        TaskResultsService service = new TaskResultsService(schedulingService, grants);
+        List<TaskId> grantedTaskIds = Collections.singletonList(task1.getId());
+        TaskResultsGrant grant = grants.grant(job.getId(), grantedTaskIds);
+
+        Map<TaskId, TaskResult> results = service.getTaskResults(grant, grantedTaskIds);
+        Assert.assertEquals(1, results.size());
+        Assert.assertEquals("1", ((TestResult) results.get(task1.getId()).value()).getB());
+
+        assertNotServed(service, grant, Arrays.asList(task1.getId(), task2.getId()));
+        assertNotServed(service, grant, Collections.singletonList(task2.getId()));
+        // a grant issued by another scheduler
+        assertNotServed(service,
+                        new TaskResultsGrants().grant(job.getId(), Collections.singletonList(task2.getId())),
+                        Collections.singletonList(task2.getId()));
+    }
+
+    private static void assertNotServed(TaskResultsService service, TaskResultsGrant grant, List<TaskId> taskIds) {
+        try {
+            service.getTaskResults(grant, taskIds);
+            Assert.fail("Results of " + taskIds + " should not be served");
+        } catch (PermissionException e) {
+            // expected
+        }
+    }
+
+    private static TaskResultImpl createResult(String value, String attempt) {
+        TaskResultImpl result = new TaskResultImpl(null, new TestResult(0, value), null, 0);
+        result.setMetadata(ImmutableMap.of("attempt", attempt));
+        result.setPropagatedVariables(ImmutableMap.of("attempt", attempt.getBytes()));
+        return result;
+    }
+
+}
@@ -0,0 +1,134 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive.scheduler.core;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.mockito.Mockito;
+import org.ow2.proactive.scheduler.common.JobDescriptor;
+import org.ow2.proactive.scheduler.common.job.JobId;
+import org.ow2.proactive.scheduler.common.job.JobPriority;
+import org.ow2.proactive.scheduler.common.task.OnTaskError;
+import org.ow2.proactive.scheduler.core.db.SchedulerDBManager;
+import org.ow2.proactive.scheduler.job.InternalJob;
+import org.ow2.proactive.scheduler.job.InternalTaskFlowJob;
+import org.ow2.proactive.scheduler.job.JobIdImpl;
+import org.ow2.proactive.scheduler.policy.DefaultPolicy;
+import org.ow2.proactive.scheduler.policy.Policy;
+import org.ow2.proactive.scheduler.task.internal.InternalScriptTask;
+import org.ow2.proactive.scheduler.task.internal.InternalTask;
+
+
+/**
+ * Measures the cost of a scheduling cycle (jobs locking and tasks ordering) according to the number of pending
+ * tasks, for the full re-scan mode and for the incremental mode.
+ * <p>
+ * For the incremental mode two values are reported: the cost of a cycle where no scheduling event occurred
+ * (the cycle is skipped), and the cost of a cycle following an event on a single job.
+ * <p>
+ * This is not a unit test, run it manually with the test classpath:
+ * <pre>java org.ow2.proactive.scheduler.core.IncrementalSchedulingBenchmark [tasksPerJob]</pre>
+ */
+public class IncrementalSchedulingBenchmark {
+
+    private static final int[] PENDING_TASKS = { 1000, 5000, 10000, 50000 };
+
+    private static final int WARMUP_ITERATIONS = 20;
+
+    private static final int MEASURE_ITERATIONS = 50;
+
+    public static void main(String[] args) {
+        int tasksPerJob = args.length > 0 ? Integer.parseInt(args[0]) : 10;
+
+        System.out.println("pendingTasks,fullScanCycleMicros,incrementalIdleCycleMicros,incrementalEventCycleMicros");
+        for (int pendingTasks : PENDING_TASKS) {
+            LiveJobs liveJobs = new LiveJobs(Mockito.mock(SchedulerDBManager.class),
+                                             Mockito.mock(SchedulerStateUpdate.class));
+            List<JobId> jobIds = submitJobs(liveJobs, pendingTasks / tasksPerJob, tasksPerJob);
+            Policy policy = new DefaultPolicy();
+
+            double fullScan = measure(() -> cycle(liveJobs, policy, false));
+
+            long[] lastVersion = { liveJobs.getReadyJobsQueueVersion() };
+            double incrementalIdle = measure(() -> {
+                long version = liveJobs.getReadyJobsQueueVersion();
+                if (version != lastVersion[0]) {
+                    cycle(liveJobs, policy, true);
+                    lastVersion[0] = version;
+                }
+            });
+
+            double incrementalEvent = measure(() -> {
+                liveJobs.changeJobPriority(jobIds.get(0), JobPriority.NORMAL);
+                cycle(liveJobs, policy, true);
+            });
+
+            System.out.println(pendingTasks + "," + fullScan + "," + incrementalIdle + "," + incrementalEvent);
+        }
+    }
+
+    private static int cycle(LiveJobs liveJobs, Policy policy, boolean onlyReadyJobs) {
+        Map<JobId, JobDescriptor> jobMap = liveJobs.lockJobsToSchedule(false, onlyReadyJobs);
+        try {
+            return policy.getOrderedTasks(new ArrayList<>(jobMap.values())).size();
+        } finally {
+            liveJobs.unlockJobsToSchedule(jobMap.values());
+        }
+    }
+
+    private static double measure(Runnable cycle) {
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            cycle.run();
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < MEASURE_ITERATIONS; i++) {
+            cycle.run();
+        }
+        return (System.nanoTime() - start) / 1000.0 / MEASURE_ITERATIONS;
+    }
+
+    private static List<JobId> submitJobs(LiveJobs liveJobs, int numberOfJobs, int tasksPerJob) {
+        List<JobId> jobIds = new ArrayList<>(numberOfJobs);
+        for (int i = 0; i < numberOfJobs; i++) {
+            InternalJob job = new InternalTaskFlowJob("job" + i, JobPriority.NORMAL, OnTaskError.NONE, "");
+            JobId jobId = new JobIdImpl(i + 1, "job" + i);
+            job.setId(jobId);
+            List<InternalTask> tasks = new ArrayList<>(tasksPerJob);
+            for (int j = 0; j < tasksPerJob; j++) {
+                InternalScriptTask task = new InternalScriptTask(job);
+                task.setName("task" + j);
+                tasks.add(task);
+            }
+            job.setTasks(tasks);
+            liveJobs.jobSubmitted(job);
+            jobIds.add(jobId);
+        }
+        return jobIds;
+    }
+
+}
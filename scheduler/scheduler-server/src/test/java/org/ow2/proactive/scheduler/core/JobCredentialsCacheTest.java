@@ -0,0 +1,178 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive.scheduler.core;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import java.security.KeyException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Test;
+import org.ow2.proactive.authentication.crypto.CredData;
+import org.ow2.proactive.scheduler.common.job.JobId;
+import org.ow2.proactive.scheduler.job.JobIdImpl;
+
+import com.google.common.base.Ticker;
+
+
+public class JobCredentialsCacheTest {
+
+    private static final long TIMEOUT_IN_SECONDS = 600;
+
+    private final JobId job1 = JobIdImpl.makeJobId("1");
+
+    private final JobId job2 = JobIdImpl.makeJobId("2");
+
+    private final ManualTicker ticker = new ManualTicker();
+
+    private final JobCredentialsCache cache = new JobCredentialsCache(10, TIMEOUT_IN_SECONDS, ticker);
+
+    @Test
+    public void credentials_are_decrypted_once_per_job() throws KeyException {
+        CountingLoader loader = new CountingLoader("user");
+
+        CredData credData = cache.get(job1, "user", loader);
+
+        assertThat(cache.get(job1, "user", loader)).isSameAs(credData);
+        assertThat(loader.loads.get()).isEqualTo(1);
+        assertThat(cache.size()).isEqualTo(1);
+    }
+
+    @Test
+    public void disabled_cache_decrypts_the_credentials_each_time() throws KeyException {
+        JobCredentialsCache disabledCache = new JobCredentialsCache(0, TIMEOUT_IN_SECONDS, ticker);
+        CountingLoader loader = new CountingLoader("user");
+
+        disabledCache.get(job1, "user", loader);
+        disabledCache.get(job1, "user", loader);
+        disabledCache.remove(job1);
+        disabledCache.removeOwner("user");
+
+        assertThat(disabledCache.isEnabled()).isFalse();
+        assertThat(loader.loads.get()).isEqualTo(2);
+        assertThat(disabledCache.size()).isEqualTo(0);
+    }
+
+    @Test
+    public void credentials_are_removed_when_the_job_terminates() throws KeyException {
+        CountingLoader loader = new CountingLoader("user");
+        cache.get(job1, "user", loader);
+        cache.get(job2, "user", loader);
+
+        cache.remove(job1);
+
+        assertThat(cache.size()).isEqualTo(1);
+        cache.get(job2, "user", loader);
+        assertThat(loader.loads.get()).isEqualTo(2);
+    }
+
+    @Test
+    public void credentials_of_an_owner_are_removed() throws KeyException {
+        cache.get(job1, "user", new CountingLoader("user"));
+        cache.get(job2, "other", new CountingLoader("other"));
+
+        cache.removeOwner("user");
+
+        assertThat(cache.size()).isEqualTo(1);
+        CountingLoader loader = new CountingLoader("user");
+        cache.get(job1, "user", loader);
+        assertThat(loader.loads.get()).isEqualTo(1);
+    }
+
+    @Test
+    public void credentials_expire_after_the_timeout() throws KeyException {
+        CountingLoader loader = new CountingLoader("user");
+        cache.get(job1, "user", loader);
+
+        ticker.advance(TIMEOUT_IN_SECONDS - 1);
+        cache.get(job1, "user", loader);
+        assertThat(loader.loads.get()).isEqualTo(1);
+
+        ticker.advance(1);
+        cache.get(job1, "user", loader);
+        assertThat(loader.loads.get()).isEqualTo(2);
+    }
+
+    @Test
+    public void credentials_decrypted_while_the_job_is_removed_are_not_cached() throws KeyException {
+        CredData credData = cache.get(job1, "user", () -> {
+            cache.remove(job1);
+            return new CredData("user", "pwd");
+        });
+
+        assertThat(credData).isNotNull();
+        assertThat(cache.size()).isEqualTo(0);
+    }
+
+    @Test
+    public void credentials_decrypted_while_the_owner_is_removed_are_not_cached() throws KeyException {
+        CredData credData = cache.get(job1, "user", () -> {
+            cache.removeOwner("user");
+            return new CredData("user", "pwd");
+        });
+
+        assertThat(credData).isNotNull();
+        assertThat(cache.size()).isEqualTo(0);
+
+        // the next decryption is cached again
+        cache.get(job1, "user", new CountingLoader("user"));
+        assertThat(cache.size()).isEqualTo(1);
+    }
+
+    private static final class CountingLoader implements JobCredentialsCache.Loader {
+
+        private final String owner;
+
+        private final AtomicInteger loads = new AtomicInteger();
+
+        private CountingLoader(String owner) {
+            this.owner = owner;
+        }
+
+        @Override
+        public CredData load() {
+            loads.incrementAndGet();
+            return new CredData(owner, "pwd");
+        }
+    }
+
+    private static final class ManualTicker extends Ticker {
+
+        private final AtomicLong nanos = new AtomicLong();
+
+        @Override
+        public long read() {
+            return nanos.get();
+        }
+
+        private void advance(long seconds) {
+            nanos.addAndGet(TimeUnit.SECONDS.toNanos(seconds));
+        }
+    }
+
+}
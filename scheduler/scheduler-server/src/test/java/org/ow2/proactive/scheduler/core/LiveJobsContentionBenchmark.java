@@ -0,0 +1,159 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive.scheduler.core;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.mockito.Mockito;
+import org.ow2.proactive.scheduler.common.JobDescriptor;
+import org.ow2.proactive.scheduler.common.job.JobId;
+import org.ow2.proactive.scheduler.common.job.JobPriority;
+import org.ow2.proactive.scheduler.common.task.OnTaskError;
+import org.ow2.proactive.scheduler.core.db.SchedulerDBManager;
+import org.ow2.proactive.scheduler.job.InternalJob;
+import org.ow2.proactive.scheduler.job.InternalTaskFlowJob;
+import org.ow2.proactive.scheduler.job.JobIdImpl;
+import org.ow2.proactive.scheduler.task.internal.InternalScriptTask;
+import org.ow2.proactive.scheduler.task.internal.InternalTask;
+
+
+/**
+ * Measures how the scheduling cycles are affected by the threads which modify the jobs concurrently (i.e. the task
+ * terminations), according to the number of such threads.
+ * <p>
+ * Every job has a running task, half of the jobs also have an eligible task. The terminating threads lock random
+ * jobs and hold their lock for a short time, while the scheduling thread repeatedly locks the jobs to schedule.
+ * For each number of terminating threads, the benchmark reports the number of scheduling cycles per second, the
+ * average number of jobs with eligible tasks returned by a cycle and the percentage of cycles which returned no job.
+ * <p>
+ * This is not a unit test, run it manually with the test classpath:
+ * <pre>java org.ow2.proactive.scheduler.core.LiveJobsContentionBenchmark [numberOfJobs] [lockHoldMicros]</pre>
+ */
+public class LiveJobsContentionBenchmark {
+
+    private static final int[] TERMINATING_THREADS = { 0, 1, 2, 4, 8 };
+
+    private static final JobPriority[] PRIORITIES = { JobPriority.LOW, JobPriority.NORMAL, JobPriority.HIGH };
+
+    private static final long MEASURE_DURATION_MILLIS = 5000;
+
+    public static void main(String[] args) throws Exception {
+        int numberOfJobs = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+        long lockHoldNanos = TimeUnit.MICROSECONDS.toNanos(args.length > 1 ? Long.parseLong(args[1]) : 50);
+
+        LiveJobs liveJobs = new LiveJobs(Mockito.mock(SchedulerDBManager.class),
+                                         Mockito.mock(SchedulerStateUpdate.class));
+        List<JobId> jobIds = submitJobs(liveJobs, numberOfJobs);
+
+        System.out.println("terminatingThreads,cyclesPerSecond,averageEligibleJobsPerCycle,emptyCyclesPercent");
+        for (int terminatingThreads : TERMINATING_THREADS) {
+            AtomicBoolean stop = new AtomicBoolean();
+            List<Thread> threads = new ArrayList<>(terminatingThreads);
+            for (int i = 0; i < terminatingThreads; i++) {
+                Thread thread = new Thread(() -> terminate(liveJobs, jobIds, lockHoldNanos, stop));
+                thread.start();
+                threads.add(thread);
+            }
+
+            long cycles = 0;
+            long emptyCycles = 0;
+            long eligibleJobs = 0;
+            long end = System.currentTimeMillis() + MEASURE_DURATION_MILLIS;
+            while (System.currentTimeMillis() < end) {
+                Map<JobId, JobDescriptor> jobMap = liveJobs.lockJobsToSchedule(false);
+                try {
+                    cycles++;
+                    if (jobMap.isEmpty()) {
+                        emptyCycles++;
+                    }
+                    eligibleJobs += jobMap.values().stream().filter(JobDescriptor::hasEligibleTasks).count();
+                } finally {
+                    liveJobs.unlockJobsToSchedule(jobMap.values());
+                }
+            }
+
+            stop.set(true);
+            for (Thread thread : threads) {
+                thread.join();
+            }
+
+            System.out.println(terminatingThreads + "," + (cycles * 1000.0 / MEASURE_DURATION_MILLIS) + "," +
+                               ((double) eligibleJobs / cycles) + "," + (emptyCycles * 100.0 / cycles));
+        }
+    }
+
+    private static void terminate(LiveJobs liveJobs, List<JobId> jobIds, long lockHoldNanos, AtomicBoolean stop) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        while (!stop.get()) {
+            LiveJobs.JobData jobData = liveJobs.lockJob(jobIds.get(random.nextInt(jobIds.size())));
+            try {
+                long end = System.nanoTime() + lockHoldNanos;
+                while (System.nanoTime() < end) {
+                    // simulates the processing of a task termination
+                }
+            } finally {
+                jobData.unlock();
+            }
+        }
+    }
+
+    private static List<JobId> submitJobs(LiveJobs liveJobs, int numberOfJobs) {
+        List<JobId> jobIds = new ArrayList<>(numberOfJobs);
+        for (int i = 0; i < numberOfJobs; i++) {
+            InternalJob job = new InternalTaskFlowJob("job" + i,
+                                                      PRIORITIES[i % PRIORITIES.length],
+                                                      OnTaskError.NONE,
+                                                      "");
+            JobId jobId = new JobIdImpl(i + 1, "job" + i);
+            job.setId(jobId);
+            int tasksPerJob = i % 2 == 0 ? 1 : 2;
+            List<InternalTask> tasks = new ArrayList<>(tasksPerJob);
+            for (int j = 0; j < tasksPerJob; j++) {
+                InternalScriptTask task = new InternalScriptTask(job);
+                task.setName("task" + j);
+                tasks.add(task);
+            }
+            job.setTasks(tasks);
+            liveJobs.jobSubmitted(job);
+
+            // the first task is running
+            LiveJobs.JobData jobData = liveJobs.lockJob(jobId);
+            try {
+                job.getJobDescriptor().start(job.getITasks().get(0).getId());
+            } finally {
+                jobData.unlock();
+            }
+            jobIds.add(jobId);
+        }
+        return jobIds;
+    }
+
+}
@@ -29,8 +29,11 @@ import static org.hamcrest.CoreMatchers.is;
 import static org.junit.Assert.assertThat;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.TreeSet;
+import java.util.concurrent.CountDownLatch;
 
 import org.junit.Assert;
 import org.junit.Before;
@@ -44,6 +47,7 @@ import org.mockito.stubbing.Answer;
 import org.objectweb.proactive.core.node.Node;
 import org.objectweb.proactive.core.node.NodeInformation;
 import org.objectweb.proactive.core.runtime.VMInformation;
+import org.ow2.proactive.scheduler.common.JobDescriptor;
 import org.ow2.proactive.scheduler.common.exception.UnknownJobException;
 import org.ow2.proactive.scheduler.common.exception.UnknownTaskException;
 import org.ow2.proactive.scheduler.common.job.JobId;
@@ -352,6 +356,50 @@ public class LiveJobsTest extends ProActiveTestClean {
         assertThat(liveJobs.lockJobsToSchedule(false).size(), is(1));
     }
 
+    @Test(timeout = 60000)
+    public void testTryLockJobsToSchedule() throws Exception {
+        InternalJob job = new InternalTaskFlowJob("test-name",
+                                                  JobPriority.NORMAL,
+                                                  OnTaskError.CANCEL_JOB,
+                                                  "description");
+        JobId id = new JobIdImpl(666L, "test-name");
+        job.setId(id);
+        List<InternalTask> tasksList = new ArrayList<>();
+        InternalTask internalTask = new InternalScriptTask(job);
+        internalTask.setName("task-name");
+        tasksList.add(internalTask);
+        job.setTasks(tasksList);
+        liveJobs.jobSubmitted(job);
+
+        Map<JobId, JobDescriptor> jobsToSchedule = liveJobs.lockJobsToSchedule(false);
+        liveJobs.unlockJobsToSchedule(jobsToSchedule.values());
+
+        CountDownLatch locked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Thread otherThread = new Thread(() -> {
+            LiveJobs.JobData jobData = liveJobs.lockJob(id);
+            locked.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                jobData.unlock();
+            }
+        });
+        otherThread.start();
+        locked.await();
+
+        // the job is locked by another thread
+        assertThat(liveJobs.tryLockJobsToSchedule(jobsToSchedule.values()), is(false));
+
+        release.countDown();
+        otherThread.join();
+
+        assertThat(liveJobs.tryLockJobsToSchedule(jobsToSchedule.values()), is(true));
+        assertThat(liveJobs.lockJob(id).jobLock.getHoldCount(), is(2));
+    }
+
     @Test(expected = IllegalStateException.class, timeout = 60000)
     public void testRestartTaskOnNodeFailureRunningExceptionExpectedBecauseNotLockedTask()
             throws UnknownJobException, UnknownTaskException {
@@ -661,4 +709,119 @@ public class LiveJobsTest extends ProActiveTestClean {
 
     }
 
+    @Test(timeout = 60000)
+    public void testLockReadyJobsToScheduleSkipsJobsWithoutEligibleTasks() throws Exception {
+        JobId id = new JobIdImpl(666L, "test-name");
+        TaskId tid = TaskIdImpl.createTaskId(id, "task-name", 0L);
+        submitJobAndStartTask(id, tid);
+
+        JobId id2 = new JobIdImpl(667L, "test-name");
+        liveJobs.jobSubmitted(createJobWithOneTask(id2, "task-name2"));
+
+        Map<JobId, JobDescriptor> readyJobs = liveJobs.lockJobsToSchedule(false, true);
+
+        assertThat(readyJobs.size(), is(1));
+        assertThat(readyJobs.containsKey(id2), is(true));
+    }
+
+    @Test(timeout = 60000)
+    public void testSchedulingEventsIncrementReadyJobsQueueVersion() throws Exception {
+        long version = liveJobs.getReadyJobsQueueVersion();
+
+        JobId id = new JobIdImpl(666L, "test-name");
+        InternalJob job = createJobWithOneTask(id, "task-name");
+        liveJobs.jobSubmitted(job);
+
+        long versionAfterSubmission = liveJobs.getReadyJobsQueueVersion();
+        assertThat(versionAfterSubmission > version, is(true));
+
+        // a full scan must not be seen as a new scheduling event
+        liveJobs.lockJobsToSchedule(false);
+        assertThat(liveJobs.getReadyJobsQueueVersion(), is(versionAfterSubmission));
+
+        InternalTask task = job.getTask("task-name");
+        ((TaskInfoImpl) task.getTaskInfo()).setNumberOfExecutionLeft(2);
+        task.setOnTaskError(OnTaskError.CONTINUE_JOB_EXECUTION);
+        liveJobs.taskStarted(job, task, null);
+        liveJobs.taskTerminatedWithResult(task.getId(), new TaskResultImpl(task.getId(), new Exception()));
+        assertThat(liveJobs.getReadyJobsQueueVersion() > versionAfterSubmission, is(true));
+    }
+
+    @Test(timeout = 60000)
+    public void testLockJobsToScheduleIgnoresLockedJobsWithoutEligibleTasks() throws Exception {
+        JobId id = new JobIdImpl(666L, "test-name");
+        InternalJob job = createJobWithOneTask(id, "task-name", JobPriority.HIGHEST);
+        liveJobs.jobSubmitted(job);
+        LiveJobs.JobData jobData = liveJobs.lockJob(id);
+        job.getJobDescriptor().start(job.getTask("task-name").getId());
+        jobData.unlock();
+
+        JobId id2 = new JobIdImpl(667L, "test-name");
+        liveJobs.jobSubmitted(createJobWithOneTask(id2, "task-name2", JobPriority.LOW));
+
+        Map<JobId, JobDescriptor> jobsToSchedule = lockJobsToScheduleWhileLockedByAnotherThread(id);
+
+        assertThat(jobsToSchedule.keySet(), is(Collections.singleton(id2)));
+    }
+
+    @Test(timeout = 60000)
+    public void testLockJobsToScheduleSkipsOnlyLowerPriorityJobsThanLockedJob() throws Exception {
+        JobId id = new JobIdImpl(666L, "test-name");
+        liveJobs.jobSubmitted(createJobWithOneTask(id, "task-name", JobPriority.HIGH));
+
+        JobId id2 = new JobIdImpl(667L, "test-name");
+        liveJobs.jobSubmitted(createJobWithOneTask(id2, "task-name2", JobPriority.LOW));
+
+        JobId id3 = new JobIdImpl(668L, "test-name");
+        liveJobs.jobSubmitted(createJobWithOneTask(id3, "task-name3", JobPriority.HIGHEST));
+
+        Map<JobId, JobDescriptor> jobsToSchedule = lockJobsToScheduleWhileLockedByAnotherThread(id);
+
+        assertThat(jobsToSchedule.keySet(), is(Collections.singleton(id3)));
+        // the skipped job must have been unlocked
+        LiveJobs.JobData jobData = liveJobs.lockJob(id2);
+        assertThat(jobData.jobLock.getHoldCount(), is(1));
+    }
+
+    private Map<JobId, JobDescriptor> lockJobsToScheduleWhileLockedByAnotherThread(JobId lockedJobId)
+            throws InterruptedException {
+        CountDownLatch locked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Thread thread = new Thread(() -> {
+            LiveJobs.JobData jobData = liveJobs.lockJob(lockedJobId);
+            locked.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                jobData.unlock();
+            }
+        });
+        thread.start();
+        locked.await();
+        try {
+            return liveJobs.lockJobsToSchedule(false);
+        } finally {
+            release.countDown();
+            thread.join();
+        }
+    }
+
+    private InternalJob createJobWithOneTask(JobId id, String taskName) {
+        return createJobWithOneTask(id, taskName, JobPriority.NORMAL);
+    }
+
+    private InternalJob createJobWithOneTask(JobId id, String taskName, JobPriority priority) {
+        InternalJob job = new InternalTaskFlowJob("test-name", priority, OnTaskError.CANCEL_JOB, "description");
+        job.setId(id);
+        List<InternalTask> tasksList = new ArrayList<>();
+        InternalScriptTask internalTask = new InternalScriptTask(job);
+        internalTask.setName(taskName);
+        internalTask.setExecuterInformation(Mockito.mock(ExecuterInformation.class));
+        tasksList.add(internalTask);
+        job.setTasks(tasksList);
+        return job;
+    }
+
 }
@@ -0,0 +1,169 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive.scheduler.core;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.mockito.Mockito.mock;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.ow2.proactive.scheduler.descriptor.EligibleTaskDescriptor;
+
+
+public class OrderedTasksReaderTest {
+
+    private List<EligibleTaskDescriptor> tasks;
+
+    private CountingIterator orderedTasks;
+
+    private List<EligibleTaskDescriptor> pendingTasks;
+
+    private FakeJobsLock jobsLock;
+
+    private OrderedTasksReader reader;
+
+    @Before
+    public void setUp() {
+        tasks = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            tasks.add(mock(EligibleTaskDescriptor.class));
+        }
+        orderedTasks = new CountingIterator(tasks.iterator());
+        pendingTasks = new ArrayList<>();
+        jobsLock = new FakeJobsLock();
+        reader = new OrderedTasksReader(orderedTasks, batch -> {
+            assertThat(jobsLock.unlocked).isFalse();
+            pendingTasks.addAll(batch);
+        }, jobsLock);
+    }
+
+    @Test
+    public void testOnlyTheTasksWhichFitAreRead() {
+        List<EligibleTaskDescriptor> batch = reader.nextBatch(3);
+
+        assertThat(batch).containsExactlyElementsIn(tasks.subList(0, 3)).inOrder();
+        assertThat(orderedTasks.pulled).isEqualTo(3);
+        assertThat(pendingTasks).containsExactlyElementsIn(tasks.subList(0, 3)).inOrder();
+        assertThat(reader.getReadTasksNumber()).isEqualTo(3);
+        // the first batch is read while the jobs are locked by the scheduling loop
+        assertThat(jobsLock.lockCount).isEqualTo(0);
+    }
+
+    @Test
+    public void testNextBatchesLockTheJobsAgain() {
+        reader.nextBatch(3);
+        reader.jobsUnlocked();
+        jobsLock.unlocked = true;
+
+        List<EligibleTaskDescriptor> batch = reader.nextBatch(5);
+
+        assertThat(batch).containsExactlyElementsIn(tasks.subList(3, 8)).inOrder();
+        assertThat(orderedTasks.pulled).isEqualTo(8);
+        assertThat(pendingTasks).containsExactlyElementsIn(tasks.subList(0, 8)).inOrder();
+        assertThat(jobsLock.lockCount).isEqualTo(1);
+        assertThat(jobsLock.unlocked).isTrue();
+    }
+
+    @Test
+    public void testReadingStopsIfTheJobsCannotBeLocked() {
+        reader.nextBatch(3);
+        reader.jobsUnlocked();
+        jobsLock.unlocked = true;
+        jobsLock.available = false;
+
+        assertThat(reader.nextBatch(5)).isEmpty();
+        assertThat(reader.isStopped()).isTrue();
+        assertThat(orderedTasks.pulled).isEqualTo(3);
+
+        // the reading does not resume in the same scheduling loop
+        jobsLock.available = true;
+        assertThat(reader.nextBatch(5)).isEmpty();
+        assertThat(pendingTasks).hasSize(3);
+    }
+
+    @Test
+    public void testNoTaskIsReadOnceTheIteratorIsExhausted() {
+        assertThat(reader.nextBatch(60)).hasSize(60);
+        reader.jobsUnlocked();
+        jobsLock.unlocked = true;
+
+        assertThat(reader.nextBatch(60)).hasSize(40);
+        assertThat(reader.nextBatch(60)).isEmpty();
+        assertThat(jobsLock.lockCount).isEqualTo(1);
+        assertThat(reader.isStopped()).isFalse();
+        assertThat(pendingTasks).containsExactlyElementsIn(tasks).inOrder();
+    }
+
+    private static class CountingIterator implements Iterator<EligibleTaskDescriptor> {
+
+        private final Iterator<EligibleTaskDescriptor> iterator;
+
+        private int pulled = 0;
+
+        private CountingIterator(Iterator<EligibleTaskDescriptor> iterator) {
+            this.iterator = iterator;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return iterator.hasNext();
+        }
+
+        @Override
+        public EligibleTaskDescriptor next() {
+            pulled++;
+            return iterator.next();
+        }
+    }
+
+    private static class FakeJobsLock implements OrderedTasksReader.JobsLock {
+
+        private boolean available = true;
+
+        private boolean unlocked = false;
+
+        private int lockCount = 0;
+
+        @Override
+        public boolean tryLock() {
+            if (!available) {
+                return false;
+            }
+            lockCount++;
+            unlocked = false;
+            return true;
+        }
+
+        @Override
+        public void unlock() {
+            unlocked = true;
+        }
+    }
+}
@@ -0,0 +1,203 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive.scheduler.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+import org.objectweb.proactive.core.UniqueID;
+import org.ow2.proactive.scheduler.common.NotificationData;
+import org.ow2.proactive.scheduler.common.SchedulerEvent;
+import org.ow2.proactive.scheduler.common.SchedulerEventListener;
+import org.ow2.proactive.scheduler.common.task.TaskInfo;
+import org.ow2.proactive.scheduler.job.UserIdentificationImpl;
+import org.ow2.proactive.scheduler.task.TaskInfoImpl;
+
+
+public class SchedulerEventBusTest {
+
+    private Method taskStateUpdatedEvent;
+
+    private SchedulerEventListener listener;
+
+    private SchedulerFrontendState frontend;
+
+    private UniqueID clientId;
+
+    @Before
+    public void init() throws Exception {
+        taskStateUpdatedEvent = SchedulerEventListener.class.getMethod("taskStateUpdatedEvent",
+                                                                        NotificationData.class);
+        listener = mock(SchedulerEventListener.class);
+        frontend = mock(SchedulerFrontendState.class);
+        clientId = new UniqueID();
+    }
+
+    @Test
+    public void testPublishedEventsAreReadInOrder() {
+        SchedulerEventBus eventBus = new SchedulerEventBus(3);
+        assertEquals(4, eventBus.getCapacity());
+
+        assertNull(eventBus.get(0));
+        for (int i = 0; i < 4; i++) {
+            eventBus.publish(taskStateUpdatedEvent, SchedulerEvent.TASK_PROGRESS, "user", i, null);
+        }
+        for (int i = 0; i < 4; i++) {
+            assertEquals(i, eventBus.get(i).getArgument());
+        }
+        assertNull(eventBus.get(4));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testOverwrittenEventIsDetected() {
+        SchedulerEventBus eventBus = new SchedulerEventBus(4);
+        for (int i = 0; i < 5; i++) {
+            eventBus.publish(taskStateUpdatedEvent, SchedulerEvent.TASK_PROGRESS, "user", i, null);
+        }
+        eventBus.get(0);
+    }
+
+    @Test
+    public void testSupersedingEvents() {
+        SchedulerEventBus.Event progress = new SchedulerEventBus.Event(0,
+                                                                       taskStateUpdatedEvent,
+                                                                       SchedulerEvent.TASK_PROGRESS,
+                                                                       "user",
+                                                                       null,
+                                                                       "task1");
+        SchedulerEventBus.Event sameTaskProgress = new SchedulerEventBus.Event(1,
+                                                                               taskStateUpdatedEvent,
+                                                                               SchedulerEvent.TASK_PROGRESS,
+                                                                               "user",
+                                                                               null,
+                                                                               "task1");
+        SchedulerEventBus.Event otherTaskProgress = new SchedulerEventBus.Event(2,
+                                                                                taskStateUpdatedEvent,
+                                                                                SchedulerEvent.TASK_PROGRESS,
+                                                                                "user",
+                                                                                null,
+                                                                                "task2");
+        SchedulerEventBus.Event sameTaskFinished = new SchedulerEventBus.Event(3,
+                                                                               taskStateUpdatedEvent,
+                                                                               SchedulerEvent.TASK_RUNNING_TO_FINISHED,
+                                                                               "user",
+                                                                               null,
+                                                                               "task1");
+        assertTrue(sameTaskProgress.supersedes(progress));
+        assertFalse(otherTaskProgress.supersedes(progress));
+        assertFalse(sameTaskFinished.supersedes(progress));
+    }
+
+    @Test
+    public void testEventsOfOtherUsersAreFiltered() throws Exception {
+        SchedulerEventBus eventBus = new SchedulerEventBus(16);
+        UserIdentificationImpl user = new UserIdentificationImpl("user");
+        user.setMyEventsOnly(true);
+        new ClientRequestHandler(frontend, clientId, listener, eventBus, user);
+
+        NotificationData<TaskInfo> otherUserEvent = taskProgress();
+        NotificationData<TaskInfo> userEvent = taskProgress();
+        eventBus.publish(taskStateUpdatedEvent, SchedulerEvent.TASK_PROGRESS, "other", otherUserEvent, null);
+        eventBus.publish(taskStateUpdatedEvent, SchedulerEvent.TASK_PROGRESS, "user", userEvent, null);
+
+        verify(listener, timeout(5000)).taskStateUpdatedEvent(userEvent);
+        verify(listener, never()).taskStateUpdatedEvent(otherUserEvent);
+    }
+
+    @Test
+    public void testUpdatesOfATaskAreCoalescedWhileTheListenerIsBusy() throws Exception {
+        SchedulerEventBus eventBus = new SchedulerEventBus(16);
+        new ClientRequestHandler(frontend, clientId, listener, eventBus, new UserIdentificationImpl("user"));
+        CountDownLatch listenerBusy = new CountDownLatch(1);
+        CountDownLatch releaseListener = new CountDownLatch(1);
+        blockListenerOnFirstEvent(listenerBusy, releaseListener);
+
+        eventBus.publish(taskStateUpdatedEvent, SchedulerEvent.TASK_PROGRESS, "user", taskProgress(), "task1");
+        assertTrue(listenerBusy.await(5, TimeUnit.SECONDS));
+        NotificationData<TaskInfo> lastProgress = null;
+        for (int i = 0; i < 5; i++) {
+            lastProgress = taskProgress();
+            eventBus.publish(taskStateUpdatedEvent, SchedulerEvent.TASK_PROGRESS, "user", lastProgress, "task1");
+        }
+        releaseListener.countDown();
+
+        verify(listener, timeout(5000)).taskStateUpdatedEvent(lastProgress);
+        verify(listener, times(2)).taskStateUpdatedEvent(any(NotificationData.class));
+    }
+
+    @Test
+    public void testSlowListenerIsMarkedAsDirty() throws Exception {
+        SchedulerEventBus eventBus = new SchedulerEventBus(4);
+        new ClientRequestHandler(frontend, clientId, listener, eventBus, new UserIdentificationImpl("user"));
+        CountDownLatch listenerBusy = new CountDownLatch(1);
+        CountDownLatch releaseListener = new CountDownLatch(1);
+        blockListenerOnFirstEvent(listenerBusy, releaseListener);
+
+        eventBus.publish(taskStateUpdatedEvent, SchedulerEvent.TASK_PROGRESS, "user", taskProgress(), null);
+        assertTrue(listenerBusy.await(5, TimeUnit.SECONDS));
+        // the publisher is never blocked by the busy listener
+        for (int i = 0; i < 10; i++) {
+            eventBus.publish(taskStateUpdatedEvent, SchedulerEvent.TASK_PROGRESS, "user", taskProgress(), null);
+        }
+        releaseListener.countDown();
+
+        verify(frontend, timeout(5000)).markAsDirty(clientId);
+        assertEquals(0, eventBus.getNumberOfSubscribers());
+    }
+
+    private void blockListenerOnFirstEvent(final CountDownLatch listenerBusy, final CountDownLatch releaseListener) {
+        doAnswer(new Answer<Void>() {
+            @Override
+            public Void answer(InvocationOnMock invocation) throws Throwable {
+                listenerBusy.countDown();
+                releaseListener.await(5, TimeUnit.SECONDS);
+                return null;
+            }
+        }).when(listener).taskStateUpdatedEvent(any(NotificationData.class));
+    }
+
+    private static NotificationData<TaskInfo> taskProgress() {
+        return new NotificationData<TaskInfo>(SchedulerEvent.TASK_PROGRESS, new TaskInfoImpl());
+    }
+
+}
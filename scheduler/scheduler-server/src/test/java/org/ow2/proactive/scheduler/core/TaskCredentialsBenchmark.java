@@ -0,0 +1,192 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive.scheduler.core;
+
+import java.security.KeyException;
+import java.security.KeyPair;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.ow2.proactive.authentication.crypto.CredData;
+import org.ow2.proactive.authentication.crypto.Credentials;
+import org.ow2.proactive.authentication.crypto.HybridEncryptionUtil;
+import org.ow2.proactive.authentication.crypto.HybridEncryptionUtil.HybridEncryptedData;
+import org.ow2.proactive.authentication.crypto.KeyPairUtil;
+import org.ow2.proactive.scheduler.common.job.JobId;
+import org.ow2.proactive.scheduler.job.JobIdImpl;
+
+import com.google.common.collect.ImmutableMap;
+
+
+/**
+ * Runs the cryptographic part of the start of the tasks of a job, as done by {@link TimedDoTaskAction} and the
+ * task launchers, without the remote calls:
+ * <ul>
+ * <li>baseline: the job credentials and the third-party credentials are decrypted for each task, the credentials
+ * are encrypted with a key pair of the task</li>
+ * <li>cache: the decrypted credentials are taken from the {@link JobCredentialsCache}</li>
+ * <li>session: in addition, the credentials are encrypted with the session key of the node</li>
+ * </ul>
+ * Prints, for each mode, the number of tasks started per second by the scheduler threads, and the average time
+ * spent by a node to get the credentials of a task.
+ * <p>
+ * This is not a unit test, run it manually with the test classpath:
+ * <pre>java org.ow2.proactive.scheduler.core.TaskCredentialsBenchmark [number of tasks] [number of nodes] [threads]</pre>
+ */
+public class TaskCredentialsBenchmark {
+
+    private static final Map<String, String> THIRD_PARTY_CREDENTIALS = ImmutableMap.of("DB_PASSWORD",
+                                                                                       "db-secret",
+                                                                                       "SSH_KEY",
+                                                                                       "ssh-secret",
+                                                                                       "API_TOKEN",
+                                                                                       "api-secret");
+
+    private enum Mode {
+        BASELINE,
+        CACHE,
+        SESSION
+    }
+
+    public static void main(String[] args) throws Exception {
+        int tasks = args.length > 0 ? Integer.parseInt(args[0]) : 10000;
+        int nodes = args.length > 1 ? Integer.parseInt(args[1]) : 50;
+        int threads = args.length > 2 ? Integer.parseInt(args[2]) : 5;
+
+        KeyPair coreKeyPair = KeyPairUtil.generateKeyPair("RSA", 1024);
+        Credentials jobCredentials = Credentials.createCredentials(new CredData("user", "pwd"),
+                                                                   coreKeyPair.getPublic());
+        List<HybridEncryptedData> thirdPartyCredentials = new ArrayList<>();
+        for (String value : THIRD_PARTY_CREDENTIALS.values()) {
+            thirdPartyCredentials.add(HybridEncryptionUtil.encryptString(value, coreKeyPair.getPublic()));
+        }
+
+        // key pairs of the nodes and of the tasks are generated in advance by the nodes
+        KeyPair[] nodeKeyPairs = new KeyPair[nodes];
+        for (int i = 0; i < nodes; i++) {
+            nodeKeyPairs[i] = KeyPairUtil.generateKeyPair("RSA", 1024);
+        }
+        KeyPair[] taskKeyPairs = new KeyPair[Math.min(tasks, 200)];
+        for (int i = 0; i < taskKeyPairs.length; i++) {
+            taskKeyPairs[i] = KeyPairUtil.generateKeyPair("RSA", 1024);
+        }
+
+        System.out.println("mode,tasks,nodes,threads,scheduler_tasks_per_s,node_ms_per_task");
+        for (Mode mode : Mode.values()) {
+            // first run warms up the JIT
+            benchmark(mode, tasks / 10, threads, coreKeyPair, jobCredentials, thirdPartyCredentials, nodeKeyPairs,
+                      taskKeyPairs, false);
+            benchmark(mode, tasks, threads, coreKeyPair, jobCredentials, thirdPartyCredentials, nodeKeyPairs,
+                      taskKeyPairs, true);
+        }
+    }
+
+    private static void benchmark(Mode mode, int tasks, int threads, KeyPair coreKeyPair, Credentials jobCredentials,
+            List<HybridEncryptedData> thirdPartyCredentials, KeyPair[] nodeKeyPairs, KeyPair[] taskKeyPairs,
+            boolean print) throws Exception {
+        JobCredentialsCache cache = new JobCredentialsCache(mode == Mode.BASELINE ? 0 : 1000, 600);
+        NodeSessionKeys sessionKeys = new NodeSessionKeys(600);
+        JobId jobId = JobIdImpl.makeJobId("1");
+
+        JobCredentialsCache.Loader loader = () -> {
+            CredData credData = jobCredentials.decrypt(coreKeyPair.getPrivate());
+            int i = 0;
+            for (String key : THIRD_PARTY_CREDENTIALS.keySet()) {
+                credData.addThirdPartyCredential(key,
+                                                 HybridEncryptionUtil.decryptString(thirdPartyCredentials.get(i++),
+                                                                                    coreKeyPair.getPrivate()));
+            }
+            return credData;
+        };
+
+        // scheduler side
+        Credentials[] nodeCredentials = new Credentials[tasks];
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Future<?>> futures = new ArrayList<>(tasks);
+        long start = System.nanoTime();
+        for (int i = 0; i < tasks; i++) {
+            final int task = i;
+            futures.add(executor.submit(() -> {
+                CredData credData = cache.get(jobId, "user", loader);
+                if (mode == Mode.SESSION) {
+                    nodeCredentials[task] = Credentials.createCredentials(credData,
+                                                                          sessionKeys.get(nodeKeyPairs[task %
+                                                                                                       nodeKeyPairs.length].getPublic()));
+                } else {
+                    nodeCredentials[task] = Credentials.createCredentials(credData,
+                                                                          taskKeyPairs[task %
+                                                                                       taskKeyPairs.length].getPublic());
+                }
+                return null;
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        long schedulerNanos = System.nanoTime() - start;
+        executor.shutdown();
+        executor.awaitTermination(1, TimeUnit.MINUTES);
+
+        // node side, as in TaskLauncher: the credentials of a task end up encrypted with the key pair of the task,
+        // the tasks are processed node by node as each node only knows its own session key
+        start = System.nanoTime();
+        for (int node = 0; node < nodeKeyPairs.length; node++) {
+            for (int i = node; i < tasks; i += nodeKeyPairs.length) {
+                KeyPair taskKeyPair = taskKeyPairs[i % taskKeyPairs.length];
+                Credentials taskCredentials = nodeCredentials[i];
+                if (mode == Mode.SESSION) {
+                    CredData credData = taskCredentials.decryptWithSessionKey(nodeKeyPairs[node].getPrivate());
+                    taskCredentials = Credentials.createCredentials(credData, taskKeyPair.getPublic());
+                }
+                check(taskCredentials.decrypt(taskKeyPair.getPrivate()));
+            }
+        }
+        long nodeNanos = System.nanoTime() - start;
+
+        if (print) {
+            System.out.printf("%s,%d,%d,%d,%.0f,%.3f%n",
+                              mode.name().toLowerCase(),
+                              tasks,
+                              nodeKeyPairs.length,
+                              threads,
+                              tasks / (schedulerNanos / 1e9),
+                              nodeNanos / 1e6 / tasks);
+        }
+    }
+
+    private static void check(CredData credData) throws KeyException {
+        if (!"pwd".equals(credData.getPassword()) ||
+            !THIRD_PARTY_CREDENTIALS.equals(credData.getThirdPartyCredentials())) {
+            throw new KeyException("Unexpected credentials");
+        }
+    }
+
+}
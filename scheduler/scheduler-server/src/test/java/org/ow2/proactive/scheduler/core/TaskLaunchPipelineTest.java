@@ -0,0 +1,241 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive.scheduler.core;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.objectweb.proactive.core.node.Node;
+import org.ow2.proactive.scheduler.common.TaskDescriptor;
+import org.ow2.proactive.scheduler.common.task.TaskId;
+import org.ow2.proactive.scheduler.job.InternalJob;
+import org.ow2.proactive.scheduler.job.JobIdImpl;
+import org.ow2.proactive.scheduler.task.TaskIdImpl;
+import org.ow2.proactive.scheduler.task.internal.InternalTask;
+import org.ow2.proactive.utils.NodeSet;
+
+import com.google.common.util.concurrent.MoreExecutors;
+
+
+public class TaskLaunchPipelineTest {
+
+    private TaskId taskId;
+
+    private TaskLaunchPipeline.LaunchRequest request;
+
+    private List<Exception> failures;
+
+    private TaskLaunchPipeline pipeline;
+
+    @Before
+    public void setUp() {
+        taskId = TaskIdImpl.createTaskId(new JobIdImpl(42, "job"), "task", 1);
+        InternalTask task = mock(InternalTask.class);
+        when(task.getId()).thenReturn(taskId);
+        request = new TaskLaunchPipeline.LaunchRequest(mock(InternalJob.class),
+                                                       task,
+                                                       mock(TaskDescriptor.class),
+                                                       mock(Node.class),
+                                                       new NodeSet());
+        failures = new ArrayList<>();
+    }
+
+    private TaskLaunchPipeline.LaunchRequest request(int taskNumber) {
+        InternalTask task = mock(InternalTask.class);
+        when(task.getId()).thenReturn(TaskIdImpl.createTaskId(new JobIdImpl(42, "job"), "task" + taskNumber, taskNumber));
+        return new TaskLaunchPipeline.LaunchRequest(mock(InternalJob.class),
+                                                    task,
+                                                    mock(TaskDescriptor.class),
+                                                    mock(Node.class),
+                                                    new NodeSet());
+    }
+
+    @Test
+    public void launched_task_is_launching_until_processed() {
+        List<Boolean> launchingDuringLaunch = new ArrayList<>();
+        pipeline = new TaskLaunchPipeline(MoreExecutors.newDirectExecutorService(),
+                                          handler(r -> launchingDuringLaunch.add(pipeline.isLaunching(taskId))));
+
+        assertThat(pipeline.submit(request)).isTrue();
+
+        assertThat(launchingDuringLaunch).containsExactly(true);
+        assertThat(pipeline.isLaunching(taskId)).isFalse();
+        assertThat(pipeline.getLaunchedTasksNumber()).isEqualTo(1);
+        assertThat(pipeline.getFailedLaunchesNumber()).isEqualTo(0);
+        assertThat(pipeline.getQueueDepth()).isEqualTo(0);
+        assertThat(failures).isEmpty();
+    }
+
+    @Test
+    public void failed_launch_is_reported() {
+        Exception error = new Exception("launcher creation failed");
+        pipeline = new TaskLaunchPipeline(MoreExecutors.newDirectExecutorService(), handler(r -> {
+            throw error;
+        }));
+
+        assertThat(pipeline.submit(request)).isTrue();
+
+        assertThat(failures).containsExactly(error);
+        assertThat(pipeline.isLaunching(taskId)).isFalse();
+        assertThat(pipeline.getLaunchedTasksNumber()).isEqualTo(0);
+        assertThat(pipeline.getFailedLaunchesNumber()).isEqualTo(1);
+    }
+
+    @Test
+    public void task_cannot_be_submitted_twice_while_launching() {
+        List<Runnable> queue = new ArrayList<>();
+        pipeline = new TaskLaunchPipeline(new QueueingExecutorService(queue), handler(r -> {
+        }));
+
+        assertThat(pipeline.submit(request)).isTrue();
+        assertThat(pipeline.submit(request)).isFalse();
+        assertThat(pipeline.isLaunching(taskId)).isTrue();
+        assertThat(pipeline.getQueueDepth()).isEqualTo(1);
+
+        queue.forEach(Runnable::run);
+
+        assertThat(pipeline.isLaunching(taskId)).isFalse();
+        assertThat(pipeline.getQueueDepth()).isEqualTo(0);
+        assertThat(pipeline.submit(request)).isTrue();
+    }
+
+    @Test
+    public void full_queue_launches_in_submitting_thread() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch firstStarted = new CountDownLatch(1);
+        TaskLaunchPipeline.LaunchRequest blocking = request(1);
+        List<Thread> launchThreads = new ArrayList<>();
+        pipeline = new TaskLaunchPipeline(1, 1, handler(r -> {
+            synchronized (launchThreads) {
+                launchThreads.add(Thread.currentThread());
+            }
+            if (r == blocking) {
+                firstStarted.countDown();
+                release.await();
+            }
+        }));
+
+        // occupies the only thread
+        assertThat(pipeline.submit(blocking)).isTrue();
+        firstStarted.await();
+        // fills the queue
+        assertThat(pipeline.submit(request(2))).isTrue();
+        // does not fit, launched by the caller
+        assertThat(pipeline.submit(request(3))).isTrue();
+        assertThat(launchThreads).containsExactly(launchThreads.get(0), Thread.currentThread());
+
+        release.countDown();
+        pipeline.shutdown();
+
+        assertThat(launchThreads).hasSize(3);
+        assertThat(pipeline.getLaunchedTasksNumber()).isEqualTo(3);
+        assertThat(failures).isEmpty();
+    }
+
+    @Test
+    public void launch_submitted_after_shutdown_fails() {
+        pipeline = new TaskLaunchPipeline(1, 1, handler(r -> {
+        }));
+
+        pipeline.shutdown();
+
+        assertThat(pipeline.submit(request)).isTrue();
+        assertThat(failures).hasSize(1);
+        assertThat(failures.get(0)).isInstanceOf(RejectedExecutionException.class);
+        assertThat(pipeline.isLaunching(taskId)).isFalse();
+        assertThat(pipeline.getFailedLaunchesNumber()).isEqualTo(1);
+    }
+
+    private interface Launch {
+        void run(TaskLaunchPipeline.LaunchRequest request) throws Exception;
+    }
+
+    private TaskLaunchPipeline.LaunchHandler handler(Launch launch) {
+        return new TaskLaunchPipeline.LaunchHandler() {
+            @Override
+            public boolean launch(TaskLaunchPipeline.LaunchRequest request) throws Exception {
+                launch.run(request);
+                return true;
+            }
+
+            @Override
+            public void launchFailed(TaskLaunchPipeline.LaunchRequest request, Exception cause) {
+                failures.add(cause);
+            }
+        };
+    }
+
+    /**
+     * Keeps the submitted tasks until the test runs them
+     */
+    private static class QueueingExecutorService extends AbstractExecutorService {
+
+        private final List<Runnable> queue;
+
+        QueueingExecutorService(List<Runnable> queue) {
+            this.queue = queue;
+        }
+
+        @Override
+        public void execute(Runnable command) {
+            queue.add(command);
+        }
+
+        @Override
+        public void shutdown() {
+        }
+
+        @Override
+        public List<Runnable> shutdownNow() {
+            return queue;
+        }
+
+        @Override
+        public boolean isShutdown() {
+            return false;
+        }
+
+        @Override
+        public boolean isTerminated() {
+            return false;
+        }
+
+        @Override
+        public boolean awaitTermination(long timeout, TimeUnit unit) {
+            return true;
+        }
+    }
+}
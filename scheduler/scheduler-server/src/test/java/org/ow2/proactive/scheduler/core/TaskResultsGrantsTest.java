@@ -0,0 +1,94 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive.scheduler.core;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Test;
+import org.ow2.proactive.scheduler.common.TaskResultsGrant;
+import org.ow2.proactive.scheduler.common.task.TaskId;
+import org.ow2.proactive.scheduler.job.JobIdImpl;
+import org.ow2.proactive.scheduler.task.TaskIdImpl;
+
+import com.google.common.collect.Sets;
+
+
+public class TaskResultsGrantsTest {
+
+    private final TaskResultsGrants grants = new TaskResultsGrants();
+
+    private final TaskId parent1 = TaskIdImpl.createTaskId(JobIdImpl.makeJobId("1"), "parent1", 1);
+
+    private final TaskId parent2 = TaskIdImpl.createTaskId(JobIdImpl.makeJobId("1"), "parent2", 2);
+
+    private final TaskId otherTask = TaskIdImpl.createTaskId(JobIdImpl.makeJobId("1"), "other", 3);
+
+    private final TaskId otherJobTask = TaskIdImpl.createTaskId(JobIdImpl.makeJobId("2"), "parent1", 1);
+
+    @Test
+    public void grant_allows_its_tasks() {
+        TaskResultsGrant grant = grants.grant(JobIdImpl.makeJobId("1"), Arrays.asList(parent1, parent2));
+
+        assertThat(grants.allows(grant, Arrays.asList(parent2, parent1))).isTrue();
+        assertThat(grants.allows(grant, Collections.singletonList(parent1))).isTrue();
+    }
+
+    @Test
+    public void grant_does_not_allow_other_tasks() {
+        TaskResultsGrant grant = grants.grant(JobIdImpl.makeJobId("1"), Arrays.asList(parent1, parent2));
+
+        assertThat(grants.allows(grant, Arrays.asList(parent1, otherTask))).isFalse();
+        assertThat(grants.allows(grant, Collections.singletonList(otherJobTask))).isFalse();
+    }
+
+    @Test
+    public void modified_grant_is_rejected() {
+        TaskResultsGrant grant = grants.grant(JobIdImpl.makeJobId("1"), Arrays.asList(parent1, parent2));
+        List<TaskId> requested = Arrays.asList(parent1, otherTask);
+
+        TaskResultsGrant widened = new TaskResultsGrant(grant.getJobId(),
+                                                        Sets.newHashSet(parent1, parent2, otherTask),
+                                                        grant.getSignature());
+        TaskResultsGrant otherJob = new TaskResultsGrant(JobIdImpl.makeJobId("2"),
+                                                         Sets.newHashSet(otherJobTask),
+                                                         grant.getSignature());
+
+        assertThat(grants.allows(widened, requested)).isFalse();
+        assertThat(grants.allows(otherJob, Collections.singletonList(otherJobTask))).isFalse();
+    }
+
+    @Test
+    public void grant_of_another_scheduler_is_rejected() {
+        TaskResultsGrant grant = new TaskResultsGrants().grant(JobIdImpl.makeJobId("1"), Arrays.asList(parent1));
+
+        assertThat(grants.allows(grant, Collections.singletonList(parent1))).isFalse();
+        assertThat(grants.allows(null, Collections.singletonList(parent1))).isFalse();
+    }
+}
@@ -0,0 +1,121 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive.scheduler.core.db;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import org.junit.Test;
+import org.ow2.proactive.scheduler.common.job.JobId;
+import org.ow2.proactive.scheduler.common.task.TaskId;
+import org.ow2.proactive.scheduler.job.JobIdImpl;
+import org.ow2.proactive.scheduler.task.TaskIdImpl;
+import org.ow2.proactive.scheduler.task.containers.ExecutableContainer;
+import org.ow2.proactive.scheduler.task.containers.ScriptExecutableContainer;
+import org.ow2.proactive.scripting.SimpleScript;
+import org.ow2.proactive.scripting.TaskScript;
+
+import com.google.common.base.Strings;
+
+
+public class ExecutableContainerCacheTest {
+
+    private static final JobId JOB_ID = new JobIdImpl(1, "job");
+
+    @Test
+    public void taken_container_is_removed_from_the_cache() throws Exception {
+        ExecutableContainerCache cache = new ExecutableContainerCache(1024 * 1024);
+        ExecutableContainer container = container(10);
+
+        cache.put(taskId(1), container);
+
+        assertThat(cache.take(taskId(1))).isSameAs(container);
+        assertThat(cache.take(taskId(1))).isNull();
+        assertThat(cache.getSize()).isEqualTo(0);
+        assertThat(cache.getHits()).isEqualTo(1);
+        assertThat(cache.getMisses()).isEqualTo(1);
+    }
+
+    @Test
+    public void least_recently_used_containers_are_evicted() throws Exception {
+        long containerSize = ExecutableContainerCache.estimateSize(container(100));
+        ExecutableContainerCache cache = new ExecutableContainerCache(3 * containerSize);
+
+        cache.put(taskId(1), container(100));
+        cache.put(taskId(2), container(100));
+        cache.put(taskId(3), container(100));
+        cache.put(taskId(4), container(100));
+
+        assertThat(cache.getNumberOfContainers()).isEqualTo(3);
+        assertThat(cache.getSize()).isEqualTo(3 * containerSize);
+        assertThat(cache.take(taskId(1))).isNull();
+        assertThat(cache.take(taskId(4))).isNotNull();
+    }
+
+    @Test
+    public void containers_are_evicted_on_memory_pressure() throws Exception {
+        ExecutableContainerCache cache = new ExecutableContainerCache(1024 * 1024);
+        for (int i = 0; i < 10; i++) {
+            cache.put(taskId(i), container(100));
+        }
+
+        cache.onMemoryPressure();
+
+        assertThat(cache.getNumberOfContainers()).isEqualTo(5);
+        assertThat(cache.take(taskId(9))).isNotNull();
+    }
+
+    @Test
+    public void containers_of_a_job_are_invalidated() throws Exception {
+        ExecutableContainerCache cache = new ExecutableContainerCache(1024 * 1024);
+        TaskId otherJobTask = TaskIdImpl.createTaskId(new JobIdImpl(2, "other"), "task", 1);
+        cache.put(taskId(1), container(10));
+        cache.put(otherJobTask, container(10));
+
+        cache.invalidateJob(JOB_ID);
+
+        assertThat(cache.take(taskId(1))).isNull();
+        assertThat(cache.take(otherJobTask)).isNotNull();
+    }
+
+    @Test
+    public void disabled_cache_does_not_keep_containers() throws Exception {
+        ExecutableContainerCache cache = new ExecutableContainerCache(0);
+
+        cache.put(taskId(1), container(10));
+
+        assertThat(cache.isEnabled()).isFalse();
+        assertThat(cache.take(taskId(1))).isNull();
+    }
+
+    private static TaskId taskId(long id) {
+        return TaskIdImpl.createTaskId(JOB_ID, "task" + id, id);
+    }
+
+    private static ExecutableContainer container(int scriptLength) throws Exception {
+        return new ScriptExecutableContainer(new TaskScript(new SimpleScript(Strings.repeat("a", scriptLength),
+                                                                             "groovy")));
+    }
+}
@@ -0,0 +1,132 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive.scheduler.core.db;
+
+import java.io.File;
+import java.io.Serializable;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.ow2.proactive.authentication.crypto.Credentials;
+import org.ow2.proactive.scheduler.common.job.TaskFlowJob;
+import org.ow2.proactive.scheduler.common.task.JavaTask;
+import org.ow2.proactive.scheduler.common.task.TaskResult;
+import org.ow2.proactive.scheduler.common.task.TaskVariable;
+import org.ow2.proactive.scheduler.common.task.executable.JavaExecutable;
+import org.ow2.proactive.scheduler.core.properties.PASchedulerProperties;
+import org.ow2.proactive.scheduler.job.InternalJob;
+import org.ow2.proactive.scheduler.job.InternalJobFactory;
+
+
+/**
+ * Measures the throughput of the job submission (tasks persisted per second) against an in-memory HSQLDB
+ * database, without JDBC batching and with the configured JDBC batch size.
+ * <p>
+ * Each task of the submitted jobs depends on the previous one and defines a few variables, so that the
+ * dependencies and the cascaded entities are persisted as well.
+ * <p>
+ * This is not a unit test, run it manually with the test classpath:
+ * <pre>java org.ow2.proactive.scheduler.core.db.JobSubmissionBenchmark [batchSize]</pre>
+ */
+public class JobSubmissionBenchmark {
+
+    private static final int[] TASKS_PER_JOB = { 1000, 5000, 20000 };
+
+    private static final int VARIABLES_PER_TASK = 3;
+
+    private static final int WARMUP_ITERATIONS = 2;
+
+    private static final int MEASURE_ITERATIONS = 3;
+
+    public static void main(String[] args) throws Exception {
+        String batchSize = args.length > 0 ? args[0]
+                                           : PASchedulerProperties.SCHEDULER_DB_JDBC_BATCH_SIZE.getValueAsString();
+        Credentials credentials = Credentials.createCredentials("admin",
+                                                                "admin",
+                                                                new File(JobSubmissionBenchmark.class.getResource("/functionaltests/config/pub.key")
+                                                                                                     .toURI()).getAbsolutePath());
+
+        System.out.println("tasks,batchSize,millis,tasksPerSecond");
+        for (int tasks : TASKS_PER_JOB) {
+            TaskFlowJob job = createJob(tasks);
+            for (String size : new String[] { "0", batchSize }) {
+                PASchedulerProperties.SCHEDULER_DB_JDBC_BATCH_SIZE.updateProperty(size);
+                SchedulerDBManager dbManager = SchedulerDBManager.createInMemorySchedulerDBManager();
+                try {
+                    for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+                        submit(dbManager, job, credentials);
+                    }
+                    long start = System.nanoTime();
+                    for (int i = 0; i < MEASURE_ITERATIONS; i++) {
+                        submit(dbManager, job, credentials);
+                    }
+                    double millis = (System.nanoTime() - start) / 1000000.0 / MEASURE_ITERATIONS;
+                    System.out.println(tasks + "," + size + "," + millis + "," + (tasks * 1000.0 / millis));
+                } finally {
+                    dbManager.close();
+                }
+            }
+        }
+    }
+
+    private static void submit(SchedulerDBManager dbManager, TaskFlowJob job, Credentials credentials)
+            throws Exception {
+        InternalJob internalJob = InternalJobFactory.createJob(job, credentials);
+        internalJob.setOwner("admin");
+        internalJob.submitAction();
+        dbManager.newJobSubmitted(internalJob);
+    }
+
+    private static TaskFlowJob createJob(int numberOfTasks) throws Exception {
+        TaskFlowJob job = new TaskFlowJob();
+        job.setName("submission-benchmark");
+        JavaTask previous = null;
+        for (int i = 0; i < numberOfTasks; i++) {
+            JavaTask task = new JavaTask();
+            task.setName("task" + i);
+            task.setExecutableClassName(DummyExecutable.class.getName());
+            Map<String, TaskVariable> variables = new HashMap<>(VARIABLES_PER_TASK);
+            for (int j = 0; j < VARIABLES_PER_TASK; j++) {
+                variables.put("variable" + j, new TaskVariable("variable" + j, "value" + j));
+            }
+            task.setVariables(variables);
+            if (previous != null) {
+                task.addDependence(previous);
+            }
+            job.addTask(task);
+            previous = task;
+        }
+        return job;
+    }
+
+    public static class DummyExecutable extends JavaExecutable {
+        @Override
+        public Serializable execute(TaskResult... results) throws Throwable {
+            return null;
+        }
+    }
+
+}
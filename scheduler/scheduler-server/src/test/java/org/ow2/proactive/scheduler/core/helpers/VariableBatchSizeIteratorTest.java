@@ -114,4 +114,20 @@ public class VariableBatchSizeIteratorTest {
         Assert.assertTrue("Retrieved elements from empty raw list should be empty",
                           variableBatchSizeIterator.getNextElements(42).isEmpty());
     }
+
+    @Test
+    public void testWithIteratorOnlyPullsRequestedElements() throws Exception {
+        Iterator<Integer> source = rawList.iterator();
+        variableBatchSizeIterator = new VariableBatchSizeIterator(source);
+        List<Integer> newList = new ArrayList<>();
+        newList.addAll(variableBatchSizeIterator.getNextElements(10));
+        newList.addAll(variableBatchSizeIterator.getNextElements(6));
+        Assert.assertTrue("First 16 elements should be the same from raw list", newList.equals(rawList.subList(0, 16)));
+        Assert.assertEquals("Only the requested elements should be pulled from the source",
+                            Integer.valueOf(16),
+                            source.next());
+        newList.addAll(variableBatchSizeIterator.getNextElements(50));
+        Assert.assertFalse("No elements should remain in the source", variableBatchSizeIterator.hasMoreElements());
+        Assert.assertEquals(41, newList.size());
+    }
 }
@@ -0,0 +1,119 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive.scheduler.core.jmx.mbean;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import javax.management.Attribute;
+import javax.management.AttributeList;
+import javax.management.MBeanAttributeInfo;
+import javax.management.MBeanInfo;
+
+import org.junit.After;
+import org.junit.Test;
+import org.ow2.proactive.scheduler.util.SchedulingMetrics;
+
+
+public class SchedulingMetricsMBeanImplTest {
+
+    private final SchedulingMetrics metrics = SchedulingMetrics.getInstance();
+
+    private final SchedulingMetricsMBeanImpl mbean = new SchedulingMetricsMBeanImpl(metrics);
+
+    @After
+    public void tearDown() {
+        metrics.unregisterGauge(SchedulingMetrics.DO_TASK_ACTION_QUEUE_SIZE_GAUGE);
+        metrics.reset();
+    }
+
+    @Test
+    public void testAttributesAreDeclaredBeforeTheMetricsAreRecorded() {
+        MBeanInfo info = mbean.getMBeanInfo();
+
+        List<String> names = new ArrayList<>();
+        for (MBeanAttributeInfo attribute : info.getAttributes()) {
+            names.add(attribute.getName());
+        }
+        assertEquals(SchedulingMetricsMBeanImpl.getAttributeNames(), names);
+        assertTrue(names.contains("getRMNodes_P99Us"));
+        assertTrue(names.contains(SchedulingMetrics.LAUNCH_PIPELINE_QUEUE_DEPTH_GAUGE));
+
+        metrics.getStageLatency("getRMNodes").record(TimeUnit.MILLISECONDS.toNanos(1));
+        metrics.registerGauge(SchedulingMetrics.DO_TASK_ACTION_QUEUE_SIZE_GAUGE, () -> 7);
+
+        assertSame(info, mbean.getMBeanInfo());
+    }
+
+    @Test
+    public void testEveryStageIsExposed() throws Exception {
+        List<String> names = SchedulingMetricsMBeanImpl.getAttributeNames();
+
+        // every stage declared by the metrics, those timed when a task is deployed included
+        List<String> declaredStages = new ArrayList<>();
+        for (Field field : SchedulingMetrics.class.getFields()) {
+            if (Modifier.isStatic(field.getModifiers()) && field.getName().endsWith("_STAGE")) {
+                declaredStages.add((String) field.get(null));
+            }
+        }
+        assertTrue(declaredStages.containsAll(Arrays.asList(SchedulingMetrics.ARE_NODES_RECOVERABLE_STAGE,
+                                                            SchedulingMetrics.TERMINATE_NOTIFICATION_NODE_URL_STAGE,
+                                                            SchedulingMetrics.SUBMIT_WITH_TIMEOUT_STAGE,
+                                                            SchedulingMetrics.FINALIZE_STARTING_STAGE)));
+        assertEquals(declaredStages.size(), SchedulingMetrics.STAGES.size());
+        for (String stage : declaredStages) {
+            assertTrue(stage, SchedulingMetrics.STAGES.contains(stage));
+            assertTrue(stage, names.contains(stage + "_Count"));
+            assertTrue(stage, names.contains(stage + "_P99Us"));
+        }
+    }
+
+    @Test
+    public void testGetAttributes() {
+        metrics.getStageLatency("getRMNodes").record(TimeUnit.MILLISECONDS.toNanos(1));
+        metrics.getStageLatency("getRMNodes").record(TimeUnit.MILLISECONDS.toNanos(1));
+        metrics.registerGauge(SchedulingMetrics.DO_TASK_ACTION_QUEUE_SIZE_GAUGE, () -> 7);
+
+        AttributeList attributes = mbean.getAttributes(new String[] { SchedulingMetrics.DO_TASK_ACTION_QUEUE_SIZE_GAUGE,
+                                                                      "getRMNodes_Count",
+                                                                      SchedulingMetrics.LAUNCH_PIPELINE_QUEUE_DEPTH_GAUGE,
+                                                                      "unknown" });
+
+        assertEquals(3, attributes.size());
+        assertEquals(new Attribute(SchedulingMetrics.DO_TASK_ACTION_QUEUE_SIZE_GAUGE, 7L), attributes.get(0));
+        assertEquals(new Attribute("getRMNodes_Count", 2L), attributes.get(1));
+        assertEquals(new Attribute(SchedulingMetrics.LAUNCH_PIPELINE_QUEUE_DEPTH_GAUGE, 0L), attributes.get(2));
+    }
+
+}
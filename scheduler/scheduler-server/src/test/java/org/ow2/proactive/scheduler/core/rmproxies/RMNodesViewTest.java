@@ -0,0 +1,116 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive.scheduler.core.rmproxies;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import java.util.Arrays;
+import java.util.HashSet;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.ow2.proactive.resourcemanager.common.NodeState;
+import org.ow2.proactive.resourcemanager.common.RMState;
+import org.ow2.proactive.resourcemanager.common.RMStateNodeUrls;
+import org.ow2.proactive.resourcemanager.common.event.RMEventType;
+import org.ow2.proactive.scheduler.core.rmproxies.RMNodesView.NodeChange;
+
+
+public class RMNodesViewTest {
+
+    private RMNodesView view;
+
+    @Before
+    public void setUp() {
+        view = new RMNodesView(Long.MAX_VALUE);
+        view.setLatestCounter(10);
+        view.beginReconciliation();
+        view.endReconciliation(state(urls("node1"), urls("node1", "node2"), urls("node1", "node2", "node3")));
+    }
+
+    @Test
+    public void testReconciliation() {
+        RMState state = view.getState();
+
+        assertThat(state.getFreeNodes()).containsExactly("node1");
+        assertThat(state.getAliveNodes()).containsExactly("node1", "node2");
+        assertThat(state.getAllNodes()).containsExactly("node1", "node2", "node3");
+        assertThat(state.getMaxNumberOfNodes()).isEqualTo(10L);
+        assertThat(view.needsReconciliation()).isFalse();
+    }
+
+    @Test
+    public void testNodeEventsUpdateTheView() {
+        long version = view.getVersion();
+
+        view.nodeEvent(11, new NodeChange("node2", RMEventType.NODE_STATE_CHANGED, NodeState.FREE, false));
+        view.nodeEvent(12, new NodeChange("node1", RMEventType.NODE_STATE_CHANGED, NodeState.BUSY, false));
+        view.nodeEvent(13, new NodeChange("node3", RMEventType.NODE_REMOVED, NodeState.DOWN, false));
+        view.nodeEvent(14, new NodeChange("node4", RMEventType.NODE_ADDED, NodeState.FREE, true));
+        view.nodeEvent(15, new NodeChange("deploying://node5", RMEventType.NODE_ADDED, NodeState.DEPLOYING, false));
+
+        RMState state = view.getState();
+        assertThat(state.getFreeNodes()).containsExactly("node2");
+        assertThat(state.getAliveNodes()).containsExactly("node1", "node2", "node4");
+        assertThat(state.getAllNodes()).containsExactly("node1", "node2", "node4");
+        assertThat(view.getVersion()).isEqualTo(version + 5);
+        assertThat(view.needsReconciliation()).isFalse();
+    }
+
+    @Test
+    public void testMissedEventsRequireReconciliation() {
+        view.nodeEvent(11, new NodeChange("node2", RMEventType.NODE_STATE_CHANGED, NodeState.FREE, false));
+        view.nodeEvent(13, new NodeChange("node2", RMEventType.NODE_STATE_CHANGED, NodeState.BUSY, false));
+
+        assertThat(view.needsReconciliation()).isTrue();
+    }
+
+    @Test
+    public void testEventsReceivedDuringReconciliationAreNotLost() {
+        view.beginReconciliation();
+        view.nodeEvent(11, new NodeChange("node2", RMEventType.NODE_STATE_CHANGED, NodeState.FREE, false));
+        // state retrieved before the event was produced
+        view.endReconciliation(state(urls("node1"), urls("node1", "node2"), urls("node1", "node2")));
+
+        assertThat(view.getState().getFreeNodes()).containsExactly("node1", "node2");
+    }
+
+    @Test
+    public void testReturnedStateIsACopy() {
+        view.getState().getFreeNodes().clear();
+
+        assertThat(view.getState().getFreeNodes()).containsExactly("node1");
+    }
+
+    private static RMState state(HashSet<String> free, HashSet<String> alive, HashSet<String> all) {
+        return new RMState(new RMStateNodeUrls(free, alive, all), 10L);
+    }
+
+    private static HashSet<String> urls(String... urls) {
+        return new HashSet<>(Arrays.asList(urls));
+    }
+
+}
@@ -30,6 +30,7 @@ import static org.junit.Assert.assertTrue;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
 
@@ -97,6 +98,47 @@ public class DefaultPolicyTest extends ProActiveTestClean {
         assertEquals(job3.getJobId(), orderedTasks.get(2).getJobId());
     }
 
+    @Test
+    public void ordered_tasks_iterator_returns_same_order_as_list() throws Exception {
+        JobDescriptorImpl job1 = createSingleTaskJob(JobPriority.LOW);
+        JobDescriptorImpl job2 = createSingleTaskJob(JobPriority.HIGH);
+        JobDescriptorImpl job3 = createSingleTaskJob();
+        JobDescriptorImpl job4 = createSingleTaskJob(JobPriority.HIGH);
+
+        DefaultPolicy policy = new DefaultPolicy();
+
+        List<EligibleTaskDescriptor> fromIterator = toList(policy.getOrderedTasksIterator(submitJobs(job4,
+                                                                                                      job3,
+                                                                                                      job1,
+                                                                                                      job2)));
+        LinkedList<EligibleTaskDescriptor> fromList = policy.getOrderedTasks(submitJobs(job4, job3, job1, job2));
+
+        assertEquals(fromList, fromIterator);
+    }
+
+    @Test
+    public void ordered_tasks_iterator_follows_job_changes() throws Exception {
+        JobDescriptorImpl job1 = createSingleTaskJob();
+        JobDescriptorImpl job2 = createSingleTaskJob();
+        JobDescriptorImpl job3 = createSingleTaskJob();
+
+        DefaultPolicy policy = new DefaultPolicy();
+        toList(policy.getOrderedTasksIterator(submitJobs(job1, job2, job3)));
+
+        job3.getInternal().setPriority(JobPriority.HIGH);
+        List<EligibleTaskDescriptor> orderedTasks = toList(policy.getOrderedTasksIterator(submitJobs(job1, job3)));
+
+        assertEquals(2, orderedTasks.size());
+        assertEquals(job3.getJobId(), orderedTasks.get(0).getJobId());
+        assertEquals(job1.getJobId(), orderedTasks.get(1).getJobId());
+    }
+
+    private List<EligibleTaskDescriptor> toList(Iterator<EligibleTaskDescriptor> iterator) {
+        List<EligibleTaskDescriptor> list = new ArrayList<>();
+        iterator.forEachRemaining(list::add);
+        return list;
+    }
+
     private JobDescriptorImpl createSingleTaskJob(JobPriority jobPriority) {
         InternalTaskFlowJob taskFlowJob = new InternalTaskFlowJob("test", jobPriority, OnTaskError.CANCEL_JOB, "");
         taskFlowJob.setId(JobIdImpl.makeJobId(Integer.toString(jobId++)));
@@ -31,6 +31,7 @@ import static org.ow2.proactive.scheduler.common.task.CommonAttribute.GENERIC_IN
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Date;
+import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
 
@@ -94,6 +95,15 @@ public class ExtendedSchedulerPolicyTest extends ProActiveTestClean {
         assertTrue(orderedTasks != null && orderedTasks.size() == 0);
     }
 
+    @Test
+    public void testOrderedTasksIteratorFiltersStartAt() {
+        List<JobDescriptor> jobDescList = asModifiableList(createJobDescWithTwoTasks(null, now, later));
+        Iterator<EligibleTaskDescriptor> orderedTasks = policy.getOrderedTasksIterator(jobDescList);
+        assertTrue(orderedTasks.hasNext());
+        assertEquals(now, startAtValue(orderedTasks.next()));
+        assertFalse(orderedTasks.hasNext());
+    }
+
     @Test
     public void testTaskStartAtNow() {
         List<JobDescriptor> jobDescList = asModifiableList(createJobDescWithTwoTasks(null, now, null));
@@ -0,0 +1,132 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive.scheduler.policy;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import org.ow2.proactive.scheduler.common.JobDescriptor;
+import org.ow2.proactive.scheduler.common.job.JobPriority;
+import org.ow2.proactive.scheduler.common.task.OnTaskError;
+import org.ow2.proactive.scheduler.descriptor.EligibleTaskDescriptor;
+import org.ow2.proactive.scheduler.descriptor.JobDescriptorImpl;
+import org.ow2.proactive.scheduler.job.InternalTaskFlowJob;
+import org.ow2.proactive.scheduler.job.JobIdImpl;
+import org.ow2.proactive.scheduler.task.internal.InternalScriptTask;
+import org.ow2.proactive.scheduler.task.internal.InternalTask;
+
+
+/**
+ * Compares the cost of ordering the eligible tasks with {@link DefaultPolicy#getOrderedTasks(List)}, which sorts
+ * the jobs and lists every eligible task, and with {@link DefaultPolicy#getOrderedTasksIterator(List)}, which keeps
+ * the jobs indexed between two calls and only lists the tasks which are pulled by the scheduling loop.
+ * <p>
+ * Between two measured calls the priority of one job is changed, to simulate the scheduling events which occur
+ * between two scheduling loops.
+ * <p>
+ * This is not a unit test, run it manually with the test classpath:
+ * <pre>java org.ow2.proactive.scheduler.policy.PolicyOrderingBenchmark [jobs] [tasksPerJob]</pre>
+ */
+public class PolicyOrderingBenchmark {
+
+    private static final int[] PULLED_TASKS = { 10, 100, 1000 };
+
+    private static final int WARMUP_ITERATIONS = 10;
+
+    private static final int MEASURE_ITERATIONS = 30;
+
+    private static final JobPriority[] PRIORITIES = { JobPriority.LOW, JobPriority.NORMAL, JobPriority.HIGH };
+
+    public static void main(String[] args) {
+        int numberOfJobs = args.length > 0 ? Integer.parseInt(args[0]) : 10000;
+        int tasksPerJob = args.length > 1 ? Integer.parseInt(args[1]) : 100;
+
+        List<JobDescriptor> jobs = createJobs(numberOfJobs, tasksPerJob);
+        DefaultPolicy listPolicy = new DefaultPolicy();
+        DefaultPolicy iteratorPolicy = new DefaultPolicy();
+
+        System.out.println("jobs,tasksPerJob,pulledTasks,getOrderedTasksMicros,getOrderedTasksIteratorMicros");
+        for (int pulledTasks : PULLED_TASKS) {
+            double list = measure(jobs, () -> pull(listPolicy.getOrderedTasks(new ArrayList<>(jobs)).iterator(),
+                                                   pulledTasks));
+            double iterator = measure(jobs,
+                                      () -> pull(iteratorPolicy.getOrderedTasksIterator(new ArrayList<>(jobs)),
+                                                 pulledTasks));
+            System.out.println(numberOfJobs + "," + tasksPerJob + "," + pulledTasks + "," + list + "," + iterator);
+        }
+    }
+
+    private static int pull(Iterator<EligibleTaskDescriptor> orderedTasks, int pulledTasks) {
+        int pulled = 0;
+        while (pulled < pulledTasks && orderedTasks.hasNext()) {
+            orderedTasks.next();
+            pulled++;
+        }
+        return pulled;
+    }
+
+    private static double measure(List<JobDescriptor> jobs, Runnable cycle) {
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            changeOnePriority(jobs, i);
+            cycle.run();
+        }
+        long elapsed = 0;
+        for (int i = 0; i < MEASURE_ITERATIONS; i++) {
+            changeOnePriority(jobs, i);
+            long start = System.nanoTime();
+            cycle.run();
+            elapsed += System.nanoTime() - start;
+        }
+        return elapsed / 1000.0 / MEASURE_ITERATIONS;
+    }
+
+    private static void changeOnePriority(List<JobDescriptor> jobs, int iteration) {
+        JobDescriptorImpl job = (JobDescriptorImpl) jobs.get((iteration * 7919) % jobs.size());
+        job.getInternal().setPriority(PRIORITIES[iteration % PRIORITIES.length]);
+    }
+
+    private static List<JobDescriptor> createJobs(int numberOfJobs, int tasksPerJob) {
+        List<JobDescriptor> jobs = new ArrayList<>(numberOfJobs);
+        for (int i = 0; i < numberOfJobs; i++) {
+            InternalTaskFlowJob job = new InternalTaskFlowJob("job" + i,
+                                                              PRIORITIES[i % PRIORITIES.length],
+                                                              OnTaskError.NONE,
+                                                              "");
+            job.setId(JobIdImpl.makeJobId(Integer.toString(i + 1)));
+            List<InternalTask> tasks = new ArrayList<>(tasksPerJob);
+            for (int j = 0; j < tasksPerJob; j++) {
+                InternalScriptTask task = new InternalScriptTask(job);
+                task.setName("task" + j);
+                tasks.add(task);
+            }
+            job.addTasks(tasks);
+            jobs.add(new JobDescriptorImpl(job));
+        }
+        return jobs;
+    }
+
+}
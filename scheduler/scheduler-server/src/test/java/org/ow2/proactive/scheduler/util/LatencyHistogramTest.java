@@ -0,0 +1,90 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive.scheduler.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+
+public class LatencyHistogramTest {
+
+    @Test
+    public void testEmptyHistogram() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.getMean(TimeUnit.NANOSECONDS));
+        assertEquals(0, histogram.getValueAtPercentile(99, TimeUnit.NANOSECONDS));
+    }
+
+    @Test
+    public void testPercentilesWithinPrecision() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long i = 1; i <= 10000; i++) {
+            histogram.record(TimeUnit.MICROSECONDS.toNanos(i));
+        }
+        assertEquals(10000, histogram.getCount());
+        assertEquals(10000, histogram.getMax(TimeUnit.MICROSECONDS));
+        assertEquals(5000, histogram.getMean(TimeUnit.MICROSECONDS));
+        assertWithinPrecision(5000, histogram.getValueAtPercentile(50, TimeUnit.MICROSECONDS));
+        assertWithinPrecision(9900, histogram.getValueAtPercentile(99, TimeUnit.MICROSECONDS));
+        assertEquals(10000, histogram.getValueAtPercentile(100, TimeUnit.MICROSECONDS));
+    }
+
+    @Test
+    public void testBucketsCoverAllValues() {
+        long[] values = { 0, 1, 31, 32, 33, 63, 64, 65, 1000, 123456789, Long.MAX_VALUE / 3, Long.MAX_VALUE };
+        int previousIndex = -1;
+        for (long value : values) {
+            int index = LatencyHistogram.bucketIndex(value);
+            assertTrue(index >= previousIndex);
+            assertTrue(LatencyHistogram.bucketHighestValue(index) >= value);
+            if (index > 0) {
+                assertTrue(LatencyHistogram.bucketHighestValue(index - 1) < value);
+            }
+            previousIndex = index;
+        }
+    }
+
+    @Test
+    public void testReset() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(100);
+        histogram.record(-1);
+        histogram.reset();
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.getMax(TimeUnit.NANOSECONDS));
+        assertEquals(0, histogram.getValueAtPercentile(50, TimeUnit.NANOSECONDS));
+    }
+
+    private static void assertWithinPrecision(long expected, long actual) {
+        assertTrue("expected " + expected + " but was " + actual, Math.abs(actual - expected) <= expected * 0.04);
+    }
+
+}
@@ -27,8 +27,12 @@ package org.ow2.proactive.scheduler.util;
 
 import static org.hamcrest.CoreMatchers.containsString;
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.Mockito.verify;
 
+import java.util.concurrent.TimeUnit;
+
 import org.apache.log4j.Logger;
 import org.junit.Before;
 import org.junit.Test;
@@ -114,6 +118,25 @@ public class SchedulingMainLoopTimingLoggerTest {
 
     }
 
+    @Test
+    public void testTimingsRecordedInMetrics() throws InterruptedException {
+        SchedulingMetrics metrics = new SchedulingMetrics();
+        SchedulingMainLoopTimingLogger timingLogger = new SchedulingMainLoopTimingLogger(logger, metrics);
+        for (int i = 0; i < 3; i++) {
+            timingLogger.start("method1");
+            Thread.sleep(10);
+            timingLogger.end("method1");
+        }
+        // a new logger of the next loop cumulates in the same histogram
+        timingLogger = new SchedulingMainLoopTimingLogger(logger, metrics);
+        timingLogger.start("method1");
+        timingLogger.end("method1");
+
+        LatencyHistogram histogram = metrics.getStageLatencies().get("method1");
+        assertEquals(4, histogram.getCount());
+        assertTrue(histogram.getMax(TimeUnit.MILLISECONDS) >= 10);
+    }
+
     private void assertTimingPerMethod(String loggingString, String method) {
         assertThat(loggingString, containsString(method));
         assertThat(loggingString, containsString("Max:"));
@@ -0,0 +1,174 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive.scheduler.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+
+public class SegmentedLogStoreTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private File directory;
+
+    private SegmentedLogStore store;
+
+    @Before
+    public void setUp() throws IOException {
+        directory = folder.newFolder("segments");
+        store = new SegmentedLogStore(directory, 1024, 0);
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        store.close();
+    }
+
+    @Test
+    public void testLogsAreReadInAppendOrder() throws IOException {
+        append("1/1", "job started\n");
+        append("1/1t0", "task started\n");
+        append("1/1", "job running\n");
+        append("1/1t0", "task finished\n");
+
+        assertEquals("job started\njob running\n", read("1/1"));
+        assertEquals("task started\ntask finished\n", read("1/1t0"));
+        assertTrue(store.contains("1/1t0"));
+        assertFalse(store.contains("1/1t1"));
+        assertNull(read("1/1t1"));
+    }
+
+    @Test
+    public void testOldestLinesAreDroppedAboveMaxLogSize() throws IOException {
+        store.close();
+        store = new SegmentedLogStore(directory, 1024, 10);
+
+        append("1/1", "first log\n");
+        append("1/1", "second log\n");
+
+        assertEquals("second log\n", read("1/1"));
+    }
+
+    @Test
+    public void testSegmentsOfRemovedJobsAreDeleted() throws IOException {
+        for (int i = 0; i < 100; i++) {
+            append("1/1t" + i, "a log line of the first job\n");
+        }
+        int segmentsOfFirstJob = store.getNumberOfSegments();
+        assertTrue(segmentsOfFirstJob > 2);
+
+        append("2/2", "a log line of the second job\n");
+        store.remove("1");
+
+        assertEquals(1, store.getNumberOfSegments());
+        assertEquals(1, directory.list().length);
+        assertFalse(store.contains("1/1t0"));
+        assertEquals("a log line of the second job\n", read("2/2"));
+    }
+
+    @Test
+    public void testLogsAreRestoredWhenTheStoreIsReopened() throws IOException {
+        append("1/1", "first job\n");
+        append("2/2", "second job\n");
+        append("2/2t0", "second job task\n");
+        store.remove("1");
+        store.close();
+
+        store = new SegmentedLogStore(directory, 1024, 0);
+
+        assertFalse(store.contains("1/1"));
+        assertEquals("second job\n", read("2/2"));
+        assertEquals("second job task\n", read("2/2t0"));
+    }
+
+    @Test
+    public void testRemovalIsKeptWhileOlderSegmentsExist() throws IOException {
+        store.close();
+        store = new SegmentedLogStore(directory, 40, 0);
+
+        // both jobs fill the first segment, which is then kept by the second job
+        append("1/1", "first job\n");
+        append("2/2", "2nd job\n\n\n");
+        // the removal is recorded in a second segment, which is not referenced by any log
+        store.remove("1");
+        store.close();
+
+        store = new SegmentedLogStore(directory, 40, 0);
+        assertEquals(3, store.getNumberOfSegments());
+        store.close();
+
+        store = new SegmentedLogStore(directory, 40, 0);
+        assertFalse(store.contains("1/1"));
+        assertEquals("2nd job\n\n\n", read("2/2"));
+    }
+
+    @Test
+    public void testPartiallyWrittenRecordIsIgnored() throws IOException {
+        append("1/1", "first job\n");
+        store.close();
+
+        File[] segments = directory.listFiles();
+        assertEquals(1, segments.length);
+        try (FileOutputStream output = new FileOutputStream(segments[0], true)) {
+            output.write(new byte[] { 0, 0, 3, 0, 0 });
+        }
+
+        store = new SegmentedLogStore(directory, 1024, 0);
+        append("1/1", "first job again\n");
+
+        assertEquals("first job\nfirst job again\n", read("1/1"));
+    }
+
+    private void append(String key, String line) throws IOException {
+        store.append(key, line.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private String read(String key) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        if (!store.transferTo(key, Channels.newChannel(output))) {
+            return null;
+        }
+        return new String(output.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+}
@@ -0,0 +1,173 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive.threading;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.objectweb.proactive.utils.NamedThreadFactory;
+
+
+public class HashedWheelTimerTest {
+
+    private HashedWheelTimer timer;
+
+    @Before
+    public void init() {
+        timer = new HashedWheelTimer(new NamedThreadFactory("TestHashedWheelTimer", true),
+                                     10,
+                                     TimeUnit.MILLISECONDS,
+                                     8);
+    }
+
+    @After
+    public void clear() {
+        timer.stop();
+    }
+
+    @Test
+    public void testWorkerThreadIsStartedByTheFirstTimeout() throws Exception {
+        final List<Thread> threads = new ArrayList<>();
+        HashedWheelTimer lazyTimer = new HashedWheelTimer(new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable r) {
+                Thread thread = new Thread(r, "TestHashedWheelTimer lazy");
+                thread.setDaemon(true);
+                threads.add(thread);
+                return thread;
+            }
+        }, 10, TimeUnit.MILLISECONDS, 8);
+        try {
+            assertEquals(1, threads.size());
+            assertFalse(threads.get(0).isAlive());
+
+            CountDownLatch expired = new CountDownLatch(1);
+            lazyTimer.newTimeout(countDown(expired), 20, TimeUnit.MILLISECONDS);
+
+            assertTrue(threads.get(0).isAlive());
+            assertTrue(expired.await(5, TimeUnit.SECONDS));
+        } finally {
+            lazyTimer.stop();
+        }
+    }
+
+    @Test
+    public void testTimeoutExpires() throws Exception {
+        CountDownLatch expired = new CountDownLatch(1);
+        long start = System.nanoTime();
+        HashedWheelTimer.Timeout timeout = timer.newTimeout(countDown(expired), 50, TimeUnit.MILLISECONDS);
+
+        assertTrue(expired.await(5, TimeUnit.SECONDS));
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) >= 50);
+        assertTrue(timeout.isExpired());
+        assertFalse(timeout.cancel());
+        assertEquals(0, timer.getNumberOfPendingTimeouts());
+    }
+
+    @Test
+    public void testTimeoutLongerThanTheWheelExpires() throws Exception {
+        // the wheel covers 80ms, the timeout must wait for several rounds
+        CountDownLatch expired = new CountDownLatch(1);
+        long start = System.nanoTime();
+        timer.newTimeout(countDown(expired), 300, TimeUnit.MILLISECONDS);
+
+        assertTrue(expired.await(5, TimeUnit.SECONDS));
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) >= 300);
+    }
+
+    @Test
+    public void testCancelledTimeoutDoesNotExpire() throws Exception {
+        CountDownLatch expired = new CountDownLatch(1);
+        HashedWheelTimer.Timeout timeout = timer.newTimeout(countDown(expired), 50, TimeUnit.MILLISECONDS);
+
+        assertTrue(timeout.cancel());
+        assertTrue(timeout.isCancelled());
+        assertFalse(timeout.cancel());
+        assertFalse(expired.await(200, TimeUnit.MILLISECONDS));
+        assertFalse(timeout.isExpired());
+    }
+
+    @Test
+    public void testManyTimeoutsCancelledOrExpired() throws Exception {
+        final AtomicInteger expiredTimeouts = new AtomicInteger();
+        Runnable task = new Runnable() {
+            @Override
+            public void run() {
+                expiredTimeouts.incrementAndGet();
+            }
+        };
+        List<HashedWheelTimer.Timeout> timeouts = new ArrayList<>();
+        for (int i = 0; i < 10000; i++) {
+            timeouts.add(timer.newTimeout(task, 100 + i % 100, TimeUnit.MILLISECONDS));
+        }
+        for (int i = 0; i < timeouts.size(); i += 2) {
+            timeouts.get(i).cancel();
+        }
+        assertEquals(5000, timer.getNumberOfPendingTimeouts());
+
+        long deadline = System.currentTimeMillis() + 5000;
+        while (timer.getNumberOfPendingTimeouts() > 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(0, timer.getNumberOfPendingTimeouts());
+        assertEquals(5000, expiredTimeouts.get());
+    }
+
+    @Test
+    public void testTaskErrorDoesNotStopTheTimer() throws Exception {
+        timer.newTimeout(new Runnable() {
+            @Override
+            public void run() {
+                throw new IllegalStateException("expected");
+            }
+        }, 10, TimeUnit.MILLISECONDS);
+        CountDownLatch expired = new CountDownLatch(1);
+        timer.newTimeout(countDown(expired), 50, TimeUnit.MILLISECONDS);
+
+        assertTrue(expired.await(5, TimeUnit.SECONDS));
+    }
+
+    private static Runnable countDown(final CountDownLatch latch) {
+        return new Runnable() {
+            @Override
+            public void run() {
+                latch.countDown();
+            }
+        };
+    }
+
+}
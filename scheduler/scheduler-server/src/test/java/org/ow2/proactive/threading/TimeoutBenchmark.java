@@ -0,0 +1,105 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive.threading;
+
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.objectweb.proactive.utils.NamedThreadFactory;
+
+
+/**
+ * Compares the cost of the task timeouts of {@link TimeoutThreadPoolExecutor}, when they are scheduled in a
+ * {@link ScheduledThreadPoolExecutor} which removes the cancelled tasks from its queue, or in a
+ * {@link HashedWheelTimer}, and cancelled when the task completes.
+ * <p>
+ * Prints, for each number of timeouts, the average time to add (and cancel) one timeout and the number of
+ * timeouts still held once the tasks completed.
+ * <p>
+ * This is not a unit test, run it manually with the test classpath:
+ * <pre>java org.ow2.proactive.threading.TimeoutBenchmark [max number of timeouts]</pre>
+ */
+public class TimeoutBenchmark {
+
+    private static final long TIMEOUT_MINUTES = 10;
+
+    private static final Runnable NOOP = new Runnable() {
+        @Override
+        public void run() {
+        }
+    };
+
+    public static void main(String[] args) throws Exception {
+        int maxTimeouts = args.length > 0 ? Integer.parseInt(args[0]) : 1000000;
+
+        System.out.println("implementation,timeouts,ns_per_timeout,outstanding_timeouts");
+        for (int timeouts = 1000; timeouts <= maxTimeouts; timeouts *= 10) {
+            // first runs warm up the JIT
+            benchmarkScheduledExecutor(timeouts);
+            benchmarkWheelTimer(timeouts);
+            benchmarkScheduledExecutor(timeouts);
+            benchmarkWheelTimer(timeouts);
+        }
+    }
+
+    private static void benchmarkScheduledExecutor(int timeouts) {
+        ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1);
+        executor.setRemoveOnCancelPolicy(true);
+        try {
+            long start = System.nanoTime();
+            for (int i = 0; i < timeouts; i++) {
+                executor.schedule(NOOP, TIMEOUT_MINUTES, TimeUnit.MINUTES).cancel(false);
+            }
+            long duration = System.nanoTime() - start;
+            print("ScheduledThreadPoolExecutor", timeouts, duration, executor.getQueue().size());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static void benchmarkWheelTimer(int timeouts) throws InterruptedException {
+        HashedWheelTimer timer = new HashedWheelTimer(new NamedThreadFactory("TimeoutBenchmark", true),
+                                                      100,
+                                                      TimeUnit.MILLISECONDS,
+                                                      512);
+        try {
+            long start = System.nanoTime();
+            for (int i = 0; i < timeouts; i++) {
+                timer.newTimeout(NOOP, TIMEOUT_MINUTES, TimeUnit.MINUTES).cancel();
+            }
+            long duration = System.nanoTime() - start;
+            print("HashedWheelTimer", timeouts, duration, timer.getNumberOfPendingTimeouts());
+        } finally {
+            timer.stop();
+        }
+    }
+
+    private static void print(String implementation, int timeouts, long durationNanos, int outstandingTimeouts) {
+        System.out.println(implementation + "," + timeouts + "," + (durationNanos / timeouts) + "," +
+                           outstandingTimeouts);
+    }
+
+}